@@ -30,7 +30,7 @@ import java.io.PrintWriter;
  */
 public class Throwable {
 
-  int[] snapshot; // this is an internal array of { globalMethodId, pcOffset } pairs
+  int[] snapshot; // this is an internal array of { globalMethodId, pcOffset } pairs (null if the VM uses lazy snapshots)
   
   protected Throwable cause; // in case this is a wrapper exception (like InvocationTargetException)
   
@@ -136,7 +136,6 @@ public class Throwable {
     pw.print(s);    
   }
   
-  int getStackTraceDepth(){
-    return (snapshot.length / 2); // snapshot stores the methodId and pc for each StackFrame 
-  }
+  // native since 'snapshot' might not be set if the VM uses lazy stack snapshots
+  native int getStackTraceDepth();
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package java.util.concurrent;
+
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+
+/**
+ * model class for java.util.concurrent.CountDownLatch
+ *
+ * the count is the state of our AbstractQueuedSynchronizer model, awaiting
+ * threads are lockfree waiters that get resumed by the last countDown()
+ */
+public class CountDownLatch {
+
+  static final class Sync extends AbstractQueuedSynchronizer {
+    private static final long serialVersionUID = 4982264981922014374L;
+
+    Sync (int count) {
+      setState(count);
+    }
+
+    int getCount () {
+      return getState();
+    }
+
+    @Override
+    protected int tryAcquireShared (int acquires) {
+      return (getState() == 0) ? 1 : -1;
+    }
+
+    @Override
+    protected boolean tryReleaseShared (int releases) {
+      int c = getState();
+      if (c == 0) {
+        return false;
+      }
+      setState(c - 1);
+      return (c == 1);
+    }
+  }
+
+  private final Sync sync;
+
+  public CountDownLatch (int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("count < 0");
+    }
+    sync = new Sync(count);
+  }
+
+  public void await () throws InterruptedException {
+    sync.acquireSharedInterruptibly(1);
+  }
+
+  public boolean await (long timeout, TimeUnit unit) throws InterruptedException {
+    return sync.tryAcquireSharedNanos(1, unit.toNanos(timeout));
+  }
+
+  public void countDown () {
+    sync.releaseShared(1);
+  }
+
+  public long getCount () {
+    return sync.getCount();
+  }
+
+  @Override
+  public String toString () {
+    return super.toString() + "[Count = " + sync.getCount() + "]";
+  }
+}
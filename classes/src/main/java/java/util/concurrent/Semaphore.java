@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package java.util.concurrent;
+
+import java.util.Collection;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+
+/**
+ * model class for java.util.concurrent.Semaphore
+ *
+ * permits are kept in the state of our AbstractQueuedSynchronizer model, which
+ * turns each acquire/release into a single scheduling point
+ */
+public class Semaphore implements java.io.Serializable {
+  private static final long serialVersionUID = -3222578661600680210L;
+
+  static final class Sync extends AbstractQueuedSynchronizer {
+    private static final long serialVersionUID = 1192457210091910933L;
+
+    final boolean fair;
+
+    Sync (int permits, boolean fair) {
+      this.fair = fair;
+      setState(permits);
+    }
+
+    int getPermits () {
+      return getState();
+    }
+
+    @Override
+    protected int tryAcquireShared (int acquires) {
+      if (fair && hasQueuedPredecessors()) {
+        return -1;
+      }
+      return nonfairTryAcquireShared(acquires);
+    }
+
+    int nonfairTryAcquireShared (int acquires) {
+      int remaining = getState() - acquires;
+      if (remaining >= 0) {
+        setState(remaining);
+      }
+      return remaining;
+    }
+
+    // tryAcquire() barges regardless of fairness
+    boolean tryAcquireNow (int acquires) {
+      enterTryAcquire();
+      return nonfairTryAcquireShared(acquires) >= 0;
+    }
+
+    @Override
+    protected boolean tryReleaseShared (int releases) {
+      int next = getState() + releases;
+      if (next < getState()) {
+        throw new Error("Maximum permit count exceeded");
+      }
+      setState(next);
+      return true;
+    }
+
+    void reducePermits (int reductions) {
+      int next = getState() - reductions;
+      if (next > getState()) {
+        throw new Error("Permit count underflow");
+      }
+      setState(next);
+    }
+
+    int drainPermits () {
+      int current = getState();
+      if (current != 0) {
+        setState(0);
+      }
+      return current;
+    }
+  }
+
+  private final Sync sync;
+
+  public Semaphore (int permits) {
+    sync = new Sync(permits, false);
+  }
+
+  public Semaphore (int permits, boolean fair) {
+    sync = new Sync(permits, fair);
+  }
+
+  private static void checkPermits (int permits) {
+    if (permits < 0) {
+      throw new IllegalArgumentException();
+    }
+  }
+
+  public void acquire () throws InterruptedException {
+    sync.acquireSharedInterruptibly(1);
+  }
+
+  public void acquireUninterruptibly () {
+    sync.acquireShared(1);
+  }
+
+  public boolean tryAcquire () {
+    return sync.tryAcquireNow(1);
+  }
+
+  public boolean tryAcquire (long timeout, TimeUnit unit) throws InterruptedException {
+    return sync.tryAcquireSharedNanos(1, unit.toNanos(timeout));
+  }
+
+  public void release () {
+    sync.releaseShared(1);
+  }
+
+  public void acquire (int permits) throws InterruptedException {
+    checkPermits(permits);
+    sync.acquireSharedInterruptibly(permits);
+  }
+
+  public void acquireUninterruptibly (int permits) {
+    checkPermits(permits);
+    sync.acquireShared(permits);
+  }
+
+  public boolean tryAcquire (int permits) {
+    checkPermits(permits);
+    return sync.tryAcquireNow(permits);
+  }
+
+  public boolean tryAcquire (int permits, long timeout, TimeUnit unit) throws InterruptedException {
+    checkPermits(permits);
+    return sync.tryAcquireSharedNanos(permits, unit.toNanos(timeout));
+  }
+
+  public void release (int permits) {
+    checkPermits(permits);
+    sync.releaseShared(permits);
+  }
+
+  public int availablePermits () {
+    return sync.getPermits();
+  }
+
+  public int drainPermits () {
+    return sync.drainPermits();
+  }
+
+  protected void reducePermits (int reduction) {
+    checkPermits(reduction);
+    sync.reducePermits(reduction);
+  }
+
+  public boolean isFair () {
+    return sync.fair;
+  }
+
+  public final boolean hasQueuedThreads () {
+    return sync.hasQueuedThreads();
+  }
+
+  public final int getQueueLength () {
+    return sync.getQueueLength();
+  }
+
+  protected Collection<Thread> getQueuedThreads () {
+    return sync.getQueuedThreads();
+  }
+
+  @Override
+  public String toString () {
+    return super.toString() + "[Permits = " + sync.getPermits() + "]";
+  }
+}
@@ -0,0 +1,543 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package java.util.concurrent.locks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * model class for java.util.concurrent.locks.AbstractQueuedSynchronizer
+ *
+ * The original class implements its wait queue with CAS operations on volatile
+ * node links, which turns every field access into a potential scheduling point
+ * and costs hundreds of interpreted instructions per acquire/release. This model
+ * keeps the public API and the tryAcquire/tryRelease template, but implements
+ * state access and blocking natively on top of lockfree waits on the synchronizer
+ * object itself, which gives us one LOCK scheduling point per acquire, one
+ * (optional) RELEASE scheduling point per release, and blocking/unblocking
+ * through the normal WAIT/NOTIFY choice points.
+ *
+ * Releases wake up all queued threads, which then re-try their acquisition. Since
+ * JPF explores all orders in which they get scheduled, this is sufficient to cover
+ * the (unspecified) barging behavior of the original. To avoid lost wakeups between
+ * a failed tryAcquire and blocking, each acquisition attempt records the number of
+ * releases it has seen, and only blocks if there was no release since.
+ */
+public abstract class AbstractQueuedSynchronizer extends AbstractOwnableSynchronizer implements Serializable {
+  private static final long serialVersionUID = 7373984972572414691L;
+
+  // park() results, keep in sync with the peer
+  static final int PARK_RELEASED = 0;
+  static final int PARK_TIMEDOUT = 1;
+  static final int PARK_INTERRUPTED = 2;
+
+  // condition wait node status, keep in sync with the peer
+  static final int NODE_WAITING = 0;
+  static final int NODE_SIGNALLED = 1;
+  static final int NODE_CANCELLED = 2;
+
+  /**
+   * condition wait queue entry. Threads lockfree wait on their own node, the
+   * status is only changed from native methods
+   */
+  static final class Node {
+    final Thread thread;
+    int status;
+    Node next;
+
+    Node () {
+      thread = Thread.currentThread();
+    }
+  }
+
+  //--- only accessed from native methods
+  private int state;
+  private int releases;
+  private boolean contended;
+
+  protected AbstractQueuedSynchronizer () {}
+
+  protected final native int getState ();
+
+  protected final native void setState (int newState);
+
+  protected final native boolean compareAndSetState (int expect, int update);
+
+  //--- native blocking support
+
+  // optional scheduling point before each acquisition, returns the current release count
+  private native int enterAcquire ();
+
+  private native int getReleases ();
+
+  private native boolean isContended ();
+
+  // lockfree wait on this synchronizer unless there was a release since 'seenReleases'
+  private native int park (int seenReleases, long timeoutMillis, boolean interruptible);
+
+  // count the release and resume all queued threads
+  private native void unparkQueued ();
+
+  private native boolean hasQueuedThreads0 ();
+
+  private native Thread[] getQueuedThreads0 ();
+
+  // lockfree wait on a condition node until it gets signalled
+  static native int parkNode (Node node, long timeoutMillis, boolean interruptible);
+
+  // returns false if the node was already cancelled or signalled
+  static native boolean unparkNode (Node node);
+
+  static long toMillis (long nanosTimeout) {
+    long millis = TimeUnit.NANOSECONDS.toMillis(nanosTimeout);
+    return (millis > 0) ? millis : 1; // 0 would mean indefinite wait
+  }
+
+  //--- the template methods
+
+  protected boolean tryAcquire (int arg) {
+    throw new UnsupportedOperationException();
+  }
+
+  protected boolean tryRelease (int arg) {
+    throw new UnsupportedOperationException();
+  }
+
+  protected int tryAcquireShared (int arg) {
+    throw new UnsupportedOperationException();
+  }
+
+  protected boolean tryReleaseShared (int arg) {
+    throw new UnsupportedOperationException();
+  }
+
+  protected boolean isHeldExclusively () {
+    throw new UnsupportedOperationException();
+  }
+
+  //--- acquisition
+
+  private boolean tryAcquire0 (int arg, boolean shared) {
+    return shared ? (tryAcquireShared(arg) >= 0) : tryAcquire(arg);
+  }
+
+  /**
+   * the acquire loop for all modes. Returns PARK_RELEASED if we did acquire, or
+   * the reason why we gave up otherwise. Uninterruptible acquisitions restore the
+   * interrupt status upon return
+   */
+  private int doAcquire (int arg, boolean shared, boolean interruptible, long timeoutMillis) {
+    boolean interrupted = false;
+    int seenReleases = enterAcquire();
+
+    try {
+      while (!tryAcquire0(arg, shared)) {
+        if (timeoutMillis < 0) {
+          return PARK_TIMEDOUT;
+        }
+
+        int res = park(seenReleases, timeoutMillis, interruptible);
+        if (res == PARK_INTERRUPTED) {
+          Thread.interrupted();
+          if (interruptible) {
+            return res;
+          }
+          interrupted = true;
+
+        } else if (res == PARK_TIMEDOUT) {
+          // we might have been released concurrently, the original re-tries once
+          return tryAcquire0(arg, shared) ? PARK_RELEASED : res;
+        }
+
+        // timed acquisitions re-start their timeout after each release. Since
+        // timeouts are explored as choices and not as elapsed time, this does
+        // not lose any behavior
+        seenReleases = getReleases();
+      }
+
+      return PARK_RELEASED;
+
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  public final void acquire (int arg) {
+    doAcquire(arg, false, false, 0L);
+  }
+
+  public final void acquireInterruptibly (int arg) throws InterruptedException {
+    if (Thread.interrupted() || doAcquire(arg, false, true, 0L) == PARK_INTERRUPTED) {
+      throw new InterruptedException();
+    }
+  }
+
+  public final boolean tryAcquireNanos (int arg, long nanosTimeout) throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+
+    long millis = (nanosTimeout <= 0) ? -1 : toMillis(nanosTimeout);
+    switch (doAcquire(arg, false, true, millis)) {
+      case PARK_RELEASED:
+        return true;
+      case PARK_INTERRUPTED:
+        throw new InterruptedException();
+      default:
+        return false;
+    }
+  }
+
+  public final void acquireShared (int arg) {
+    doAcquire(arg, true, false, 0L);
+  }
+
+  public final void acquireSharedInterruptibly (int arg) throws InterruptedException {
+    if (Thread.interrupted() || doAcquire(arg, true, true, 0L) == PARK_INTERRUPTED) {
+      throw new InterruptedException();
+    }
+  }
+
+  public final boolean tryAcquireSharedNanos (int arg, long nanosTimeout) throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+
+    long millis = (nanosTimeout <= 0) ? -1 : toMillis(nanosTimeout);
+    switch (doAcquire(arg, true, true, millis)) {
+      case PARK_RELEASED:
+        return true;
+      case PARK_INTERRUPTED:
+        throw new InterruptedException();
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * non-standard scheduling point for single acquisition attempts that bypass
+   * the queue, i.e. the barging tryLock()/tryAcquire() methods of the model classes
+   */
+  protected final void enterTryAcquire () {
+    enterAcquire();
+  }
+
+  //--- release
+
+  public final boolean release (int arg) {
+    if (tryRelease(arg)) {
+      unparkQueued();
+      return true;
+    }
+    return false;
+  }
+
+  public final boolean releaseShared (int arg) {
+    if (tryReleaseShared(arg)) {
+      unparkQueued();
+      return true;
+    }
+    return false;
+  }
+
+  //--- queue inspection. Queued threads are the ones that are blocked in park()
+
+  public final boolean hasQueuedThreads () {
+    return hasQueuedThreads0();
+  }
+
+  public final boolean hasContended () {
+    return isContended();
+  }
+
+  public final Thread getFirstQueuedThread () {
+    Thread[] queued = getQueuedThreads0();
+    return (queued.length > 0) ? queued[0] : null;
+  }
+
+  public final boolean isQueued (Thread thread) {
+    if (thread == null) {
+      throw new NullPointerException();
+    }
+
+    for (Thread t : getQueuedThreads0()) {
+      if (t == thread) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // the calling thread is never blocked, so every queued thread is a predecessor
+  public final boolean hasQueuedPredecessors () {
+    return hasQueuedThreads0();
+  }
+
+  public final int getQueueLength () {
+    return getQueuedThreads0().length;
+  }
+
+  public final Collection<Thread> getQueuedThreads () {
+    ArrayList<Thread> list = new ArrayList<Thread>();
+    for (Thread t : getQueuedThreads0()) {
+      list.add(t);
+    }
+    return list;
+  }
+
+  // <2do> we don't keep track of the acquisition mode of queued threads
+  public final Collection<Thread> getExclusiveQueuedThreads () {
+    return getQueuedThreads();
+  }
+
+  public final Collection<Thread> getSharedQueuedThreads () {
+    return getQueuedThreads();
+  }
+
+  @Override
+  public String toString () {
+    return super.toString() + "[State = " + getState() + ", "
+            + (hasQueuedThreads0() ? "non" : "") + "empty queue]";
+  }
+
+  //--- conditions
+
+  public final boolean owns (ConditionObject condition) {
+    return condition.isOwnedBy(this);
+  }
+
+  public final boolean hasWaiters (ConditionObject condition) {
+    checkOwner(condition);
+    return condition.hasWaiters();
+  }
+
+  public final int getWaitQueueLength (ConditionObject condition) {
+    checkOwner(condition);
+    return condition.getWaitQueueLength();
+  }
+
+  public final Collection<Thread> getWaitingThreads (ConditionObject condition) {
+    checkOwner(condition);
+    return condition.getWaitingThreads();
+  }
+
+  private void checkOwner (ConditionObject condition) {
+    if (!owns(condition)) {
+      throw new IllegalArgumentException("not owner");
+    }
+  }
+
+  /**
+   * the condition wait queue is guarded by the exclusively held synchronizer,
+   * only the node status is shared with the signalling thread
+   */
+  public class ConditionObject implements Condition, Serializable {
+    private static final long serialVersionUID = 1173984872572414699L;
+
+    private transient Node firstWaiter;
+    private transient Node lastWaiter;
+
+    public ConditionObject () {}
+
+    final boolean isOwnedBy (AbstractQueuedSynchronizer sync) {
+      return sync == AbstractQueuedSynchronizer.this;
+    }
+
+    private void checkHeld () {
+      if (!isHeldExclusively()) {
+        throw new IllegalMonitorStateException();
+      }
+    }
+
+    private Node addWaiter () {
+      Node node = new Node();
+      if (lastWaiter == null) {
+        firstWaiter = node;
+      } else {
+        lastWaiter.next = node;
+      }
+      lastWaiter = node;
+      return node;
+    }
+
+    private void unlinkWaiter (Node node) {
+      Node prev = null;
+      for (Node n = firstWaiter; n != null; prev = n, n = n.next) {
+        if (n == node) {
+          if (prev == null) {
+            firstWaiter = n.next;
+          } else {
+            prev.next = n.next;
+          }
+          if (lastWaiter == n) {
+            lastWaiter = prev;
+          }
+          return;
+        }
+      }
+    }
+
+    private int fullyRelease () {
+      int savedState = getState();
+      if (!release(savedState)) {
+        throw new IllegalMonitorStateException();
+      }
+      return savedState;
+    }
+
+    /**
+     * the common wait. We enqueue while still holding the synchronizer and
+     * only re-acquire after we got signalled, timed out or interrupted, so
+     * the wait queue never needs more than the exclusive hold to protect it
+     */
+    private int await0 (long timeoutMillis, boolean interruptible) {
+      checkHeld();
+
+      Node node = addWaiter();
+      int savedState = fullyRelease();
+      boolean interrupted = false;
+      int res;
+
+      while ((res = parkNode(node, timeoutMillis, interruptible)) == PARK_INTERRUPTED && !interruptible) {
+        Thread.interrupted();
+        interrupted = true;
+      }
+
+      if (res == PARK_INTERRUPTED) {
+        Thread.interrupted();
+      }
+
+      doAcquire(savedState, false, false, 0L);
+      if (res != PARK_RELEASED) {
+        unlinkWaiter(node); // signallers remove the nodes they signal
+      }
+
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return res;
+    }
+
+    @Override
+    public final void await () throws InterruptedException {
+      if (Thread.interrupted() || await0(0L, true) == PARK_INTERRUPTED) {
+        throw new InterruptedException();
+      }
+    }
+
+    @Override
+    public final void awaitUninterruptibly () {
+      await0(0L, false);
+    }
+
+    @Override
+    public final long awaitNanos (long nanosTimeout) throws InterruptedException {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      if (nanosTimeout <= 0) {
+        return nanosTimeout;
+      }
+
+      // this uses the configured TimeModel, i.e. the remaining time is deterministic with VirtualTime
+      long deadline = System.nanoTime() + nanosTimeout;
+
+      switch (await0(toMillis(nanosTimeout), true)) {
+        case PARK_INTERRUPTED:
+          throw new InterruptedException();
+        case PARK_TIMEDOUT:
+          return 0L; // the TimeModel might not have advanced the clock
+        default:
+          return deadline - System.nanoTime();
+      }
+    }
+
+    @Override
+    public final boolean await (long time, TimeUnit unit) throws InterruptedException {
+      return awaitNanos(unit.toNanos(time)) > 0;
+    }
+
+    @Override
+    public final boolean awaitUntil (Date deadline) throws InterruptedException {
+      return awaitNanos(TimeUnit.MILLISECONDS.toNanos(deadline.getTime() - System.currentTimeMillis())) > 0;
+    }
+
+    @Override
+    public final void signal () {
+      checkHeld();
+
+      for (Node n = firstWaiter; n != null; n = firstWaiter) {
+        unlinkWaiter(n);
+        if (unparkNode(n)) {
+          break;
+        }
+      }
+    }
+
+    @Override
+    public final void signalAll () {
+      checkHeld();
+
+      Node n = firstWaiter;
+      firstWaiter = lastWaiter = null;
+      for (; n != null; n = n.next) {
+        unparkNode(n);
+      }
+    }
+
+    final boolean hasWaiters () {
+      checkHeld();
+
+      for (Node n = firstWaiter; n != null; n = n.next) {
+        if (n.status == NODE_WAITING) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    final int getWaitQueueLength () {
+      checkHeld();
+
+      int len = 0;
+      for (Node n = firstWaiter; n != null; n = n.next) {
+        if (n.status == NODE_WAITING) {
+          len++;
+        }
+      }
+      return len;
+    }
+
+    final Collection<Thread> getWaitingThreads () {
+      checkHeld();
+
+      ArrayList<Thread> list = new ArrayList<Thread>();
+      for (Node n = firstWaiter; n != null; n = n.next) {
+        if (n.status == NODE_WAITING) {
+          list.add(n.thread);
+        }
+      }
+      return list;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package java.util.concurrent.locks;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * model class for java.util.concurrent.locks.ReentrantLock
+ *
+ * this is a straight forward exclusive synchronizer on top of our
+ * AbstractQueuedSynchronizer model. Fairness is only reflected in not barging
+ * ahead of queued threads, JPF explores all wakeup orders anyway
+ */
+public class ReentrantLock implements Lock, Serializable {
+  private static final long serialVersionUID = 7373984872572414699L;
+
+  static final class Sync extends AbstractQueuedSynchronizer {
+    private static final long serialVersionUID = -5179523762034025860L;
+
+    final boolean fair;
+
+    Sync (boolean fair) {
+      this.fair = fair;
+    }
+
+    @Override
+    protected boolean tryAcquire (int acquires) {
+      if (fair && getState() == 0 && hasQueuedPredecessors()) {
+        return false;
+      }
+      return nonfairTryAcquire(acquires);
+    }
+
+    boolean nonfairTryAcquire (int acquires) {
+      Thread current = Thread.currentThread();
+      int c = getState();
+
+      if (c == 0) {
+        setState(acquires);
+        setExclusiveOwnerThread(current);
+        return true;
+
+      } else if (current == getExclusiveOwnerThread()) {
+        int nextc = c + acquires;
+        if (nextc < 0) {
+          throw new Error("Maximum lock count exceeded");
+        }
+        setState(nextc);
+        return true;
+      }
+
+      return false;
+    }
+
+    // tryLock() barges regardless of fairness
+    boolean tryLock () {
+      enterTryAcquire();
+      return nonfairTryAcquire(1);
+    }
+
+    @Override
+    protected boolean tryRelease (int releases) {
+      if (Thread.currentThread() != getExclusiveOwnerThread()) {
+        throw new IllegalMonitorStateException();
+      }
+
+      int c = getState() - releases;
+      if (c == 0) {
+        setExclusiveOwnerThread(null);
+      }
+      setState(c);
+      return (c == 0);
+    }
+
+    @Override
+    protected boolean isHeldExclusively () {
+      return getExclusiveOwnerThread() == Thread.currentThread();
+    }
+
+    ConditionObject newCondition () {
+      return new ConditionObject();
+    }
+
+    Thread getOwner () {
+      return (getState() == 0) ? null : getExclusiveOwnerThread();
+    }
+
+    int getHoldCount () {
+      return isHeldExclusively() ? getState() : 0;
+    }
+  }
+
+  private final Sync sync;
+
+  public ReentrantLock () {
+    sync = new Sync(false);
+  }
+
+  public ReentrantLock (boolean fair) {
+    sync = new Sync(fair);
+  }
+
+  @Override
+  public void lock () {
+    sync.acquire(1);
+  }
+
+  @Override
+  public void lockInterruptibly () throws InterruptedException {
+    sync.acquireInterruptibly(1);
+  }
+
+  @Override
+  public boolean tryLock () {
+    return sync.tryLock();
+  }
+
+  @Override
+  public boolean tryLock (long timeout, TimeUnit unit) throws InterruptedException {
+    return sync.tryAcquireNanos(1, unit.toNanos(timeout));
+  }
+
+  @Override
+  public void unlock () {
+    sync.release(1);
+  }
+
+  @Override
+  public Condition newCondition () {
+    return sync.newCondition();
+  }
+
+  public int getHoldCount () {
+    return sync.getHoldCount();
+  }
+
+  public boolean isHeldByCurrentThread () {
+    return sync.isHeldExclusively();
+  }
+
+  public boolean isLocked () {
+    return sync.getState() != 0;
+  }
+
+  public final boolean isFair () {
+    return sync.fair;
+  }
+
+  protected Thread getOwner () {
+    return sync.getOwner();
+  }
+
+  public final boolean hasQueuedThreads () {
+    return sync.hasQueuedThreads();
+  }
+
+  public final boolean hasQueuedThread (Thread thread) {
+    return sync.isQueued(thread);
+  }
+
+  public final int getQueueLength () {
+    return sync.getQueueLength();
+  }
+
+  protected Collection<Thread> getQueuedThreads () {
+    return sync.getQueuedThreads();
+  }
+
+  public boolean hasWaiters (Condition condition) {
+    return sync.hasWaiters(asConditionObject(condition));
+  }
+
+  public int getWaitQueueLength (Condition condition) {
+    return sync.getWaitQueueLength(asConditionObject(condition));
+  }
+
+  protected Collection<Thread> getWaitingThreads (Condition condition) {
+    return sync.getWaitingThreads(asConditionObject(condition));
+  }
+
+  private static AbstractQueuedSynchronizer.ConditionObject asConditionObject (Condition condition) {
+    if (condition == null) {
+      throw new NullPointerException();
+    }
+    if (!(condition instanceof AbstractQueuedSynchronizer.ConditionObject)) {
+      throw new IllegalArgumentException("not owner");
+    }
+    return (AbstractQueuedSynchronizer.ConditionObject) condition;
+  }
+
+  @Override
+  public String toString () {
+    Thread o = sync.getOwner();
+    return super.toString() + ((o == null) ? "[Unlocked]" : "[Locked by thread " + o.getName() + "]");
+  }
+}
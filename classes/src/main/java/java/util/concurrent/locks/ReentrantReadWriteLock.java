@@ -0,0 +1,425 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package java.util.concurrent.locks;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * model class for java.util.concurrent.locks.ReentrantReadWriteLock
+ *
+ * The original keeps per thread read hold counts in ThreadLocals and caches,
+ * which we replace by a simple holder list. Since our AbstractQueuedSynchronizer
+ * model executes the tryAcquire/tryRelease methods from native acquire loops
+ * without intermediate scheduling points, the list does not need any additional
+ * synchronization.
+ * Lock state encoding is the same as in the original (shared count in the upper,
+ * exclusive count in the lower 16 bits)
+ */
+public class ReentrantReadWriteLock implements ReadWriteLock, Serializable {
+  private static final long serialVersionUID = -6992448646407690164L;
+
+  static final class HoldCounter {
+    final Thread thread;
+    int count;
+    HoldCounter next;
+
+    HoldCounter (Thread thread, HoldCounter next) {
+      this.thread = thread;
+      this.next = next;
+    }
+  }
+
+  static final class Sync extends AbstractQueuedSynchronizer {
+    private static final long serialVersionUID = 6317671515068378041L;
+
+    static final int SHARED_SHIFT   = 16;
+    static final int SHARED_UNIT    = (1 << SHARED_SHIFT);
+    static final int MAX_COUNT      = (1 << SHARED_SHIFT) - 1;
+    static final int EXCLUSIVE_MASK = (1 << SHARED_SHIFT) - 1;
+
+    static int sharedCount (int c)    { return c >>> SHARED_SHIFT; }
+    static int exclusiveCount (int c) { return c & EXCLUSIVE_MASK; }
+
+    final boolean fair;
+
+    // threads that currently hold read locks
+    private transient HoldCounter readHolds;
+
+    Sync (boolean fair) {
+      this.fair = fair;
+    }
+
+    HoldCounter getHoldCounter (Thread t, boolean create) {
+      for (HoldCounter h = readHolds; h != null; h = h.next) {
+        if (h.thread == t) {
+          return h;
+        }
+      }
+
+      if (create) {
+        readHolds = new HoldCounter(t, readHolds);
+        return readHolds;
+      } else {
+        return null;
+      }
+    }
+
+    void removeHoldCounter (HoldCounter hc) {
+      HoldCounter prev = null;
+      for (HoldCounter h = readHolds; h != null; prev = h, h = h.next) {
+        if (h == hc) {
+          if (prev == null) {
+            readHolds = h.next;
+          } else {
+            prev.next = h.next;
+          }
+          return;
+        }
+      }
+    }
+
+    //--- write lock
+
+    @Override
+    protected boolean tryAcquire (int acquires) {
+      if (fair && getState() == 0 && hasQueuedPredecessors()) {
+        return false;
+      }
+      return tryWriteLock(acquires);
+    }
+
+    boolean tryWriteLock (int acquires) {
+      Thread current = Thread.currentThread();
+      int c = getState();
+
+      if (c != 0) {
+        // (c != 0 and w == 0) means there are readers, which includes read-to-write upgrades
+        int w = exclusiveCount(c);
+        if (w == 0 || current != getExclusiveOwnerThread()) {
+          return false;
+        }
+        if (w + acquires > MAX_COUNT) {
+          throw new Error("Maximum lock count exceeded");
+        }
+        setState(c + acquires);
+        return true;
+      }
+
+      setState(acquires);
+      setExclusiveOwnerThread(current);
+      return true;
+    }
+
+    @Override
+    protected boolean tryRelease (int releases) {
+      if (!isHeldExclusively()) {
+        throw new IllegalMonitorStateException();
+      }
+
+      int nextc = getState() - releases;
+      boolean free = exclusiveCount(nextc) == 0;
+      if (free) {
+        setExclusiveOwnerThread(null);
+      }
+      setState(nextc);
+      return free;
+    }
+
+    //--- read lock
+
+    @Override
+    protected int tryAcquireShared (int unused) {
+      if (fair && hasQueuedPredecessors() && getHoldCounter(Thread.currentThread(), false) == null) {
+        return -1;
+      }
+      return tryReadLock() ? 1 : -1;
+    }
+
+    boolean tryReadLock () {
+      Thread current = Thread.currentThread();
+      int c = getState();
+
+      // write lock holders can also acquire the read lock (downgrading)
+      if (exclusiveCount(c) != 0 && getExclusiveOwnerThread() != current) {
+        return false;
+      }
+      if (sharedCount(c) == MAX_COUNT) {
+        throw new Error("Maximum lock count exceeded");
+      }
+
+      setState(c + SHARED_UNIT);
+      getHoldCounter(current, true).count++;
+      return true;
+    }
+
+    @Override
+    protected boolean tryReleaseShared (int unused) {
+      HoldCounter hc = getHoldCounter(Thread.currentThread(), false);
+      if (hc == null) {
+        throw new IllegalMonitorStateException("attempt to unlock read lock, not locked by current thread");
+      }
+      if (--hc.count == 0) {
+        removeHoldCounter(hc);
+      }
+
+      int nextc = getState() - SHARED_UNIT;
+      setState(nextc);
+      return nextc == 0;
+    }
+
+    @Override
+    protected boolean isHeldExclusively () {
+      return getExclusiveOwnerThread() == Thread.currentThread();
+    }
+
+    ConditionObject newCondition () {
+      return new ConditionObject();
+    }
+
+    Thread getOwner () {
+      return (exclusiveCount(getState()) == 0) ? null : getExclusiveOwnerThread();
+    }
+
+    int getReadLockCount () {
+      return sharedCount(getState());
+    }
+
+    boolean isWriteLocked () {
+      return exclusiveCount(getState()) != 0;
+    }
+
+    int getWriteHoldCount () {
+      return isHeldExclusively() ? exclusiveCount(getState()) : 0;
+    }
+
+    int getReadHoldCount () {
+      HoldCounter hc = getHoldCounter(Thread.currentThread(), false);
+      return (hc != null) ? hc.count : 0;
+    }
+
+    int getCount () {
+      return getState();
+    }
+  }
+
+  public static class ReadLock implements Lock, Serializable {
+    private static final long serialVersionUID = -5992448646407690164L;
+    private final Sync sync;
+
+    protected ReadLock (ReentrantReadWriteLock lock) {
+      sync = lock.sync;
+    }
+
+    @Override
+    public void lock () {
+      sync.acquireShared(1);
+    }
+
+    @Override
+    public void lockInterruptibly () throws InterruptedException {
+      sync.acquireSharedInterruptibly(1);
+    }
+
+    @Override
+    public boolean tryLock () {
+      sync.enterTryAcquire();
+      return sync.tryReadLock();
+    }
+
+    @Override
+    public boolean tryLock (long timeout, TimeUnit unit) throws InterruptedException {
+      return sync.tryAcquireSharedNanos(1, unit.toNanos(timeout));
+    }
+
+    @Override
+    public void unlock () {
+      sync.releaseShared(1);
+    }
+
+    @Override
+    public Condition newCondition () {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString () {
+      return super.toString() + "[Read locks = " + sync.getReadLockCount() + "]";
+    }
+  }
+
+  public static class WriteLock implements Lock, Serializable {
+    private static final long serialVersionUID = -4992448646407690164L;
+    private final Sync sync;
+
+    protected WriteLock (ReentrantReadWriteLock lock) {
+      sync = lock.sync;
+    }
+
+    @Override
+    public void lock () {
+      sync.acquire(1);
+    }
+
+    @Override
+    public void lockInterruptibly () throws InterruptedException {
+      sync.acquireInterruptibly(1);
+    }
+
+    @Override
+    public boolean tryLock () {
+      sync.enterTryAcquire();
+      return sync.tryWriteLock(1);
+    }
+
+    @Override
+    public boolean tryLock (long timeout, TimeUnit unit) throws InterruptedException {
+      return sync.tryAcquireNanos(1, unit.toNanos(timeout));
+    }
+
+    @Override
+    public void unlock () {
+      sync.release(1);
+    }
+
+    @Override
+    public Condition newCondition () {
+      return sync.newCondition();
+    }
+
+    public boolean isHeldByCurrentThread () {
+      return sync.isHeldExclusively();
+    }
+
+    public int getHoldCount () {
+      return sync.getWriteHoldCount();
+    }
+
+    @Override
+    public String toString () {
+      Thread o = sync.getOwner();
+      return super.toString() + ((o == null) ? "[Unlocked]" : "[Locked by thread " + o.getName() + "]");
+    }
+  }
+
+  final Sync sync;
+  private final ReadLock readerLock;
+  private final WriteLock writerLock;
+
+  public ReentrantReadWriteLock () {
+    this(false);
+  }
+
+  public ReentrantReadWriteLock (boolean fair) {
+    sync = new Sync(fair);
+    readerLock = new ReadLock(this);
+    writerLock = new WriteLock(this);
+  }
+
+  @Override
+  public ReentrantReadWriteLock.WriteLock writeLock () {
+    return writerLock;
+  }
+
+  @Override
+  public ReentrantReadWriteLock.ReadLock readLock () {
+    return readerLock;
+  }
+
+  public final boolean isFair () {
+    return sync.fair;
+  }
+
+  protected Thread getOwner () {
+    return sync.getOwner();
+  }
+
+  public int getReadLockCount () {
+    return sync.getReadLockCount();
+  }
+
+  public boolean isWriteLocked () {
+    return sync.isWriteLocked();
+  }
+
+  public boolean isWriteLockedByCurrentThread () {
+    return sync.isHeldExclusively();
+  }
+
+  public int getWriteHoldCount () {
+    return sync.getWriteHoldCount();
+  }
+
+  public int getReadHoldCount () {
+    return sync.getReadHoldCount();
+  }
+
+  // <2do> we don't distinguish between queued readers and writers
+  protected Collection<Thread> getQueuedWriterThreads () {
+    return sync.getExclusiveQueuedThreads();
+  }
+
+  protected Collection<Thread> getQueuedReaderThreads () {
+    return sync.getSharedQueuedThreads();
+  }
+
+  public final boolean hasQueuedThreads () {
+    return sync.hasQueuedThreads();
+  }
+
+  public final boolean hasQueuedThread (Thread thread) {
+    return sync.isQueued(thread);
+  }
+
+  public final int getQueueLength () {
+    return sync.getQueueLength();
+  }
+
+  protected Collection<Thread> getQueuedThreads () {
+    return sync.getQueuedThreads();
+  }
+
+  public boolean hasWaiters (Condition condition) {
+    return sync.hasWaiters(asConditionObject(condition));
+  }
+
+  public int getWaitQueueLength (Condition condition) {
+    return sync.getWaitQueueLength(asConditionObject(condition));
+  }
+
+  protected Collection<Thread> getWaitingThreads (Condition condition) {
+    return sync.getWaitingThreads(asConditionObject(condition));
+  }
+
+  private static AbstractQueuedSynchronizer.ConditionObject asConditionObject (Condition condition) {
+    if (condition == null) {
+      throw new NullPointerException();
+    }
+    if (!(condition instanceof AbstractQueuedSynchronizer.ConditionObject)) {
+      throw new IllegalArgumentException("not owner");
+    }
+    return (AbstractQueuedSynchronizer.ConditionObject) condition;
+  }
+
+  @Override
+  public String toString () {
+    int c = sync.getCount();
+    return super.toString() + "[Write locks = " + Sync.exclusiveCount(c) + ", Read locks = " + Sync.sharedCount(c) + "]";
+  }
+}
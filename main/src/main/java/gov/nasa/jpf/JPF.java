@@ -27,6 +27,7 @@ import gov.nasa.jpf.util.JPFLogger;
 import gov.nasa.jpf.util.LogManager;
 import gov.nasa.jpf.util.Misc;
 import gov.nasa.jpf.util.RunRegistry;
+import gov.nasa.jpf.vm.BootSnapshot;
 import gov.nasa.jpf.vm.VM;
 import gov.nasa.jpf.vm.NoOutOfMemoryErrorProperty;
 import gov.nasa.jpf.vm.VMListener;
@@ -266,7 +267,10 @@ public class JPF implements Runnable {
       
       Class<?>[] vmArgTypes = { JPF.class, Config.class };
       Object[] vmArgs = { this, config };
-      vm = config.getEssentialInstance("vm.class", VM.class, vmArgTypes, vmArgs);
+      vm = BootSnapshot.reuseVM(this, config);
+      if (vm == null) {
+        vm = config.getEssentialInstance("vm.class", VM.class, vmArgTypes, vmArgs);
+      }
 
       Class<?>[] searchArgTypes = { Config.class, VM.class };
       Object[] searchArgs = { config, vm };
@@ -25,6 +25,7 @@ import gov.nasa.jpf.util.BailOut;
 import gov.nasa.jpf.util.BinaryClassSource;
 
 import java.io.File;
+import java.util.ArrayList;
 
 /**
  * class to read and dissect Java classfile contents (as specified by the Java VM
@@ -86,6 +87,10 @@ public class ClassFile extends BinaryClassSource {
   // the const pool
   int[] cpPos;     // cpPos[i] holds data start index for cp_entry i (0 is unused)
   Object[] cpValue; // cpValue[i] hold the String/Integer/Float/Double associated with corresponding cp_entries
+
+  // set if the const pool was parsed ahead of parse(ClassFileReader), e.g. by a prefetcher
+  boolean isCpPreParsed;
+  int cpEnd;       // data index of the first byte after the const pool
   
   //--- ctors
   public ClassFile (byte[] data, int offset){
@@ -129,6 +134,12 @@ public class ClassFile extends BinaryClassSource {
    * will otherwise throw a JPFException
    */
   public void setData(byte[] newData){
+    if (isCpPreParsed){ // not used yet, just drop it
+      isCpPreParsed = false;
+      cpPos = null;
+      cpValue = null;
+    }
+
     if (cpPos != null){
       throw new JPFException("concurrent modification of ClassFile data");
     }
@@ -842,9 +853,15 @@ public class ClassFile extends BinaryClassSource {
 
       // get the const pool
       int cpCount = readU2();
-      cpPos = new int[cpCount];
-      cpValue = new Object[cpCount];
-      parseCp(cpCount);
+      if (isCpPreParsed){
+        isCpPreParsed = false;
+        pos = cpEnd;
+      } else {
+        cpPos = new int[cpCount];
+        cpValue = new Object[cpCount];
+        parseCp(cpCount);
+        cpEnd = pos;
+      }
 
       // the class essentials
       int accessFlags = readU2();
@@ -880,6 +897,62 @@ public class ClassFile extends BinaryClassSource {
   }
 
 
+  /**
+   * parse only the const pool, without notifying any ClassFileReader. This
+   * does not depend on VM state and hence can be done in a background thread
+   * before the ClassFile is handed over to parse(ClassFileReader), which then
+   * skips the const pool
+   */
+  public void parseConstPool() throws ClassParseException {
+    if (cpPos == null){
+      int startPos = pos;
+
+      int magic = readI4();
+      if (magic != 0xCAFEBABE) {
+        error("wrong magic: " + Integer.toHexString(magic));
+      }
+      readU2(); // minor
+      readU2(); // major
+
+      int cpCount = readU2();
+      cpPos = new int[cpCount];
+      cpValue = new Object[cpCount];
+      parseCp(cpCount);
+
+      cpEnd = pos;
+      isCpPreParsed = true;
+      pos = startPos;
+    }
+  }
+
+  /**
+   * the names of all classes referenced from the const pool, i.e. super class,
+   * interfaces, field and method owners, cast and instanceof types etc. Array
+   * types are reduced to their component class types, and the class itself is
+   * omitted.
+   * This requires a parsed const pool
+   */
+  public String[] getReferencedClassNames(){
+    int thisIdx = u2(cpEnd + 2);
+    ArrayList<String> list = new ArrayList<String>();
+
+    for (int i=1; i<cpValue.length; i++){
+      if (i != thisIdx && cpPos[i] > 0 && data[cpPos[i]] == CONSTANT_CLASS){
+        String clsName = (String)cpValue[i];
+        if (clsName.charAt(0) == '['){
+          int j = clsName.lastIndexOf('[') + 1;
+          if (clsName.charAt(j) != 'L'){
+            continue; // builtin component type
+          }
+          clsName = clsName.substring(j+1, clsName.length()-1);
+        }
+        list.add(clsName.replace('/', '.'));
+      }
+    }
+
+    return list.toArray(new String[list.size()]);
+  }
+
   //--- constpool parsing
 
   public static String readModifiedUTF8String( byte[] data, int pos, int len) throws ClassParseException {
@@ -48,6 +48,11 @@ public class DirClassFileContainer extends JVMClassFileContainer {
     this.dir = dir;
   }
 
+  @Override
+  public boolean supportsConcurrentAccess() {
+    return true; // we only read files
+  }
+
   @Override
   public ClassFileMatch getMatch(String clsName) throws ClassParseException {
     String pn = clsName.replace('.', File.separatorChar) + ".class";
@@ -20,6 +20,7 @@ package gov.nasa.jpf.jvm;
 
 import gov.nasa.jpf.vm.AnnotationInfo;
 import gov.nasa.jpf.vm.ClassFileContainer;
+import gov.nasa.jpf.vm.ClassInfoCache;
 import gov.nasa.jpf.vm.ClassFileMatch;
 import gov.nasa.jpf.vm.ClassLoaderInfo;
 import gov.nasa.jpf.vm.ClassParseException;
@@ -32,6 +33,7 @@ public abstract class JVMClassFileContainer extends ClassFileContainer {
   // the VM and container type specific info we need to instantiate a ClassInfo from this container
   public class JVMClassFileMatch extends ClassFileMatch {
     byte[] data;
+    ClassFile cf; // set if we got prefetched
     
     JVMClassFileMatch (String typeName, String url, byte[] data) {
       super(typeName, url);
@@ -48,14 +50,43 @@ public abstract class JVMClassFileContainer extends ClassFileContainer {
       return data;
     }
     
+    @Override
+    public void preprocess() throws ClassParseException {
+      ClassFile f = new ClassFile(data);
+      f.parseConstPool();
+      cf = f;
+    }
+
     @Override
     public JVMClassInfo createClassInfo (ClassLoaderInfo loader) throws ClassParseException {
       JVMSystemClassLoaderInfo sysCli = (JVMSystemClassLoaderInfo)loader.getSystemClassLoader();
       
       JVMCodeBuilder cb = sysCli.getCodeBuilder(typeName);
-      ClassFile cf = new ClassFile(data);
-      
-      return new JVMClassInfo( typeName, loader, cf, url, cb);
+      ClassInfoCache.Key cacheKey = null;
+
+      if (sysCli.usesClassInfoCache()){
+        String variant = cb.getClass().getName() + ':' + cb.insnFactory.getClass().getName();
+        cacheKey = new ClassInfoCache.Key( url, variant, data);
+
+        ClassInfoCache.Entry e = ClassInfoCache.get( cacheKey);
+        if (e != null){
+          this.cf = null;
+          sysCli.prefetchClasses( e.getReferencedTypeNames());
+          return (JVMClassInfo) e.createClassInfo(loader);
+        }
+      }
+
+      ClassFile cf = this.cf;
+      if (cf == null){
+        cf = new ClassFile(data);
+        cf.parseConstPool();
+      }
+      this.cf = null;
+
+      // start to look up what we are likely to need next while we are busy with this one
+      sysCli.prefetchClasses( cf.getReferencedClassNames());
+
+      return new JVMClassInfo( typeName, loader, cf, url, cb, cacheKey);
     }
     
     @Override
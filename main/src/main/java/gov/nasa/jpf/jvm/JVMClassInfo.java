@@ -614,9 +614,22 @@ public class JVMClassInfo extends ClassInfo {
   }
 
   JVMClassInfo (String name, ClassLoaderInfo cli, ClassFile cf, String srcUrl, JVMCodeBuilder cb) throws ClassParseException {
+    this( name, cli, cf, srcUrl, cb, null);
+  }
+
+  /**
+   * if we get a cacheKey, we store a template of the parse results in the ClassInfoCache
+   * before we link, so that subsequent JPF runs in the same JVM don't have to parse again
+   */
+  JVMClassInfo (String name, ClassLoaderInfo cli, ClassFile cf, String srcUrl, JVMCodeBuilder cb,
+                ClassInfoCache.Key cacheKey) throws ClassParseException {
     super( name, cli, srcUrl);
     
     new Initializer( cf, cb); // we just need the ctor
+
+    if (cacheKey != null){
+      ClassInfoCache.put( cacheKey, this, cf.getReferencedClassNames());
+    }
     
     resolveAndLink();
   }
@@ -920,7 +933,7 @@ public class JVMClassInfo extends ClassInfo {
       return calleeFrame; 
       
     } else {
-      JVMStackFrame calleeFrame = new JVMStackFrame( callee);
+      JVMStackFrame calleeFrame = JVMStackFrame.create( ti, callee);
       calleeFrame.setCallArguments( ti);
       return calleeFrame;      
     }
@@ -34,6 +34,20 @@ public class JVMStackFrame extends StackFrame {
     super( callee);
   }
   
+  /**
+   * factory method for bytecode calls, which reuses a frame of the calling
+   * thread that was recycled upon return if there is one
+   */
+  public static JVMStackFrame create (ThreadInfo ti, MethodInfo callee){
+    JVMStackFrame frame = (JVMStackFrame) ti.getRecycledFrame( callee.getMaxLocals() + callee.getMaxStack());
+    if (frame != null){
+      frame.recycle(callee);
+      return frame;
+    } else {
+      return new JVMStackFrame( callee);
+    }
+  }
+  
   /**
    * creates callerSlots dummy Stackframe for testing of operand/local operations
    * NOTE - TESTING ONLY! this does not have callerSlots MethodInfo
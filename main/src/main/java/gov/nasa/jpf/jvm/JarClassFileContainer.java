@@ -112,6 +112,11 @@ public class JarClassFileContainer extends JVMClassFileContainer {
     return pn;
   }
     
+  @Override
+  public boolean supportsConcurrentAccess() {
+    return true; // JarFile access is synchronized
+  }
+
   @Override
   public ClassFileMatch getMatch(String clsName) throws ClassParseException {
     String pn = clsName.replace('.', '/') + ".class";
@@ -45,7 +45,14 @@ public class ALOAD extends JVMLocalVariableInstruction {
     
     frame.pushLocal(index);
 
-    return getNext(ti);
+    Instruction next = getNext(ti);
+
+    // superinstruction for the ubiquitous 'aload_0, getfield' field access
+    if (next.getClass() == GETFIELD.class && getClass() == ALOAD.class && ti.canFuseInstructions()){
+      return ti.executeFusedInstruction(next);
+    }
+
+    return next;
   }
 
   @Override
@@ -22,6 +22,7 @@ import gov.nasa.jpf.vm.ClassInfo;
 import gov.nasa.jpf.vm.ElementInfo;
 import gov.nasa.jpf.vm.LoadOnJPFRequired;
 import gov.nasa.jpf.vm.MJIEnv;
+import gov.nasa.jpf.vm.MethodInfo;
 import gov.nasa.jpf.vm.StackFrame;
 import gov.nasa.jpf.vm.ThreadInfo;
 import gov.nasa.jpf.vm.Types;
@@ -34,6 +35,11 @@ import gov.nasa.jpf.vm.Types;
 public class CHECKCAST extends Instruction implements JVMInstruction {
   String type;
 
+  // quickened state: the last object type that passed the check. Since class
+  // hierarchies don't change, we can skip type resolution and the (name based)
+  // instanceof test for subsequent objects of the same type
+  ClassInfo ciLastValid;
+
   public CHECKCAST() {} // this is going away
 
   public CHECKCAST(String typeName){
@@ -55,6 +61,10 @@ public class CHECKCAST extends Instruction implements JVMInstruction {
     } else {
       boolean isValid = false;
 
+      if (ciLastValid != null && ti.getElementInfo(objref).getClassInfo() == ciLastValid) {
+        return getNext(ti);
+      }
+
       if(Types.isReferenceSignature(type)) {
         String t;
         if(Types.isArray(type)) {
@@ -90,6 +100,8 @@ public class CHECKCAST extends Instruction implements JVMInstruction {
         return ti.createAndThrowException("java.lang.ClassCastException",
                 e.getClassInfo().getName() + " cannot be cast to " + type);
       }
+
+      ciLastValid = eci;
     }
 
     return getNext(ti);
@@ -110,4 +122,11 @@ public class CHECKCAST extends Instruction implements JVMInstruction {
   public void accept(JVMInstructionVisitor insVisitor) {
 	  insVisitor.visit(this);
   }
+
+  @Override
+  public Instruction typeSafeClone(MethodInfo mi) {
+    CHECKCAST clone = (CHECKCAST) super.typeSafeClone(mi);
+    clone.ciLastValid = null; // types resolve differently in other classloaders
+    return clone;
+  }
 }
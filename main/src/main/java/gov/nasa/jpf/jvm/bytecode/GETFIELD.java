@@ -74,12 +74,14 @@ public class GETFIELD extends JVMInstanceFieldInstruction implements ReadInstruc
     frame.pop(); // Ok, now we can remove the object ref from the stack
     Object fieldAttr = eiFieldOwner.getFieldAttr(fieldInfo);
 
-    // We could encapsulate the push in ElementInfo, but not the GET, so we keep it at the same level
-    if (fieldInfo.getStorageSize() == 1) { // 1 slotter
+    // We could encapsulate the push in ElementInfo, but not the GET, so we keep it at the same level.
+    // Note we use the size and type we got from the field descriptor, which avoids
+    // querying the FieldInfo again on each execution
+    if (size == 1) { // 1 slotter
       int ival = eiFieldOwner.get1SlotField(fieldInfo);
       lastValue = ival;
       
-      if (fieldInfo.isReference()){
+      if (isReferenceField){
         frame.pushRef(ival);
         
       } else {
@@ -38,7 +38,14 @@ public class ILOAD extends JVMLocalVariableInstruction {
     
     frame.pushLocal(index);
 
-    return getNext(ti);
+    Instruction next = getNext(ti);
+
+    // superinstruction for the 'iload, iinc' pattern of post increments
+    if (next.getClass() == IINC.class && getClass() == ILOAD.class && ti.canFuseInstructions()){
+      return ti.executeFusedInstruction(next);
+    }
+
+    return next;
   }
 
   @Override
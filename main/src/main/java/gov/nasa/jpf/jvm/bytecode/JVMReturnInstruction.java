@@ -17,6 +17,7 @@
  */
 package gov.nasa.jpf.jvm.bytecode;
 
+import gov.nasa.jpf.jvm.JVMStackFrame;
 import gov.nasa.jpf.vm.Instruction;
 import gov.nasa.jpf.vm.ElementInfo;
 import gov.nasa.jpf.vm.StackFrame;
@@ -157,6 +158,12 @@ public abstract class JVMReturnInstruction extends ReturnInstruction implements
     // note that this is never the first frame, since we start all threads (incl. main)
     // through a direct call
     frame = ti.popAndGetModifiableTopFrame();
+    
+    // returnFrame is only valid during the notifications for this insn, the next call
+    // of this thread can reuse it (subclasses and frozen frames are never recycled)
+    if (returnFrame.getClass() == JVMStackFrame.class){
+      ti.recycleFrame(returnFrame);
+    }
 
     // remove args, push return value and continue with next insn
     // (DirectCallStackFrames don't use this)
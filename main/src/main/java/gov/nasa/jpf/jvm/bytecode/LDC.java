@@ -21,6 +21,7 @@ import gov.nasa.jpf.vm.Instruction;
 import gov.nasa.jpf.vm.ClassInfo;
 import gov.nasa.jpf.vm.ElementInfo;
 import gov.nasa.jpf.vm.LoadOnJPFRequired;
+import gov.nasa.jpf.vm.MethodInfo;
 import gov.nasa.jpf.vm.StackFrame;
 import gov.nasa.jpf.vm.ThreadInfo;
 import gov.nasa.jpf.vm.Types;
@@ -39,6 +40,10 @@ public class LDC extends Instruction implements JVMInstruction {
   protected String  string;  // the string value if Type.STRING, classname if Type.CLASS
   protected int     value;
 
+  // quickened state for Type.CLASS - the resolved ClassInfo. Registration still
+  // has to be checked on each execution since it is backtracked
+  protected ClassInfo ciResolved;
+
   public LDC() {}
 
   public LDC (String s, boolean isClass){
@@ -80,12 +85,15 @@ public class LDC extends Instruction implements JVMInstruction {
         break;
 
       case CLASS:
-        ClassInfo ci;
-        // resolve the referenced class
-        try {
-          ci = ti.resolveReferencedClass(string);
-        } catch(LoadOnJPFRequired lre) {
-          return frame.getPC();
+        ClassInfo ci = ciResolved;
+        if (ci == null) {
+          // resolve the referenced class
+          try {
+            ci = ti.resolveReferencedClass(string);
+          } catch(LoadOnJPFRequired lre) {
+            return frame.getPC();
+          }
+          ciResolved = ci;
         }
 
         // LDC doesn't cause a <clinit> - we only register all required classes
@@ -154,4 +162,11 @@ public class LDC extends Instruction implements JVMInstruction {
   public void accept(JVMInstructionVisitor insVisitor) {
 	  insVisitor.visit(this);
   }
+
+  @Override
+  public Instruction typeSafeClone(MethodInfo mi) {
+    LDC clone = (LDC) super.typeSafeClone(mi);
+    clone.ciResolved = null; // different classloader
+    return clone;
+  }
 }
@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.listener;
+
+import gov.nasa.jpf.ListenerAdapter;
+import gov.nasa.jpf.jvm.bytecode.IINC;
+import gov.nasa.jpf.jvm.bytecode.JVMInvokeInstruction;
+import gov.nasa.jpf.jvm.bytecode.MULTIANEWARRAY;
+import gov.nasa.jpf.jvm.bytecode.SwitchInstruction;
+import gov.nasa.jpf.search.Search;
+import gov.nasa.jpf.util.ObjectList;
+import gov.nasa.jpf.vm.ClassInfo;
+import gov.nasa.jpf.vm.ClassLoaderInfo;
+import gov.nasa.jpf.vm.ElementInfo;
+import gov.nasa.jpf.vm.Fields;
+import gov.nasa.jpf.vm.Instruction;
+import gov.nasa.jpf.vm.MJIEnv;
+import gov.nasa.jpf.vm.MethodInfo;
+import gov.nasa.jpf.vm.StackFrame;
+import gov.nasa.jpf.vm.ThreadInfo;
+import gov.nasa.jpf.vm.VM;
+import gov.nasa.jpf.vm.choice.IntPartitionAttr;
+import gov.nasa.jpf.vm.choice.IntPartitionGenerator;
+
+import java.util.HashSet;
+
+/**
+ * listener that drives the lazy splitting of IntPartitionGenerator choices.
+ * 
+ * Values obtained from such CGs carry an IntPartitionAttr, which is propagated
+ * by the VM through locals, fields, array elements, calls and returns, and by
+ * us through IADD, ISUB and IINC with concrete operands. Comparisons and switches
+ * on attributed values split the current partition at the tested thresholds.
+ * Any other use of such a value (arithmetic, conversion, array index, native
+ * call arguments etc.) concretizes the partition, since we can't tell how the
+ * result would be used. Native methods can also read fields of the objects they
+ * get passed (e.g. sun.misc.Unsafe or java.lang.reflect.Field), which loses
+ * the attributes, hence we concretize tracked values stored in such objects.
+ * 
+ * Since attributes don't contribute to state hashing, a visited state might
+ * hide comparisons further down the path. If a non-singleton partition is still
+ * live in such a state, we concretize it and leave the other values to
+ * subsequent choices.
+ * 
+ * This listener is automatically added by Verify.getInt(int,int) if
+ * vm.verify.int_partition is set
+ */
+public class IntPartitionTracker extends ListenerAdapter {
+
+  // the attribute of an IADD/ISUB result, set in instructionExecuted
+  protected IntPartitionAttr resultAttr;
+
+  //--- the VMListener interface
+
+  @Override
+  public void executeInstruction (VM vm, ThreadInfo ti, Instruction insn){
+    StackFrame frame = ti.getTopFrame();
+    if (frame == null || !frame.hasAttrs()){
+      return;
+    }
+
+    int bc = insn.getByteCode();
+    switch (bc){
+      case 0x99: // IFEQ
+      case 0x9a: // IFNE
+        compare(frame, 0, 0);
+        break;
+      case 0x9b: // IFLT
+      case 0x9c: // IFGE
+        compareLess(frame, 0, 0);
+        break;
+      case 0x9d: // IFGT
+      case 0x9e: // IFLE
+        compareLessOrEqual(frame, 0, 0);
+        break;
+
+      case 0x9f: // IF_ICMPEQ
+      case 0xa0: // IF_ICMPNE
+        compareOperands(frame, bc);
+        break;
+      case 0xa1: // IF_ICMPLT
+      case 0xa2: // IF_ICMPGE
+      case 0xa3: // IF_ICMPGT
+      case 0xa4: // IF_ICMPLE
+        compareOperands(frame, bc);
+        break;
+
+      case 0xaa: // TABLESWITCH
+      case 0xab: // LOOKUPSWITCH
+        IntPartitionAttr a = frame.getOperandAttr(0, IntPartitionAttr.class);
+        if (a != null){
+          for (int c : ((SwitchInstruction)insn).getMatches()){
+            a.compare(c);
+          }
+        }
+        break;
+
+      case 0x60: // IADD
+      case 0x64: // ISUB
+        resultAttr = getArithmeticAttr(frame, bc == 0x64);
+        break;
+
+      case 0x84: // IINC
+        IINC iinc = (IINC)insn;
+        a = frame.getLocalAttr(iinc.getIndex(), IntPartitionAttr.class);
+        if (a != null){
+          if (a.canAdd(iinc.getIncrement())){
+            ti.getModifiableTopFrame().replaceLocalAttr(iinc.getIndex(), a, a.add(iinc.getIncrement()));
+          } else {
+            a.concretize();
+          }
+        }
+        break;
+
+      case 0xb6: // INVOKEVIRTUAL
+      case 0xb7: // INVOKESPECIAL
+      case 0xb8: // INVOKESTATIC
+      case 0xb9: // INVOKEINTERFACE
+      case 0xba: // INVOKEDYNAMIC
+        checkNativeCall(ti, frame, (JVMInvokeInstruction)insn);
+        break;
+
+      //--- binary operations we don't track
+      case 0x68: // IMUL
+      case 0x6c: // IDIV
+      case 0x70: // IREM
+      case 0x78: // ISHL
+      case 0x7a: // ISHR
+      case 0x7c: // IUSHR
+      case 0x7e: // IAND
+      case 0x80: // IOR
+      case 0x82: // IXOR
+        concretize(frame, 0);
+        concretize(frame, 1);
+        break;
+
+      //--- array stores, the value attr is stored with the element
+      case 0x4f: // IASTORE
+      case 0x53: // AASTORE
+      case 0x54: // BASTORE
+      case 0x55: // CASTORE
+      case 0x56: // SASTORE
+      case 0x51: // FASTORE
+        concretize(frame, 1);
+        break;
+      case 0x50: // LASTORE
+      case 0x52: // DASTORE
+        concretize(frame, 2);
+        break;
+
+      case 0xc5: // MULTIANEWARRAY
+        int nDims = ((MULTIANEWARRAY)insn).getDimensions();
+        for (int i=0; i<nDims; i++){
+          concretize(frame, i);
+        }
+        break;
+
+      default:
+        if (!isTransparent(bc)){
+          concretize(frame, 0);
+        }
+    }
+  }
+
+  @Override
+  public void instructionExecuted (VM vm, ThreadInfo ti, Instruction nextInsn, Instruction executedInsn){
+    if (resultAttr != null){
+      ti.getModifiableTopFrame().addOperandAttr(resultAttr);
+      resultAttr = null;
+    }
+  }
+
+  //--- the SearchListener interface
+
+  @Override
+  public void stateAdvanced (Search search){
+    if (search.isVisitedState() && !search.isEndState()){
+      VM vm = search.getVM();
+      IntPartitionGenerator[] cgs = vm.getChoiceGeneratorsOfType(IntPartitionGenerator.class);
+      if (hasOpenPartitions(cgs)){
+        HashSet<IntPartitionGenerator> liveCgs = getLiveChoiceGenerators(vm);
+        for (IntPartitionGenerator cg : cgs){
+          if (!cg.isSingleValue() && liveCgs.contains(cg)){
+            cg.concretize();
+          }
+        }
+      }
+    }
+  }
+
+  //--- internals
+
+  /**
+   * instructions that don't consume int operands, or just pass them on
+   * together with their attributes (loads, stores, field access, stack
+   * manipulation, returns and JPF specific extended instructions)
+   */
+  protected boolean isTransparent (int bc){
+    return (bc <= 0x2d)                   // NOP, constants, loads
+        || (bc >= 0x36 && bc <= 0x4e)     // stores
+        || (bc >= 0x57 && bc <= 0x5f)     // POP, DUP, SWAP
+        || (bc >= 0xa7 && bc <= 0xa9)     // GOTO, JSR, RET
+        || (bc >= 0xac && bc <= 0xb5)     // returns, field access
+        || (bc == 0xbb)                   // NEW
+        || (bc == 0xc8) || (bc == 0xc9)   // GOTO_W, JSR_W
+        || (bc > 0xff);                   // extended instructions
+  }
+
+  protected void compare (StackFrame frame, int offset, long c){
+    IntPartitionAttr a = frame.getOperandAttr(offset, IntPartitionAttr.class);
+    if (a != null){
+      a.compare(c);
+    }
+  }
+
+  protected void compareLess (StackFrame frame, int offset, long c){
+    IntPartitionAttr a = frame.getOperandAttr(offset, IntPartitionAttr.class);
+    if (a != null){
+      a.compareLess(c);
+    }
+  }
+
+  protected void compareLessOrEqual (StackFrame frame, int offset, long c){
+    IntPartitionAttr a = frame.getOperandAttr(offset, IntPartitionAttr.class);
+    if (a != null){
+      a.compareLessOrEqual(c);
+    }
+  }
+
+  /**
+   * IF_ICMPxx compares (v1 op v2), with v2 on top of the operand stack
+   */
+  protected void compareOperands (StackFrame frame, int bc){
+    IntPartitionAttr a1 = frame.getOperandAttr(1, IntPartitionAttr.class);
+    IntPartitionAttr a2 = frame.getOperandAttr(0, IntPartitionAttr.class);
+
+    if (a1 != null && a2 != null){
+      if (a1.getChoiceGenerator() != a2.getChoiceGenerator()){
+        a1.concretize(); // relation between two choices, that's no threshold
+        a2.concretize();
+      } // otherwise the outcome only depends on the offsets
+
+    } else if (a1 != null){
+      long v2 = frame.peek(0);
+      switch (bc){
+        case 0xa1: // v1 < v2
+        case 0xa2: // v1 >= v2
+          a1.compareLess(v2);
+          break;
+        case 0xa3: // v1 > v2
+        case 0xa4: // v1 <= v2
+          a1.compareLessOrEqual(v2);
+          break;
+        default:
+          a1.compare(v2);
+      }
+
+    } else if (a2 != null){
+      long v1 = frame.peek(1);
+      switch (bc){
+        case 0xa1: // v1 < v2  <=> v2 > v1
+        case 0xa2: // v1 >= v2 <=> v2 <= v1
+          a2.compareLessOrEqual(v1);
+          break;
+        case 0xa3: // v1 > v2  <=> v2 < v1
+        case 0xa4: // v1 <= v2 <=> v2 >= v1
+          a2.compareLess(v1);
+          break;
+        default:
+          a2.compare(v1);
+      }
+    }
+  }
+
+  /**
+   * IADD/ISUB with one concrete operand keep the result in offset form
+   */
+  protected IntPartitionAttr getArithmeticAttr (StackFrame frame, boolean isSub){
+    IntPartitionAttr a1 = frame.getOperandAttr(1, IntPartitionAttr.class);
+    IntPartitionAttr a2 = frame.getOperandAttr(0, IntPartitionAttr.class);
+
+    if (a1 != null && a2 == null){
+      long delta = isSub ? -(long)frame.peek(0) : frame.peek(0);
+      if (a1.canAdd(delta)){
+        return a1.add(delta);
+      }
+      a1.concretize();
+
+    } else if (a2 != null && a1 == null && !isSub){
+      long delta = frame.peek(1);
+      if (a2.canAdd(delta)){
+        return a2.add(delta);
+      }
+      a2.concretize();
+
+    } else {
+      concretize(frame, 0);
+      concretize(frame, 1);
+    }
+
+    return null;
+  }
+
+  /**
+   * we can't see what native methods do with their arguments, or with the
+   * fields of the objects they get passed
+   */
+  protected void checkNativeCall (ThreadInfo ti, StackFrame frame, JVMInvokeInstruction call){
+    MethodInfo callee = call.getInvokedMethod(ti);
+    int argSize;
+    if (callee == null){
+      argSize = call.getArgSize();
+    } else if (callee.isMJI() || callee.isNative()){
+      argSize = callee.getArgumentsSize();
+    } else {
+      return;
+    }
+
+    for (int i=0; i<argSize; i++){
+      concretize(frame, i);
+      if (frame.isOperandRef(i)){
+        concretizeReferenced(ti, frame.peek(i));
+      }
+    }
+  }
+
+  protected void concretizeReferenced (ThreadInfo ti, int objRef){
+    if (objRef == MJIEnv.NULL){
+      return;
+    }
+
+    ElementInfo ei = ti.getElementInfo(objRef);
+    if (ei == null){
+      return;
+    }
+    concretizeFields(ei);
+
+    String clsName = ei.getClassInfo().getName();
+    if (clsName.equals("java.lang.Class")){
+      ClassInfo ci = ti.getEnv().getReferredClassInfo(objRef);
+      if (ci != null && ci.getStaticElementInfo() != null){
+        concretizeFields(ci.getStaticElementInfo());
+      }
+
+    } else if (clsName.equals("java.lang.reflect.Field")){
+      // we don't know which class the field belongs to, and it might be static
+      for (ClassLoaderInfo cl : ti.getVM().getClassLoaderList()){
+        for (ElementInfo sei : cl.getStatics()){
+          concretizeFields(sei);
+        }
+      }
+    }
+  }
+
+  protected void concretizeFields (ElementInfo ei){
+    Fields fields = ei.getFields();
+    if (fields.hasFieldAttr(IntPartitionAttr.class)){
+      int n = ei.isArray() ? ei.arrayLength() : ei.getNumberOfFields();
+      for (int i=0; i<n; i++){
+        Object attr = fields.getFieldAttr(i);
+        if (attr != null){
+          for (IntPartitionAttr a : ObjectList.typedIterator(attr, IntPartitionAttr.class)){
+            a.concretize();
+          }
+        }
+      }
+    }
+  }
+
+  protected void concretize (StackFrame frame, int offset){
+    IntPartitionAttr a = frame.getOperandAttr(offset, IntPartitionAttr.class);
+    if (a != null){
+      a.concretize();
+    }
+  }
+
+  protected boolean hasOpenPartitions (IntPartitionGenerator[] cgs){
+    for (IntPartitionGenerator cg : cgs){
+      if (!cg.isSingleValue()){
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected HashSet<IntPartitionGenerator> getLiveChoiceGenerators (VM vm){
+    HashSet<IntPartitionGenerator> liveCgs = new HashSet<IntPartitionGenerator>();
+
+    for (ThreadInfo ti : vm.getThreadList()){
+      for (StackFrame frame = ti.getTopFrame(); frame != null; frame = frame.getPrevious()){
+        if (frame.hasAttrs()){
+          for (int i=0; i<=frame.getTopPos(); i++){
+            addLiveChoiceGenerator(liveCgs, frame.getSlotAttr(i));
+          }
+        }
+      }
+    }
+
+    for (ElementInfo ei : vm.getHeap().liveObjects()){
+      addLiveChoiceGenerators(liveCgs, ei);
+    }
+
+    for (ClassLoaderInfo cl : vm.getClassLoaderList()){
+      for (ElementInfo ei : cl.getStatics()){
+        addLiveChoiceGenerators(liveCgs, ei);
+      }
+    }
+
+    return liveCgs;
+  }
+
+  protected void addLiveChoiceGenerators (HashSet<IntPartitionGenerator> liveCgs, ElementInfo ei){
+    Fields fields = ei.getFields();
+    if (fields.hasFieldAttr(IntPartitionAttr.class)){
+      int n = ei.isArray() ? ei.arrayLength() : ei.getNumberOfFields();
+      for (int i=0; i<n; i++){
+        addLiveChoiceGenerator(liveCgs, fields.getFieldAttr(i));
+      }
+    }
+  }
+
+  protected void addLiveChoiceGenerator (HashSet<IntPartitionGenerator> liveCgs, Object attr){
+    if (attr != null){
+      for (IntPartitionAttr a : ObjectList.typedIterator(attr, IntPartitionAttr.class)){
+        liveCgs.add(a.getChoiceGenerator());
+      }
+    }
+  }
+}
@@ -20,11 +20,11 @@ package gov.nasa.jpf.listener;
 import gov.nasa.jpf.Config;
 import gov.nasa.jpf.PropertyListenerAdapter;
 import gov.nasa.jpf.search.Search;
+import gov.nasa.jpf.util.IntHashSet;
 import gov.nasa.jpf.vm.VM;
 import gov.nasa.jpf.vm.SystemState;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 
 
 /**
@@ -40,7 +40,7 @@ import java.util.HashSet;
 
 public class NoStateCycles extends PropertyListenerAdapter {
 
-  private final HashSet<Integer>   m_inStack = new HashSet<Integer>();
+  private final IntHashSet         m_inStack = new IntHashSet();
   private final ArrayList<Integer> m_stack   = new ArrayList<Integer>();
 
   private int m_cycleFound = -1;
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.listener;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.JPF;
+import gov.nasa.jpf.ListenerAdapter;
+import gov.nasa.jpf.report.ConsolePublisher;
+import gov.nasa.jpf.report.Publisher;
+import gov.nasa.jpf.search.Search;
+import gov.nasa.jpf.util.JPFLogger;
+import gov.nasa.jpf.vm.Instruction;
+import gov.nasa.jpf.vm.MethodInfo;
+import gov.nasa.jpf.vm.StackFrame;
+import gov.nasa.jpf.vm.ThreadInfo;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * a sampling profiler that attributes host CPU time of the JPF run to SUT
+ * methods, bytecodes and JPF phases (instruction execution, native peers,
+ * state storage/matching, backtracking, CG processing, gc).
+ *
+ * Instead of observing each instruction (which heavily distorts timing, see
+ * InsnCounter, ExecTracker or StackTracker), a background host thread samples
+ * the SUT stack of ThreadInfo.getCurrentThread() and the host stack of the
+ * JPF thread every 'profiler.interval' micro seconds. Since this listener
+ * does not implement any instruction notification, it does not disable the
+ * listener free instruction loop of the VM, and is cheap enough to stay on.
+ *
+ * Samples are aggregated into collapsed stacks ("frame;frame;..;frame count",
+ * root first) as consumed by flamegraph tools. The thread name and SUT frames
+ * (class.method, without signature) are followed by the current bytecode and
+ * the JPF phase. The collapsed stacks are written through the Reporter when the
+ * search is finished, either into 'profiler.file' or as a ConsolePublisher
+ * topic (showing the 'profiler.max_lines' hottest stacks).
+ *
+ * Note that we read the SUT stack racily, i.e. samples can be slightly off if
+ * they are taken while the stack changes
+ */
+public class SamplingProfiler extends ListenerAdapter {
+
+  static JPFLogger log = JPF.getLogger("gov.nasa.jpf.listener.SamplingProfiler");
+
+  static final String[][] PHASES = {
+    // prefix of host "class.method" name, phase (first match from top of host stack wins).
+    // Note that classload entries have to be specific since ClassInfos, ClassLoaderInfos
+    // and JVMClassInfo are also used during normal execution, and gc entries have to
+    // come before the generic heap entry (GenericHeap.markChanged is not part of gc)
+    { "gov.nasa.jpf.vm.serialize.", "serialize" },
+    { "gov.nasa.jpf.vm.JenkinsStateSet", "match" },
+    { "gov.nasa.jpf.vm.SerializingStateSet", "match" },
+    { "gov.nasa.jpf.vm.DefaultBacktracker", "backtrack" },
+    { "gov.nasa.jpf.vm.GenericHeap.markChanged", "heap" },
+    { "gov.nasa.jpf.vm.GenericHeap.gc", "gc" },
+    { "gov.nasa.jpf.vm.GenericHeap.mark", "gc" },
+    { "gov.nasa.jpf.vm.GenericHeap.sweep", "gc" },
+    { "gov.nasa.jpf.vm.GenericHeap.collectGenerations", "gc" },
+    { "gov.nasa.jpf.vm.ThreadInfo.markRoots", "gc" },
+    { "gov.nasa.jpf.vm.GenericHeap", "heap" },
+    { "gov.nasa.jpf.vm.NativePeer", "native" },
+    { "gov.nasa.jpf.vm.JPF_", "native" },
+    { "gov.nasa.jpf.vm.choice.", "cg" },
+    { "gov.nasa.jpf.vm.SystemState", "cg" },
+    { "gov.nasa.jpf.report.", "report" },
+    { "gov.nasa.jpf.search.", "search" },
+    { "gov.nasa.jpf.jvm.ClassFile", "classload" },
+    { "gov.nasa.jpf.jvm.JVMAnnotationParser", "classload" },
+    { "gov.nasa.jpf.jvm.JVMClassInfo$Initializer", "classload" },
+    { "gov.nasa.jpf.jvm.JVMClassInfo.<init>", "classload" },
+    { "gov.nasa.jpf.jvm.JVMClassFileContainer", "classload" },
+    { "gov.nasa.jpf.jvm.DirClassFileContainer", "classload" },
+    { "gov.nasa.jpf.jvm.JarClassFileContainer", "classload" },
+    { "gov.nasa.jpf.jvm.JVMSystemClassLoaderInfo.createClassInfo", "classload" },
+    { "gov.nasa.jpf.vm.ClassPath.", "classload" },
+    { "gov.nasa.jpf.vm.ClassLoaderInfo.createClassInfo", "classload" },
+    { "gov.nasa.jpf.vm.ClassLoaderInfo.loadClass", "classload" },
+    { "gov.nasa.jpf.vm.SystemClassLoaderInfo.loadClass", "classload" },
+    { "gov.nasa.jpf.vm.ClassInfo.<init>", "classload" }
+  };
+
+  protected long intervalNanos;
+  protected String fileName;
+  protected int maxLines;
+  protected int maxDepth;
+
+  protected volatile Thread jpfThread;
+  protected Thread sampler;
+
+  protected final HashMap<String,long[]> stacks = new HashMap<String,long[]>();
+  protected long nSamples;
+
+  class Sampler implements Runnable {
+    @Override
+    public void run() {
+      StringBuilder sb = new StringBuilder(256);
+
+      while (jpfThread != null){
+        LockSupport.parkNanos(intervalNanos);
+
+        Thread t = jpfThread;
+        if (t != null){
+          sb.setLength(0);
+          try {
+            sample(t, sb);
+          } catch (RuntimeException x){
+            // racy SUT stack read, skip sample
+            continue;
+          }
+
+          String key = sb.toString();
+          synchronized (stacks){
+            long[] count = stacks.get(key);
+            if (count == null){
+              stacks.put(key, new long[] { 1 });
+            } else {
+              count[0]++;
+            }
+            nSamples++;
+          }
+        }
+      }
+    }
+  }
+
+  public SamplingProfiler (Config config, JPF jpf){
+    intervalNanos = TimeUnit.MICROSECONDS.toNanos(config.getInt("profiler.interval", 1000));
+    fileName = config.getString("profiler.file");
+    maxLines = config.getInt("profiler.max_lines", 20);
+    maxDepth = config.getInt("profiler.max_depth", 64);
+
+    jpf.addPublisherExtension(ConsolePublisher.class, this);
+  }
+
+  protected void sample (Thread t, StringBuilder sb){
+    String phase = getPhase(t.getStackTrace());
+
+    ThreadInfo ti = ThreadInfo.getCurrentThread();
+    StackFrame top = (ti != null) ? ti.getTopFrame() : null;
+
+    if (top != null){
+      appendName(sb, ti.getName());
+      appendFrames(sb, top, 0);
+
+      Instruction insn = top.getPC();
+      if (insn != null){
+        sb.append(';');
+        sb.append(insn.getMnemonic());
+        sb.append('@');
+        sb.append(insn.getPosition());
+      }
+    } else {
+      sb.append("<no_SUT_thread>");
+    }
+
+    sb.append(";[");
+    sb.append(phase);
+    sb.append(']');
+  }
+
+  // root first
+  void appendFrames (StringBuilder sb, StackFrame frame, int depth){
+    StackFrame prev = frame.getPrevious();
+    if (prev != null && depth < maxDepth){
+      appendFrames(sb, prev, depth+1);
+    }
+
+    MethodInfo mi = frame.getMethodInfo();
+    if (mi != null){
+      // no signature, its ';' would break the collapsed stack format
+      sb.append(';');
+      sb.append(mi.getBaseName());
+    }
+  }
+
+  // frames are ';' separated, and the count is separated by the last ' '
+  void appendName (StringBuilder sb, String name){
+    for (int i=0; i<name.length(); i++){
+      char c = name.charAt(i);
+      if (c == ';' || Character.isWhitespace(c)){
+        c = '_';
+      }
+      sb.append(c);
+    }
+  }
+
+  public static String getPhase (StackTraceElement[] hostStack){
+    for (StackTraceElement e : hostStack){
+      String cls = e.getClassName();
+      if (cls.startsWith("gov.nasa.jpf.")){
+        String mth = cls + '.' + e.getMethodName();
+        for (String[] p : PHASES){
+          if (mth.startsWith(p[0])){
+            return p[1];
+          }
+        }
+        if (cls.startsWith("gov.nasa.jpf.vm.ThreadInfo")){
+          return "execute";
+        }
+      }
+    }
+    return "jpf";
+  }
+
+  //--- SearchListener interface
+
+  @Override
+  public void searchStarted (Search search){
+    synchronized (stacks){
+      stacks.clear();
+      nSamples = 0;
+    }
+
+    jpfThread = Thread.currentThread();
+    sampler = new Thread( new Sampler(), "jpf-sampling-profiler");
+    sampler.setDaemon(true);
+    sampler.start();
+  }
+
+  @Override
+  public void searchFinished (Search search){
+    jpfThread = null;
+
+    if (sampler != null){
+      try {
+        sampler.join();
+      } catch (InterruptedException ix){
+        Thread.currentThread().interrupt();
+      }
+      sampler = null;
+    }
+  }
+
+  //--- PublisherExtension interface
+
+  @Override
+  public void publishFinished (Publisher publisher) {
+    ArrayList<Map.Entry<String,long[]>> list;
+    synchronized (stacks){
+      list = new ArrayList<Map.Entry<String,long[]>>(stacks.entrySet());
+    }
+
+    Collections.sort(list, new Comparator<Map.Entry<String,long[]>>(){
+      @Override
+      public int compare (Map.Entry<String,long[]> e1, Map.Entry<String,long[]> e2) {
+        return Long.compare(e2.getValue()[0], e1.getValue()[0]);
+      }
+    });
+
+    PrintWriter pw = publisher.getOut();
+    publisher.publishTopicStart("sampling profile");
+    pw.print("samples:                 ");
+    pw.println(nSamples);
+    pw.print("interval [us]:           ");
+    pw.println(TimeUnit.NANOSECONDS.toMicros(intervalNanos));
+
+    if (fileName != null){
+      try {
+        PrintWriter fw = new PrintWriter( new FileWriter(fileName));
+        writeCollapsedStacks(fw, list, Integer.MAX_VALUE);
+        fw.close();
+        pw.print("collapsed stacks:        ");
+        pw.println(fileName);
+
+      } catch (IOException iox){
+        log.warning("cannot write profile to " + fileName + ": ", iox.getMessage());
+      }
+
+    } else {
+      pw.println();
+      writeCollapsedStacks(pw, list, maxLines);
+    }
+  }
+
+  protected void writeCollapsedStacks (PrintWriter pw, ArrayList<Map.Entry<String,long[]>> list, int max){
+    int n = 0;
+    for (Map.Entry<String,long[]> e : list){
+      if (n++ >= max){
+        pw.println("...");
+        break;
+      }
+      pw.print(e.getKey());
+      pw.print(' ');
+      pw.println(e.getValue()[0]);
+    }
+    pw.flush();
+  }
+}
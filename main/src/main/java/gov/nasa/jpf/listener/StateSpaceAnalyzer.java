@@ -29,6 +29,7 @@ import gov.nasa.jpf.report.ConsolePublisher;
 import gov.nasa.jpf.report.Publisher;
 import gov.nasa.jpf.report.PublisherExtension;
 import gov.nasa.jpf.search.Search;
+import gov.nasa.jpf.util.HeavyHitterSketch;
 import gov.nasa.jpf.vm.BooleanChoiceGenerator;
 import gov.nasa.jpf.vm.ChoiceGenerator;
 import gov.nasa.jpf.vm.ClassInfo;
@@ -65,6 +66,12 @@ import java.util.Map;
  *
  *  - what CGs do we have
  *  - what creates those CGs (thread,insn,source) = last step insn
+ *
+ * Since the exact grouping trees grow with the number of CG locations, there
+ * is a 'ssa.sketch' mode that instead uses fixed size HeavyHitterSketches
+ * over CG methods, CG instructions and CG types (weighted by number of choices),
+ * which reports the top contributors with error bounds and can be kept on
+ * during long runs.
  */
 public class StateSpaceAnalyzer extends ListenerAdapter implements PublisherExtension {
   // Search termination conditions
@@ -78,6 +85,11 @@ public class StateSpaceAnalyzer extends ListenerAdapter implements PublisherExte
   private long m_terminateTime;
   private int m_choiceCount;
 
+  // only used in sketch mode, in which case we don't have groupers
+  private HeavyHitterSketch<String> m_methodSketch;
+  private HeavyHitterSketch<Instruction> m_insnSketch;
+  private HeavyHitterSketch<CGType> m_typeSketch;
+
   public StateSpaceAnalyzer(Config config, JPF jpf) {
     m_maxStates = config.getInt("ssa.max_states", -1);
     m_maxTime = config.getDuration("ssa.max_time", -1);
@@ -85,7 +97,11 @@ public class StateSpaceAnalyzer extends ListenerAdapter implements PublisherExte
     m_maxChoices = config.getInt("ssa.max_choices", -1);
     m_maxOutputLines = config.getInt("ssa.max_output_lines", 10);
 
-    initGroupers(config);
+    if (config.getBoolean("ssa.sketch", false)) {
+      initSketches(config);
+    } else {
+      initGroupers(config);
+    }
 
     jpf.addPublisherExtension(ConsolePublisher.class, this);
   }
@@ -119,6 +135,16 @@ public class StateSpaceAnalyzer extends ListenerAdapter implements PublisherExte
     }
   }
 
+  private void initSketches(Config config) {
+    int topK = Math.max(m_maxOutputLines, config.getInt("ssa.sketch.top_k", 50));
+    int width = config.getInt("ssa.sketch.width", 4096);
+    int depth = config.getInt("ssa.sketch.depth", 4);
+
+    m_methodSketch = new HeavyHitterSketch<String>(topK, width, depth);
+    m_insnSketch = new HeavyHitterSketch<Instruction>(topK, width, depth);
+    m_typeSketch = new HeavyHitterSketch<CGType>(CGType.values().length, 64, 1);
+  }
+
   private CGGrouper initGrouper(Config config, String parameter, Map<String, CGAccessor> accessors) {
     CGGrouper grouper;
     CGAccessor list[];
@@ -169,16 +195,51 @@ public class StateSpaceAnalyzer extends ListenerAdapter implements PublisherExte
 
     m_choiceCount += newCG.getTotalNumberOfChoices();
 
+    if (m_insnSketch != null) {
+      addToSketches(newCG);
+      return;
+    }
+
     for (i = m_groupers.size(); --i >= 0; )
       m_groupers.get(i).add(newCG);
   }
 
+  private void addToSketches(ChoiceGenerator<?> generator) {
+    Instruction instruction;
+    Object type;
+    String method;
+    int choices;
+
+    choices = generator.getTotalNumberOfChoices();
+
+    instruction = generator.getInsn();
+    if (instruction != null) {
+      m_insnSketch.add(instruction, choices);
+
+      method = (String) s_methodAccessor.getValue(generator);
+      if (method != null) {
+        m_methodSketch.add(method, choices);
+      }
+    }
+
+    type = s_typeAccessor.getValue(generator);
+    if (type != null) {
+      m_typeSketch.add((CGType) type, choices);
+    }
+  }
+
   @Override
   public void searchStarted(Search search) {
     int i;
     
     for (i = m_groupers.size(); --i >= 0; )
       m_groupers.get(i).clear();
+
+    if (m_insnSketch != null) {
+      m_methodSketch.clear();
+      m_insnSketch.clear();
+      m_typeSketch.clear();
+    }
     
     m_choiceCount = 0;
     m_terminateTime = m_maxTime + System.currentTimeMillis();
@@ -219,10 +280,71 @@ public class StateSpaceAnalyzer extends ListenerAdapter implements PublisherExte
     m_groupers.toArray(groupers);
 
     if (publisher instanceof ConsolePublisher) {
-      new PublishConsole((ConsolePublisher) publisher, groupers, m_maxOutputLines).publish();
+      if (m_insnSketch != null) {
+        publishSketches((ConsolePublisher) publisher);
+      } else {
+        new PublishConsole((ConsolePublisher) publisher, groupers, m_maxOutputLines).publish();
+      }
+    }
+  }
+
+  private void publishSketches(ConsolePublisher publisher) {
+    PrintWriter output;
+
+    output = publisher.getOut();
+
+    publisher.publishTopicStart("Top CG types (choices)");
+    for (HeavyHitterSketch.Entry<CGType> entry : m_typeSketch.getTopEntries()) {
+      publishSketchEntry(output, entry, entry.getKey().toString());
+    }
+
+    publisher.publishTopicStart("Top CG methods (choices)");
+    publishSketch(output, m_methodSketch);
+
+    publisher.publishTopicStart("Top CG instructions (choices)");
+    int lines = 0;
+    for (HeavyHitterSketch.Entry<Instruction> entry : m_insnSketch.getTopEntries()) {
+      if (lines++ >= m_maxOutputLines) {
+        output.println("...");
+        break;
+      }
+
+      Instruction instruction = entry.getKey();
+      publishSketchEntry(output, entry, instruction.getFileLocation() + " : " + instruction.getMnemonic());
+    }
+
+    output.println();
+    output.print("total choices: ");
+    output.print(m_insnSketch.getTotal());
+    output.print(", max estimate error: ");
+    output.println(m_insnSketch.getEstimateError());
+  }
+
+  private void publishSketch(PrintWriter output, HeavyHitterSketch<String> sketch) {
+    int lines = 0;
+
+    for (HeavyHitterSketch.Entry<String> entry : sketch.getTopEntries()) {
+      if (lines++ >= m_maxOutputLines) {
+        output.println("...");
+        break;
+      }
+
+      publishSketchEntry(output, entry, entry.getKey());
     }
   }
 
+  private static void publishSketchEntry(PrintWriter output, HeavyHitterSketch.Entry<?> entry, String label) {
+    output.print("   ");
+    output.print(label);
+    output.print("  (choices: ");
+    output.print(entry.getCount());
+    if (entry.getError() > 0) {
+      output.print(" -");
+      output.print(entry.getError());
+    }
+    output.println(')');
+  }
+
   private enum CGType {
 
     FieldAccess,
@@ -245,6 +367,9 @@ public class StateSpaceAnalyzer extends ListenerAdapter implements PublisherExte
     public Object getValue(ChoiceGenerator generator);
   }
 
+  private static final CGAccessor s_methodAccessor = new CGMethodAccessor();
+  private static final CGAccessor s_typeAccessor = new CGTypeAccessor();
+
   private static class CGPackageAccessor implements CGAccessor {
 
     @Override
@@ -31,6 +31,7 @@ import gov.nasa.jpf.vm.bytecode.LocalVariableInstruction;
 import gov.nasa.jpf.report.ConsolePublisher;
 import gov.nasa.jpf.report.Publisher;
 import gov.nasa.jpf.search.Search;
+import gov.nasa.jpf.util.HeavyHitterSketch;
 import gov.nasa.jpf.util.MethodSpec;
 import gov.nasa.jpf.util.StringSetMatcher;
 import gov.nasa.jpf.vm.ElementInfo;
@@ -57,6 +58,10 @@ import java.util.List;
  * space blows up because of some counter/timer vars, and where to apply the
  * necessary abstractions to close/shrink it
  *
+ * With 'vt.sketch' set, we don't keep exact per-variable statistics but a
+ * fixed size HeavyHitterSketch, i.e. memory does not grow with the number of
+ * variables and the report shows the top variables with error bounds. Use
+ * this for long running searches
  */
 public class VarTracker extends ListenerAdapter {
 
@@ -72,6 +77,7 @@ public class VarTracker extends ListenerAdapter {
   ArrayList<VarChange> queue = new ArrayList<VarChange>();
   ThreadInfo lastThread;
   HashMap<String, VarStat> stat = new HashMap<String, VarStat>();
+  HeavyHitterSketch<String> sketch; // if set, we don't use 'stat'
   int nStates = 0;
   int maxDepth;
 
@@ -86,6 +92,12 @@ public class VarTracker extends ListenerAdapter {
 
     methodSpec = MethodSpec.createMethodSpec(config.getString("vt.methods", "!java.*.*"));
 
+    if (config.getBoolean("vt.sketch", false)){
+      sketch = new HeavyHitterSketch<String>(Math.max(maxVars, config.getInt("vt.sketch.top_k", 50)),
+                                             config.getInt("vt.sketch.width", 4096),
+                                             config.getInt("vt.sketch.depth", 4));
+    }
+
     jpf.addPublisherExtension(ConsolePublisher.class, this);
   }
 
@@ -109,6 +121,11 @@ public class VarTracker extends ListenerAdapter {
   }
   
   void report (PrintWriter pw) {
+    if (sketch != null){
+      reportSketch(pw);
+      return;
+    }
+
     pw.println();
     pw.println("      change    variable");
     pw.println("---------------------------------------");
@@ -131,6 +148,30 @@ public class VarTracker extends ListenerAdapter {
     }
   }
   
+  void reportSketch (PrintWriter pw) {
+    pw.println();
+    pw.println("      change       error    variable");
+    pw.println("---------------------------------------");
+
+    int n = 0;
+    for (HeavyHitterSketch.Entry<String> e : sketch.getTopEntries()) {
+      if (n++ > maxVars) {
+        break;
+      }
+
+      print(pw, (int)e.getCount(), 12);
+      print(pw, (int)e.getError(), 12);
+      pw.print("    ");
+      pw.println(e.getKey());
+    }
+
+    pw.println();
+    pw.print("total changes: ");
+    pw.print(sketch.getTotal());
+    pw.print(", max estimate error: ");
+    pw.println(sketch.getEstimateError());
+  }
+
   @Override
   public void stateAdvanced(Search search) {
     
@@ -140,7 +181,13 @@ public class VarTracker extends ListenerAdapter {
       int depth = search.getDepth();
       if (depth > maxDepth) maxDepth = depth;
       
-      if (!queue.isEmpty()) {
+      if (sketch != null) {
+        // queue entries are already unique per transition
+        for (int i=0; i<queue.size(); i++) {
+          sketch.add(queue.get(i).getVariableId());
+        }
+
+      } else if (!queue.isEmpty()) {
         for (Iterator<VarChange> it = queue.iterator(); it.hasNext(); ){
           VarChange change = it.next();
             String id = change.getVariableId();
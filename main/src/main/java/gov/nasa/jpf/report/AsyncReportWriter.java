@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.report;
+
+import java.io.PrintWriter;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * a background writer for publishers that don't want to format and write
+ * their output on the search thread. Clients post immutable events (which
+ * should only contain snapshots of the data they report, e.g. cloned
+ * Statistics) through a lock-free queue, and the writer thread formats
+ * and writes them in order.
+ *
+ * The search thread never blocks in post(), it only wakes up the writer if
+ * it is idle. close() drains the queue and waits for the writer to terminate
+ */
+public class AsyncReportWriter implements Runnable {
+
+  /**
+   * what we hand over to the writer thread. Implementors have to be
+   * immutable, since writeTo() is called asynchronously
+   */
+  public interface Event {
+    void writeTo (PrintWriter out);
+  }
+
+  // how long the writer sleeps if there is nothing to do
+  static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  protected final ConcurrentLinkedQueue<Event> queue = new ConcurrentLinkedQueue<Event>();
+  protected final PrintWriter out;
+  protected final Thread thread;
+
+  protected volatile boolean idle;
+  protected volatile boolean done;
+
+  public AsyncReportWriter (PrintWriter out, String name){
+    this.out = out;
+
+    thread = new Thread(this, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  public void post (Event e){
+    queue.offer(e);
+
+    if (idle){
+      LockSupport.unpark(thread);
+    }
+  }
+
+  @Override
+  public void run (){
+    while (true){
+      Event e = queue.poll();
+
+      if (e != null){
+        try {
+          e.writeTo(out);
+        } catch (Throwable t){
+          Reporter.log.warning("async report event failed: " + t);
+        }
+
+      } else {
+        out.flush();
+
+        if (done){
+          if (queue.isEmpty()){ // posted before close() - drain
+            break;
+          }
+        } else {
+          idle = true;
+          if (queue.isEmpty()){
+            LockSupport.parkNanos(this, IDLE_NANOS);
+          }
+          idle = false;
+        }
+      }
+    }
+  }
+
+  /**
+   * drain the queue and wait for the writer thread to terminate. This does
+   * not close the underlying PrintWriter
+   */
+  public void close (){
+    done = true;
+    LockSupport.unpark(thread);
+
+    try {
+      thread.join();
+    } catch (InterruptedException ix){
+      Reporter.log.warning("interrupted while waiting for async report writer");
+    }
+
+    out.flush();
+  }
+}
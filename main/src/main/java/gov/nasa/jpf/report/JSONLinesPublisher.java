@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.report;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.Error;
+import gov.nasa.jpf.JPF;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * a publisher that streams progress, errors, search constraints and results
+ * as JSON lines (one self contained JSON object per line), which can be
+ * tailed by external monitoring tools while JPF is running.
+ *
+ * All formatting and I/O is done by an AsyncReportWriter, the search thread
+ * only creates event objects with snapshots of the reported data.
+ * Each event has an "event" type (start, progress, error, constraint,
+ * result, statistics, finished) and the elapsed time in ms. Statistics that
+ * are reported while the search is running are "progress" events, the final
+ * ones are "statistics" events
+ *
+ * configured by
+ *   report.jsonl.file = <pathname>  ('-' for System.out, default report.jsonl)
+ */
+public class JSONLinesPublisher extends Publisher {
+
+  protected AsyncReportWriter writer;
+  protected boolean closeOut;
+
+  // the event type of published statistics, which changes once the search is finished
+  protected String statisticsEvent = "progress";
+
+  public JSONLinesPublisher (Config conf, Reporter reporter){
+    super(conf, reporter);
+  }
+
+  @Override
+  public String getName() {
+    return "jsonl";
+  }
+
+  @Override
+  protected void openChannel(){
+    if (out == null){
+      String fname = conf.getString("report.jsonl.file");
+      if (fname == null){
+        fname = getReportFileName("report.jsonl.file") + ".jsonl";
+      }
+
+      if ("-".equals(fname)){
+        out = new PrintWriter(System.out);
+      } else {
+        try {
+          out = new PrintWriter(fname);
+          closeOut = true;
+        } catch (FileNotFoundException fnfx){
+          Reporter.log.warning("cannot open JSON lines report file: " + fname);
+          out = new PrintWriter(System.out);
+        }
+      }
+    }
+
+    writer = new AsyncReportWriter(out, "jsonl-publisher");
+  }
+
+  @Override
+  protected void closeChannel(){
+    if (writer != null){
+      writer.close();
+      writer = null;
+    }
+
+    if (closeOut){
+      out.close();
+    }
+    out = null;
+  }
+
+  //--- the events
+
+  static abstract class JSONEvent implements AsyncReportWriter.Event {
+    final String type;
+    final long elapsed;
+
+    JSONEvent (String type, long elapsed){
+      this.type = type;
+      this.elapsed = elapsed;
+    }
+
+    @Override
+    public void writeTo (PrintWriter pw){
+      StringBuilder sb = new StringBuilder(128);
+      sb.append("{\"event\":");
+      appendString(sb, type);
+      sb.append(",\"elapsed\":");
+      sb.append(elapsed);
+      appendFields(sb);
+      sb.append('}');
+
+      pw.println(sb);
+    }
+
+    abstract void appendFields (StringBuilder sb);
+  }
+
+  static class MessageEvent extends JSONEvent {
+    final String key;
+    final String msg;
+
+    MessageEvent (String type, long elapsed, String key, String msg){
+      super(type, elapsed);
+      this.key = key;
+      this.msg = msg;
+    }
+
+    @Override
+    void appendFields (StringBuilder sb){
+      sb.append(",\"");
+      sb.append(key);
+      sb.append("\":");
+      appendString(sb, msg);
+    }
+  }
+
+  static class StatisticsEvent extends JSONEvent {
+    final Statistics stat; // a snapshot
+
+    StatisticsEvent (String type, long elapsed, Statistics stat){
+      super(type, elapsed);
+      this.stat = stat;
+    }
+
+    @Override
+    void appendFields (StringBuilder sb){
+      Statistics s = stat;
+      sb.append(",\"newStates\":").append(s.newStates);
+      sb.append(",\"visitedStates\":").append(s.visitedStates);
+      sb.append(",\"backtracked\":").append(s.backtracked);
+      sb.append(",\"endStates\":").append(s.endStates);
+      sb.append(",\"maxDepth\":").append(s.maxDepth);
+      sb.append(",\"constraints\":").append(s.constraints);
+      sb.append(",\"threadCGs\":").append(s.threadCGs);
+      sb.append(",\"dataCGs\":").append(s.dataCGs);
+      sb.append(",\"newObjects\":").append(s.nNewObjects);
+      sb.append(",\"releasedObjects\":").append(s.nReleasedObjects);
+      sb.append(",\"maxLiveObjects\":").append(s.maxLiveObjects);
+      sb.append(",\"gcCycles\":").append(s.gcCycles);
+      sb.append(",\"insns\":").append(s.insns);
+      sb.append(",\"maxMemory\":").append(s.maxUsed);
+    }
+  }
+
+  static class ErrorEvent extends JSONEvent {
+    final int id;
+    final String property;
+    final String description;
+    final String details;
+
+    ErrorEvent (long elapsed, Error e){
+      super("error", elapsed);
+      id = e.getId();
+      property = e.getProperty().getClass().getName();
+      description = e.getDescription();
+      details = e.getDetails();
+    }
+
+    @Override
+    void appendFields (StringBuilder sb){
+      sb.append(",\"id\":").append(id);
+      sb.append(",\"property\":");
+      appendString(sb, property);
+      sb.append(",\"description\":");
+      appendString(sb, description);
+      if (details != null){
+        sb.append(",\"details\":");
+        appendString(sb, details);
+      }
+    }
+  }
+
+  static class ResultEvent extends JSONEvent {
+    final int nErrors;
+
+    ResultEvent (long elapsed, int nErrors){
+      super("result", elapsed);
+      this.nErrors = nErrors;
+    }
+
+    @Override
+    void appendFields (StringBuilder sb){
+      sb.append(",\"errors\":").append(nErrors);
+    }
+  }
+
+  static void appendString (StringBuilder sb, String s){
+    if (s == null){
+      sb.append("null");
+      return;
+    }
+
+    sb.append('"');
+    for (int i=0; i<s.length(); i++){
+      char c = s.charAt(i);
+      switch (c){
+      case '"':  sb.append("\\\""); break;
+      case '\\': sb.append("\\\\"); break;
+      case '\n': sb.append("\\n"); break;
+      case '\r': sb.append("\\r"); break;
+      case '\t': sb.append("\\t"); break;
+      default:
+        if (c < 0x20){
+          sb.append(String.format("\\u%04x", (int)c));
+        } else {
+          sb.append(c);
+        }
+      }
+    }
+    sb.append('"');
+  }
+
+  protected void post (AsyncReportWriter.Event e){
+    if (writer != null){
+      writer.post(e);
+    }
+  }
+
+  @Override
+  public void publishFinished() {
+    statisticsEvent = "statistics";
+    super.publishFinished();
+  }
+
+  //--- the topics we support
+
+  @Override
+  protected void publishJPF() {
+    post( new MessageEvent("start", reporter.getElapsedTime(), "jpf", JPF.VERSION));
+  }
+
+  @Override
+  protected void publishSuT() {
+    String[] freeArgs = conf.getFreeArgs();
+    String sut = conf.getProperty("target");
+    if (sut == null && freeArgs != null && freeArgs.length > 0){
+      sut = freeArgs[0];
+    }
+    post( new MessageEvent("start", reporter.getElapsedTime(), "sut", sut));
+  }
+
+  @Override
+  protected void publishStatistics() {
+    Statistics stat = reporter.getStatistics();
+    if (stat != null){
+      post( new StatisticsEvent(statisticsEvent, reporter.getElapsedTime(), stat.clone()));
+    }
+  }
+
+  @Override
+  protected void publishError() {
+    Error e = reporter.getCurrentError();
+    if (e != null){
+      post( new ErrorEvent(reporter.getElapsedTime(), e));
+    }
+  }
+
+  @Override
+  protected void publishConstraint() {
+    post( new MessageEvent("constraint", reporter.getElapsedTime(), "constraint",
+                           reporter.getLastSearchConstraint()));
+  }
+
+  @Override
+  protected void publishResult() {
+    List<Error> errors = reporter.getErrors();
+    post( new ResultEvent(reporter.getElapsedTime(), errors.size()));
+  }
+
+  @Override
+  protected void publishEpilog() {
+    post( new MessageEvent("finished", reporter.getElapsedTime(), "status", "done"));
+  }
+}
@@ -93,11 +93,6 @@ public class Statistics extends ListenerAdapter implements Cloneable {
     gcCycles++;
   }
   
-  @Override
-  public void instructionExecuted (VM vm, ThreadInfo ti, Instruction nextInsn, Instruction executedInsn){
-    insns++;
-  }
-
   @Override
   public void choiceGeneratorSet (VM vm, ChoiceGenerator<?> newCG){
     ChoiceGenerator<?> cg = VM.getVM().getChoiceGenerator();
@@ -146,6 +141,10 @@ public class Statistics extends ListenerAdapter implements Cloneable {
   
   @Override
   public void stateAdvanced (Search search){
+    // we don't count insns with an instructionExecuted() notification since this
+    // would prevent the VM from using its listener-free execution loop
+    insns = search.getVM().getExecutedInstructionCount();
+
     long m = Runtime.getRuntime().totalMemory();
     if (m > maxUsed) {
       maxUsed = m;
@@ -167,6 +166,7 @@ public class Statistics extends ListenerAdapter implements Cloneable {
   
   @Override
   public void stateBacktracked (Search search){
+    insns = search.getVM().getExecutedInstructionCount();
     backtracked++;
   }
   
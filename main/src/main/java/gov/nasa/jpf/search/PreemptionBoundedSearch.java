@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.search;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.util.IntVector;
+import gov.nasa.jpf.vm.RestorableVMState;
+import gov.nasa.jpf.vm.ThreadChoiceGenerator;
+import gov.nasa.jpf.vm.ThreadInfo;
+import gov.nasa.jpf.vm.VM;
+
+/**
+ * an iterative depth first search that bounds the number of preemptive context
+ * switches, i.e. scheduling points at which we switch away from a thread that
+ * could still run. We first search with 0 preemptions, then with 1, 2 ... up
+ * to 'search.preemption_bound.max', or until an iteration did not prune any
+ * path, in which case the state space is exhaustively explored.
+ *
+ * Most concurrency defects only need a small number of preemptions, which we
+ * find in a small fraction of the whole state space.
+ *
+ * Visited states are kept between iterations. For each state we store with
+ * which remaining preemption budget it was explored, or if its sub-tree was
+ * completely explored. Subsequent iterations only re-enter matched states
+ * they reach with a larger remaining budget, and never re-enter complete ones.
+ */
+public class PreemptionBoundedSearch extends Search {
+
+  static final int COMPLETE = Integer.MAX_VALUE;
+
+  protected int minBound;
+  protected int maxBound;
+  protected int bound;
+
+  // per state id: 0 = not explored, COMPLETE, (remaining budget + 1) if explored
+  // with pruning, -(remaining budget + 1) while the state is on the stack
+  protected IntVector explored = new IntVector(4096);
+
+  // per depth
+  protected IntVector preemptions = new IntVector();
+  protected IntVector stateIds = new IntVector();
+  protected IntVector incomplete = new IntVector();
+  protected ThreadChoiceGenerator[] lastTcgs = new ThreadChoiceGenerator[64];
+
+  public PreemptionBoundedSearch (Config config, VM vm) {
+    super(config,vm);
+
+    minBound = config.getInt("search.preemption_bound.min", 0);
+    maxBound = config.getInt("search.preemption_bound.max", 2);
+  }
+
+  public int getPreemptionBound(){
+    return bound;
+  }
+
+  public int getPreemptions(){
+    return preemptions.get(depth);
+  }
+
+  @Override
+  public boolean requestBacktrack () {
+    doBacktrack = true;
+
+    return true;
+  }
+
+  @Override
+  public void search () {
+    RestorableVMState initState = vm.getRestorableState();
+
+    notifySearchStarted();
+
+    for (bound = minBound; bound <= maxBound; bound++) {
+      if (bound > minBound) {
+        vm.restoreState(initState);
+        notifyStateRestored();
+      }
+      log.info("preemption bound: ", bound);
+
+      if (!searchWithBound() || done) {
+        break;
+      }
+    }
+
+    notifySearchFinished();
+  }
+
+  /**
+   * one DFS iteration with the current preemption bound
+   *
+   * @return true if paths were pruned, i.e. we need another iteration
+   */
+  protected boolean searchWithBound () {
+    boolean leaveState = false;
+
+    depth = 0;
+    preemptions.set(0, 0);
+    stateIds.set(0, -1);
+    incomplete.set(0, 0);
+    lastTcgs[0] = null;
+
+    while (!done) {
+      if (leaveState || checkAndResetBacktrackRequest()) {
+        leaveState(depth);
+
+        if (depth == 0 || !backtrack()) {
+          break;
+        }
+
+        depth--;
+        notifyStateBacktracked();
+        leaveState = false;
+      }
+
+      if (forward()) {
+        depth++;
+        notifyStateAdvanced();
+
+        int p = preemptions.get(depth-1) + countPreemption();
+        preemptions.set(depth, p);
+        stateIds.set(depth, -1);
+        incomplete.set(depth, 0);
+        leaveState = true;
+
+        if (currentError != null){
+          notifyPropertyViolated();
+
+          if (hasPropertyTermination()) {
+            break;
+          }
+        }
+
+        if (p > bound) {
+          incomplete.set(depth-1, 1);
+          continue;
+        }
+
+        if (isEndState() || isIgnoredState()) {
+          continue;
+        }
+
+        int id = vm.getStateId();
+        int remaining = bound - p;
+
+        if (!isNewState()) {
+          int e = explored.get(id);
+          if (e == COMPLETE || e < 0) {
+            // done, or an ancestor on the stack, which has at least our budget
+            continue;
+          } else if (e > 0 && e-1 >= remaining) {
+            incomplete.set(depth-1, 1);
+            continue;
+          }
+        }
+
+        stateIds.set(depth, id);
+        explored.set(id, -(remaining + 1));
+
+        if (depth >= depthLimit) {
+          incomplete.set(depth, 1);
+          notifySearchConstraintHit("depth limit reached: " + depthLimit);
+          continue;
+        }
+
+        if (!checkStateSpaceLimit()) {
+          notifySearchConstraintHit("memory limit reached: " + minFreeMemory);
+          // can't go on, we exhausted our memory
+          done = true;
+          break;
+        }
+
+        leaveState = false;
+
+      } else { // forward did not execute any instructions
+        notifyStateProcessed();
+        leaveState = true;
+      }
+    }
+
+    return (incomplete.get(0) != 0);
+  }
+
+  protected void leaveState (int d) {
+    int id = stateIds.get(d);
+
+    if (incomplete.get(d) != 0) {
+      if (id >= 0) {
+        explored.set(id, bound - preemptions.get(d) + 1);
+      }
+      if (d > 0) {
+        incomplete.set(d-1, 1);
+      }
+
+    } else if (id >= 0) {
+      explored.set(id, COMPLETE);
+    }
+  }
+
+  /**
+   * check if the transition we just executed started with a preemptive context
+   * switch, i.e. if its (new) ThreadChoiceGenerator is a scheduling point that
+   * did not choose the previous thread although it was still runnable
+   */
+  protected int countPreemption () {
+    ThreadChoiceGenerator tcg = vm.getLastChoiceGeneratorOfType(ThreadChoiceGenerator.class);
+    ThreadChoiceGenerator tcgLast = lastTcgs[depth-1];
+
+    if (depth >= lastTcgs.length) {
+      ThreadChoiceGenerator[] a = new ThreadChoiceGenerator[lastTcgs.length * 2];
+      System.arraycopy(lastTcgs, 0, a, 0, lastTcgs.length);
+      lastTcgs = a;
+    }
+    lastTcgs[depth] = tcg;
+
+    if (tcg != null && tcg != tcgLast && tcg.isSchedulingPoint()) {
+      ThreadChoiceGenerator tcgPrev = tcg.getPreviousChoiceGeneratorOfType(ThreadChoiceGenerator.class);
+      if (tcgPrev != null) {
+        ThreadInfo ti = tcg.getNextChoice();
+        ThreadInfo tiPrev = tcgPrev.getNextChoice();
+        if (ti != tiPrev && tcg.contains(tiPrev)) {
+          // the previous thread is still runnable, so it can't be blocked or terminated
+          return 1;
+        }
+      }
+    }
+
+    return 0;
+  }
+
+  @Override
+  public boolean supportsBacktrack () {
+    return true;
+  }
+}
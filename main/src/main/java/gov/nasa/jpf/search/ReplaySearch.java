@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.search;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.JPFConfigException;
+import gov.nasa.jpf.vm.ChoicePoint;
+import gov.nasa.jpf.vm.SystemState;
+import gov.nasa.jpf.vm.VM;
+
+/**
+ * a non-backtracking search that re-executes a previously stored trace
+ * (text or binary, see ChoicePoint) by driving all CG choices directly from
+ * the trace.
+ *
+ * Since we never backtrack, there is no need to store KernelState mementos,
+ * serialize states or match them, which makes this considerably faster than
+ * replaying a trace with the ChoiceSelector listener on top of a DFSearch.
+ * This is the preferred way to reproduce deep error traces.
+ *
+ * The search ends when the trace is exhausted, a property is violated or
+ * there is no next state
+ */
+public class ReplaySearch extends Search {
+
+  protected String traceFileName;
+
+  public ReplaySearch (Config config, VM vm) {
+    super(config,vm);
+
+    traceFileName = config.getString("search.replay.trace", config.getString("choice.use_trace"));
+  }
+
+  @Override
+  public void search () {
+    ChoicePoint trace = ChoicePoint.readTrace(traceFileName, vm.getSUTName());
+    if (trace == null){
+      throw new JPFConfigException("no replay trace: " + traceFileName);
+    }
+
+    SystemState ss = vm.getSystemState();
+    ss.setReplayTrace(trace);
+    vm.setTraceReplay(true);
+
+    depth = 0;
+
+    notifySearchStarted();
+
+    while (!done) {
+      if (!forward()) {
+        // the trace choice did not produce a transition
+        notifyStateProcessed();
+        break;
+      }
+
+      depth++;
+      notifyStateAdvanced();
+
+      if (currentError != null){
+        notifyPropertyViolated();
+
+        if (hasPropertyTermination()) {
+          break;
+        }
+      }
+
+      if (isEndState()) {
+        break;
+      }
+
+      if (!ss.isReplayingTrace()){
+        notifySearchConstraintHit("end of replay trace: " + traceFileName);
+        break;
+      }
+    }
+
+    ss.setReplayTrace(null);
+    vm.setTraceReplay(false);
+
+    notifySearchFinished();
+  }
+
+  @Override
+  protected boolean forward () {
+    currentError = null;
+
+    boolean ret = vm.forwardWithoutBacktrack();
+
+    checkPropertyViolation();
+    return ret;
+  }
+
+  @Override
+  public boolean supportsBacktrack () {
+    return false;
+  }
+}
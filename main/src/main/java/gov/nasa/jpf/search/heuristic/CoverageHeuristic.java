@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.search.heuristic;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.ListenerAdapter;
+import gov.nasa.jpf.jvm.bytecode.GOTO;
+import gov.nasa.jpf.jvm.bytecode.IfInstruction;
+import gov.nasa.jpf.jvm.bytecode.SwitchInstruction;
+import gov.nasa.jpf.util.ObjectIntHashMap;
+import gov.nasa.jpf.vm.ChoiceGenerator;
+import gov.nasa.jpf.vm.Instruction;
+import gov.nasa.jpf.vm.MethodInfo;
+import gov.nasa.jpf.vm.ThreadChoiceGenerator;
+import gov.nasa.jpf.vm.ThreadInfo;
+import gov.nasa.jpf.vm.VM;
+
+import java.util.BitSet;
+
+/**
+ * a feedback directed heuristic in the style of a greybox fuzzer, but over the
+ * JPF choice space: states are prioritized by how much new branch and basic
+ * block coverage the transition that produced them added to the global
+ * coverage of the search so far. States that did not add anything are
+ * prioritized by how often their data choice (e.g. from Verify.getInt(),
+ * IntChoiceFromSet or BooleanChoiceGenerator) was already selected at the
+ * same CG location, i.e. we prefer unexplored choice values.
+ *
+ * Coverage is monotonic (not backtracked) and kept per method as BitSets of
+ * branch outcomes and block leaders (method entries and jump targets).
+ *
+ * This is meant for large SUTs that can't be searched exhaustively, to reduce
+ * the time to the first defect. Since we have to observe branches, this
+ * disables the listener free instruction loop of the VM
+ */
+public class CoverageHeuristic extends SimplePriorityHeuristic {
+
+  // priority of states that did not add new coverage (lower values are preferred)
+  static final int STALE = 1000;
+
+  protected int branchWeight;
+  protected int choicePenalty;
+
+  static class MethodCoverage {
+    BitSet branches = new BitSet(); // 2 bits per IfInstruction (false,true)
+    BitSet blocks = new BitSet();   // by index of block leader insn
+  }
+
+  // indexed by MethodInfo global id
+  protected MethodCoverage[] coverage = new MethodCoverage[256];
+
+  // new coverage of the current transition
+  protected int newBranches;
+  protected int newBlocks;
+
+  // how often was a data choice at a given location selected
+  protected ObjectIntHashMap<String> choiceCounts = new ObjectIntHashMap<String>();
+
+  class CoverageListener extends ListenerAdapter {
+    @Override
+    public void methodEntered (VM vm, ThreadInfo currentThread, MethodInfo enteredMethod) {
+      if (enteredMethod.getGlobalId() >= 0) { // no direct call stubs
+        coverBlock(enteredMethod, 0);
+      }
+    }
+
+    @Override
+    public void instructionExecuted(VM vm, ThreadInfo currentThread, Instruction nextInsn, Instruction executedInsn) {
+      if (executedInsn instanceof IfInstruction) {
+        MethodInfo mi = executedInsn.getMethodInfo();
+        BitSet bs = getCoverage(mi).branches;
+        int idx = 2 * executedInsn.getInstructionIndex() + (((IfInstruction)executedInsn).getConditionValue() ? 1 : 0);
+        if (!bs.get(idx)){
+          bs.set(idx);
+          newBranches++;
+        }
+        coverLeader(mi, nextInsn);
+
+      } else if (executedInsn instanceof SwitchInstruction || executedInsn instanceof GOTO) {
+        coverLeader(executedInsn.getMethodInfo(), nextInsn);
+      }
+    }
+  }
+
+  public CoverageHeuristic (Config config, VM vm) {
+    super(config, vm);
+
+    branchWeight = config.getInt("search.coverage.branch_weight", 4);
+    choicePenalty = config.getInt("search.coverage.choice_penalty", 10);
+
+    vm.addListener( new CoverageListener());
+  }
+
+  protected MethodCoverage getCoverage (MethodInfo mi) {
+    int id = mi.getGlobalId();
+    if (id >= coverage.length) {
+      MethodCoverage[] a = new MethodCoverage[Math.max(id+1, coverage.length*2)];
+      System.arraycopy(coverage, 0, a, 0, coverage.length);
+      coverage = a;
+    }
+
+    MethodCoverage mc = coverage[id];
+    if (mc == null) {
+      mc = new MethodCoverage();
+      coverage[id] = mc;
+    }
+    return mc;
+  }
+
+  protected void coverLeader (MethodInfo mi, Instruction leader) {
+    if (leader != null && leader.getMethodInfo() == mi) {
+      coverBlock(mi, leader.getInstructionIndex());
+    }
+  }
+
+  protected void coverBlock (MethodInfo mi, int idx) {
+    BitSet bs = getCoverage(mi).blocks;
+    if (!bs.get(idx)) {
+      bs.set(idx);
+      newBlocks++;
+    }
+  }
+
+  @Override
+  protected boolean forward () {
+    newBranches = 0;
+    newBlocks = 0;
+
+    return super.forward();
+  }
+
+  @Override
+  protected int computeHeuristicValue () {
+    int novelty = branchWeight * newBranches + newBlocks;
+
+    if (novelty > 0) {
+      return Math.max(0, STALE - novelty);
+
+    } else {
+      ChoiceGenerator<?> cg = vm.getChoiceGenerator();
+      if (cg != null && !(cg instanceof ThreadChoiceGenerator)) {
+        Instruction insn = cg.getInsn();
+        String key = (insn != null) ? insn.getMethodInfo().getGlobalId() + ":" + insn.getInstructionIndex() : cg.getId();
+        int n = choiceCounts.increment(key + ':' + cg.getNextChoice());
+        return STALE + (n-1) * choicePenalty;
+      }
+
+      return STALE;
+    }
+  }
+}
@@ -41,9 +41,10 @@ public class GlobalSwitchThread extends SimplePriorityHeuristic {
 
   @Override
   protected int computeHeuristicValue () {
-    int aliveThreads = vm.getThreadList().getMatchingCount(aliveThread);
+    PathFeatures features = getPathFeatures();
+    int aliveThreads = features.getAliveThreads();
 
-    int lastRun = vm.getLastTransition().getThreadIndex();
+    int lastRun = features.getLastThread();
     int h_value = 0;
 
     if (aliveThreads > 1) {
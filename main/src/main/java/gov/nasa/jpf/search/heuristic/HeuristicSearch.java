@@ -41,6 +41,11 @@ public abstract class HeuristicSearch extends Search {
   
   protected boolean isPathSensitive = false;  
   
+  // the scheduling features of the path to the current state, which are
+  // incrementally computed from the ones of the parent state
+  protected PathFeatures pathFeatures;
+  protected PathFeatures parentFeatures;
+  
   /*
    * do we use A* adaptation of state priorities, i.e. have a
    * distance + cost heuristic (in this context, we just use the
@@ -86,10 +91,27 @@ public abstract class HeuristicSearch extends Search {
     this.isPathSensitive = isPathSensitive;
   }  
   
+  /**
+   * the PathFeatures of the current state, which can be used by heuristics
+   * to compute priorities without walking the whole path
+   */
+  public PathFeatures getPathFeatures() {
+    return pathFeatures;
+  }
+  
+  protected HeuristicState queueCurrentStateWithFeatures () {
+    HeuristicState hState = queueCurrentState();
+    if (hState != null){
+      hState.pathFeatures = pathFeatures;
+    }
+    return hState;
+  }
+  
   void backtrackToParent () {
     backtrack();
 
     depth--;
+    pathFeatures = parentFeatures;
     notifyStateBacktracked();    
   }
   
@@ -106,6 +128,7 @@ public abstract class HeuristicSearch extends Search {
   protected boolean generateChildren () {
 
     childStates = new ArrayList<HeuristicState>();
+    parentFeatures = pathFeatures;
     
     while (!done) {
       
@@ -115,6 +138,7 @@ public abstract class HeuristicSearch extends Search {
       }
 
       depth++;
+      pathFeatures = parentFeatures.advance(vm);
       notifyStateAdvanced();
 
       if (currentError != null){
@@ -144,7 +168,7 @@ public abstract class HeuristicSearch extends Search {
               notifySearchConstraintHit("queue limit reached: " + getQueueSize());
             }
           
-            HeuristicState newHState = queueCurrentState();            
+            HeuristicState newHState = queueCurrentStateWithFeatures();            
             if (newHState != null) { 
               childStates.add(newHState);
               notifyStateStored();
@@ -169,13 +193,20 @@ public abstract class HeuristicSearch extends Search {
     // note we have to query the depth from the VM because the state is taken from the queue
     // and we have no idea when it was entered there
     depth = vm.getPathLength();
+    
+    pathFeatures = hState.getPathFeatures();
+    if (pathFeatures == null){
+      pathFeatures = PathFeatures.create(vm);
+    }
+    
     notifyStateRestored();
   }
    
   @Override
   public void search () {
         
-    queueCurrentState();
+    pathFeatures = PathFeatures.create(vm);
+    queueCurrentStateWithFeatures();
     notifyStateStored();
     
     // kind of stupid, but we need to get it out of the queue, and we
@@ -30,6 +30,9 @@ public abstract class HeuristicState {
   
   protected RestorableVMState vmState;
   protected int     stateId;
+  
+  // set by HeuristicSearch, restored together with the vmState
+  protected PathFeatures pathFeatures;
     
   public HeuristicState (VM vm) {
     stateId = vm.getStateId();
@@ -43,4 +46,8 @@ public abstract class HeuristicState {
   public int getStateId() {
     return stateId;
   }
+  
+  public PathFeatures getPathFeatures() {
+    return pathFeatures;
+  }
 }
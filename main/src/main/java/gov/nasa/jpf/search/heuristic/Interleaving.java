@@ -18,8 +18,8 @@
 package gov.nasa.jpf.search.heuristic;
 
 import gov.nasa.jpf.Config;
-import gov.nasa.jpf.vm.VM;
 import gov.nasa.jpf.vm.Path;
+import gov.nasa.jpf.vm.VM;
 
 
 /**
@@ -41,26 +41,37 @@ public class Interleaving extends SimplePriorityHeuristic {
   /*
    * heuristic based on how often, how long ago, and within how many
    * live threads a certain thread did run
+   * 
+   * without a (positive) history limit we can get the sum over the whole path
+   * from the PathFeatures, i.e. we don't have to walk the path
    */
   @Override
   protected int computeHeuristicValue () {
-    int aliveThreads = vm.getThreadList().getMatchingCount(aliveThread);
-
-    Path path = vm.getPath();
-    int  pathSize = path.size();
+    PathFeatures features = getPathFeatures();
+    int aliveThreads = features.getAliveThreads();
     
-    int tid = vm.getCurrentThread().getId();
-    int h_value = 0;
+    if (aliveThreads <= 1) { // otherwise there's nothing to interleave
+      return 0;
+    }
 
-    if (aliveThreads > 1) { // otherwise there's nothing to interleave
+    int tid = vm.getCurrentThread().getId();
+    
+    if (historyLimit <= 0) {
+      long h_value = features.getRunDistanceSum(tid) * aliveThreads;
+      return (int) Math.min(h_value, Integer.MAX_VALUE - 1);
       
+    } else {
+      Path path = vm.getPath();
+      int  pathSize = path.size();
+      int h_value = 0;
+
       for (int i= Math.max(0, pathSize - historyLimit); i<pathSize; i++) {
         if (path.get(i).getThreadIndex() == tid) {
           h_value += (pathSize - i) * aliveThreads;
         }
       }
+      
+      return h_value;
     }
-
-    return h_value;
   }
 }
@@ -19,8 +19,6 @@ package gov.nasa.jpf.search.heuristic;
 
 import gov.nasa.jpf.Config;
 import gov.nasa.jpf.vm.VM;
-import gov.nasa.jpf.vm.ThreadChoiceGenerator;
-import gov.nasa.jpf.vm.ThreadInfo;
 
 /**
  * a simple heuristic that tries to minimize preemptive scheduling, i.e.
@@ -43,32 +41,13 @@ public class MinimizePreemption extends SimplePriorityHeuristic {
   
   @Override
   protected int computeHeuristicValue () {
-    int preemptions = 0;
-
-    // this is redundant, but since it is easy enough to compute we don't store it
+    // the preemptions are incrementally counted by the PathFeatures
     // <2do> this relies on that there are no cascaded SchedulingPoints (which would not work anyways)
-    for (ThreadChoiceGenerator tcg = vm.getLastChoiceGeneratorOfType(ThreadChoiceGenerator.class); tcg != null;){
-      ThreadInfo ti= tcg.getNextChoice();
-      ThreadChoiceGenerator tcgPrev = tcg.getPreviousChoiceGeneratorOfType(ThreadChoiceGenerator.class);
+    int preemptions = getPathFeatures().getPreemptions();
 
-      if (tcg.isSchedulingPoint()){
-        if (tcgPrev != null){
-          ThreadInfo tiPrev = tcgPrev.getNextChoice();
-          if (ti != tiPrev){
-            if (tcg.contains(tiPrev)){
-              // the previous thread is still in the runnable list, so it can't be blocked or terminated
-              preemptions++;
-              
-              if (preemptions >= threshold){
-                // we don't care, it gets the lowest priority (highest heuristic value)
-                return Integer.MAX_VALUE;
-              }
-            }            
-          }
-        }
-      }
-      
-      tcg = tcgPrev;
+    if (preemptions >= threshold){
+      // we don't care, it gets the lowest priority (highest heuristic value)
+      return Integer.MAX_VALUE;
     }
     
     return preemptions;
@@ -34,12 +34,9 @@ public class MostBlocked extends SimplePriorityHeuristic {
 
   @Override
   protected int computeHeuristicValue () {
-    int alive = vm.getThreadList().getMatchingCount(aliveThread);
-    int runnable = vm.getThreadList().getMatchingCount(vm.getTimedoutRunnablePredicate());
-
     // pcm - the (iSystemState based) condition was "!runnable && alive"
     // the '10000' is just a potential max thread count
-    int h_value = (10000 - (alive - runnable));
+    int h_value = (10000 - getPathFeatures().getBlockedThreads());
 
     return h_value;
   }
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.search.heuristic;
+
+import gov.nasa.jpf.vm.ChoiceGenerator;
+import gov.nasa.jpf.vm.Path;
+import gov.nasa.jpf.vm.ThreadChoiceGenerator;
+import gov.nasa.jpf.vm.ThreadInfo;
+import gov.nasa.jpf.vm.ThreadList;
+import gov.nasa.jpf.vm.VM;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * scheduling related features of the path that leads to a state, to be used
+ * by heuristics that would otherwise have to walk the whole Path or ChoiceGenerator
+ * chain for each new state.
+ * 
+ * PathFeatures are immutable. HeuristicSearch computes the features of each new
+ * state from the ones of its parent when the search advances, which only depends
+ * on the number of threads but not on the path length, and stores them together
+ * with the queued HeuristicStates so that they are restored with the VM state.
+ * Heuristics (including user heuristics) can get the features of the state that is
+ * currently evaluated from HeuristicSearch.getPathFeatures()
+ */
+public class PathFeatures {
+
+  static final int[] NO_INTS = new int[0];
+  static final long[] NO_LONGS = new long[0];
+  
+  protected int depth;
+  protected int lastThread = -1;
+  
+  // per thread (by id) transition counts, path index sums and last scheduled path index
+  protected int[] runCounts = NO_INTS;
+  protected long[] indexSums = NO_LONGS;
+  protected int[] lastScheduled = NO_INTS;
+  
+  protected int contextSwitches;
+  protected int preemptions;
+  
+  // thread status of the state
+  protected int aliveThreads;
+  protected int runnableThreads;
+  
+  // what we need to incrementally compute preemptions
+  protected ChoiceGenerator<?> lastCg;
+  protected boolean hasThreadCg;
+  protected ThreadInfo lastThreadChoice;
+  
+  protected PathFeatures (){
+    // only created by create() and advance()
+  }
+  
+  /**
+   * compute the features of the current VM state from scratch
+   */
+  public static PathFeatures create (VM vm){
+    PathFeatures f = new PathFeatures();
+    
+    Path path = vm.getPath();
+    int n = path.size();
+    for (int i=0; i<n; i++){
+      f.addTransition(path.get(i).getThreadIndex());
+    }
+    
+    f.lastCg = vm.getChoiceGenerator();
+    f.addThreadChoices(f.lastCg, null);
+    f.setThreadStatus(vm);
+    
+    return f;
+  }
+  
+  /**
+   * compute the features of the current VM state, which has to be a direct successor
+   * of the state these features belong to
+   */
+  public PathFeatures advance (VM vm){
+    if (vm.getPathLength() != depth+1){
+      return create(vm); // not a successor
+    }
+    
+    PathFeatures f = new PathFeatures();
+    f.depth = depth;
+    f.lastThread = lastThread;
+    f.runCounts = runCounts;
+    f.indexSums = indexSums;
+    f.lastScheduled = lastScheduled;
+    f.contextSwitches = contextSwitches;
+    f.preemptions = preemptions;
+    f.hasThreadCg = hasThreadCg;
+    f.lastThreadChoice = lastThreadChoice;
+    
+    f.addTransition(vm.getLastTransition().getThreadIndex());
+    
+    f.lastCg = vm.getChoiceGenerator();
+    if (!f.addThreadChoices(f.lastCg, lastCg)){
+      return create(vm); // our last CG was not on the path
+    }
+    f.setThreadStatus(vm);
+    
+    return f;
+  }
+  
+  // the per thread arrays are shared with the parent, copy them before we modify
+  protected void addTransition (int tid){
+    int len = Math.max(runCounts.length, tid+1);
+    runCounts = Arrays.copyOf(runCounts, len);
+    indexSums = Arrays.copyOf(indexSums, len);
+    
+    int oldLen = lastScheduled.length;
+    lastScheduled = Arrays.copyOf(lastScheduled, len);
+    Arrays.fill(lastScheduled, oldLen, len, -1);
+    
+    runCounts[tid]++;
+    indexSums[tid] += depth;
+    lastScheduled[tid] = depth;
+    
+    if (lastThread >= 0 && lastThread != tid){
+      contextSwitches++;
+    }
+    lastThread = tid;
+    depth++;
+  }
+  
+  /**
+   * count preemptions of all ThreadChoiceGenerators from 'cg' down to (excluding) 'cgEnd',
+   * in path order. A preemption is a scheduling point that switches away from a thread
+   * that could have continued to run
+   * 
+   * @return false if cgEnd was not found on the path
+   */
+  protected boolean addThreadChoices (ChoiceGenerator<?> cg, ChoiceGenerator<?> cgEnd){
+    ArrayList<ThreadChoiceGenerator> tcgs = null;
+    
+    for (; cg != cgEnd; cg = cg.getPreviousChoiceGenerator()){
+      if (cg == null){
+        return false;
+      }
+      if (cg instanceof ThreadChoiceGenerator){
+        if (tcgs == null){
+          tcgs = new ArrayList<ThreadChoiceGenerator>();
+        }
+        tcgs.add((ThreadChoiceGenerator)cg);
+      }
+    }
+    
+    if (tcgs != null){
+      for (int i=tcgs.size()-1; i>=0; i--){
+        ThreadChoiceGenerator tcg = tcgs.get(i);
+        ThreadInfo ti = tcg.getNextChoice();
+        
+        if (tcg.isSchedulingPoint() && hasThreadCg && ti != lastThreadChoice){
+          if (tcg.contains(lastThreadChoice)){
+            // the previous thread is still in the runnable list, so it can't be blocked or terminated
+            preemptions++;
+          }
+        }
+        
+        hasThreadCg = true;
+        lastThreadChoice = ti;
+      }
+    }
+    
+    return true;
+  }
+  
+  protected void setThreadStatus (VM vm){
+    ThreadList tl = vm.getThreadList();
+    aliveThreads = tl.getMatchingCount(vm.getAlivePredicate());
+    runnableThreads = tl.getMatchingCount(vm.getTimedoutRunnablePredicate());
+  }
+  
+  //--- the public accessors
+  
+  /**
+   * number of transitions of the path
+   */
+  public int getDepth (){
+    return depth;
+  }
+  
+  /**
+   * id of the thread that executed the last transition, -1 if there is none
+   */
+  public int getLastThread (){
+    return lastThread;
+  }
+  
+  public int getRunCount (int tid){
+    return (tid < runCounts.length) ? runCounts[tid] : 0;
+  }
+  
+  /**
+   * path index of the last transition that was executed by thread 'tid', or -1
+   * if the thread did not run yet
+   */
+  public int getLastScheduled (int tid){
+    return (tid < lastScheduled.length) ? lastScheduled[tid] : -1;
+  }
+  
+  /**
+   * the sum of the distances of all transitions of thread 'tid' from the end of the path,
+   * i.e. the value is high if the thread did run often, and long ago
+   */
+  public long getRunDistanceSum (int tid){
+    if (tid < runCounts.length){
+      return (long)runCounts[tid] * depth - indexSums[tid];
+    } else {
+      return 0;
+    }
+  }
+  
+  /**
+   * number of transitions that were executed by a different thread than their predecessor
+   */
+  public int getContextSwitches (){
+    return contextSwitches;
+  }
+  
+  /**
+   * number of scheduling points that switched away from a thread that was still runnable
+   */
+  public int getPreemptions (){
+    return preemptions;
+  }
+  
+  public int getAliveThreads (){
+    return aliveThreads;
+  }
+  
+  public int getRunnableThreads (){
+    return runnableThreads;
+  }
+  
+  /**
+   * number of alive threads that can't run in this state
+   */
+  public int getBlockedThreads (){
+    return aliveThreads - runnableThreads;
+  }
+  
+  @Override
+  public String toString (){
+    StringBuilder sb = new StringBuilder("PathFeatures{depth=");
+    sb.append(depth);
+    sb.append(",lastThread=");
+    sb.append(lastThread);
+    sb.append(",runCounts=");
+    sb.append(Arrays.toString(runCounts));
+    sb.append(",contextSwitches=");
+    sb.append(contextSwitches);
+    sb.append(",preemptions=");
+    sb.append(preemptions);
+    sb.append(",alive=");
+    sb.append(aliveThreads);
+    sb.append(",runnable=");
+    sb.append(runnableThreads);
+    sb.append('}');
+    return sb.toString();
+  }
+}
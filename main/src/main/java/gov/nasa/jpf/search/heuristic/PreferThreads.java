@@ -19,7 +19,6 @@ package gov.nasa.jpf.search.heuristic;
 
 import gov.nasa.jpf.Config;
 import gov.nasa.jpf.vm.VM;
-import gov.nasa.jpf.vm.Transition;
 
 
 /**
@@ -40,9 +39,7 @@ public class PreferThreads extends SimplePriorityHeuristic {
 
   @Override
   protected int computeHeuristicValue () {
-    Transition t = vm.getLastTransition();
-
-    if (t == null) {
+    if (getPathFeatures().getLastThread() < 0) {
       return 1;
     }
 
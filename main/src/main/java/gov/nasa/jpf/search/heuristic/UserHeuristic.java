@@ -27,6 +27,9 @@ import gov.nasa.jpf.vm.VM;
 /**
  * heuristic state prioritizer that is controlled by the system under test, which can
  * use Verify.get/set/resetHeuristicSearchValue() to compute priorities
+ * 
+ * subclasses can combine this value with the scheduling features of the current
+ * path that are available through getPathFeatures()
  */
 public class UserHeuristic extends SimplePriorityHeuristic {
   public UserHeuristic (Config config, VM vm) {
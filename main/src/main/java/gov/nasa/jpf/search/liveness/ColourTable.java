@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.search.liveness;
+
+/**
+ * a growable table of 2-bit colours, indexed by product state id (i.e. the
+ * StateSet id of the SUT state times the number of automaton states plus the
+ * automaton state id). We pack 32 colours into a long, so that the memory
+ * overhead of a nested DFS stays at 2 bits per product state, no matter how
+ * many states the StateSet holds
+ */
+final class ColourTable {
+
+  static final int INIT_SIZE = 1024;
+
+  long[] words = new long[INIT_SIZE];
+
+  int get (long idx){
+    int i = (int)(idx >>> 5);
+    if (i >= words.length){
+      return 0;
+    }
+    return (int)(words[i] >>> ((idx & 31) << 1)) & 3;
+  }
+
+  void set (long idx, int colour){
+    int i = (int)(idx >>> 5);
+    if (i >= words.length){
+      int newLength = words.length;
+      while (newLength <= i){
+        newLength = (newLength * 3) / 2;
+      }
+      long[] a = new long[newLength];
+      System.arraycopy(words, 0, a, 0, words.length);
+      words = a;
+    }
+
+    int shift = (int)(idx & 31) << 1;
+    words[i] = (words[i] & ~(3L << shift)) | ((long)colour << shift);
+  }
+
+  void clear (){
+    words = new long[INIT_SIZE];
+  }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.search.liveness;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.GenericProperty;
+import gov.nasa.jpf.JPFConfigException;
+import gov.nasa.jpf.search.Search;
+import gov.nasa.jpf.util.automaton.BuchiAutomaton;
+import gov.nasa.jpf.vm.RestorableVMState;
+import gov.nasa.jpf.vm.VM;
+
+import java.util.ArrayList;
+
+/**
+ * on-the-fly liveness checking by means of a nested depth first search over
+ * the product of the SUT state space and a BuchiAutomaton that monitors
+ * user defined propositions (usually the never claim of the property to check).
+ * An accepting cycle in the product is a property violation, and is reported
+ * with the path that leads into and around the cycle.
+ *
+ * This implements the 'new' nested DFS of Schwoon and Esparza, which only
+ * needs two colour bits per product state that are kept in a ColourTable
+ * indexed by StateSet id, i.e. we do not store anything but the fingerprints
+ * and the colour bits for visited states (blue and red searches share the
+ * same state space exploration, there is no second state set).
+ *
+ * The automaton reads the propositions of the source state of each SUT
+ * transition. Since the automaton can be nondeterministic, and the red search
+ * has to re-explore the successors of accepting states, we keep restorable VM
+ * states for these product states while they are on the stack.
+ *
+ * configured with:
+ * <pre>
+ *   search.class = gov.nasa.jpf.search.liveness.NestedDFSearch
+ *   search.liveness.automaton = &lt;BuchiAutomaton class with (Config) ctor&gt; (default ProgressAutomaton)
+ *   search.liveness.proposition.&lt;name&gt;.class = &lt;Proposition class&gt; (default StaticFieldProposition)
+ * </pre>
+ *
+ * <2do> end states currently have no product successors, i.e. finite SUT
+ * paths never violate liveness properties. We might want to add stuttering
+ */
+public class NestedDFSearch extends Search {
+
+  static final int WHITE = 0;  // not visited
+  static final int CYAN = 1;   // on the blue stack
+  static final int BLUE = 2;   // blue search finished
+  static final int RED = 3;    // visited by a red search
+
+  /**
+   * a product state on the search stack
+   */
+  static class Frame {
+    Frame prev;
+
+    int sutId;
+    int q;
+    long pid;
+
+    int[] succ;    // automaton successors for the propositions of this state
+    int next;      // index of the automaton successor we currently explore
+
+    RestorableVMState restorable; // only if we have to re-explore the SUT successors
+
+    boolean isRed;
+    boolean isSeed;
+  }
+
+  /**
+   * the property that is violated by accepting cycles
+   */
+  static class AcceptingCycle extends GenericProperty {
+    String msg;
+
+    AcceptingCycle (String msg){
+      this.msg = msg;
+    }
+
+    @Override
+    public boolean check (Search search, VM vm) {
+      return true;
+    }
+
+    @Override
+    public String getErrorMessage () {
+      return msg;
+    }
+
+    @Override
+    public String getExplanation () {
+      return "the monitor automaton accepts an infinite SUT run, i.e. the liveness property does not hold";
+    }
+  }
+
+  protected BuchiAutomaton automaton;
+  protected Proposition[] propositions;
+  protected int nQ;
+
+  protected ColourTable colours = new ColourTable();
+  protected Frame top;
+
+  public NestedDFSearch (Config config, VM vm) {
+    super(config,vm);
+
+    automaton = config.getEssentialInstance("search.liveness.automaton", BuchiAutomaton.class);
+    nQ = automaton.getNumberOfStates();
+
+    String[] names = automaton.getPropositions();
+    propositions = new Proposition[names.length];
+    Class<?>[] argTypes = { Config.class, String.class };
+
+    for (int i=0; i<names.length; i++){
+      String key = "search.liveness.proposition." + names[i] + ".class";
+      String clsName = config.getString(key, StaticFieldProposition.class.getName());
+      Object[] args = { config, names[i] };
+      propositions[i] = config.getInstance(key, clsName, Proposition.class, argTypes, args);
+    }
+  }
+
+  public BuchiAutomaton getAutomaton(){
+    return automaton;
+  }
+
+  @Override
+  public void search () {
+    if (vm.getStateSet() == null){
+      throw new JPFConfigException("NestedDFSearch requires state matching (vm.storage.class)");
+    }
+
+    depth = 0;
+    colours.clear();
+
+    notifySearchStarted();
+
+    // the initial state is never matched, hence it doesn't need a colour
+    top = null;
+    pushFrame(-1, 0, false);
+
+    while (!done && top != null) {
+      Frame f = top;
+
+      if (f.next < f.succ.length && forward()) {
+        depth++;
+        notifyStateAdvanced();
+
+        if (currentError != null){
+          notifyPropertyViolated();
+
+          if (hasPropertyTermination()) {
+            break;
+          }
+        }
+
+        if (checkAndResetBacktrackRequest() || isEndState() || isIgnoredState()) {
+          backtrackStep();
+          continue;
+        }
+
+        int q = f.succ[f.next];
+        int sutId = vm.getStateId();
+        long pid = (long)sutId * nQ + q;
+        int c = colours.get(pid);
+
+        if (!f.isRed) {
+          if (c == CYAN && (automaton.isAccepting(f.q) || automaton.isAccepting(q))) {
+            if (reportAcceptingCycle(pid)) {
+              break;
+            }
+          } else if (c == WHITE) {
+            if (depth >= depthLimit) {
+              notifySearchConstraintHit("depth limit reached: " + depthLimit);
+            } else if (!checkStateSpaceLimit()) {
+              notifySearchConstraintHit("memory limit reached: " + minFreeMemory);
+              break;
+            } else {
+              pushFrame(sutId, q, false);
+              continue;
+            }
+          }
+
+        } else {
+          if (c == CYAN) {
+            if (reportAcceptingCycle(pid)) {
+              break;
+            }
+          } else if (c == BLUE) {
+            colours.set(pid, RED);
+            pushFrame(sutId, q, true);
+            continue;
+          }
+        }
+
+        backtrackStep();
+
+      } else {
+        if (f.next < f.succ.length) {
+          notifyStateProcessed();
+        }
+
+        if (++f.next < f.succ.length) {
+          // explore the same SUT successors again, with the next automaton state
+          restoreFrame(f);
+
+        } else if (!f.isRed && f.sutId >= 0 && automaton.isAccepting(f.q)) {
+          // blue search of accepting state finished, start the red search from it
+          f.isRed = true;
+          f.isSeed = true;
+          f.next = 0;
+          restoreFrame(f);
+
+        } else {
+          if (f.sutId >= 0) {
+            if (!f.isRed) {
+              colours.set(f.pid, BLUE);
+            } else if (f.isSeed) {
+              colours.set(f.pid, RED);
+            }
+          }
+
+          top = f.prev;
+          if (top != null) {
+            backtrackStep();
+          }
+        }
+      }
+    }
+
+    top = null;
+    notifySearchFinished();
+  }
+
+  protected void pushFrame (int sutId, int q, boolean isRed) {
+    Frame f = new Frame();
+    f.sutId = sutId;
+    f.q = q;
+    f.pid = (long)sutId * nQ + q;
+    f.isRed = isRed;
+    f.succ = automaton.getSuccessors(q, evaluatePropositions());
+
+    if (f.succ.length > 1 || (!isRed && automaton.isAccepting(q))) {
+      f.restorable = vm.getRestorableState();
+    }
+
+    if (!isRed && sutId >= 0) {
+      colours.set(f.pid, CYAN);
+    }
+
+    f.prev = top;
+    top = f;
+  }
+
+  protected void restoreFrame (Frame f) {
+    vm.restoreState(f.restorable);
+    depth = vm.getPathLength();
+    notifyStateRestored();
+  }
+
+  protected void backtrackStep () {
+    if (backtrack()) {
+      depth--;
+      notifyStateBacktracked();
+    }
+  }
+
+  protected long evaluatePropositions () {
+    long valuation = 0;
+    for (int i=0; i<propositions.length; i++){
+      if (propositions[i].evaluate(vm)){
+        valuation |= (1L << i);
+      }
+    }
+    return valuation;
+  }
+
+  /**
+   * report the cycle from the (cyan) state 'pid' on the blue stack through
+   * the top of the stack back to 'pid'
+   *
+   * @return true if this terminates the search
+   */
+  protected boolean reportAcceptingCycle (long pid) {
+    ArrayList<Frame> cycle = new ArrayList<Frame>();
+    for (Frame f = top; f != null; f = f.prev) {
+      cycle.add(f);
+      if (f.pid == pid && !f.isRed) {
+        break;
+      }
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("accepting cycle of automaton '");
+    sb.append(automaton.getLabel());
+    sb.append("' through states (state id/automaton state):\n");
+
+    for (int i=cycle.size()-1; i>=0; i--) {
+      Frame f = cycle.get(i);
+      appendProductState(sb, f.sutId, f.q);
+    }
+    appendProductState(sb, (int)(pid / nQ), (int)(pid % nQ));
+
+    error(new AcceptingCycle(sb.toString()), vm.getClonedPath(), vm.getThreadList());
+    notifyPropertyViolated();
+
+    return done;
+  }
+
+  void appendProductState (StringBuilder sb, int sutId, int q) {
+    sb.append("  ");
+    sb.append(sutId);
+    sb.append('/');
+    sb.append(automaton.getState(q).getLabel());
+    sb.append('\n');
+  }
+
+  @Override
+  public boolean supportsBacktrack () {
+    return true;
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.search.liveness;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.util.automaton.BuchiAutomaton;
+import gov.nasa.jpf.util.automaton.BuchiState;
+import gov.nasa.jpf.util.automaton.Transition;
+
+/**
+ * the never claim for the progress property 'always eventually p' (GF p),
+ * i.e. an automaton that accepts all runs on which p eventually stays false
+ * forever. This is what we need to check starvation freedom, e.g. with a
+ * proposition that holds while a thread is in its critical section.
+ *
+ * The proposition name is configured with 'search.liveness.progress'
+ */
+public class ProgressAutomaton extends BuchiAutomaton {
+
+  public ProgressAutomaton (Config conf){
+    super("progress", 2);
+
+    String p = conf.getString("search.liveness.progress", "progress");
+
+    BuchiState init = new BuchiState("init");
+    BuchiState stalled = new BuchiState("stalled", true);
+    addStates(init, stalled);
+
+    init.addTransitions( new Transition("true", init), new Transition("!" + p, stalled));
+    stalled.addTransition( new Transition("!" + p, stalled));
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.search.liveness;
+
+import gov.nasa.jpf.vm.VM;
+
+/**
+ * an atomic proposition over SUT states, as referenced by the transition
+ * guards of the BuchiAutomaton that is checked by a NestedDFSearch.
+ *
+ * Implementors are configured with
+ * <pre>
+ *   search.liveness.proposition.&lt;name&gt;.class = &lt;class name&gt;
+ * </pre>
+ * and need a (Config, String name) ctor. Propositions are evaluated once per
+ * product state, i.e. they have to be side-effect free
+ */
+public interface Proposition {
+
+  boolean evaluate (VM vm);
+}
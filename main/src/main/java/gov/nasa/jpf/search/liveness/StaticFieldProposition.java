@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.search.liveness;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.JPFConfigException;
+import gov.nasa.jpf.vm.ClassInfo;
+import gov.nasa.jpf.vm.ClassLoaderInfo;
+import gov.nasa.jpf.vm.ElementInfo;
+import gov.nasa.jpf.vm.FieldInfo;
+import gov.nasa.jpf.vm.VM;
+
+/**
+ * the default Proposition, which holds if a static boolean or integral SUT
+ * field is set (i.e. not 0). Configured with
+ * <pre>
+ *   search.liveness.proposition.&lt;name&gt;.field = &lt;class name&gt;.&lt;field name&gt;
+ * </pre>
+ * The proposition is false as long as the class is not initialized
+ */
+public class StaticFieldProposition implements Proposition {
+
+  protected String clsName;
+  protected String fieldName;
+
+  protected ClassInfo ci;
+  protected FieldInfo fi;
+
+  public StaticFieldProposition (Config conf, String name){
+    String key = "search.liveness.proposition." + name + ".field";
+    String spec = conf.getString(key);
+    int idx = (spec != null) ? spec.lastIndexOf('.') : -1;
+    if (idx <= 0){
+      throw new JPFConfigException("no <class>.<field> spec for proposition '" + name + "': " + key);
+    }
+
+    clsName = spec.substring(0, idx);
+    fieldName = spec.substring(idx+1);
+  }
+
+  @Override
+  public boolean evaluate (VM vm) {
+    if (fi == null){
+      // we don't want to load classes from here
+      ci = ClassLoaderInfo.getCurrentClassLoader().tryGetResolvedClassInfo(clsName);
+      if (ci == null){
+        return false;
+      }
+
+      fi = ci.getStaticField(fieldName);
+      if (fi == null){
+        throw new JPFConfigException("unknown proposition field: " + clsName + '.' + fieldName);
+      }
+    }
+
+    ElementInfo sei = ci.getStaticElementInfo();
+    if (sei == null){
+      return false;
+    }
+
+    if (fi.getStorageSize() == 2){
+      return sei.getFields().getLongValue(fi.getStorageOffset()) != 0;
+    } else {
+      return sei.getFields().getIntValue(fi.getStorageOffset()) != 0;
+    }
+  }
+
+  @Override
+  public String toString(){
+    return clsName + '.' + fieldName;
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * a fixed memory streaming summary of weighted key occurrences that combines a
+ * count-min sketch (frequency estimates for any key) with a space-saving
+ * top-K list (the heavy hitters).
+ *
+ * Memory is bounded by depth*width counters plus K entries, no matter how many
+ * different keys are added. Counts of reported entries are upper bounds, with
+ * a guaranteed maximum overestimation ('error') - i.e. the true count is in
+ * [count-error, count]. For keys that entered the top-K list late, the count-min
+ * estimate bounds the error, which is at most 2*total/width with probability
+ * 1 - 2^-depth.
+ *
+ * This is used by analysis listeners that otherwise would keep exact maps that
+ * grow with the state space (e.g. over CG sites or variable names)
+ */
+public class HeavyHitterSketch<K> {
+
+  public static class Entry<K> {
+    public final K key;
+    long count;
+    long error;
+
+    Entry (K key, long count, long error){
+      this.key = key;
+      this.count = count;
+      this.error = error;
+    }
+
+    public K getKey(){
+      return key;
+    }
+
+    /** upper bound of the number of occurrences */
+    public long getCount(){
+      return count;
+    }
+
+    /** maximum overestimation of getCount() */
+    public long getError(){
+      return error;
+    }
+
+    @Override
+    public String toString(){
+      return key + ": " + count + " (+-" + error + ')';
+    }
+  }
+
+  static final Comparator<Entry<?>> DESCENDING = new Comparator<Entry<?>>(){
+    @Override
+    public int compare (Entry<?> e1, Entry<?> e2) {
+      return Long.compare(e2.count, e1.count);
+    }
+  };
+
+  protected final int capacity;
+  protected final int depth;
+  protected final int mask;
+  protected final long[][] counters;
+
+  protected final HashMap<K,Entry<K>> topEntries;
+  protected long total;
+
+  /**
+   * @param capacity number of heavy hitters we keep (K)
+   * @param width number of count-min counters per row (rounded up to a power of 2)
+   * @param depth number of count-min rows (hash functions)
+   */
+  public HeavyHitterSketch (int capacity, int width, int depth){
+    int w = Integer.highestOneBit(Math.max(width, 2) - 1) << 1;
+
+    this.capacity = capacity;
+    this.depth = depth;
+    this.mask = w - 1;
+    counters = new long[depth][w];
+
+    topEntries = new HashMap<K,Entry<K>>(capacity * 2);
+  }
+
+  static int hash (int h, int row){
+    long x = (h & 0xffffffffL) + (row + 1) * 0x9E3779B97F4A7C15L;
+    x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+    x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return (int)(x ^ (x >>> 33));
+  }
+
+  public void add (K key){
+    add(key, 1);
+  }
+
+  public void add (K key, long weight){
+    total += weight;
+
+    // update the count-min rows, computing the new estimate on the fly
+    int h = key.hashCode();
+    long estimate = Long.MAX_VALUE;
+    for (int i=0; i<depth; i++){
+      long[] row = counters[i];
+      int idx = hash(h, i) & mask;
+      long c = (row[idx] += weight);
+      if (c < estimate){
+        estimate = c;
+      }
+    }
+
+    Entry<K> e = topEntries.get(key);
+    if (e != null){
+      e.count += weight;
+      if (e.count > estimate){ // count-min gives us a tighter upper bound
+        e.error -= (e.count - estimate);
+        if (e.error < 0){
+          e.error = 0;
+        }
+        e.count = estimate;
+      }
+
+    } else if (topEntries.size() < capacity){
+      // we have seen all occurrences since the key entered, unless a previous
+      // entry of it was evicted - the count-min estimate covers both
+      topEntries.put(key, new Entry<K>(key, estimate, estimate - weight));
+
+    } else {
+      // space saving: replace the minimum entry if the new key could be larger
+      Entry<K> min = null;
+      for (Entry<K> t : topEntries.values()){
+        if (min == null || t.count < min.count){
+          min = t;
+        }
+      }
+
+      if (estimate > min.count){
+        // untracked keys can't have more than min.count occurrences
+        long count = Math.min(estimate, min.count + weight);
+        topEntries.remove(min.key);
+        topEntries.put(key, new Entry<K>(key, count, count - weight));
+      }
+    }
+  }
+
+  /**
+   * count-min estimate (upper bound) for any key, including ones that are not
+   * in the top-K list
+   */
+  public long estimate (K key){
+    int h = key.hashCode();
+    long estimate = Long.MAX_VALUE;
+    for (int i=0; i<depth; i++){
+      long c = counters[i][hash(h, i) & mask];
+      if (c < estimate){
+        estimate = c;
+      }
+    }
+    return estimate;
+  }
+
+  /**
+   * total weight of all added keys
+   */
+  public long getTotal(){
+    return total;
+  }
+
+  /**
+   * maximum expected overestimation of count-min estimates
+   */
+  public long getEstimateError(){
+    return (2 * total) / (mask + 1);
+  }
+
+  public int size(){
+    return topEntries.size();
+  }
+
+  public void clear(){
+    for (int i=0; i<depth; i++){
+      Arrays.fill(counters[i], 0);
+    }
+    topEntries.clear();
+    total = 0;
+  }
+
+  /**
+   * the heavy hitters, sorted in descending count order
+   */
+  public List<Entry<K>> getTopEntries(){
+    ArrayList<Entry<K>> list = new ArrayList<Entry<K>>(topEntries.values());
+    Collections.sort(list, DESCENDING);
+    return list;
+  }
+}
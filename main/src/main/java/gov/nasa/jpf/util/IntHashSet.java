@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * IntSet with open addressing (linear probing), to be used instead of
+ * HashSet<Integer> if the set can grow large, which rules out the array
+ * based IntSets. 
+ * 
+ * 0 is the free slot marker, its membership is stored outside of the table
+ */
+public class IntHashSet implements IntSet {
+
+  static final int DEFAULT_POW = 4;
+
+  protected int[] elements;
+  protected int mask;
+  protected int size;     // number of table entries, not counting 0
+  protected int maxSize;  // when we have to grow
+
+  protected boolean hasZero;
+
+  public IntHashSet (){
+    this(DEFAULT_POW);
+  }
+
+  public IntHashSet (int pow){
+    newTable(pow);
+  }
+
+  protected void newTable (int pow){
+    int len = 1 << pow;
+    elements = new int[len];
+    mask = len - 1;
+    maxSize = len / 2;
+  }
+
+  protected int indexOf (int e){
+    int[] elements = this.elements;
+    for (int i = IntIntHashMap.hash(e) & mask;; i = (i + 1) & mask){
+      int k = elements[i];
+      if (k == e){
+        return i;
+      } else if (k == 0){
+        return -1;
+      }
+    }
+  }
+
+  protected void rehash (){
+    int[] old = elements;
+
+    newTable( Integer.numberOfTrailingZeros(old.length) + 1);
+    for (int i = 0; i < old.length; i++){
+      int e = old[i];
+      if (e != 0){
+        int j = IntIntHashMap.hash(e) & mask;
+        while (elements[j] != 0){
+          j = (j + 1) & mask;
+        }
+        elements[j] = e;
+      }
+    }
+  }
+
+  @Override
+  public boolean add (int e){
+    if (e == 0){
+      if (hasZero){
+        return false;
+      } else {
+        hasZero = true;
+        return true;
+      }
+    }
+
+    int i = IntIntHashMap.hash(e) & mask;
+    for (;; i = (i + 1) & mask){
+      int k = elements[i];
+      if (k == e){
+        return false;
+      } else if (k == 0){
+        break;
+      }
+    }
+
+    elements[i] = e;
+    if (++size > maxSize){
+      rehash();
+    }
+    return true;
+  }
+
+  @Override
+  public boolean remove (int e){
+    if (e == 0){
+      boolean had = hasZero;
+      hasZero = false;
+      return had;
+    }
+
+    int pos = indexOf(e);
+    if (pos < 0){
+      return false;
+    }
+
+    // backward shift deletion
+    int[] elements = this.elements;
+    for (;;){
+      int last = pos;
+      int k;
+      for (pos = (pos + 1) & mask;; pos = (pos + 1) & mask){
+        k = elements[pos];
+        if (k == 0){
+          elements[last] = 0;
+          size--;
+          return true;
+        }
+        int slot = IntIntHashMap.hash(k) & mask;
+        if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)){
+          break;
+        }
+      }
+      elements[last] = k;
+    }
+  }
+
+  @Override
+  public boolean contains (int e){
+    if (e == 0){
+      return hasZero;
+    } else {
+      return indexOf(e) >= 0;
+    }
+  }
+
+  @Override
+  public boolean isEmpty (){
+    return size() == 0;
+  }
+
+  @Override
+  public int size (){
+    return hasZero ? size + 1 : size;
+  }
+
+  @Override
+  public void clear (){
+    newTable(DEFAULT_POW);
+    size = 0;
+    hasZero = false;
+  }
+
+  @Override
+  public IntIterator intIterator (){
+    return new SetIterator();
+  }
+
+  class SetIterator implements IntIterator {
+    int idx = hasZero ? -1 : nextIndex(0);
+
+    int nextIndex (int i){
+      for (; i < elements.length; i++){
+        if (elements[i] != 0){
+          return i;
+        }
+      }
+      return elements.length;
+    }
+
+    @Override
+    public boolean hasNext (){
+      return idx < elements.length;
+    }
+
+    @Override
+    public int next (){
+      if (idx >= elements.length){
+        throw new NoSuchElementException();
+      }
+      
+      if (idx < 0){
+        idx = nextIndex(0);
+        return 0;
+      } else {
+        int e = elements[idx];
+        idx = nextIndex(idx + 1);
+        return e;
+      }
+    }
+
+    @Override
+    public void remove (){
+      throw new UnsupportedOperationException("IntHashSet iterators are read-only");
+    }
+  }
+
+  @Override
+  public IntHashSet clone (){
+    try {
+      IntHashSet s = (IntHashSet) super.clone();
+      s.elements = elements.clone();
+      return s;
+
+    } catch (CloneNotSupportedException cnsx){
+      return null;
+    }
+  }
+
+  @Override
+  public String toString (){
+    StringBuilder sb = new StringBuilder("{");
+    for (IntIterator it = intIterator(); it.hasNext();){
+      if (sb.length() > 1){
+        sb.append(',');
+      }
+      sb.append(it.next());
+    }
+    sb.append('}');
+    return sb.toString();
+  }
+}
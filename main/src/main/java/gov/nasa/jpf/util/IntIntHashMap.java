@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util;
+
+/**
+ * int -> int hash map with open addressing (linear probing), to be used instead
+ * of HashMap<Integer,Integer> on hot paths since it neither boxes keys/values
+ * nor allocates entry objects.
+ * 
+ * Clones are copy-on-write, i.e. cloning is O(1) and the first modification of
+ * either the original or the clone copies the tables. This makes it suitable for
+ * state managed tables that are stored in mementos.
+ * 
+ * key 0 is the free slot marker, its binding is stored outside of the table
+ */
+public class IntIntHashMap implements Cloneable {
+
+  static final int DEFAULT_POW = 4;
+
+  protected int[] keys;
+  protected int[] values;
+  protected int mask;
+  protected int size;     // number of table entries, not counting key 0
+  protected int maxSize;  // when we have to grow
+
+  protected boolean hasZeroKey;
+  protected int zeroValue;
+
+  protected boolean isShared; // tables are shared with a clone
+
+  public IntIntHashMap (){
+    this(DEFAULT_POW);
+  }
+
+  public IntIntHashMap (int pow){
+    newTable(pow);
+  }
+
+  protected void newTable (int pow){
+    int len = 1 << pow;
+    keys = new int[len];
+    values = new int[len];
+    mask = len - 1;
+    maxSize = len / 2;
+  }
+
+  static int hash (int key){
+    int h = key * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+
+  protected void ensureUnshared(){
+    if (isShared){
+      keys = keys.clone();
+      values = values.clone();
+      isShared = false;
+    }
+  }
+
+  protected int indexOf (int key){
+    int[] keys = this.keys;
+    for (int i = hash(key) & mask;; i = (i + 1) & mask){
+      int k = keys[i];
+      if (k == key){
+        return i;
+      } else if (k == 0){
+        return -1;
+      }
+    }
+  }
+
+  protected void rehash (){
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+
+    newTable( Integer.numberOfTrailingZeros(oldKeys.length) + 1);
+    for (int i = 0; i < oldKeys.length; i++){
+      int k = oldKeys[i];
+      if (k != 0){
+        int j = hash(k) & mask;
+        while (keys[j] != 0){
+          j = (j + 1) & mask;
+        }
+        keys[j] = k;
+        values[j] = oldValues[i];
+      }
+    }
+    isShared = false;
+  }
+
+  //--- public methods
+
+  public int size (){
+    return hasZeroKey ? size + 1 : size;
+  }
+
+  public boolean isEmpty (){
+    return size() == 0;
+  }
+
+  public boolean containsKey (int key){
+    if (key == 0){
+      return hasZeroKey;
+    } else {
+      return indexOf(key) >= 0;
+    }
+  }
+
+  public int get (int key, int defaultValue){
+    if (key == 0){
+      return hasZeroKey ? zeroValue : defaultValue;
+    } else {
+      int i = indexOf(key);
+      return (i >= 0) ? values[i] : defaultValue;
+    }
+  }
+
+  public void put (int key, int value){
+    if (key == 0){
+      hasZeroKey = true;
+      zeroValue = value;
+      return;
+    }
+
+    ensureUnshared();
+
+    int i = hash(key) & mask;
+    for (;; i = (i + 1) & mask){
+      int k = keys[i];
+      if (k == key){
+        values[i] = value;
+        return;
+      } else if (k == 0){
+        break;
+      }
+    }
+
+    keys[i] = key;
+    values[i] = value;
+    if (++size > maxSize){
+      rehash();
+    }
+  }
+
+  /**
+   * increment the value of 'key' (starting from 0 if there was no binding)
+   * @return the new value
+   */
+  public int increment (int key){
+    int v = get(key, 0) + 1;
+    put(key, v);
+    return v;
+  }
+
+  public boolean remove (int key){
+    if (key == 0){
+      boolean had = hasZeroKey;
+      hasZeroKey = false;
+      zeroValue = 0;
+      return had;
+    }
+
+    int i = indexOf(key);
+    if (i < 0){
+      return false;
+    }
+
+    ensureUnshared();
+    removeAt(i);
+    size--;
+    return true;
+  }
+
+  /**
+   * backward shift deletion, so that we don't need tombstones
+   */
+  protected void removeAt (int pos){
+    int[] keys = this.keys;
+    int[] values = this.values;
+
+    for (;;){
+      int last = pos;
+      int k;
+      for (pos = (pos + 1) & mask;; pos = (pos + 1) & mask){
+        k = keys[pos];
+        if (k == 0){
+          keys[last] = 0;
+          values[last] = 0;
+          return;
+        }
+        int slot = hash(k) & mask;
+        if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)){
+          break;
+        }
+      }
+      keys[last] = k;
+      values[last] = values[pos];
+    }
+  }
+
+  public void clear (){
+    newTable(DEFAULT_POW);
+    size = 0;
+    hasZeroKey = false;
+    zeroValue = 0;
+    isShared = false;
+  }
+
+  @Override
+  public IntIntHashMap clone (){
+    try {
+      IntIntHashMap m = (IntIntHashMap) super.clone();
+      isShared = true;
+      m.isShared = true;
+      return m;
+
+    } catch (CloneNotSupportedException cnsx){
+      return null;
+    }
+  }
+
+  public IntIterator keyIterator (){
+    return new KeyIterator();
+  }
+
+  class KeyIterator implements IntIterator {
+    int idx = hasZeroKey ? -1 : nextIndex(0);
+
+    int nextIndex (int i){
+      for (; i < keys.length; i++){
+        if (keys[i] != 0){
+          return i;
+        }
+      }
+      return keys.length;
+    }
+
+    @Override
+    public boolean hasNext (){
+      return idx < keys.length;
+    }
+
+    @Override
+    public int next (){
+      if (idx < 0){
+        idx = nextIndex(0);
+        return 0;
+      } else {
+        int k = keys[idx];
+        idx = nextIndex(idx + 1);
+        return k;
+      }
+    }
+
+    @Override
+    public void remove (){
+      throw new UnsupportedOperationException("IntIntHashMap key iterators are read-only");
+    }
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util;
+
+/**
+ * int -> Object hash map with open addressing (linear probing), to be used
+ * instead of HashMap<Integer,V> on hot paths. See IntIntHashMap for details.
+ * 
+ * Clones are shallow and copy-on-write, i.e. cloning is O(1). Null values are
+ * not stored, put(key,null) is the same as remove(key)
+ * 
+ * key 0 is the free slot marker, its binding is stored outside of the table
+ */
+public class IntObjectHashMap<V> implements Cloneable {
+
+  static final int DEFAULT_POW = 4;
+
+  protected int[] keys;
+  protected Object[] values;
+  protected int mask;
+  protected int size;     // number of table entries, not counting key 0
+  protected int maxSize;  // when we have to grow
+
+  protected V zeroValue;  // binding of key 0 (if any)
+
+  protected boolean isShared; // tables are shared with a clone
+
+  public IntObjectHashMap (){
+    this(DEFAULT_POW);
+  }
+
+  public IntObjectHashMap (int pow){
+    newTable(pow);
+  }
+
+  protected void newTable (int pow){
+    int len = 1 << pow;
+    keys = new int[len];
+    values = new Object[len];
+    mask = len - 1;
+    maxSize = len / 2;
+  }
+
+  protected void ensureUnshared(){
+    if (isShared){
+      keys = keys.clone();
+      values = values.clone();
+      isShared = false;
+    }
+  }
+
+  protected int indexOf (int key){
+    int[] keys = this.keys;
+    for (int i = IntIntHashMap.hash(key) & mask;; i = (i + 1) & mask){
+      int k = keys[i];
+      if (k == key){
+        return i;
+      } else if (k == 0){
+        return -1;
+      }
+    }
+  }
+
+  protected void rehash (){
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+
+    newTable( Integer.numberOfTrailingZeros(oldKeys.length) + 1);
+    for (int i = 0; i < oldKeys.length; i++){
+      int k = oldKeys[i];
+      if (k != 0){
+        int j = IntIntHashMap.hash(k) & mask;
+        while (keys[j] != 0){
+          j = (j + 1) & mask;
+        }
+        keys[j] = k;
+        values[j] = oldValues[i];
+      }
+    }
+    isShared = false;
+  }
+
+  //--- public methods
+
+  public int size (){
+    return (zeroValue != null) ? size + 1 : size;
+  }
+
+  public boolean isEmpty (){
+    return size() == 0;
+  }
+
+  public boolean containsKey (int key){
+    return get(key) != null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get (int key){
+    if (key == 0){
+      return zeroValue;
+    } else {
+      int i = indexOf(key);
+      return (i >= 0) ? (V) values[i] : null;
+    }
+  }
+
+  public void put (int key, V value){
+    if (value == null){
+      remove(key);
+      return;
+    }
+    
+    if (key == 0){
+      zeroValue = value;
+      return;
+    }
+
+    ensureUnshared();
+
+    int i = IntIntHashMap.hash(key) & mask;
+    for (;; i = (i + 1) & mask){
+      int k = keys[i];
+      if (k == key){
+        values[i] = value;
+        return;
+      } else if (k == 0){
+        break;
+      }
+    }
+
+    keys[i] = key;
+    values[i] = value;
+    if (++size > maxSize){
+      rehash();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public V remove (int key){
+    if (key == 0){
+      V v = zeroValue;
+      zeroValue = null;
+      return v;
+    }
+
+    int i = indexOf(key);
+    if (i < 0){
+      return null;
+    }
+
+    ensureUnshared();
+    V v = (V) values[i];
+    removeAt(i);
+    size--;
+    return v;
+  }
+
+  /**
+   * backward shift deletion, so that we don't need tombstones
+   */
+  protected void removeAt (int pos){
+    int[] keys = this.keys;
+    Object[] values = this.values;
+
+    for (;;){
+      int last = pos;
+      int k;
+      for (pos = (pos + 1) & mask;; pos = (pos + 1) & mask){
+        k = keys[pos];
+        if (k == 0){
+          keys[last] = 0;
+          values[last] = null;
+          return;
+        }
+        int slot = IntIntHashMap.hash(k) & mask;
+        if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)){
+          break;
+        }
+      }
+      keys[last] = k;
+      values[last] = values[pos];
+    }
+  }
+
+  public void clear (){
+    newTable(DEFAULT_POW);
+    size = 0;
+    zeroValue = null;
+    isShared = false;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public IntObjectHashMap<V> clone (){
+    try {
+      IntObjectHashMap<V> m = (IntObjectHashMap<V>) super.clone();
+      isShared = true;
+      m.isShared = true;
+      return m;
+
+    } catch (CloneNotSupportedException cnsx){
+      return null;
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util;
+
+/**
+ * Object -> int hash map with open addressing (linear probing), to be used
+ * instead of IntTable or HashMap<K,Integer> on hot paths since it does not
+ * allocate entry objects.
+ * 
+ * Clones are copy-on-write, i.e. cloning is O(1) and the first modification of
+ * either the original or the clone copies the tables. This makes it suitable for
+ * state managed tables that are stored in mementos (as opposed to IntTable
+ * clones/snapshots, which are O(n))
+ * 
+ * null keys are not supported
+ */
+public class ObjectIntHashMap<K> implements Cloneable {
+
+  static final int DEFAULT_POW = 4;
+
+  protected Object[] keys;
+  protected int[] values;
+  protected int mask;
+  protected int size;
+  protected int maxSize;  // when we have to grow
+
+  protected boolean isShared; // tables are shared with a clone
+
+  public ObjectIntHashMap (){
+    this(DEFAULT_POW);
+  }
+
+  public ObjectIntHashMap (int pow){
+    newTable(pow);
+  }
+
+  protected void newTable (int pow){
+    int len = 1 << pow;
+    keys = new Object[len];
+    values = new int[len];
+    mask = len - 1;
+    maxSize = len / 2;
+  }
+
+  static int hash (Object key){
+    int h = key.hashCode() * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+
+  protected void ensureUnshared(){
+    if (isShared){
+      keys = keys.clone();
+      values = values.clone();
+      isShared = false;
+    }
+  }
+
+  protected int indexOf (Object key){
+    Object[] keys = this.keys;
+    for (int i = hash(key) & mask;; i = (i + 1) & mask){
+      Object k = keys[i];
+      if (k == null){
+        return -1;
+      } else if (k == key || k.equals(key)){
+        return i;
+      }
+    }
+  }
+
+  protected void rehash (){
+    Object[] oldKeys = keys;
+    int[] oldValues = values;
+
+    newTable( Integer.numberOfTrailingZeros(oldKeys.length) + 1);
+    for (int i = 0; i < oldKeys.length; i++){
+      Object k = oldKeys[i];
+      if (k != null){
+        int j = hash(k) & mask;
+        while (keys[j] != null){
+          j = (j + 1) & mask;
+        }
+        keys[j] = k;
+        values[j] = oldValues[i];
+      }
+    }
+    isShared = false;
+  }
+
+  /**
+   * add a binding for a key that is known to be not in the table
+   */
+  protected void addNew (int i, K key, int value){
+    ensureUnshared();
+
+    keys[i] = key;
+    values[i] = value;
+    if (++size > maxSize){
+      rehash();
+    }
+  }
+
+  protected int freeIndex (Object key){
+    Object[] keys = this.keys;
+    int i = hash(key) & mask;
+    while (keys[i] != null){
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+
+  //--- public methods
+
+  public int size (){
+    return size;
+  }
+
+  public boolean isEmpty (){
+    return size == 0;
+  }
+
+  public boolean containsKey (K key){
+    return indexOf(key) >= 0;
+  }
+
+  public int get (K key, int defaultValue){
+    int i = indexOf(key);
+    return (i >= 0) ? values[i] : defaultValue;
+  }
+
+  public void put (K key, int value){
+    int i = indexOf(key);
+    if (i >= 0){
+      ensureUnshared();
+      values[i] = value;
+    } else {
+      addNew( freeIndex(key), key, value);
+    }
+  }
+
+  /**
+   * increment the value of 'key' (starting from 0 if there was no binding)
+   * @return the new value
+   */
+  public int increment (K key){
+    int i = indexOf(key);
+    if (i >= 0){
+      ensureUnshared();
+      return ++values[i];
+    } else {
+      addNew( freeIndex(key), key, 1);
+      return 1;
+    }
+  }
+
+  /**
+   * get the value of 'key', or bind it to the current size if it isn't
+   * in the table yet, which turns this into a dense key pool
+   */
+  public int poolIndex (K key){
+    int i = indexOf(key);
+    if (i >= 0){
+      return values[i];
+    } else {
+      int v = size;
+      addNew( freeIndex(key), key, v);
+      return v;
+    }
+  }
+
+  public boolean remove (K key){
+    int i = indexOf(key);
+    if (i < 0){
+      return false;
+    }
+
+    ensureUnshared();
+    removeAt(i);
+    size--;
+    return true;
+  }
+
+  /**
+   * backward shift deletion, so that we don't need tombstones
+   */
+  protected void removeAt (int pos){
+    Object[] keys = this.keys;
+    int[] values = this.values;
+
+    for (;;){
+      int last = pos;
+      Object k;
+      for (pos = (pos + 1) & mask;; pos = (pos + 1) & mask){
+        k = keys[pos];
+        if (k == null){
+          keys[last] = null;
+          values[last] = 0;
+          return;
+        }
+        int slot = hash(k) & mask;
+        if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)){
+          break;
+        }
+      }
+      keys[last] = k;
+      values[last] = values[pos];
+    }
+  }
+
+  public void clear (){
+    newTable(DEFAULT_POW);
+    size = 0;
+    isShared = false;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public ObjectIntHashMap<K> clone (){
+    try {
+      ObjectIntHashMap<K> m = (ObjectIntHashMap<K>) super.clone();
+      isShared = true;
+      m.isShared = true;
+      return m;
+
+    } catch (CloneNotSupportedException cnsx){
+      return null;
+    }
+  }
+}
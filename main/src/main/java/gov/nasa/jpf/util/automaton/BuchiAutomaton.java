@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util.automaton;
+
+import gov.nasa.jpf.JPFException;
+
+import java.util.ArrayList;
+
+/**
+ * a (nondeterministic) Buchi automaton over a set of atomic propositions,
+ * used as a monitor for liveness properties (usually the negation of the
+ * property to check, i.e. what is called a 'never claim').
+ *
+ * Transition labels are boolean guards over proposition names in disjunctive
+ * normal form, such as "p && !q || r", "!p" or "true" (which is what LTL to
+ * Buchi translators produce). State 0 is the initial state.
+ *
+ * Guards are compiled into bit masks, i.e. the automaton reads valuations
+ * that are encoded as a long with bit i set if proposition i holds, which
+ * limits us to 64 propositions. Compilation happens lazily on the first
+ * getSuccessors() call, i.e. the automaton should not be modified afterwards
+ */
+public class BuchiAutomaton extends Automaton<BuchiState> {
+
+  static final int[] NO_SUCCESSORS = new int[0];
+
+  protected String[] propositions;
+
+  // per state and transition, the DNF terms as pairs of (positive,negative) literal masks
+  protected long[][][] guards;
+  protected int[][] targets;
+
+  public BuchiAutomaton (String label, int numberOfStates){
+    super(label, numberOfStates);
+  }
+
+  public BuchiAutomaton (String label){
+    super(label);
+  }
+
+  public BuchiState getState (int id){
+    return (BuchiState)states[id];
+  }
+
+  public boolean isAccepting (int id){
+    return ((BuchiState)states[id]).isAccepting();
+  }
+
+  public String[] getPropositions(){
+    if (propositions == null){
+      compile();
+    }
+    return propositions;
+  }
+
+  /**
+   * return the ids of all states we can reach from state 'id' if the current
+   * proposition values are given by 'valuation'. Note this is the automaton
+   * state space, the current state is not changed
+   */
+  public int[] getSuccessors (int id, long valuation){
+    if (guards == null){
+      compile();
+    }
+
+    long[][] sg = guards[id];
+    int[] st = targets[id];
+    int[] succ = null;
+    int n = 0;
+
+    nextTransition:
+    for (int i=0; i<sg.length; i++){
+      long[] terms = sg[i];
+      for (int j=0; j<terms.length; j+=2){
+        if (((valuation & terms[j]) == terms[j]) && ((valuation & terms[j+1]) == 0)){
+          int t = st[i];
+          if (succ == null){
+            succ = new int[sg.length];
+          } else {
+            for (int k=0; k<n; k++){
+              if (succ[k] == t){
+                continue nextTransition;
+              }
+            }
+          }
+          succ[n++] = t;
+          continue nextTransition;
+        }
+      }
+    }
+
+    if (n == 0){
+      return NO_SUCCESSORS;
+    } else if (n < succ.length){
+      int[] a = new int[n];
+      System.arraycopy(succ, 0, a, 0, n);
+      return a;
+    } else {
+      return succ;
+    }
+  }
+
+  protected void compile (){
+    ArrayList<String> props = new ArrayList<String>();
+    long[][][] g = new long[nStates][][];
+    int[][] tg = new int[nStates][];
+
+    for (int i=0; i<nStates; i++){
+      State s = states[i];
+      int nTrans = s.getNumberOfTransitions();
+      g[i] = new long[nTrans][];
+      tg[i] = new int[nTrans];
+
+      for (int j=0; j<nTrans; j++){
+        Transition t = s.getTransition(j);
+        g[i][j] = compileGuard(t.getLabel(), props);
+        tg[i][j] = t.toState.getId();
+      }
+    }
+
+    propositions = props.toArray(new String[props.size()]);
+    guards = g;
+    targets = tg;
+  }
+
+  protected long[] compileGuard (String guard, ArrayList<String> props){
+    String[] terms = guard.split("\\|\\|");
+    long[] masks = new long[terms.length * 2];
+
+    for (int i=0; i<terms.length; i++){
+      for (String lit : stripParens(terms[i]).split("&&")){
+        lit = stripParens(lit);
+        boolean isNegated = false;
+        while (lit.startsWith("!")){
+          isNegated = !isNegated;
+          lit = stripParens(lit.substring(1));
+        }
+
+        if (lit.equals("true") || lit.equals("1")){
+          if (isNegated){ // unsatisfiable term
+            masks[2*i] = masks[2*i+1] = 1L;
+          }
+          continue;
+        }
+        if (lit.isEmpty()){
+          throw new JPFException("malformed guard in automaton " + label + ": " + guard);
+        }
+
+        int idx = props.indexOf(lit);
+        if (idx < 0){
+          idx = props.size();
+          if (idx == 64){
+            throw new JPFException("too many propositions in automaton " + label);
+          }
+          props.add(lit);
+        }
+
+        masks[2*i + (isNegated ? 1 : 0)] |= (1L << idx);
+      }
+    }
+
+    return masks;
+  }
+
+  static String stripParens (String s){
+    s = s.trim();
+    while (s.length() > 1 && s.charAt(0) == '(' && s.charAt(s.length()-1) == ')'){
+      // make sure the first '(' matches the last ')' (e.g. not "(a) && (b)")
+      int level = 0;
+      for (int i=0; i<s.length()-1; i++){
+        char c = s.charAt(i);
+        if (c == '('){
+          level++;
+        } else if (c == ')' && --level == 0){
+          return s;
+        }
+      }
+      s = s.substring(1, s.length()-1).trim();
+    }
+    return s;
+  }
+}
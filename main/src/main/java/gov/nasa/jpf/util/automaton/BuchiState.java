@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util.automaton;
+
+import java.io.PrintStream;
+
+/**
+ * a state of a Buchi automaton, which can be accepting. Accepting states have
+ * to be visited infinitely often by an accepted (infinite) run
+ */
+public class BuchiState extends State {
+
+  protected boolean isAccepting;
+
+  public BuchiState (String label, boolean isAccepting){
+    super(label);
+    this.isAccepting = isAccepting;
+  }
+
+  public BuchiState (String label){
+    this(label, false);
+  }
+
+  public boolean isAccepting(){
+    return isAccepting;
+  }
+
+  @Override
+  public void printOn (PrintStream ps){
+    ps.printf("\t[%d] %s '%s'\n", id, (isAccepting ? "accepting state" : "State"), label);
+    for (int i=0; i<nTransitions; i++){
+      transitions[i].printOn( ps);
+    }
+  }
+}
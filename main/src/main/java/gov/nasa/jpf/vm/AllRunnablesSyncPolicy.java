@@ -250,7 +250,7 @@ public class AllRunnablesSyncPolicy implements SyncPolicy {
   
   @Override
   public boolean setsSleepCG (ThreadInfo ti, long millis, int nanos){
-    if (breakSleep){
+    if (breakSleep || vm.getTimeModel().requiresSleepCG()){
       return setNonBlockingCG( SLEEP, ti);
     } else {
       return false;
@@ -219,7 +219,26 @@ public class AnnotationInfo implements Cloneable {
       throw new JPFException("AnnotationInfo cloneFor() failed");
     }
   }
-  
+
+  /**
+   * clone all annotations of an array for a different loader. Empty arrays are
+   * returned as is since they might be shared sentinels
+   */
+  @SuppressWarnings("unchecked")
+  static <T extends AnnotationInfo> T[] cloneFor (T[] a, ClassLoaderInfo cl){
+    if (a == null || a.length == 0){
+      return a;
+    }
+
+    T[] ac = a.clone();
+    for (int i=0; i<ac.length; i++){
+      if (ac[i] != null){
+        ac[i] = (T) ac[i].cloneFor(cl);
+      }
+    }
+    return ac;
+  }
+
   /**
    * this returns a clone that can be used to explicitly set values.
    * NOTE - Entry instances are still shared, i.e. to change values we have to create and set
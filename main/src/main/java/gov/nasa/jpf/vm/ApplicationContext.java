@@ -19,7 +19,7 @@
 package gov.nasa.jpf.vm;
 
 import gov.nasa.jpf.SystemAttribute;
-import gov.nasa.jpf.util.IntTable;
+import gov.nasa.jpf.util.ObjectIntHashMap;
 
 /**
  * auxiliary class that captures the main entry and classloader context
@@ -37,7 +37,7 @@ public class ApplicationContext implements SystemAttribute {
   MethodInfo miEntry;
   
   FinalizerThreadInfo finalizerThread;
-  IntTable<String> internStrings;
+  ObjectIntHashMap<String> internStrings;
   
   ApplicationContext (int id, String mainClassName, String mainEntry, String[] args, String host, SystemClassLoaderInfo sysCl){
     this.id = id;
@@ -46,7 +46,7 @@ public class ApplicationContext implements SystemAttribute {
     this.args = args;
     this.host = host;
     this.sysCl = sysCl;
-    this.internStrings = new IntTable<String>(8);
+    this.internStrings = new ObjectIntHashMap<String>(8);
   }
   
   void setEntryMethod (MethodInfo miEntry){
@@ -85,7 +85,7 @@ public class ApplicationContext implements SystemAttribute {
     finalizerThread = (FinalizerThreadInfo)ti;
   }
   
-  public IntTable<String> getInternStrings() {
+  public ObjectIntHashMap<String> getInternStrings() {
     return internStrings;
   }
   
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.vm;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.JPF;
+import gov.nasa.jpf.util.IntIntHashMap;
+import gov.nasa.jpf.util.JPFLogger;
+import gov.nasa.jpf.util.SparseIntVector;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * a cache of fully initialized VMs that can be reused by subsequent JPF runs
+ * with an equivalent configuration (e.g. the test methods of a TestJPF class),
+ * which saves us from loading, linking and initializing the startup classes
+ * over and over again.
+ *
+ * A snapshot consists of the VM object itself, the RestorableVMState right
+ * after system state initialization, and the search global registries that
+ * are kept in static fields (class and method ids, loaded class files etc.),
+ * which would otherwise be reset by VM.initSubsystems() of a subsequent VM
+ * that does not use this snapshot.
+ *
+ * Snapshots are kept in-process - the VM object graph (ClassInfos, peers,
+ * listeners) is not serializable, so there is no point in storing them
+ * to disk.
+ *
+ * <2do> only supported by SingleProcessVM so far
+ */
+public class BootSnapshot {
+
+  static JPFLogger logger = JPF.getLogger("gov.nasa.jpf.vm.BootSnapshot");
+
+  /**
+   * config keys that do not affect VM initialization and hence can differ
+   * between runs that share a snapshot. Everything else has to match
+   */
+  static final String[] IGNORED_KEY_PREFIXES = {
+    "search.", "report.", "trace.", "choice.", "log.", "target.test_method"
+  };
+
+  static final int DEFAULT_MAX_SNAPSHOTS = 4;
+
+  static LinkedHashMap<String,BootSnapshot> snapshots;
+
+  final String key;
+  final VM vm;
+
+  RestorableVMState bootState;
+  boolean inUse;
+
+  // the saved static registries
+  SparseIntVector globalCLids;
+  Map<String,ClassInfo> loadedClasses;
+  Map<String,AnnotationInfo> loadedAnnotations;
+  ArrayList<MethodInfo> mthTable;
+  IntIntHashMap globalTids;
+
+  BootSnapshot (String key, VM vm){
+    this.key = key;
+    this.vm = vm;
+  }
+
+  static String getKey (Config config){
+    StringBuilder sb = new StringBuilder();
+
+    outer:
+    for (String k : new TreeSet<String>(config.stringPropertyNames())){
+      for (String prefix : IGNORED_KEY_PREFIXES){
+        if (k.startsWith(prefix)){
+          continue outer;
+        }
+      }
+      sb.append(k);
+      sb.append('=');
+      sb.append(config.getProperty(k));
+      sb.append('\n');
+    }
+
+    String[] freeArgs = config.getFreeArgs();
+    if (freeArgs != null){
+      for (String a : freeArgs){
+        sb.append(a);
+        sb.append(' ');
+      }
+    }
+
+    return sb.toString();
+  }
+
+  static Map<String,BootSnapshot> getSnapshots (Config config){
+    if (snapshots == null){
+      final int maxSnapshots = config.getInt("vm.boot_snapshot.max", DEFAULT_MAX_SNAPSHOTS);
+
+      snapshots = new LinkedHashMap<String,BootSnapshot>(16, 0.75f, true){
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry (Map.Entry<String,BootSnapshot> e){
+          return size() > maxSnapshots;
+        }
+      };
+    }
+
+    return snapshots;
+  }
+
+  /**
+   * factory method used by JPF - returns a previously initialized VM that
+   * was created for an equivalent configuration, or null if there is none
+   * (or it is currently used)
+   */
+  public static synchronized VM reuseVM (JPF jpf, Config config){
+    if (!config.getBoolean("vm.boot_snapshot", false)){
+      return null;
+    }
+
+    BootSnapshot snapshot = getSnapshots(config).get(getKey(config));
+    if (snapshot == null || snapshot.inUse || snapshot.bootState == null){
+      return null;
+    }
+
+    logger.info("reusing VM boot snapshot");
+
+    snapshot.inUse = true;
+    snapshot.vm.reattach(jpf, config, snapshot);
+
+    return snapshot.vm;
+  }
+
+  /**
+   * create a (not yet stored) snapshot for a new VM if boot snapshots are
+   * enabled. Note the key has to be computed before any listener or reporter
+   * gets a chance to modify the config
+   */
+  static BootSnapshot create (VM vm, Config config){
+    if (config.getBoolean("vm.boot_snapshot", false)){
+      return new BootSnapshot(getKey(config), vm);
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * called by the VM once it is initialized
+   */
+  void store (Config config){
+    bootState = vm.getRestorableState();
+    inUse = true;
+
+    synchronized (BootSnapshot.class){
+      getSnapshots(config).put(key, this);
+    }
+  }
+
+  /**
+   * called at the end of each run. The registries might have been extended
+   * by classes that were loaded during the search, but the ids we hand out
+   * are search global anyways, so there is no need to roll them back
+   */
+  void release (){
+    globalCLids = ClassLoaderInfo.globalCLids;
+    loadedClasses = ClassLoaderInfo.loadedClasses;
+    loadedAnnotations = ClassLoaderInfo.loadedAnnotations;
+    mthTable = new ArrayList<MethodInfo>(MethodInfo.mthTable);
+    globalTids = ThreadInfo.globalTids;
+
+    synchronized (BootSnapshot.class){
+      inUse = false;
+    }
+  }
+
+  /**
+   * this has to be called after VM.initSubsystems()
+   */
+  void restoreRegistries (){
+    if (mthTable != null){
+      ClassLoaderInfo.globalCLids = globalCLids;
+      ClassLoaderInfo.loadedClasses = loadedClasses;
+      ClassLoaderInfo.loadedAnnotations = loadedAnnotations;
+      MethodInfo.mthTable.addAll(mthTable);
+      ThreadInfo.globalTids = globalTids;
+    }
+  }
+
+  RestorableVMState getBootState (){
+    return bootState;
+  }
+
+  /**
+   * the peers of a reused VM still refer to the previous run (and might
+   * have static state that was initialized from its config), so we have to
+   * create fresh ones
+   */
+  void renewNativePeers (){
+    for (ClassInfo ci : ClassLoaderInfo.loadedClasses.values()){
+      ci.renewNativePeer();
+    }
+  }
+
+  /**
+   * listeners that are loaded by class annotations have to be re-registered
+   * with the new JPF object
+   */
+  void reloadAnnotationListeners (){
+    for (ClassInfo ci : ClassLoaderInfo.loadedClasses.values()){
+      ci.loadAnnotationListeners();
+    }
+  }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.vm;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.JPFConfigException;
+import gov.nasa.jpf.JPFException;
+import gov.nasa.jpf.util.ImmutableList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * a Backtracker for very deep searches that only keeps a full KernelState
+ * memento every 'vm.backtracker.checkpoint_interval' levels. Levels in between
+ * just record what is needed to re-execute their transition (the CG that was
+ * advanced, the thread that executed before, and the atomic level), which are
+ * references to objects that are on the path anyways.
+ *
+ * Backtracking to a level without a memento restores the nearest checkpoint
+ * below and re-executes the transitions up to the target level, caching the
+ * KernelStates of the most recently re-executed levels so that subsequent
+ * backtracks within the same segment don't have to re-execute again. This trades
+ * backtrack time (at most 'interval' transitions per segment) for memory. The
+ * number of cached levels is bounded by 'vm.backtracker.cached_levels' for the
+ * whole path, older cache entries are dropped first.
+ *
+ * Re-executed transitions are not observable: VM listeners are suspended and
+ * there is no tree or path output while we re-execute. This requires that
+ * transitions are deterministic for a given choice path, i.e. listeners and
+ * peers must not change the program state based on external data, and CG
+ * randomization (cg.randomize_choices) should not be used with a seed that
+ * varies between executions. Native peers with host side effects (such as
+ * Verify counters) are executed again. Since the program state has to be the
+ * same, re-execution has to break transitions at the same points. We check this
+ * by comparing the CGs that get registered with the ones that were recorded, and
+ * throw a JPFException if the re-execution diverges (e.g. if the search uses
+ * search global state such as GlobalSharednessPolicy).
+ * 
+ * Transitions that create threads are never re-executed since this would create
+ * new ThreadInfo objects, while the CGs and monitors of the subsequent levels
+ * still refer to the original ones. We therefore always store a checkpoint for
+ * a level that has threads which were not there on the level below.
+ *
+ * SystemState mementos are kept for each level since they only store references
+ */
+public class CheckpointBacktracker<KState> implements Backtracker {
+
+  /**
+   * what we store per depth level
+   */
+  static class Level<KState> {
+    // the snapshot we restore - only set for checkpoints or cached re-execution results
+    KState kstate;
+    final boolean isCheckpoint;
+    
+    // distance to the next checkpoint below (0 for checkpoints)
+    final int distance;
+
+    // what we need to re-execute the transition
+    final ChoiceGenerator<?> cg;
+    final ThreadInfo execThread;
+    final int atomicLevel;
+
+    // the ThreadInfos of the pre-state, to detect thread creation
+    final ThreadInfo[] threads;
+
+    Level (SystemState ss, ThreadInfo[] threads, KState kstate, int distance){
+      this.kstate = kstate;
+      this.isCheckpoint = (kstate != null);
+      this.distance = distance;
+
+      cg = ss.curCg;
+      execThread = ss.execThread;
+      atomicLevel = ss.atomicLevel;
+      this.threads = threads;
+    }
+  }
+
+  protected ImmutableList<Level<KState>> kstack;
+  protected ImmutableList<Object> sstack;
+
+  protected VM vm;
+  protected SystemState ss;
+  protected StateRestorer<KState> restorer;
+
+  protected int interval;
+
+  // re-executed (non-checkpoint) levels that have a KState, oldest first
+  protected ArrayDeque<Level<KState>> cached = new ArrayDeque<Level<KState>>();
+  protected int maxCached;
+
+  // statistics
+  protected long nReexecuted;
+
+  public CheckpointBacktracker (Config config){
+    interval = config.getInt("vm.backtracker.checkpoint_interval", 32);
+    if (interval < 1){
+      throw new JPFConfigException("vm.backtracker.checkpoint_interval has to be > 0: " + interval);
+    }
+
+    maxCached = config.getInt("vm.backtracker.cached_levels", interval - 1);
+    if (maxCached < 0){
+      throw new JPFConfigException("vm.backtracker.cached_levels has to be >= 0: " + maxCached);
+    }
+  }
+
+  @Override
+  public void attach(VM vm) {
+    this.vm = vm;
+    ss = vm.getSystemState();
+    restorer = vm.getRestorer();
+  }
+
+  public long getNumberOfReexecutedTransitions(){
+    return nReexecuted;
+  }
+
+  //--- the backtrack support (depth first only)
+
+  protected void backtrackKernelState() {
+    Level<KState> level = kstack.head;
+    kstack = kstack.tail;
+
+    if (level.kstate != null){
+      restorer.restore(level.kstate);
+      if (!level.isCheckpoint){
+        level.kstate = null; // we are done with this segment level
+        cached.removeLastOccurrence(level);
+      }
+
+    } else {
+      rebuild(level);
+    }
+  }
+
+  protected void backtrackSystemState() {
+    Object o = sstack.head;
+    sstack = sstack.tail;
+    ss.backtrackTo(o);
+  }
+
+  @Override
+  public boolean backtrack () {
+    if (sstack != null) {
+      backtrackKernelState();
+      backtrackSystemState();
+      return true;
+
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public void pushKernelState () {
+    ThreadInfo[] threads = vm.getThreadList().getThreads();
+
+    if (kstack == null || kstack.head.distance + 1 >= interval || hasNewThreads(threads, kstack.head.threads)){
+      kstack = new ImmutableList<Level<KState>>(new Level<KState>(ss, threads, restorer.getRestorableData(), 0), kstack);
+    } else {
+      kstack = new ImmutableList<Level<KState>>(new Level<KState>(ss, threads, null, kstack.head.distance + 1), kstack);
+    }
+  }
+
+  /**
+   * did the transition that lead to 'threads' create a new ThreadInfo. Terminated
+   * threads that got removed don't matter since re-execution removes the same objects
+   */
+  protected boolean hasNewThreads (ThreadInfo[] threads, ThreadInfo[] prevThreads){
+    outer:
+    for (ThreadInfo ti : threads){
+      for (ThreadInfo tiPrev : prevThreads){
+        if (ti == tiPrev){
+          continue outer;
+        }
+      }
+      return true;
+    }
+
+    return false;
+  }
+
+  @Override
+  public void pushSystemState () {
+    sstack = new ImmutableList<Object>(ss.getBacktrackData(),sstack);
+  }
+
+  //--- re-execution
+
+  /**
+   * restore the nearest checkpoint below 'target' (which is already popped)
+   * and re-execute all transitions up to the pre-state of target
+   */
+  protected void rebuild (Level<KState> target){
+    // the segment levels in execution order, ending with target
+    ArrayList<Level<KState>> segment = new ArrayList<Level<KState>>(target.distance + 1);
+    ImmutableList<Level<KState>> l = kstack;
+    for (int i = 0; i < target.distance; i++) {
+      segment.add(l.head);
+      l = l.tail;
+    }
+    Collections.reverse(segment);
+    segment.add(target);
+
+    // start from the closest level that still has a snapshot
+    int start = 0;
+    for (int i = target.distance - 1; i > 0; i--){
+      if (segment.get(i).kstate != null){
+        start = i;
+        break;
+      }
+    }
+    restorer.restore(segment.get(start).kstate);
+
+    // we keep vm.turbo as it is so that re-execution uses the same instruction
+    // loop (and instruction fusion) as the original execution
+    VMListener[] listeners = vm.listeners;
+    boolean treeOutput = vm.treeOutput;
+    boolean pathOutput = vm.pathOutput;
+    
+    vm.listeners = new VMListener[0];
+    vm.treeOutput = false;
+    vm.pathOutput = false;
+    
+    try {
+      for (int i = start; i < target.distance; i++) {
+        reexecute(segment.get(i), segment.get(i + 1));
+
+        if (i + 1 < target.distance && maxCached > 0) {
+          cache(segment.get(i + 1));
+        }
+      }
+      
+    } finally {
+      vm.listeners = listeners;
+      vm.treeOutput = treeOutput;
+      vm.pathOutput = pathOutput;
+    }
+  }
+
+  protected void cache (Level<KState> level){
+    if (cached.size() >= maxCached){
+      Level<KState> oldest = cached.pollFirst();
+      oldest.kstate = null;
+    }
+
+    level.kstate = restorer.getRestorableData();
+    cached.addLast(level);
+  }
+
+  /**
+   * re-execute the transition of 'level' from its pre-state, which has to be
+   * the current program state. This mimics VM.forward() without storing,
+   * matching or notifying. 'next' is the level that was originally reached by
+   * this transition
+   */
+  protected void reexecute (Level<KState> level, Level<KState> next){
+    ss.curCg = level.cg;  // this is still positioned at the choice we took
+    ss.nextCg = null;
+    ss.execThread = level.execThread;
+    ss.atomicLevel = level.atomicLevel;
+    ss.restorers = null;
+    ss.isIgnored = false;
+
+    try {
+      ss.executeNextTransition(vm);
+    } catch (UncaughtException e) {
+      // same as in VM.forward()
+    }
+
+    // the transition did register a new CG instance, but the path already has one
+    if (!isSameTransitionEnd(ss.nextCg, next.cg)){
+      throw new JPFException("checkpoint re-execution diverged at " + level.cg + ", expected next CG: "
+              + next.cg + ", got: " + ss.nextCg);
+    }
+    ss.nextCg = null;
+    nReexecuted++;
+
+    if (!vm.isIgnoredState() && vm.runGc && !vm.hasPendingException()) {
+      if (ss.gcIfNeeded()) {
+        vm.processFinalizers();
+      }
+    }
+  }
+
+  /**
+   * the recorded CG is either the last one that was registered by the original
+   * transition, or one of its cascaded parents
+   */
+  protected boolean isSameTransitionEnd (ChoiceGenerator<?> replayed, ChoiceGenerator<?> recorded){
+    for (ChoiceGenerator<?> cg = replayed; cg != null; cg = cg.getCascadedParent()){
+      if (cg.getClass() == recorded.getClass()){
+        String id = cg.getId();
+        if (id == null ? recorded.getId() == null : id.equals(recorded.getId())){
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  //--- the restore support
+
+  class RestorableStateImpl implements RestorableState {
+    final ImmutableList<Level<KState>> savedKstack;
+    final ImmutableList<Object> savedSstack;
+
+    final KState kcur;
+    final Object scur;
+
+    RestorableStateImpl() {
+      savedKstack = kstack;
+      savedSstack = sstack;
+      kcur = restorer.getRestorableData();
+      scur = ss.getRestoreData();
+    }
+
+    void restore() {
+      kstack = savedKstack;
+      sstack = savedSstack;
+      restorer.restore(kcur);
+      ss.restoreTo(scur);
+    }
+  }
+
+  @Override
+  public void restoreState (RestorableState state) {
+    ((RestorableStateImpl) state).restore();
+  }
+
+  @Override
+  public RestorableState getRestorableState() {
+    return new RestorableStateImpl();
+  }
+}
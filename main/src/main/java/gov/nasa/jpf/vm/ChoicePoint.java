@@ -19,20 +19,40 @@ package gov.nasa.jpf.vm;
 
 import gov.nasa.jpf.JPFException;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StreamTokenizer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * a little helper class that is used to replay previously stored traces
  * (which are little more than just a list of ChoiceGenerator classnames and
  * choiceIndex indexes stored in a previous run)
+ *
+ * traces can be stored either in a human readable text format, or in a compact
+ * binary format that uses varint encoded CG class ids and choice indices (which
+ * can optionally be gzip compressed). readTrace() detects the format automatically
  */
 public class ChoicePoint {
+
+  // binary trace format header ("JPFT" + version)
+  static final byte[] BINARY_MAGIC = { 'J', 'P', 'F', 'T' };
+  static final int BINARY_VERSION = 1;
   String cgClassName;
   int choiceIndex;
   ChoicePoint next, prev;
@@ -65,7 +85,7 @@ public class ChoicePoint {
 
   public static void storeTrace (String fileName,
                                  String sutName, String comment,
-                                 ChoiceGenerator[] trace, boolean verbose) {
+                                 ChoiceGenerator<?>[] trace, boolean verbose) {
     int i;
     if (fileName != null) {
       try {
@@ -121,6 +141,158 @@ public class ChoicePoint {
     }
   }
 
+  /**
+   * binary trace format:
+   *   "JPFT" version:byte sutName:UTF comment:UTF nChoicePoints:varint
+   *   { clsId:varint [clsName:UTF] choiceIndex:zigzag-varint }
+   *
+   * class ids are assigned in order of first appearance, i.e. a clsId that is
+   * equal to the number of already seen classes is followed by the class name
+   */
+  public static void storeBinaryTrace (String fileName,
+                                       String sutName, String comment,
+                                       ChoiceGenerator<?>[] trace, boolean compress) {
+    if (fileName != null) {
+      try {
+        OutputStream os = new BufferedOutputStream(new FileOutputStream(fileName), 8192);
+        if (compress){
+          os = new GZIPOutputStream(os, 8192);
+        }
+        DataOutputStream out = new DataOutputStream(os);
+
+        out.write(BINARY_MAGIC);
+        out.writeByte(BINARY_VERSION);
+        out.writeUTF(sutName);
+        out.writeUTF(comment != null ? comment : "");
+
+        int n = (trace != null) ? trace.length : 0;
+        writeVarInt(out, n);
+
+        HashMap<String,Integer> map = new HashMap<String,Integer>();
+        for (int i=0; i<n; i++) {
+          String cgClsName = trace[i].getClass().getName();
+
+          Integer ref = map.get(cgClsName);
+          if (ref == null) {
+            int clsId = map.size();
+            map.put(cgClsName, clsId);
+            writeVarInt(out, clsId);
+            out.writeUTF(cgClsName);
+          } else {
+            writeVarInt(out, ref.intValue());
+          }
+
+          writeVarInt(out, zigZag(trace[i].getProcessedNumberOfChoices()-1));
+        }
+
+        out.close();
+      } catch (Throwable t) {
+        throw new JPFException(t);
+      }
+    }
+  }
+
+  static int zigZag (int n){
+    return (n << 1) ^ (n >> 31);
+  }
+
+  static int unZigZag (int n){
+    return (n >>> 1) ^ -(n & 1);
+  }
+
+  static void writeVarInt (DataOutputStream out, int v) throws IOException {
+    while ((v & ~0x7f) != 0) {
+      out.writeByte((v & 0x7f) | 0x80);
+      v >>>= 7;
+    }
+    out.writeByte(v);
+  }
+
+  static int readVarInt (DataInputStream in) throws IOException {
+    int v = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      v |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return v;
+      }
+    }
+    throw new JPFException("tracefile error - malformed varint");
+  }
+
+  /**
+   * open the trace file as a (possibly decompressed) binary stream if it has
+   * a binary trace header, return null if it is a text trace
+   */
+  static DataInputStream openBinaryTrace (File f) throws IOException {
+    InputStream is = new BufferedInputStream(new FileInputStream(f), 8192);
+
+    is.mark(2);
+    int b0 = is.read();
+    int b1 = is.read();
+    is.reset();
+
+    if (b0 == 0x1f && b1 == 0x8b){ // gzip header
+      is = new BufferedInputStream(new GZIPInputStream(is, 8192), 8192);
+    }
+
+    for (int i=0; i<BINARY_MAGIC.length; i++){
+      if (is.read() != BINARY_MAGIC[i]){
+        is.close();
+        return null;
+      }
+    }
+
+    return new DataInputStream(is);
+  }
+
+  static ChoicePoint readBinaryTrace (DataInputStream in, String sutName) throws IOException {
+    ChoicePoint firstCp = null, cp = null;
+
+    try {
+      int version = in.readUnsignedByte();
+      if (version != BINARY_VERSION){
+        throw new JPFException("tracefile error - unsupported binary trace version: " + version);
+      }
+
+      String app = in.readUTF();
+      if (!app.equals(sutName)){
+        throw new JPFException("tracefile error - expected " + sutName + ", got: " + app);
+      }
+      in.readUTF(); // the comment, which we don't need for replay
+
+      int n = readVarInt(in);
+      ArrayList<String> clsNames = new ArrayList<String>();
+
+      for (int i=0; i<n; i++){
+        int clsId = readVarInt(in);
+        String cpClass;
+
+        if (clsId == clsNames.size()){
+          cpClass = in.readUTF();
+          clsNames.add(cpClass);
+        } else if (clsId < clsNames.size()){
+          cpClass = clsNames.get(clsId);
+        } else {
+          throw new JPFException("tracefile error - unknown ChoicePoint class id: " + clsId);
+        }
+
+        int choiceIndex = unZigZag(readVarInt(in));
+
+        cp = new ChoicePoint(cpClass, choiceIndex, cp);
+        if (firstCp == null) {
+          firstCp = cp;
+        }
+      }
+    } catch (EOFException eofx){
+      throw new JPFException("tracefile error - premature end of binary trace");
+    } finally {
+      in.close();
+    }
+
+    return firstCp;
+  }
+
   static StreamTokenizer createScanner (String fileName) {
     StreamTokenizer scanner = null;
 
@@ -209,9 +381,26 @@ public class ChoicePoint {
    * "application:" appName
    *  {arg}
    *  "["searchLevel"]" (choiceGeneratorName | '#'cgID) nChoice
+   *
+   * or a (compressed) binary trace, see storeBinaryTrace()
    */
   public static ChoicePoint readTrace (String fileName, String sutName) {
     ChoicePoint firstCp = null, cp = null;
+
+    if (fileName != null){
+      File f = new File(fileName);
+      if (f.exists()){
+        try {
+          DataInputStream in = openBinaryTrace(f);
+          if (in != null){
+            return readBinaryTrace(in, sutName);
+          }
+        } catch (IOException iox) {
+          throw new JPFException("tracefile read error: " + iox.getMessage());
+        }
+      }
+    }
+
     StreamTokenizer scanner = createScanner(fileName);
 
     if (scanner == null) {
@@ -46,4 +46,11 @@ public abstract class ClassFileContainer {
   }
 
   public abstract ClassFileMatch getMatch (String clsName) throws ClassParseException;
+
+  /**
+   * can getMatch() be called concurrently from prefetcher threads?
+   */
+  public boolean supportsConcurrentAccess() {
+    return false;
+  }
 }
@@ -36,6 +36,14 @@ public abstract class ClassFileMatch {
   
   public abstract ClassFileContainer getContainer();
 
+  /**
+   * VM specific processing of the class file data that does not depend on VM state,
+   * and hence can be done in a background thread (see ClassPath.prefetch())
+   */
+  public void preprocess() throws ClassParseException {
+    // nothing
+  }
+
   // those are here because VM specific subclasses know about the binary format, how to get the data from the
   // respective container, and what parser to use to transform it
   public abstract ClassInfo createClassInfo (ClassLoaderInfo loader) throws ClassParseException;
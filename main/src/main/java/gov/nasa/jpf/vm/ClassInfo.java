@@ -20,6 +20,7 @@ package gov.nasa.jpf.vm;
 import gov.nasa.jpf.Config;
 import gov.nasa.jpf.JPF;
 import gov.nasa.jpf.JPFConfigException;
+import gov.nasa.jpf.JPFException;
 import gov.nasa.jpf.JPFListener;
 import gov.nasa.jpf.util.ImmutableList;
 import gov.nasa.jpf.util.JPFLogger;
@@ -830,6 +831,16 @@ public class ClassInfo extends InfoObject implements Iterable<MethodInfo>, Gener
   protected NativePeer loadNativePeer(){
     return NativePeer.getNativePeer(this);
   }
+
+  /**
+   * used by BootSnapshot to re-bind native methods of a reused ClassInfo to
+   * a new peer instance
+   */
+  void renewNativePeer(){
+    if (nativePeer != null){
+      nativePeer = NativePeer.renewNativePeer(this, nativePeer);
+    }
+  }
   
   /**
    * Returns the class loader that 
@@ -2576,7 +2587,112 @@ public class ClassInfo extends InfoObject implements Iterable<MethodInfo>, Gener
     VM.getVM().notifyClassLoaded(ci);
     return ci;
   }
-  
+
+  /**
+   * create a copy of this parsed but not yet linked ClassInfo that does not refer
+   * to any run specific objects, so that it can be kept in the ClassInfoCache.
+   *
+   * Returns null if the parse results depend on other classes, which is the case
+   * for bootstrap methods with lambda bodies that are declared elsewhere
+   */
+  protected ClassInfo createTemplate () {
+    if (bootstrapMethods != null){
+      for (BootstrapMethodInfo bmi : bootstrapMethods){
+        if (bmi != null && bmi.lambdaBody.getClassInfo() != this){
+          return null;
+        }
+      }
+    }
+
+    return copyUnlinked(null, false);
+  }
+
+  /**
+   * create a new ClassInfo for the provided loader from a template that was
+   * obtained by createTemplate(). Linking is done the same way as for freshly
+   * parsed ClassInfos, i.e. supers, native peers, field layout, JPF annotations
+   * and attributes are all per-run
+   */
+  protected ClassInfo instantiateTemplate (ClassLoaderInfo cl) throws ClassParseException {
+    ClassInfo ci = copyUnlinked(cl, true);
+    nClassInfos++;
+
+    // JPF annotations are processed when fields and methods are set during parsing
+    for (FieldInfo fi : ci.iFields){
+      ci.processJPFAnnotations(fi);
+    }
+    for (FieldInfo fi : ci.sFields){
+      ci.processJPFAnnotations(fi);
+    }
+    for (MethodInfo mi : ci.methods.values()){
+      ci.processJPFAnnotations(mi);
+    }
+
+    ci.resolveAndLink();
+    return ci;
+  }
+
+  /**
+   * deep copy of the parse results that can be modified independently, and that
+   * don't carry any attributes
+   */
+  protected ClassInfo copyUnlinked (ClassLoaderInfo cl, boolean register) {
+    ClassInfo ci;
+
+    try {
+      ci = (ClassInfo)clone();
+    } catch (CloneNotSupportedException cnsx){
+      throw new JPFException("ClassInfo copyUnlinked() failed");
+    }
+
+    ci.classLoader = cl;
+    ci.interfaces = new HashSet<ClassInfo>();
+    ci.attr = null;
+    ci.relocateAnnotations(cl);
+
+    if (!methods.isEmpty()){
+      ci.methods = new LinkedHashMap<String, MethodInfo>();
+      for (Map.Entry<String, MethodInfo> e : methods.entrySet()){
+        MethodInfo mi = e.getValue().getInstanceFor(ci, register);
+        mi.attr = null;
+        mi.copyExceptionHandlers();
+        mi.relocateAnnotations(cl);
+        ci.methods.put(e.getKey(), mi);
+      }
+    }
+
+    ci.iFields = copyFields(iFields, ci, cl);
+    ci.sFields = copyFields(sFields, ci, cl);
+
+    if (bootstrapMethods != null){
+      ci.bootstrapMethods = new BootstrapMethodInfo[bootstrapMethods.length];
+      for (int i=0; i<bootstrapMethods.length; i++){
+        BootstrapMethodInfo bmi = bootstrapMethods[i];
+        if (bmi != null){
+          MethodInfo lambdaBody = ci.methods.get(bmi.lambdaBody.getUniqueName());
+          ci.bootstrapMethods[i] = new BootstrapMethodInfo(bmi.lambdaRefKind, ci, lambdaBody, bmi.samDescriptor);
+        }
+      }
+    }
+
+    return ci;
+  }
+
+  private static FieldInfo[] copyFields (FieldInfo[] fields, ClassInfo ci, ClassLoaderInfo cl){
+    if (fields.length == 0){
+      return fields;
+    }
+
+    FieldInfo[] copy = new FieldInfo[fields.length];
+    for (int i=0; i<fields.length; i++){
+      FieldInfo fi = fields[i].getInstanceFor(ci);
+      fi.attr = null;
+      fi.relocateAnnotations(cl);
+      copy[i] = fi;
+    }
+    return copy;
+  }
+
   // <2do> should be abstract
   public StackFrame createStackFrame (ThreadInfo ti, MethodInfo callee){
     return null;
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.vm;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * a JVM global cache for parsed but not yet linked ClassInfos, which avoids
+ * re-parsing classfiles and re-building MethodInfos, FieldInfos and instructions
+ * in subsequent JPF runs within the same JVM (TestJPF suites, shells that loop
+ * over configurations etc.)
+ *
+ * Cached ClassInfos are templates that do not refer to any run specific objects
+ * (ClassLoaderInfos, other ClassInfos, native peers, attributes). Each run gets its
+ * own copy of the template, which is then linked the same way as a freshly parsed
+ * ClassInfo, i.e. all per-run data (supers, field layout, static ElementInfos,
+ * class objects, init status) stays with the run.
+ *
+ * Entries are keyed by classfile URL and the settings that determine the parse
+ * result (code builder and instruction factory). Since we check the classfile
+ * contents before we use an entry, re-compiled classes are parsed again.
+ * Entries are only softly referenced so that the cache never causes an
+ * OutOfMemoryError
+ */
+public class ClassInfoCache {
+
+  public static class Key {
+    final String id;
+    final byte[] data;
+
+    public Key (String url, String variant, byte[] data){
+      this.id = url + '|' + variant;
+      this.data = data;
+    }
+  }
+
+  public static class Entry {
+    final byte[] data;
+    final ClassInfo template;
+    final String[] referencedTypeNames;
+
+    Entry (byte[] data, ClassInfo template, String[] referencedTypeNames){
+      this.data = data;
+      this.template = template;
+      this.referencedTypeNames = referencedTypeNames;
+    }
+
+    public String[] getReferencedTypeNames(){
+      return referencedTypeNames;
+    }
+
+    public ClassInfo createClassInfo (ClassLoaderInfo cl) throws ClassParseException {
+      return template.instantiateTemplate(cl);
+    }
+  }
+
+  static final HashMap<String,SoftReference<Entry>> entries = new HashMap<String,SoftReference<Entry>>();
+
+  static int nHits;
+  static int nMisses;
+
+  public static synchronized Entry get (Key key){
+    SoftReference<Entry> ref = entries.get(key.id);
+    if (ref != null){
+      Entry e = ref.get();
+      if (e != null && Arrays.equals(e.data, key.data)){
+        nHits++;
+        return e;
+      }
+      entries.remove(key.id); // collected or classfile has changed
+    }
+
+    nMisses++;
+    return null;
+  }
+
+  /**
+   * store a template for a freshly parsed (but not yet linked) ClassInfo
+   */
+  public static void put (Key key, ClassInfo ci, String[] referencedTypeNames){
+    ClassInfo template = ci.createTemplate();
+    if (template != null){
+      Entry e = new Entry(key.data, template, referencedTypeNames);
+      synchronized (ClassInfoCache.class){
+        entries.put(key.id, new SoftReference<Entry>(e));
+      }
+    }
+  }
+
+  public static synchronized void clear(){
+    entries.clear();
+    nHits = 0;
+    nMisses = 0;
+  }
+
+  public static synchronized int size(){
+    return entries.size();
+  }
+
+  public static synchronized int getNumberOfHits(){
+    return nHits;
+  }
+
+  public static synchronized int getNumberOfMisses(){
+    return nMisses;
+  }
+}
@@ -647,6 +647,20 @@ public class ClassLoaderInfo
     }
   }
 
+  /**
+   * hint that we are likely to load the specified classes soon. This only
+   * has an effect if the ClassPath supports prefetching
+   */
+  public void prefetchClasses (String[] typeNames){
+    if (cp.isPrefetching()){
+      for (String typeName : typeNames){
+        if (!resolvedClasses.containsKey(typeName) && !ClassInfo.isBuiltinClass(typeName)){
+          cp.prefetch(typeName);
+        }
+      }
+    }
+  }
+
   protected ClassFileMatch getMatch(String typeName) {
     if(ClassInfo.isBuiltinClass(typeName)) {
       return null;
@@ -19,10 +19,20 @@
 package gov.nasa.jpf.vm;
 
 import gov.nasa.jpf.JPF;
+import gov.nasa.jpf.JPFException;
 import gov.nasa.jpf.util.JPFLogger;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * this is a lookup mechanism for class files that is based on an ordered
@@ -41,6 +51,9 @@ public class ClassPath implements Restorable<ClassPath>{
 
     @Override
     public ClassPath restore (ClassPath ignored) {
+      if (cp.pathElements.size() != pathElements.size()){ // path elements are only appended
+        cp.resetPrefetch();
+      }
       cp.pathElements = this.pathElements;
       return cp;
     }
@@ -51,6 +64,16 @@ public class ClassPath implements Restorable<ClassPath>{
   
   protected ArrayList<ClassFileContainer> pathElements;
 
+  //--- optional background lookup of class files we are likely to load next.
+  // Futures are only created and consumed by the VM thread, and are invalidated
+  // whenever pathElements change. Consumed Futures are removed, and since many
+  // referenced classes are never loaded we only keep the 'maxPending' most recent
+  // ones that are not
+  protected ThreadPoolExecutor prefetcher;
+  protected LinkedHashMap<String,Future<ClassFileMatch>> prefetched;
+  protected int maxPending;
+  protected ClassFileContainer[] prefetchContainers; // snapshot of pathElements
+
 
   public ClassPath(){
     pathElements = new ArrayList<ClassFileContainer>();
@@ -68,6 +91,116 @@ public class ClassPath implements Restorable<ClassPath>{
   public void addClassFileContainer (ClassFileContainer pathElement){
     assert pathElement != null;
     pathElements.add(pathElement);
+    resetPrefetch();
+  }
+
+  /**
+   * start to use 'nThreads' host threads to prefetch class files. Prefetching
+   * only does container lookup, I/O and VM state independent preprocessing of
+   * the class file data, i.e. we still get the same results (including errors)
+   * as without prefetching. At most 'maxPending' unconsumed results are kept,
+   * older ones are cancelled and dropped
+   */
+  public void enablePrefetch (int nThreads, int maxPending){
+    ThreadFactory tf = new ThreadFactory(){
+      @Override
+      public Thread newThread (Runnable r){
+        Thread t = new Thread(r, "class-prefetch");
+        t.setDaemon(true);
+        return t;
+      }
+    };
+
+    prefetcher = new ThreadPoolExecutor(nThreads, nThreads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), tf);
+    prefetcher.allowCoreThreadTimeOut(true); // don't keep idle threads around, there might be many JPF runs per process
+    this.maxPending = maxPending;
+    prefetched = new LinkedHashMap<String,Future<ClassFileMatch>>(){
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry (Map.Entry<String,Future<ClassFileMatch>> eldest){
+        if (size() > ClassPath.this.maxPending){
+          eldest.getValue().cancel(false);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public boolean isPrefetching (){
+    return prefetcher != null;
+  }
+
+  public int getNumberOfPendingPrefetches (){
+    return (prefetched != null) ? prefetched.size() : 0;
+  }
+
+  protected void resetPrefetch (){
+    if (prefetcher != null){
+      prefetched.clear();
+      prefetchContainers = null;
+    }
+  }
+
+  protected ClassFileContainer[] getPrefetchContainers (){
+    if (prefetchContainers == null){
+      for (ClassFileContainer c : pathElements){
+        if (!c.supportsConcurrentAccess()){
+          return null;
+        }
+      }
+      prefetchContainers = pathElements.toArray(new ClassFileContainer[pathElements.size()]);
+    }
+    return prefetchContainers;
+  }
+
+  /**
+   * schedule a background lookup for a class we are likely to load next
+   */
+  public void prefetch (final String clsName){
+    if (prefetcher != null && !prefetched.containsKey(clsName)){
+      final ClassFileContainer[] containers = getPrefetchContainers();
+      if (containers != null){
+        Future<ClassFileMatch> f = prefetcher.submit( new Callable<ClassFileMatch>(){
+          @Override
+          public ClassFileMatch call() throws ClassParseException {
+            for (ClassFileContainer container : containers){
+              ClassFileMatch match = container.getMatch(clsName);
+              if (match != null){
+                try {
+                  match.preprocess();
+                } catch (ClassParseException cpx){
+                  // ignore, this has to be reported when the VM creates the ClassInfo
+                }
+                return match;
+              }
+            }
+            return null;
+          }
+        });
+        prefetched.put(clsName, f);
+      }
+    }
+  }
+
+  protected ClassFileMatch getPrefetchedMatch (Future<ClassFileMatch> f) throws ClassParseException {
+    try {
+      return f.get();
+
+    } catch (ExecutionException x){
+      Throwable cause = x.getCause();
+      if (cause instanceof ClassParseException){
+        throw (ClassParseException)cause;
+      } else if (cause instanceof RuntimeException){
+        throw (RuntimeException)cause;
+      } else {
+        throw new JPFException(cause);
+      }
+
+    } catch (InterruptedException ix){
+      throw new JPFException("class prefetch interrupted");
+    }
   }
 
 
@@ -101,6 +234,17 @@ public class ClassPath implements Restorable<ClassPath>{
   }
 
   public ClassFileMatch findMatch (String clsName) throws ClassParseException {
+    if (prefetcher != null){
+      Future<ClassFileMatch> f = prefetched.remove(clsName);
+      if (f != null){
+        ClassFileMatch match = getPrefetchedMatch(f);
+        if (match != null){
+          logger.fine("found prefetched ", clsName, " in ", match.getContainer().getName());
+        }
+        return match;
+      }
+    }
+
     for (ClassFileContainer container : pathElements){
       ClassFileMatch match = container.getMatch(clsName);
       if (match != null){
@@ -22,6 +22,7 @@ import gov.nasa.jpf.JPFException;
 import gov.nasa.jpf.util.HashData;
 import gov.nasa.jpf.util.ObjectList;
 import gov.nasa.jpf.util.Processor;
+import gov.nasa.jpf.util.WeakPool;
 
 import java.io.PrintWriter;
 
@@ -78,6 +79,10 @@ public abstract class ElementInfo implements Cloneable {
   public static final int   ATTR_FLI_CHANGED        = 0x20000; // fieldLockInfos changed
   public static final int   ATTR_ATTRIBUTE_CHANGED  = 0x80000; // refers only to sticky bits
 
+  // generational gc support (see GenericHeap)
+  public static final int   ATTR_YOUNG              = 0x40000;  // allocated since the last gc
+  public static final int   ATTR_REMEMBERED         = 0x400000; // old object that got young references since the last gc
+
   
   //--- useful flag sets & masks
 
@@ -157,13 +162,32 @@ public abstract class ElementInfo implements Cloneable {
   static class Storer implements Processor<ElementInfo> {
     @Override
     public void process (ElementInfo ei) {
+      if (fieldsPool != null && !ei.isFrozen()){
+        // frozen Fields are copy-on-write, so we can replace them with a
+        // structurally identical instance that is already referenced from
+        // another stored state
+        ei.fields = fieldsPool.pool(ei.fields);
+      }
       ei.freeze();
     }
   }
   static Storer storer = new Storer();
   
+  /**
+   * optional hash-consing pool for Fields of stored (frozen) ElementInfos.
+   * Entries are weak so that the pool does not keep states alive that
+   * are no longer referenced by the backtracker
+   */
+  static WeakPool<Fields> fieldsPool;
   
+  /**
+   * write barrier for reference stores into existing objects. This is only set if
+   * the heap needs to know about old-to-young references (generational gc)
+   */
+  static GenericHeap refStoreBarrier;
+
   static boolean init (Config config) {
+    fieldsPool = config.getBoolean("vm.hashcons", false) ? new WeakPool<Fields>(11) : null;
     return true;
   }
 
@@ -946,6 +970,9 @@ public abstract class ElementInfo implements Cloneable {
 
     if (fi.isReference()) {
       int offset = fi.getStorageOffset();
+      if (refStoreBarrier != null){
+        refStoreBarrier.referenceStored(this, fields.getReferenceValue(offset), newValue);
+      }
       fields.setReferenceValue( offset, newValue);
     } else {
       throw new JPFException("not a reference field: " + fi.getFullName());
@@ -957,6 +984,9 @@ public abstract class ElementInfo implements Cloneable {
 
     if (fi.is1SlotField()) {
       int offset = fi.getStorageOffset();
+      if (refStoreBarrier != null && fi.isReference()){ // PUTFIELD/PUTSTATIC come in here
+        refStoreBarrier.referenceStored(this, fields.getIntValue(offset), newValue);
+      }
       fields.setIntValue( offset, newValue);
     } else {
       throw new JPFException("not a 1 slot field: " + fi.getFullName());
@@ -1245,6 +1275,10 @@ public abstract class ElementInfo implements Cloneable {
     Object srcVals = ((ArrayFields)eiSrc.getFields()).getValues();
     Object dstVals = ((ArrayFields)fields).getValues();
 
+    if (isRefArray && refStoreBarrier != null){
+      refStoreBarrier.referencesCopied(this, (int[])srcVals, srcIdx, (int[])dstVals, dstIdx, length);
+    }
+
     // this might throw ArrayIndexOutOfBoundsExceptions and ArrayStoreExceptions
     System.arraycopy(srcVals, srcIdx, dstVals, dstIdx, length);
 
@@ -1308,6 +1342,9 @@ public abstract class ElementInfo implements Cloneable {
   public void setReferenceElement(int idx, int value){
     checkArray(idx);
     checkIsModifiable();
+    if (refStoreBarrier != null){
+      refStoreBarrier.referenceStored(this, fields.getReferenceValue(idx), value);
+    }
     fields.setReferenceValue(idx, value);
   }
 
@@ -1322,6 +1359,9 @@ public abstract class ElementInfo implements Cloneable {
     ArrayFields da = (ArrayFields)fields;
     ArrayFields sa = (ArrayFields)src.fields;
     
+    if (refStoreBarrier != null && da.isReferenceArray()){
+      refStoreBarrier.referencesCopied(this, sa.asReferenceArray(), srcPos, da.asReferenceArray(), dstPos, len);
+    }
     da.copyElements(sa, srcPos, dstPos, len);
   }
 
@@ -1650,7 +1690,10 @@ public abstract class ElementInfo implements Cloneable {
     try {
       ElementInfo ei = (ElementInfo) super.clone();
       ei.fields = fields.clone();
-      ei.monitor = monitor.clone();
+      ei.monitor = (monitor == Monitor.EMPTY) ? monitor : monitor.clone();
+      if (fLockInfo != null){ // slots get replaced by setFieldLockInfo()
+        ei.fLockInfo = fLockInfo.clone();
+      }
 
       return ei;
       
@@ -1664,7 +1707,10 @@ public abstract class ElementInfo implements Cloneable {
     try {
       ElementInfo ei = (ElementInfo) super.clone();
       ei.fields = fields.clone();
-      ei.monitor = monitor.clone();
+      ei.monitor = (monitor == Monitor.EMPTY) ? monitor : monitor.clone();
+      if (fLockInfo != null){
+        ei.fLockInfo = fLockInfo.clone();
+      }
       
       // referencingThreads is at least subtree global, hence doesn't need to be cloned
       
@@ -1760,8 +1806,8 @@ public abstract class ElementInfo implements Cloneable {
     // the thread might be still in the lockedThreads list if this is the
     // first step of a transition
     setMonitorWithoutLocked(ti);
-    monitor.setLockingThread(ti);
-    monitor.incLockCount();
+    getModifiableMonitor().setLockingThread(ti);
+    getModifiableMonitor().incLockCount();
 
     // before we enter anything else, mark this thread as not being blocked anymore
     ti.resetLockRef();
@@ -1834,11 +1880,11 @@ public abstract class ElementInfo implements Cloneable {
 
       // leave the contenders - we need to know whom to block on subsequent lock
 
-      monitor.decLockCount();
-      monitor.setLockingThread(null);
+      getModifiableMonitor().decLockCount();
+      getModifiableMonitor().setLockingThread(null);
 
     } else { // recursive unlock
-      monitor.decLockCount();
+      getModifiableMonitor().decLockCount();
     }
     
     return didUnblock;
@@ -1950,14 +1996,15 @@ public abstract class ElementInfo implements Cloneable {
     if (timeout == 0) {
       ti.setState(ThreadInfo.State.WAITING);
     } else {
+      ti.getVM().getTimeModel().timeoutStarted(ti, timeout * 1000000);
       ti.setState(ThreadInfo.State.TIMEOUT_WAITING);
     }
 
     if (holdsLock) {
       ti.setLockCount(monitor.getLockCount());
 
-      monitor.setLockingThread(null);
-      monitor.setLockCount(0);
+      getModifiableMonitor().setLockingThread(null);
+      getModifiableMonitor().setLockCount(0);
 
       ti.removeLockedObject(this);
 
@@ -1989,8 +2036,8 @@ public abstract class ElementInfo implements Cloneable {
     assert ti.isUnblocked() : "resume waiting thread " + ti.getName() + " which is not unblocked";
 
     setMonitorWithoutLocked(ti);
-    monitor.setLockingThread( ti);
-    monitor.setLockCount( ti.getLockCount());
+    getModifiableMonitor().setLockingThread( ti);
+    getModifiableMonitor().setLockCount( ti.getLockCount());
 
     ti.setLockCount(0);
     ti.resetLockRef();
@@ -2131,6 +2178,17 @@ public abstract class ElementInfo implements Cloneable {
     return monitor;
   }
 
+  /**
+   * objects that are not (yet) used for synchronization share the immutable
+   * Monitor.EMPTY, which has to be replaced before we modify the monitor
+   */
+  protected Monitor getModifiableMonitor() {
+    if (monitor == Monitor.EMPTY) {
+      monitor = new Monitor();
+    }
+    return monitor;
+  }
+
   public void restoreAttributes(int a) {
     attributes = a;
   }
@@ -2175,6 +2233,26 @@ public abstract class ElementInfo implements Cloneable {
     attributes &= ~ATTR_IS_MARKED;
   }
 
+  public boolean isYoung() {
+    return (attributes & ATTR_YOUNG) != 0;
+  }
+
+  void setYoung() {
+    attributes |= ATTR_YOUNG;
+  }
+
+  void setOld() {
+    attributes &= ~(ATTR_YOUNG | ATTR_REMEMBERED);
+  }
+
+  boolean isRemembered() {
+    return (attributes & ATTR_REMEMBERED) != 0;
+  }
+
+  void setRemembered() {
+    attributes |= ATTR_REMEMBERED;
+  }
+
 
   protected void checkIsModifiable() {
     if ((attributes & ATTR_IS_FROZEN) != 0) {
@@ -2184,12 +2262,12 @@ public abstract class ElementInfo implements Cloneable {
 
   void setMonitorWithLocked( ThreadInfo ti) {
     checkIsModifiable();
-    monitor.addLocked(ti);
+    getModifiableMonitor().addLocked(ti);
   }
 
   void setMonitorWithoutLocked (ThreadInfo ti) {
     checkIsModifiable();    
-    monitor.removeLocked(ti);
+    getModifiableMonitor().removeLocked(ti);
   }
 
   public boolean isLockedBy(ThreadInfo ti) {
@@ -41,6 +41,14 @@ public class ExceptionHandler {
    */
   private int handler;
 
+  /**
+   * the resolved catch type and the ClassLoader we resolved it in. Handlers are
+   * search global, and the loader is normally always the same, so this turns
+   * the name based type check into a ClassInfo check
+   */
+  private ClassInfo ciHandled;
+  private ClassLoaderInfo clHandled;
+
   /**
    * Creates a new exception handler.
    */
@@ -51,6 +59,13 @@ public class ExceptionHandler {
     handler = h;
   }
 
+  /**
+   * copy that doesn't share the resolved catch type, which is run specific
+   */
+  public ExceptionHandler (ExceptionHandler other) {
+    this(other.name, other.begin, other.end, other.handler);
+  }
+
   /**
    * Returns the first instruction in the block.
    */
@@ -79,6 +94,25 @@ public class ExceptionHandler {
     return name;
   }
 
+  /**
+   * does this handler catch exceptions of type ciException. This does not
+   * check the handler range
+   */
+  public boolean handles (ClassInfo ciException){
+    if (name == null){ // a catch-all handler
+      return true;
+    }
+
+    ClassLoaderInfo cl = ciException.getClassLoaderInfo();
+    if (cl != clHandled){
+      // this is what ClassInfo.isInstanceOf(String) would resolve
+      ciHandled = cl.getResolvedClassInfo( Types.getClassNameFromTypeName(name));
+      clHandled = cl;
+    }
+
+    return ciException.isInstanceOf(ciHandled);
+  }
+
 
   @Override
   public String toString() {
@@ -18,13 +18,13 @@
 package gov.nasa.jpf.vm;
 
 import gov.nasa.jpf.util.IntArray;
-import gov.nasa.jpf.util.IntTable;
+import gov.nasa.jpf.util.ObjectIntHashMap;
 
 /**
  * Implements a lossless StateSet
  */
 public class FullStateSet extends SerializingStateSet {
-  IntTable<IntArray> states = new IntTable<IntArray>(16);
+  ObjectIntHashMap<IntArray> states = new ObjectIntHashMap<IntArray>(16);
 
   @Override
   public int size () {
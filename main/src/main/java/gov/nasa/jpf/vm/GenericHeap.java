@@ -19,15 +19,15 @@
 package gov.nasa.jpf.vm;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Map;
 
 import gov.nasa.jpf.Config;
 import gov.nasa.jpf.JPFException;
 import gov.nasa.jpf.util.ArrayObjectQueue;
-import gov.nasa.jpf.util.IntTable;
+import gov.nasa.jpf.util.IntObjectHashMap;
 import gov.nasa.jpf.util.IntVector;
+import gov.nasa.jpf.util.ObjectIntHashMap;
 import gov.nasa.jpf.util.ObjectQueue;
 import gov.nasa.jpf.util.Processor;
 
@@ -36,6 +36,15 @@ import gov.nasa.jpf.util.Processor;
  * mark&sweep collector, change attribute management, and generic pinDownList,
  * weakReference and internString handling
  * 
+ * If configured with 'vm.gc.generational', the collector treats all objects
+ * that were allocated since the last gc as a nursery. As long as no old object
+ * can have become unreachable (no old root disappeared and no old-to-old reference
+ * got overwritten), only the nursery is traced and swept, starting from the roots
+ * and the old objects that had young references stored into them (the remembered
+ * set, which is maintained by a write barrier in ElementInfo). Otherwise we fall
+ * back to a full collection, i.e. the set of surviving objects is always the same
+ * as with the plain mark&sweep collector, which is required for sound state matching
+ * 
  * The concrete Heap implementors have to provide the ElementInfo collection
  * and associated getters, allocators and iterators
  */
@@ -45,7 +54,12 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
     // those can be simply copied
     int attributes;
     IntVector pinDownList;
-    Map<Integer,IntTable<String>> internStringsMap;
+    IntObjectHashMap<ObjectIntHashMap<String>> internStringsMap;
+    
+    // generational gc state (only used if the heap is generational)
+    int nLiveObjects;
+    int[] gcRoots; // null if there is no valid minor gc baseline
+    int nMinorGcs;
     
     protected GenericHeapMemento (GenericHeap heap){
       // these are copy-on-first-write, so we don't have to clone
@@ -53,6 +67,12 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
       internStringsMap = heap.internStringsMap;
       attributes = heap.attributes & ATTR_STORE_MASK;
       
+      if (heap.isGenerational()){
+        nLiveObjects = heap.nLiveObjects;
+        gcRoots = heap.hasMinorGcBaseline() ? heap.lastGcRoots : null;
+        nMinorGcs = heap.nMinorGcs;
+      }
+      
       heap.setStored();
     }
     
@@ -63,6 +83,11 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
       heap.internStringsMap = internStringsMap;
       heap.attributes = attributes;
       heap.liveBitValue = false; // always start with false after a restore
+      
+      if (heap.isGenerational()){
+        heap.nLiveObjects = nLiveObjects;
+        heap.resetGenerations(gcRoots, nMinorGcs);
+      }
       return inSitu;
     }
   }
@@ -83,8 +108,8 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
 
   // interned Strings
   // this is copy-on-first-write, it is created on demand upon adding the first interned string,
-  // and it includes IntTable per process.
-  protected Map<Integer,IntTable<String>> internStringsMap;
+  // and it includes a table per process.
+  protected IntObjectHashMap<ObjectIntHashMap<String>> internStringsMap;
 
   // the usual drill - the lower 2 bytes are sticky, the upper two ones 
   // hold change status and transient (transition local) flags
@@ -120,6 +145,30 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
   // <2do> currently only defined after gc
   protected int nLiveObjects;
   
+  //--- generational gc (only used if 'vm.gc.generational' is set)
+  
+  // refs of all objects allocated since the last gc (the nursery)
+  protected IntVector youngObjects;
+  
+  // old objects that had references to young objects stored into them since the last gc
+  protected IntVector rememberedObjects;
+  
+  // set by the write barrier if a reference to an old object got overwritten in an old
+  // object, i.e. if something old might have become unreachable
+  protected boolean oldObjectsMayDie;
+  
+  // sorted root set of the last gc, null if the next gc has to be a full one
+  protected int[] lastGcRoots;
+  
+  // roots of the current gc, non-null while they are collected
+  protected IntVector gcRoots;
+  
+  protected boolean isMinorGc;
+  protected int nMinorGcs;
+  
+  // upper limit for subsequent minor gcs before we do a full one
+  protected int maxMinorGcs;
+  
   //--- constructors
 
   public GenericHeap (Config config, KernelState ks){
@@ -135,6 +184,28 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
     if (config.getBoolean("vm.sweep",true)){
       attributes |= ATTR_GC;
     }
+
+    if (config.getBoolean("vm.gc.generational", false) && supportsGenerationalGc()){
+      youngObjects = new IntVector();
+      rememberedObjects = new IntVector();
+      gcRoots = new IntVector(256);
+      maxMinorGcs = config.getInt("vm.gc.max_minor", 64);
+      ElementInfo.refStoreBarrier = this;
+    } else {
+      ElementInfo.refStoreBarrier = null;
+    }
+  }
+
+  /**
+   * override if the concrete heap has its own sweep that does not work with
+   * nursery collection
+   */
+  protected boolean supportsGenerationalGc() {
+    return true;
+  }
+
+  public boolean isGenerational() {
+    return youngObjects != null;
   }
 
 
@@ -187,7 +258,7 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
       int len = pinDownList.size();
       for (int i=0; i<len; i++){
         int objref = pinDownList.get(i);
-        queueMark(objref);
+        markRoot(objref);
       }
     }
   }
@@ -244,10 +315,11 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
   protected ElementInfo createObject (ClassInfo ci, ThreadInfo ti, int objref) {
     // create the thing itself
     Fields f = ci.createInstanceFields();
-    Monitor m = new Monitor();
+    Monitor m = Monitor.EMPTY; // replaced on first lock
     ElementInfo ei = createElementInfo( objref, ci, f, m, ti);
     
     set(objref, ei);
+    addYoungObject(ei);
 
     attributes |= ATTR_ELEMENTS_CHANGED;
 
@@ -284,10 +356,11 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
   protected ElementInfo createArray (String elementType, int nElements, ClassInfo ci, ThreadInfo ti, int objref) {
 
     Fields f = ci.createArrayFields(ci.getName(), nElements, Types.getTypeSize(elementType), Types.isReference(elementType));
-    Monitor m = new Monitor();
+    Monitor m = Monitor.EMPTY; // replaced on first lock
     DynamicElementInfo ei = createElementInfo( objref, ci, f, m, ti);
 
     set(objref, ei);
+    addYoungObject(ei);
 
     attributes |= ATTR_ELEMENTS_CHANGED;
 
@@ -399,9 +472,9 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
     }
     
     int prcId = ti.getApplicationContext().getId();
-    IntTable.Entry<String> e = internStringsMap.get(prcId).get(str);
+    int ref = (str != null) ? internStringsMap.get(prcId).get(str, -1) : -1;
     
-    if (e == null){
+    if (ref < 0){
       if (str != null) {
         ElementInfo ei = newString( str, ti);
         int index = ei.getObjectRef();
@@ -418,14 +491,14 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
       }
 
     } else {
-      return get(e.val);
+      return get(ref);
     }
   }
 
   protected void addToInternStrings (String str, int objref, int prcId) {
     if ((attributes & ATTR_INTERN_CHANGED) == 0){
-      // shallow copy all interned strings tables
-      internStringsMap = new HashMap<Integer,IntTable<String>>(internStringsMap);
+      // shallow copy all interned strings tables (both are copy-on-write)
+      internStringsMap = internStringsMap.clone();
       
       // only clone the interned strings table of the current process
       internStringsMap.put(prcId, internStringsMap.get(prcId).clone());
@@ -433,7 +506,7 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
       // just cloned, no need to clone on the next add
       attributes |= ATTR_INTERN_CHANGED;
     }
-    internStringsMap.get(prcId).add(str, objref);
+    internStringsMap.get(prcId).put(str, objref);
   }
   
   
@@ -456,14 +529,16 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
       eiThrowable.setReferenceField("detailMessage", eiMsg.getObjectRef());
     }
 
-    //--- the stack snapshot field
-    ClassInfo ciSnap = getArrayClassInfo(ti, "I");
-    AllocationContext ctxSnap = ctx.extend(ciSnap, xRef);
-    int snapRef = getNewElementInfoIndex( ctxSnap);
-    ElementInfo eiSnap = createArray( "I", stackSnapshot.length, ciSnap, ti, snapRef);
-    int[] snap = eiSnap.asIntArray();
-    System.arraycopy( stackSnapshot, 0, snap, 0, stackSnapshot.length);
-    eiThrowable.setReferenceField("snapshot", snapRef);
+    //--- the stack snapshot field (null if the caller stores a lazy StackSnapshot)
+    if (stackSnapshot != null){
+      ClassInfo ciSnap = getArrayClassInfo(ti, "I");
+      AllocationContext ctxSnap = ctx.extend(ciSnap, xRef);
+      int snapRef = getNewElementInfoIndex( ctxSnap);
+      ElementInfo eiSnap = createArray( "I", stackSnapshot.length, ciSnap, ti, snapRef);
+      int[] snap = eiSnap.asIntArray();
+      System.arraycopy( stackSnapshot, 0, snap, 0, stackSnapshot.length);
+      eiThrowable.setReferenceField("snapshot", snapRef);
+    }
 
     //--- the cause field
     eiThrowable.setReferenceField("cause", (causeRef != MJIEnv.NULL)? causeRef : xRef);
@@ -554,6 +629,9 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
     }
 
     ElementInfo ei = get(objref);
+    if (isMinorGc && !ei.isYoung()){ // old objects are known to be live
+      return;
+    }
     if (!ei.isMarked()){ // only add objects once
       ei.setMarked();
       markQueue.add(ei);
@@ -568,7 +646,7 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
   @Override
   public void markStaticRoot (int objref) {
     if (objref != MJIEnv.NULL) {
-      queueMark(objref);
+      markRoot(objref);
     }
   }
 
@@ -580,6 +658,14 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
   @Override
   public void markThreadRoot (int objref, int tid) {
     if (objref != MJIEnv.NULL) {
+      markRoot(objref);
+    }
+  }
+  
+  protected void markRoot (int objref){
+    if (gcRoots != null){
+      gcRoots.add(objref); // generational gc, we first have to see if a minor gc is possible
+    } else {
       queueMark(objref);
     }
   }
@@ -650,18 +736,264 @@ public abstract class GenericHeap implements Heap, Iterable<ElementInfo> {
     vm.notifyGCBegin();
 
     weakRefs = null;
-    liveBitValue = !liveBitValue;
+    
+    if (isGenerational()){
+      collectGenerations();
+      
+    } else {
+      liveBitValue = !liveBitValue;
 
-    mark();
+      mark();
     
-    // at this point all live objects are marked
-    sweep();
+      // at this point all live objects are marked
+      sweep();
+    }
 
     cleanupWeakRefs(); // for potential nullification
 
+    if (isGenerational()){
+      promoteYoungObjects();
+    }
+    
     vm.processPostGcActions();
     vm.notifyGCEnd();
   }
+  
+  //--- generational gc
+  
+  protected void addYoungObject (ElementInfo ei){
+    if (youngObjects != null){
+      ei.setYoung();
+      youngObjects.add(ei.getObjectRef());
+    }
+  }
+  
+  /**
+   * the write barrier, called by ElementInfo before a reference slot of an existing object
+   * is overwritten. Static fields are roots and young objects are always traced, so we only
+   * have to keep track of old heap objects
+   */
+  void referenceStored (ElementInfo ei, int oldRef, int newRef){
+    if (oldRef == newRef || !ei.isObject() || ei.isYoung()){
+      return;
+    }
+    
+    if (oldRef != MJIEnv.NULL && !oldObjectsMayDie){
+      ElementInfo eiOld = get(oldRef);
+      if (eiOld != null && !eiOld.isYoung()){
+        oldObjectsMayDie = true;
+      }
+    }
+    
+    if (newRef != MJIEnv.NULL && !ei.isRemembered()){
+      ElementInfo eiNew = get(newRef);
+      if (eiNew != null && eiNew.isYoung()){
+        ei.setRemembered();
+        rememberedObjects.add(ei.getObjectRef());
+      }
+    }
+  }
+  
+  void referencesCopied (ElementInfo ei, int[] srcRefs, int srcIdx, int[] dstRefs, int dstIdx, int length){
+    // nothing gets copied if the caller is going to throw an ArrayIndexOutOfBoundsException
+    if (srcIdx >= 0 && dstIdx >= 0 && length > 0 && srcIdx + length <= srcRefs.length && dstIdx + length <= dstRefs.length){
+      for (int i=0; i<length; i++){
+        referenceStored( ei, dstRefs[dstIdx+i], srcRefs[srcIdx+i]);
+      }
+    }
+  }
+  
+  /**
+   * do we know all old objects are still reachable if the roots of the last gc still are?
+   */
+  protected boolean hasMinorGcBaseline (){
+    return (lastGcRoots != null) && !oldObjectsMayDie && youngObjects.size() == 0;
+  }
+  
+  protected void resetGenerations (int[] gcRoots, int nMinorGcs){
+    youngObjects.clear();
+    rememberedObjects.clear();
+    oldObjectsMayDie = false;
+    lastGcRoots = gcRoots;
+    this.nMinorGcs = nMinorGcs;
+  }
+  
+  protected int[] collectRoots (){
+    gcRoots.clear();
+    
+    markPinDownList();
+    vm.getThreadList().markRoots(this);
+    vm.getClassLoaderList().markRoots(this);
+    
+    return getSortedRefs(gcRoots);
+  }
+  
+  protected static int[] getSortedRefs (IntVector v){
+    int[] a = v.toArray();
+    Arrays.sort(a);
+    
+    int n = 0;
+    for (int i=0; i<a.length; i++){
+      if (n == 0 || a[i] != a[n-1]){
+        a[n++] = a[i];
+      }
+    }
+    return (n < a.length) ? Arrays.copyOf(a, n) : a;
+  }
+  
+  protected static boolean isSubset (int[] a, int[] b){
+    int j = 0;
+    for (int i=0; i<a.length; i++){
+      while (j < b.length && b[j] < a[i]){
+        j++;
+      }
+      if (j == b.length || b[j] != a[i]){
+        return false;
+      }
+    }
+    return true;
+  }
+  
+  protected void collectGenerations (){
+    int[] roots = collectRoots();
+    
+    isMinorGc = !oldObjectsMayDie && (lastGcRoots != null) && (nMinorGcs < maxMinorGcs)
+                && isSubset(lastGcRoots, roots);
+    lastGcRoots = roots;
+    
+    if (isMinorGc){
+      int[] young = getSortedRefs(youngObjects); // sweep in heap order
+      
+      markYoung(roots);
+      
+      if (hasLockedGarbage(young)){
+        // FieldLockInfos of old objects might refer to the lock, fall back to a full gc
+        // so that they are cleaned up exactly as before
+        isMinorGc = false;
+        weakRefs = null;
+        for (int i=0; i<young.length; i++){
+          get(young[i]).setUnmarked();
+        }
+        
+      } else {
+        sweepYoung(young);
+        nMinorGcs++;
+        return;
+      }
+    }
+    
+    liveBitValue = !liveBitValue;
+    markFromRoots(roots);
+    sweep();
+    nMinorGcs = 0;
+  }
+  
+  protected void markFromRoots (int[] roots){
+    markQueue.clear();
+    for (int i=0; i<roots.length; i++){
+      queueMark(roots[i]);
+    }
+    markQueue.process(elementInfoMarker);
+  }
+  
+  protected void markYoung (int[] roots){
+    markQueue.clear();
+    for (int i=0; i<roots.length; i++){
+      queueMark(roots[i]);
+    }
+    
+    // old objects are not traced, hence we have to add the references that were stored into them
+    int len = rememberedObjects.size();
+    for (int i=0; i<len; i++){
+      ElementInfo ei = get(rememberedObjects.get(i));
+      if (ei != null){
+        ei.markRecursive(this);
+      }
+    }
+    
+    markQueue.process(elementInfoMarker);
+  }
+  
+  protected boolean hasLockedGarbage (int[] young){
+    for (int i=0; i<young.length; i++){
+      ElementInfo ei = get(young[i]);
+      if (!ei.isMarked() && ei.getMonitor() != Monitor.EMPTY){
+        return true;
+      }
+    }
+    return false;
+  }
+  
+  /**
+   * the nursery counterpart of sweep(). Since all old objects are live there
+   * is nothing to do for them
+   */
+  protected void sweepYoung (int[] young) {
+    ThreadInfo ti = vm.getCurrentThread();
+    int tid = ti.getId();
+    boolean isThreadTermination = ti.isTerminated();
+    int n = 0;
+    
+    if(vm.finalizersEnabled()) {
+      FinalizerThreadInfo tiFinalizer = vm.getFinalizerThread();
+      if (tiFinalizer != null){
+        for (int i=0; i<young.length; i++){
+          ElementInfo ei = get(young[i]);
+          if (!ei.isMarked() && ei.hasFinalizer() && !ei.isFinalized()) {
+            ei = tiFinalizer.getFinalizerQueuedInstance(ei);
+            ei.setMarked(); // make sure it's not collected before the finalizerQueue has been processed
+            ei.markRecursive(this);
+          }
+        }
+      }
+    }
+    
+    for (int i=0; i<young.length; i++){
+      ElementInfo ei = get(young[i]);
+      
+      if (ei.isMarked()){
+        ei.setUnmarked();
+        ei.setAlive(liveBitValue);
+        
+        ei.cleanUp(this, isThreadTermination, tid);
+        n++;
+        
+      } else {
+        ei.processReleaseActions();
+        
+        vm.notifyObjectReleased(ti, ei);
+        remove(ei.getObjectRef());
+      }
+    }
+    
+    nLiveObjects += n;
+  }
+  
+  /**
+   * everything that survived becomes old
+   */
+  protected void promoteYoungObjects (){
+    int len = youngObjects.size();
+    for (int i=0; i<len; i++){
+      ElementInfo ei = get(youngObjects.get(i));
+      if (ei != null){
+        ei.setOld();
+      }
+    }
+    
+    len = rememberedObjects.size();
+    for (int i=0; i<len; i++){
+      ElementInfo ei = get(rememberedObjects.get(i));
+      if (ei != null){
+        ei.setOld();
+      }
+    }
+    
+    youngObjects.clear();
+    rememberedObjects.clear();
+    oldObjectsMayDie = false;
+    isMinorGc = false;
+  }
 
   /**
    * clean up reference values that are stored outside of reference fields 
@@ -18,7 +18,7 @@
 package gov.nasa.jpf.vm;
 
 import gov.nasa.jpf.Config;
-import gov.nasa.jpf.util.IntTable;
+import gov.nasa.jpf.util.ObjectIntHashMap;
 
 /**
  * abstract Heap trait that implements SGOIDs by means of a search global
@@ -29,12 +29,12 @@ import gov.nasa.jpf.util.IntTable;
 public abstract class GenericSGOIDHeap extends GenericHeap {
 
   static class GenericSGOIDHeapMemento extends GenericHeapMemento {
-    IntTable.Snapshot<AllocationContext> ctxSnap;
+    ObjectIntHashMap<AllocationContext> allocCounts;
     
     GenericSGOIDHeapMemento (GenericSGOIDHeap heap) {
       super(heap);
       
-      ctxSnap = heap.allocCounts.getSnapshot();
+      allocCounts = heap.allocCounts.clone(); // copy-on-write, no need to deep copy
     }
 
     @Override
@@ -42,7 +42,7 @@ public abstract class GenericSGOIDHeap extends GenericHeap {
       super.restore( inSitu);
       
       GenericSGOIDHeap heap = (GenericSGOIDHeap) inSitu;
-      heap.allocCounts.restore(ctxSnap);
+      heap.allocCounts = allocCounts.clone();
       
       return heap;
     }
@@ -50,21 +50,21 @@ public abstract class GenericSGOIDHeap extends GenericHeap {
   
   // these are search global
   protected int nextSgoid;
-  protected IntTable<Allocation> sgoids;
+  protected ObjectIntHashMap<Allocation> sgoids;
   
   // this is state managed 
   // NOTE - this has to be included in the mementos of concrete Heap implementations 
-  protected IntTable<AllocationContext> allocCounts;
+  protected ObjectIntHashMap<AllocationContext> allocCounts;
   
   protected GenericSGOIDHeap (Config config, KernelState ks){
     super(config, ks);
     
     // static inits
     initAllocationContext(config);
-    sgoids = new IntTable<Allocation>();
+    sgoids = new ObjectIntHashMap<Allocation>();
     nextSgoid = 0;
     
-    allocCounts = new IntTable<AllocationContext>();
+    allocCounts = new ObjectIntHashMap<AllocationContext>();
   }
   
   
@@ -94,16 +94,12 @@ public abstract class GenericSGOIDHeap extends GenericHeap {
     int idx;
     int cnt;
     
-    IntTable.Entry<AllocationContext> cntEntry = allocCounts.getInc(ctx);
-    cnt = cntEntry.val;
+    cnt = allocCounts.increment(ctx);
     
     Allocation alloc = new Allocation(ctx, cnt);
     
-    IntTable.Entry<Allocation> sgoidEntry = sgoids.get(alloc);
-    if (sgoidEntry != null) { // we already had this one
-      idx = sgoidEntry.val;
-      
-    } else { // new entry
+    idx = sgoids.get(alloc, 0);
+    if (idx == 0) { // new entry (0 is not a valid sgoid)
       idx = ++nextSgoid;
       sgoids.put(alloc, idx);
     }
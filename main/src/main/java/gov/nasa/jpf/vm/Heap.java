@@ -49,6 +49,7 @@ public interface Heap extends Iterable<ElementInfo> {
   
   ElementInfo newInternString (String str, ThreadInfo ti);
   
+  // stackSnapshot can be null, in which case the caller has to store a StackSnapshot attribute
   ElementInfo newSystemThrowable (ClassInfo ci, String details, int[] stackSnapshot, int causeRef,
                           ThreadInfo ti, int anchor);
   
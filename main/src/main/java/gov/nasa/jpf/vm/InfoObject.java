@@ -207,7 +207,16 @@ public abstract class InfoObject implements Cloneable {
       return Collections.emptyList();
     }
   }
-  
+
+  /**
+   * rebind our (type) annotations to another ClassLoaderInfo, which is required
+   * if we copy parse results that were obtained for a different loader or run
+   */
+  protected void relocateAnnotations (ClassLoaderInfo cl){
+    annotations = AnnotationInfo.cloneFor(annotations, cl);
+    typeAnnotations = AnnotationInfo.cloneFor(typeAnnotations, cl);
+  }
+
   //--- the generic attribute API
 
   public boolean hasAttr () {
@@ -21,6 +21,7 @@ import gov.nasa.jpf.Config;
 import gov.nasa.jpf.JPF;
 import gov.nasa.jpf.JPFException;
 import gov.nasa.jpf.annotation.MJI;
+import gov.nasa.jpf.listener.IntPartitionTracker;
 import gov.nasa.jpf.util.IntTable;
 import gov.nasa.jpf.util.JPFLogger;
 import gov.nasa.jpf.util.ObjectConverter;
@@ -35,6 +36,8 @@ import gov.nasa.jpf.vm.choice.DoubleChoiceFromList;
 import gov.nasa.jpf.vm.choice.FloatChoiceFromList;
 import gov.nasa.jpf.vm.choice.IntChoiceFromSet;
 import gov.nasa.jpf.vm.choice.IntIntervalGenerator;
+import gov.nasa.jpf.vm.choice.IntPartitionAttr;
+import gov.nasa.jpf.vm.choice.IntPartitionGenerator;
 import gov.nasa.jpf.vm.choice.LongChoiceFromList;
 
 import java.io.FileInputStream;
@@ -66,6 +69,9 @@ public class JPF_gov_nasa_jpf_vm_Verify extends NativePeer {
   static boolean supportIgnorePath;
   static boolean breakSingleChoice;
   static boolean enableAtomic;
+  static boolean intPartition;
+
+  static IntPartitionTracker partitionTracker; // only created on demand
 
   static Config config;  // we need to keep this around for CG creation
 
@@ -85,6 +91,8 @@ public class JPF_gov_nasa_jpf_vm_Verify extends NativePeer {
       supportIgnorePath = conf.getBoolean("vm.verify.ignore_path");
       breakSingleChoice = conf.getBoolean("cg.break_single_choice");
       enableAtomic = conf.getBoolean("cg.enable_atomic", true);
+      intPartition = conf.getBoolean("vm.verify.int_partition", false);
+      partitionTracker = null;
 
       heuristicSearchValue = conf.getInt("search.heuristic.default_value");
 
@@ -424,14 +432,57 @@ public class JPF_gov_nasa_jpf_vm_Verify extends NativePeer {
         min = t;
       }
 
+      if (intPartition && min < max && checkPartitionSearch(env)){
+        return registerPartitionGenerator(env,ss,min,max);
+      }
+
       IntChoiceGenerator cg = new IntIntervalGenerator( "verifyGetInt(II)", min,max);
       return registerChoiceGenerator(env,ss,ti,cg,0);
 
     } else {
+      IntPartitionGenerator pcg = ss.getCurrentChoiceGenerator("verifyGetInt(II)", IntPartitionGenerator.class);
+      if (pcg != null){
+        env.setReturnAttribute( new IntPartitionAttr(pcg, 0));
+        return pcg.getNextChoice();
+      }
+
       return getNextChoice(ss, "verifyGetInt(II)", IntChoiceGenerator.class, Integer.class);
     }
   }
 
+  /**
+   * splitting a partition adds choices to a CG that is already on the path, which
+   * only works for searches that backtrack to it afterwards (e.g. DFSearch). Other
+   * searches (e.g. HeuristicSearch) might have expanded this CG already, in which
+   * case we would miss the new choices - we fall back to enumerating all values
+   */
+  static boolean checkPartitionSearch (MJIEnv env){
+    if (!env.getVM().getSearch().supportsBacktrack()){
+      JPF.getLogger("gov.nasa.jpf.vm.Verify").warning("vm.verify.int_partition requires a backtracking search, ignored for ",
+                                                    env.getVM().getSearch().getClass().getName());
+      intPartition = false;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * partition generators start with a single choice that is split lazily, so
+   * we can't skip the CG for a single initial choice
+   */
+  static int registerPartitionGenerator (MJIEnv env, SystemState ss, int min, int max){
+    if (partitionTracker == null){
+      partitionTracker = new IntPartitionTracker();
+      env.addListener(partitionTracker);
+    }
+
+    IntPartitionGenerator cg = new IntPartitionGenerator( "verifyGetInt(II)", min,max);
+    if (ss.setNextChoiceGenerator(cg)){
+      env.repeatInvocation();
+    }
+    return min; // not used if we repeat
+  }
+
   static int getIntFromList (MJIEnv env, int[] values){
     ThreadInfo ti = env.getThreadInfo();
     SystemState ss = env.getSystemState();
@@ -59,7 +59,7 @@ public class LockSetThresholdFli extends ThresholdFieldLockInfo {
   public FieldLockInfo checkProtection(ThreadInfo ti, ElementInfo ei, FieldInfo fi) {
     int[] currentLockRefs = ti.getLockedObjectReferences();
     int nLocks = currentLockRefs.length;
-    int nRemaining = Math.max(0, remainingChecks--);
+    int nRemaining = countCheck();
 
     if (nLocks == 0) { // no current locks, so intersection is empty
       checkFailedLockAssumption(ti, ei, fi);
@@ -130,18 +130,19 @@ public class LockSetThresholdFli extends ThresholdFieldLockInfo {
 
     if (l == 1) {
       assert (newSet != null);
-      return new SingleLockThresholdFli(tiLastCheck, newSet[0], remainingChecks);
+      return singleLockThresholdFli(tiLastCheck, newSet[0], remainingChecks);
 
     } else {
       if (newSet != null) {
         if (l == newSet.length) { // we just had one stale ref
-          lockRefSet = newSet;
+          return lockSetThresholdFli(tiLastCheck, newSet, remainingChecks);
         } else { // several stales - make a new copy
           if (l == 0) {
             return empty;
           } else {
-            lockRefSet = new int[l];
-            System.arraycopy(newSet, 0, lockRefSet, 0, l);
+            int[] newLockRefSet = new int[l];
+            System.arraycopy(newSet, 0, newLockRefSet, 0, l);
+            return lockSetThresholdFli(tiLastCheck, newLockRefSet, remainingChecks);
           }
         }
       }
@@ -90,6 +90,14 @@ public class MethodInfo extends InfoObject implements GenericSignatureHolder  {
   /** JPFConfigException handlers */
   protected ExceptionHandler[] exceptionHandlers;
 
+  /**
+   * on demand computed dispatch table for exceptionHandlers. For each
+   * instruction index this holds the handlers (in table order) whose range
+   * contains the instruction. Instructions with the same handler set share
+   * the same array
+   */
+  protected ExceptionHandler[][] handlerTable;
+
   /** classnames of checked exception thrown by the method */
   protected String[] thrownExceptionClassNames;
 
@@ -308,6 +316,7 @@ public class MethodInfo extends InfoObject implements GenericSignatureHolder  {
       code[i].setMethodInfo(this);
     }
     this.code = code;
+    handlerTable = null;
   }
   
   
@@ -796,23 +805,59 @@ public String getCompleteName () {
   
   public ExceptionHandler getHandlerFor (ClassInfo ciException, Instruction insn){
     if (exceptionHandlers != null){
-      int position = insn.getPosition();
-      for (int i=0; i<exceptionHandlers.length; i++){
-        ExceptionHandler handler = exceptionHandlers[i];
-        if ((position >= handler.getBegin()) && (position < handler.getEnd())) {
-          // checks if this type of exception is caught here (null means 'any')
-          String handledType = handler.getName();
-          if ((handledType == null)   // a catch-all handler
-                  || ciException.isInstanceOf(handledType)) {
-            return handler;
-          }
-        }          
+      if (handlerTable == null){
+        handlerTable = createHandlerTable();
+      }
+      
+      ExceptionHandler[] handlers = handlerTable[insn.getInstructionIndex()];
+      for (int i=0; i<handlers.length; i++){
+        ExceptionHandler handler = handlers[i];
+        if (handler.handles(ciException)) {
+          return handler;
+        }
       }      
     }
     
     return null;
   }
   
+  protected ExceptionHandler[][] createHandlerTable (){
+    ExceptionHandler[][] tbl = new ExceptionHandler[code.length][];
+    ExceptionHandler[] last = new ExceptionHandler[0];
+    ExceptionHandler[] covering = new ExceptionHandler[exceptionHandlers.length];
+    
+    for (int i=0; i<code.length; i++){
+      int position = code[i].getPosition();
+      int n = 0;
+      for (int j=0; j<exceptionHandlers.length; j++){
+        ExceptionHandler handler = exceptionHandlers[j];
+        if ((position >= handler.getBegin()) && (position < handler.getEnd())) {
+          covering[n++] = handler;
+        }
+      }
+      
+      if (!isSameHandlerSet(last, covering, n)){
+        last = new ExceptionHandler[n];
+        System.arraycopy(covering, 0, last, 0, n);
+      }
+      tbl[i] = last;
+    }
+    
+    return tbl;
+  }
+  
+  private static boolean isSameHandlerSet (ExceptionHandler[] a, ExceptionHandler[] b, int len){
+    if (a.length != len){
+      return false;
+    }
+    for (int i=0; i<len; i++){
+      if (a[i] != b[i]){
+        return false;
+      }
+    }
+    return true;
+  }
+  
   public boolean isMJI () {
     return false;
   }
@@ -1138,6 +1183,19 @@ public String getCompleteName () {
   public void setParameterAnnotations (AnnotationInfo[][] parameterAnnotations){
     this.parameterAnnotations = parameterAnnotations;
   }
+
+  @Override
+  protected void relocateAnnotations (ClassLoaderInfo cl){
+    super.relocateAnnotations(cl);
+
+    if (parameterAnnotations != null && parameterAnnotations.length > 0){
+      AnnotationInfo[][] pa = new AnnotationInfo[parameterAnnotations.length][];
+      for (int i=0; i<pa.length; i++){
+        pa[i] = AnnotationInfo.cloneFor(parameterAnnotations[i], cl);
+      }
+      parameterAnnotations = pa;
+    }
+  }
   
   //--- thrown exceptions
   //<2do> these are going away
@@ -1160,6 +1218,7 @@ public String getCompleteName () {
   //<2do> these are going away
   protected void startExceptionHandlerTable (int handlerCount){
     exceptionHandlers = new ExceptionHandler[handlerCount];
+    handlerTable = null;
   }
   protected void setExceptionHandler (int index, int startPc, int endPc, int handlerPc, String catchType){
     exceptionHandlers[index] = new ExceptionHandler(catchType, startPc, endPc, handlerPc);
@@ -1168,8 +1227,24 @@ public String getCompleteName () {
     // nothing
   }
 
+  /**
+   * replace shared handlers with fresh copies that don't carry resolved
+   * catch types from other runs (see ClassInfo.copyUnlinked)
+   */
+  void copyExceptionHandlers (){
+    if (exceptionHandlers != null){
+      ExceptionHandler[] handlers = new ExceptionHandler[exceptionHandlers.length];
+      for (int i=0; i<handlers.length; i++){
+        handlers[i] = new ExceptionHandler(exceptionHandlers[i]);
+      }
+      exceptionHandlers = handlers;
+    }
+    handlerTable = null;
+  }
+
   public void setExceptionHandlers (ExceptionHandler[] handlers){
     exceptionHandlers = handlers;
+    handlerTable = null;
   }
   
   //--- local var table initialization
@@ -1349,14 +1424,26 @@ public String getCompleteName () {
    * and all the instructions belong to the method
    */
   public MethodInfo getInstanceFor(ClassInfo ci) {
+    return getInstanceFor(ci, true);
+  }
+
+  /**
+   * if register is false the clone does not get a globalId. This is used to
+   * create MethodInfo templates that are kept across JPF runs (see ClassInfoCache)
+   */
+  MethodInfo getInstanceFor (ClassInfo ci, boolean register) {
     MethodInfo clone;
 
     try {
       clone = (MethodInfo)super.clone();
       clone.ci = ci;
 
-      clone.globalId = mthTable.size();
-      mthTable.add(this);
+      if (register){
+        clone.globalId = mthTable.size();
+        mthTable.add(clone);
+      } else {
+        clone.globalId = -1;
+      }
 
       if(code == null) {
         clone.code = null;
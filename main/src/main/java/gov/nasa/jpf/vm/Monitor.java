@@ -31,6 +31,13 @@ import java.util.Arrays;
 public class Monitor implements Cloneable {
   
   static ThreadInfo[] emptySet = new ThreadInfo[0];
+
+  /**
+   * the shared monitor of all objects that were never used for synchronization,
+   * which saves us a Monitor instance for most objects. This one is never modified,
+   * ElementInfo replaces it with a new Monitor before any lock operation
+   */
+  static final Monitor EMPTY = new Monitor();
   
   /** the thread owning the lock */
   private ThreadInfo lockingThread;
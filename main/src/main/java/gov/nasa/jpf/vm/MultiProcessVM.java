@@ -21,15 +21,14 @@ package gov.nasa.jpf.vm;
 import gov.nasa.jpf.Config;
 import gov.nasa.jpf.JPF;
 import gov.nasa.jpf.JPFConfigException;
-import gov.nasa.jpf.util.IntTable;
+import gov.nasa.jpf.util.IntObjectHashMap;
 import gov.nasa.jpf.util.Misc;
+import gov.nasa.jpf.util.ObjectIntHashMap;
 import gov.nasa.jpf.util.Predicate;
 import gov.nasa.jpf.vm.choice.BreakGenerator;
 
 import gov.nasa.jpf.vm.choice.ThreadChoiceFromSet;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * A VM implementation that simulates running multiple applications within the same
@@ -197,6 +196,7 @@ public class MultiProcessVM extends VM {
 
       initSystemState(tiFirst);
       initialized = true;
+      executedInsns = 0;
       notifyVMInitialized();
       
       return true;
@@ -409,8 +409,8 @@ public class MultiProcessVM extends VM {
   }
   
   @Override
-  public Map<Integer,IntTable<String>> getInitialInternStringsMap() {
-    Map<Integer,IntTable<String>> interns = new HashMap<Integer,IntTable<String>>();
+  public IntObjectHashMap<ObjectIntHashMap<String>> getInitialInternStringsMap() {
+    IntObjectHashMap<ObjectIntHashMap<String>> interns = new IntObjectHashMap<ObjectIntHashMap<String>>();
      
     for(ApplicationContext appCtx:getApplicationContexts()) {
       interns.put(appCtx.getId(), appCtx.getInternStrings());
@@ -143,6 +143,10 @@ public class NativePeer implements Cloneable {
         }
 
         peer = getInstance(peerCls, NativePeer.class);
+        if (!peer.isEnabled()) {
+          logger.info("skip disabled peer: ", peerCls.getName());
+          return null;
+        }
         peer.initialize(peerCls, ci, true);
 
         peers.put(ci, peer);
@@ -152,6 +156,34 @@ public class NativePeer implements Cloneable {
     return peer;
   }
 
+  /**
+   * create a new peer object for a ClassInfo that is reused across JPF runs
+   * (see BootSnapshot). This re-executes the static peer class initialization
+   * with the current config, and updates the already bound NativeMethodInfos
+   * in place, since their MethodInfos might be cached by instructions
+   */
+  static NativePeer renewNativePeer (ClassInfo ci, NativePeer oldPeer) {
+    Class<?> peerCls = oldPeer.peerClass;
+    initializePeerClass( peerCls);
+
+    NativePeer peer = getInstance(peerCls, NativePeer.class);
+    peer.ci = ci;
+    peer.peerClass = peerCls;
+    peer.methods = oldPeer.methods;
+
+    for (MethodInfo mi : ci.getDeclaredMethods().values()) {
+      if (mi instanceof NativeMethodInfo) {
+        NativeMethodInfo nmi = (NativeMethodInfo) mi;
+        if (nmi.peer == oldPeer) {
+          nmi.peer = peer;
+        }
+      }
+    }
+
+    peers.put(ci, peer);
+    return peer;
+  }
+
   public static <T> T getInstance(Class<?> cls, Class<T> type) throws JPFException {
     Class<?>[] argTypes = Config.CONFIG_ARGTYPES;
     Object[] args = config.CONFIG_ARGS;
@@ -214,6 +246,14 @@ public class NativePeer implements Cloneable {
     return type.cast(o); // safe according to above
   }
 
+  /**
+   * optional peers for otherwise unmodeled library classes (intrinsics) can
+   * override this to keep the original bytecode, e.g. depending on configuration
+   */
+  protected boolean isEnabled () {
+    return true;
+  }
+
   static String getPeerDispatcherClassName (String clsName) {
     return (clsName + '$');
   }
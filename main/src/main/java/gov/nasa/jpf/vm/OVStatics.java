@@ -20,7 +20,7 @@ package gov.nasa.jpf.vm;
 import java.util.Iterator;
 
 import gov.nasa.jpf.Config;
-import gov.nasa.jpf.util.IntTable;
+import gov.nasa.jpf.util.ObjectIntHashMap;
 import gov.nasa.jpf.util.ObjVector;
 
 /**
@@ -55,7 +55,7 @@ public class OVStatics implements Statics {
   // NOTE this is per instance so that each one is as dense as possible, but since
   // it is search global it does NOT have to be restored and we can copy the reference when cloning
   protected int nextId;
-  protected IntTable<String> ids;
+  protected ObjectIntHashMap<String> ids;
   
   
   //--- construction
@@ -64,20 +64,17 @@ public class OVStatics implements Statics {
     elementInfos = new ObjVector<ElementInfo>();
     
     nextId = 0;
-    ids = new IntTable<String>();
+    ids = new ObjectIntHashMap<String>();
   }
   
   protected int computeId (ClassInfo ci) {
     String clsName = ci.getName();
-    IntTable.Entry<String> e = ids.get(clsName);
-    if (e == null) {
-      int id = nextId++;
+    int id = ids.get(clsName, -1);
+    if (id < 0) {
+      id = nextId++;
       ids.put( clsName, id);
-      return id;
-      
-    } else {
-      return e.val;
     }
+    return id;
   }
   
   protected StaticElementInfo createStaticElementInfo (int id, ClassInfo ci, ThreadInfo ti, ElementInfo eiClsObj) {
@@ -150,6 +150,11 @@ public class PSIMHeap extends GenericSGOIDHeap {
     elementInfos = elementInfos.remove(ref);
   }
   
+  @Override
+  protected boolean supportsGenerationalGc() {
+    return false; // we have our own sweep, and no finalizer support yet
+  }
+  
   @Override
   protected void sweep () {
     sweepPredicate.setContext();
@@ -57,13 +57,36 @@ import gov.nasa.jpf.Config;
  */
 public class PathSharednessPolicy extends GenericSharednessPolicy {
   
+  /**
+   * since PersistentTidSets are never modified, all objects that are only referenced
+   * by their allocating thread can share the same set instance, which saves
+   * us a set object per allocation
+   */
+  protected PersistentTidSet[] allocThreadSets = new PersistentTidSet[8];
+  
   public PathSharednessPolicy (Config config){
     super(config);
   }
   
+  protected PersistentTidSet getAllocThreadSet (ThreadInfo allocThread){
+    int id = allocThread.getId();
+    if (id >= allocThreadSets.length){
+      PersistentTidSet[] a = new PersistentTidSet[Math.max(id+1, allocThreadSets.length*2)];
+      System.arraycopy(allocThreadSets, 0, a, 0, allocThreadSets.length);
+      allocThreadSets = a;
+    }
+    
+    PersistentTidSet tis = allocThreadSets[id];
+    if (tis == null){
+      tis = new PersistentTidSet(allocThread);
+      allocThreadSets[id] = tis;
+    }
+    return tis;
+  }
+  
   @Override
   public void initializeObjectSharedness (ThreadInfo allocThread, DynamicElementInfo ei) {
-    ei.setReferencingThreads( new PersistentTidSet(allocThread));
+    ei.setReferencingThreads( getAllocThreadSet(allocThread));
   }
 
   @Override
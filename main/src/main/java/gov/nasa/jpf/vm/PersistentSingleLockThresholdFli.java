@@ -27,6 +27,12 @@ public class PersistentSingleLockThresholdFli extends SingleLockThresholdFli {
     super(ti, lockRef, remainingChecks);
   }
   
+  @Override
+  protected int countCheck() {
+    // don't modify this instance, stored states might still refer to it
+    return Math.max(0, remainingChecks - 1);
+  }
+
   @Override
   protected SingleLockThresholdFli singleLockThresholdFli (ThreadInfo ti, int lockRef, int remainingChecks) {
     return new PersistentSingleLockThresholdFli(ti, lockRef, remainingChecks);
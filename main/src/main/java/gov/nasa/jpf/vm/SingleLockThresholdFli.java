@@ -52,7 +52,7 @@ public class SingleLockThresholdFli extends ThresholdFieldLockInfo {
 	public FieldLockInfo checkProtection (ThreadInfo ti, ElementInfo ei, FieldInfo fi) {
       int[] currentLockRefs = ti.getLockedObjectReferences();
       int nLocks = currentLockRefs.length;
-      int nRemaining = Math.max(0, remainingChecks--);
+      int nRemaining = countCheck();
             
       for (int i=0; i<nLocks; i++) {
         if (currentLockRefs[i] == lockRef) {
@@ -17,14 +17,13 @@
  */
 package gov.nasa.jpf.vm;
 
-import java.util.HashMap;
-import java.util.Map;
 
 import gov.nasa.jpf.Config;
 import gov.nasa.jpf.JPF;
 import gov.nasa.jpf.JPFConfigException;
-import gov.nasa.jpf.util.IntTable;
+import gov.nasa.jpf.util.IntObjectHashMap;
 import gov.nasa.jpf.util.Misc;
+import gov.nasa.jpf.util.ObjectIntHashMap;
 import gov.nasa.jpf.util.Predicate;
 import gov.nasa.jpf.vm.choice.BreakGenerator;
 
@@ -123,6 +122,10 @@ public class SingleProcessVM extends VM {
   
   @Override
   public boolean initialize(){
+    if (bootSnapshot != null && initialized){
+      return restoreBootSnapshot();
+    }
+
     try {
       // this has to happen before we load the startup classes during initializeMainThread
       scheduler.initialize(this, appCtx);
@@ -136,6 +139,10 @@ public class SingleProcessVM extends VM {
 
       initSystemState(tiMain);
       initialized = true;
+      if (bootSnapshot != null){
+        bootSnapshot.store(config);
+      }
+      executedInsns = 0;
       notifyVMInitialized();
       return true;
       
@@ -298,8 +305,8 @@ public class SingleProcessVM extends VM {
   }
   
   @Override
-  public Map<Integer,IntTable<String>> getInitialInternStringsMap() {
-    Map<Integer,IntTable<String>> interns = new HashMap<Integer,IntTable<String>>();
+  public IntObjectHashMap<ObjectIntHashMap<String>> getInitialInternStringsMap() {
+    IntObjectHashMap<ObjectIntHashMap<String>> interns = new IntObjectHashMap<ObjectIntHashMap<String>>();
     interns.put(0, appCtx.getInternStrings());
     return interns;
   }
@@ -33,6 +33,7 @@ import gov.nasa.jpf.vm.bytecode.InvokeInstruction;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.Iterator;
 
 
@@ -148,6 +149,28 @@ public abstract class StackFrame implements Cloneable {
     top = nLocals-1;  // index, not size!
   }
   
+  /**
+   * re-initialize a popped frame that was never state stored so that it can be
+   * used for a call of 'callee', which has to use the same number of slots. This has
+   * to result in the same state as a newly created frame
+   */
+  protected void recycle (MethodInfo callee){
+    mi = callee;
+    pc = mi.getInstruction(0);
+    prev = null;
+    attributes = 0;
+
+    stackBase = callee.getMaxLocals();
+    top = stackBase-1;
+    thisRef = MJIEnv.NULL;
+
+    Arrays.fill(slots, 0);
+    isRef.clear();
+
+    frameAttr = null;
+    attrs = null;
+  }
+
   /**
    * re-execute method from the beginning - use with care
    */
@@ -1359,6 +1382,18 @@ public abstract class StackFrame implements Cloneable {
   public boolean isFrozen() {
     return ((attributes & ATTR_IS_FROZEN) != 0);    
   }
+
+  /**
+   * check the frame properties that are not covered by equals(), which only
+   * compares the execution state. Used to decide if two equal frames can be
+   * shared between stored states
+   */
+  boolean hasSameInvariants (StackFrame other){
+    return (getClass() == other.getClass())
+        && (thisRef == other.thisRef)
+        && (stackBase == other.stackBase)
+        && (attributes == other.attributes);
+  }
   
   
   public void setReflection(){
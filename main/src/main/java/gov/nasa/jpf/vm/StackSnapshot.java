@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.vm;
+
+/**
+ * a lazily decoded stack snapshot for Throwables. Instead of copying the
+ * {methodId,pc} pairs of all frames into a Throwable.snapshot array when the
+ * exception is created, we only copy the frames that were modified since the
+ * last state storage, and keep a reference to the first frozen frame below.
+ * Since frozen frames are copy-on-write, that part of the stack stays
+ * unchanged while the thread continues to execute, and is only decoded
+ * if somebody asks for the stack trace.
+ * 
+ * This is stored as an object attribute of the Throwable, i.e. it is not
+ * part of the serialized program state
+ */
+public class StackSnapshot {
+
+  final int[] head;          // {methodId,pc} pairs of the non-frozen frames
+  final StackFrame frozen;   // first frozen frame (if any)
+  final int depth;
+  
+  StackSnapshot (int[] head, StackFrame frozen, int depth){
+    this.head = head;
+    this.frozen = frozen;
+    this.depth = depth;
+  }
+  
+  public int getDepth(){
+    return depth;
+  }
+  
+  /**
+   * decode into the {methodId,pc} format of Throwable.snapshot
+   */
+  public int[] toArray (){
+    int[] snap = new int[depth*2];
+    System.arraycopy(head, 0, snap, 0, head.length);
+    
+    int j=head.length;
+    for (StackFrame frame = frozen; frame != null; frame = frame.getPrevious()){
+      snap[j++] = frame.getMethodInfo().getGlobalId();
+      snap[j++] = frame.getPC().getInstructionIndex();
+    }
+    
+    return snap;
+  }
+}
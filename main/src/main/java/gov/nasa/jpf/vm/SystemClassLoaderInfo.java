@@ -67,6 +67,9 @@ public abstract class SystemClassLoaderInfo extends ClassLoaderInfo {
   protected ClassInfo charArrayClassInfo;
 
   protected int unCachedClasses = 10;
+
+  // do we keep parsed classes in the JVM global ClassInfoCache
+  protected boolean useClassInfoCache;
   
   /**
    * list of configurable Attributors for ClassInfos, MethodInfos and FieldInfos
@@ -90,6 +93,17 @@ public abstract class SystemClassLoaderInfo extends ClassLoaderInfo {
     
     initializeSystemClassPath( vm, appId);
     initializeAttributors( vm, appId);
+
+    int nPrefetchThreads = vm.getConfig().getInt("vm.class_prefetch.threads", 1);
+    if (nPrefetchThreads > 0){
+      cp.enablePrefetch(nPrefetchThreads, vm.getConfig().getInt("vm.class_prefetch.max_pending", 256));
+    }
+
+    useClassInfoCache = vm.getConfig().getBoolean("vm.class_cache", false);
+  }
+
+  public boolean usesClassInfoCache (){
+    return useClassInfoCache;
   }
   
   protected abstract void initializeSystemClassPath (VM vm, int appId);
@@ -227,6 +227,9 @@ public class SystemState {
 
   /** CG types for which we extend transitions if the CG has only non-rescheduling single choices */
   TypeSpecMatcher extendTransitions;
+
+  /** if set, this is the remainder of a stored trace we use to select choices */
+  ChoicePoint replayTrace;
   
   /**
    * Creates a new system state.
@@ -257,6 +260,28 @@ public class SystemState {
     trail = new Transition(nextCg, execThread);
   }
 
+  /**
+   * reset everything that is not covered by Mementos, which is required if
+   * we restore the initial state of a reused VM (see BootSnapshot)
+   */
+  void resetTransients () {
+    trail = new Transition(nextCg, execThread);
+
+    uncaughtException = null;
+    replayTrace = null;
+    restorers = null;
+
+    GCNeeded = false;
+    nAlloc = 0;
+    isBlockedInAtomicSection = false;
+    entryAtomicLevel = atomicLevel;
+
+    isIgnored = false;
+    isForced = false;
+    isInteresting = false;
+    isBoring = false;
+  }
+
   public int getId () {
     return id;
   }
@@ -294,6 +319,18 @@ public class SystemState {
     return (atomicLevel > 0);
   }
 
+  /**
+   * drive the choices of all subsequently advanced CGs from the given trace,
+   * until it is exhausted. Note this is not backtracked
+   */
+  public void setReplayTrace (ChoicePoint trace){
+    replayTrace = trace;
+  }
+
+  public boolean isReplayingTrace(){
+    return (replayTrace != null);
+  }
+
   public boolean isBlockedInAtomicSection() {
     return isBlockedInAtomicSection;
   }
@@ -813,7 +850,10 @@ public class SystemState {
     }
 
     if (execThread.isTimeoutWaiting()) {
+      vm.getTimeModel().timeoutExpired(execThread);
       execThread.setTimedOut();
+    } else if (execThread.isSleeping()) {
+      vm.getTimeModel().timeoutExpired(execThread);
     }
   }
 
@@ -822,6 +862,11 @@ public class SystemState {
   protected int nAdvancedCGs;
 
   protected void advance( VM vm, ChoiceGenerator<?> cg){
+    if (replayTrace != null){
+      advanceFromTrace(vm, cg);
+      return;
+    }
+
     while (true) {
       if (cg.hasMoreChoices()){
         cg.advance();
@@ -846,6 +891,30 @@ public class SystemState {
     }
   }
 
+  /**
+   * select the next choice from the replay trace instead of enumerating. Since
+   * the trace was stored from the full CG path, cascaded CGs consume one
+   * ChoicePoint each, in the order they are advanced
+   */
+  protected void advanceFromTrace (VM vm, ChoiceGenerator<?> cg){
+    ChoicePoint cp = replayTrace;
+
+    if (!cg.getClass().getName().equals(cp.getCgClassName())){
+      throw new JPFException("trace replay mismatch, expected: " + cp.getCgClassName()
+              + ", got: " + cg.getClass().getName());
+    }
+
+    replayTrace = cp.getNext();
+
+    cg.select(cp.getChoiceIndex());
+    isIgnored = false;
+    vm.notifyChoiceGeneratorAdvanced(cg);
+
+    if (!isIgnored && cg.getNextChoice() != null){
+      nAdvancedCGs++;
+    }
+  }
+
   protected void advanceAllCascadedParents( VM vm, ChoiceGenerator<?> cg){
     ChoiceGenerator<?> parent = cg.getCascadedParent();
     if (parent != null){
@@ -26,21 +26,22 @@ import gov.nasa.jpf.jvm.bytecode.EXECUTENATIVE;
 import gov.nasa.jpf.jvm.bytecode.INVOKESTATIC;
 import gov.nasa.jpf.jvm.bytecode.JVMInvokeInstruction;
 import gov.nasa.jpf.util.HashData;
+import gov.nasa.jpf.util.IntIntHashMap;
 import gov.nasa.jpf.util.IntVector;
 import gov.nasa.jpf.util.JPFLogger;
 import gov.nasa.jpf.util.Predicate;
 import gov.nasa.jpf.util.StringSetMatcher;
+import gov.nasa.jpf.util.WeakPool;
 import gov.nasa.jpf.vm.choice.BreakGenerator;
 
 import java.io.PrintWriter;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.logging.Level;
 
@@ -215,6 +216,14 @@ public class ThreadInfo extends InfoObject
   /** the next insn to enter (null prior to execution) */
   protected Instruction nextPc;
 
+  /**
+   * popped frames that were never state stored, indexed by number of slots. These
+   * are search global, there is no need to restore them
+   */
+  protected StackFrame[][] recycledFrames;
+  protected int[] nRecycled;
+  protected int nRecycledFrames;
+
   /**
    * not so nice we cross-couple the NativePeers with ThreadInfo,
    * but to carry on with the JNI analogy, a MJIEnv is clearly
@@ -261,12 +270,13 @@ public class ThreadInfo extends InfoObject
     TiMemento (ThreadInfo ti){
       this.ti = ti;
       
+      ti.freeze(); // this might replace frames with shared instances
+      
       threadData = ti.threadData;  // no need to clone - it's copy on first write
       top = ti.top; // likewise
       stackDepth = ti.stackDepth; // we just copy this for efficiency reasons
       attributes = (ti.attributes & ATTR_STORE_MASK);
 
-      ti.freeze();
       ti.markUnchanged();
     }
 
@@ -320,13 +330,27 @@ public class ThreadInfo extends InfoObject
    */
   static int maxTransitionLength;
 
+  /**
+   * do we execute pairs of frequent instructions in one step if there are no
+   * listeners observing them (vm.superinstructions)
+   */
+  static boolean fuseInstructions;
+
+  /**
+   * set while we are executing from within the listener-free loop, i.e. it
+   * is safe to execute more than one instruction within Instruction.execute()
+   */
+  boolean canFuse;
+
   /**
    * reset ThreadInfo statics (e.g. to reinitialize JPF) 
    */
   static boolean init (Config config) {
     currentThread = null;
     
-    globalTids = new HashMap<Integer, Integer>();
+    globalTids = new IntIntHashMap();
+
+    fuseInstructions = config.getBoolean("vm.superinstructions", true);
 
     String[] haltOnThrowSpecs = config.getStringArray("vm.halt_on_throw");
     if (haltOnThrowSpecs != null){
@@ -338,6 +362,12 @@ public class ThreadInfo extends InfoObject
 
     maxTransitionLength = config.getInt("vm.max_transition_length", 5000);
 
+    lazyStackSnapshots = config.getBoolean("vm.lazy_stack_snapshots", false);
+
+    maxRecycledFrames = config.getInt("vm.max_recycled_frames", 64);
+
+    stackFramePool = config.getBoolean("vm.hashcons", false) ? new WeakPool<StackFrame>(11) : null;
+
     return true;
   }
     
@@ -349,13 +379,33 @@ public class ThreadInfo extends InfoObject
    * guaranteed to be global, but not dense. The ids are search global, i.e. there is no
    * need to store/restore, but it needs to be (re)set during init()  
    */
-  static Map<Integer, Integer> globalTids;  // initialized by init
+  static IntIntHashMap globalTids;  // initialized by init
+
+  /**
+   * optional hash-consing pool for frozen StackFrames (set by init). Entries
+   * are weak, we don't want to keep frames of discarded states alive
+   */
+  static WeakPool<StackFrame> stackFramePool;
+
+  /**
+   * do we store Throwable stack snapshots as StackSnapshot attributes that are
+   * only decoded on demand (set by init)
+   */
+  static boolean lazyStackSnapshots;
+  
+  /**
+   * max number of popped frames per thread that are kept for reuse (set by init)
+   */
+  static int maxRecycledFrames;
+  
+  // we don't recycle frames with more slots than that
+  static final int MAX_RECYCLED_SLOTS = 64;
   
   
   protected int computeId (int objRef) {
-    Integer id = globalTids.get(objRef);
+    int id = globalTids.get(objRef, -1);
     
-    if(id == null) {
+    if(id < 0) {
       id = globalTids.size();
       addId(objRef, id);
     }
@@ -445,9 +495,38 @@ public class ThreadInfo extends InfoObject
   }
   
   void freeze() {
-    for (StackFrame frame = top; frame != null; frame = frame.getPrevious()) {
-      frame.freeze();
+    if (stackFramePool != null){
+      top = hashConsFrames(top);
+    } else {
+      for (StackFrame frame = top; frame != null; frame = frame.getPrevious()) {
+        frame.freeze();
+      }
+    }
+  }
+
+  /**
+   * freeze the callstack ending in 'frame' and replace all frames that were
+   * modified since the last store with structurally identical frames from
+   * other stored states, if there are any.
+   * 
+   * Since StackFrame equality includes the identity of the caller frame, we
+   * have to canonicalize bottom up. Frames that are already frozen have been
+   * canonicalized before, i.e. we can stop at the first one we encounter
+   */
+  static StackFrame hashConsFrames (StackFrame frame){
+    if (frame == null || frame.isFrozen()){
+      return frame;
     }
+
+    StackFrame prev = hashConsFrames(frame.getPrevious());
+    frame.setPrevious(prev);
+    frame.freeze();
+
+    StackFrame canonical = stackFramePool.pool(frame);
+    if (canonical != frame && !canonical.hasSameInvariants(frame)){
+      return frame; // not in equals() - keep our own
+    }
+    return canonical;
   }
 
   //--- cached mementos are only supposed to be accessed from the Restorer
@@ -699,18 +778,22 @@ public class ThreadInfo extends InfoObject
 
     case RUNNING:
     case UNBLOCKED:
-    case SLEEPING:
       return true;
 
+    case SLEEPING:
+      // depends on the time model, which might defer this until other threads are idle
+      return vm.getTimeModel().canTimeout(this);
+
     case TIMEOUT_WAITING:
       // depends on if we can re-acquire the lock
       //assert lockRef != MJIEnv.NULL : "timeout waiting but no blocked object";
       if (lockRef != MJIEnv.NULL){
         ElementInfo ei = vm.getElementInfo(lockRef);
-        return ei.canLock(this);
-      } else {
-        return true;
+        if (!ei.canLock(this)){
+          return false;
+        }
       }
+      return vm.getTimeModel().canTimeout(this);
 
     default:
       return false;
@@ -1533,6 +1616,78 @@ public class ThreadInfo extends InfoObject
     return snap;
   }
 
+  /**
+   * get a StackSnapshot that only copies the {mthId,pc} pairs of frames that
+   * are not frozen, and otherwise refers to the (copy-on-write) frames
+   */
+  public StackSnapshot getLazySnapshot (int xObjRef) {
+    StackFrame frame = top;
+    int n = stackDepth;
+    
+    if (xObjRef != MJIEnv.NULL){ // filter out exception method frames
+      for (;frame != null; frame = frame.getPrevious()){
+        if (frame.getThis() != xObjRef){
+          break;
+        }
+        n--;
+      }
+    }
+
+    int nHead = 0;
+    for (StackFrame f = frame; f != null && !f.isFrozen(); f = f.getPrevious()){
+      nHead++;
+    }
+    
+    int j=0;
+    int[] head = new int[nHead*2];
+    for (; j < head.length; frame = frame.getPrevious()){
+      head[j++] = frame.getMethodInfo().getGlobalId();
+      head[j++] = frame.getPC().getInstructionIndex();
+    }
+    
+    return new StackSnapshot(head, frame, n);
+  }
+  
+  /**
+   * store the stack snapshot of a Throwable that is just getting created, either
+   * as Throwable.snapshot array, or as StackSnapshot object attribute if
+   * vm.lazy_stack_snapshots is set
+   */
+  public void fillInStackSnapshot (int xObjRef){
+    ElementInfo ei = vm.getHeap().getModifiable(xObjRef);
+    
+    if (lazyStackSnapshots){
+      StackSnapshot old = ei.getObjectAttr(StackSnapshot.class);
+      if (old != null){
+        ei.removeObjectAttr(old);
+      }
+      ei.addObjectAttr( getLazySnapshot(xObjRef));
+      ei.setReferenceField("snapshot", MJIEnv.NULL);
+      
+    } else {
+      int[] snap = getSnapshot(xObjRef);
+      int aref = env.newIntArray(snap);
+      ei.setReferenceField("snapshot", aref);
+    }
+  }
+  
+  /**
+   * get the {mthId,pc} snapshot of a Throwable, no matter if it was stored
+   * eagerly or lazily
+   */
+  public int[] getStackSnapshotOf (int xObjRef){
+    ElementInfo ei = vm.getHeap().get(xObjRef);
+    int aRef = ei.getReferenceField("snapshot");
+    
+    if (aRef != MJIEnv.NULL){
+      return vm.getHeap().get(aRef).asIntArray();
+      
+    } else {
+      StackSnapshot snap = ei.getObjectAttr(StackSnapshot.class);
+      return (snap != null) ? snap.toArray() : new int[0];
+    }
+  }
+  
   /**
    * turn a snapshot into an JPF array of StackTraceElements, which means
    * a lot of objects. Do this only on demand
@@ -1610,8 +1765,7 @@ public class ThreadInfo extends InfoObject
       }
 
     } else { // fall back to use the snapshot stored in the exception object
-      aRef = env.getReferenceField(objRef, "snapshot");
-      int[] snapshot = env.getIntArrayObject(aRef);
+      int[] snapshot = getStackSnapshotOf(objRef);
       int len = snapshot.length/2;
 
       for (int i=0, j=0; i<len; i++){
@@ -1771,8 +1925,15 @@ public class ThreadInfo extends InfoObject
    * is here to avoid round trips in case of exceptions
    */
   int createException (ClassInfo ci, String details, int causeRef){
-    int[] snap = getSnapshot(MJIEnv.NULL);
-    return vm.getHeap().newSystemThrowable(ci, details, snap, causeRef, this, 0).getObjectRef();
+    if (lazyStackSnapshots){
+      ElementInfo ei = vm.getHeap().newSystemThrowable(ci, details, null, causeRef, this, 0);
+      ei.addObjectAttr( getLazySnapshot(MJIEnv.NULL));
+      return ei.getObjectRef();
+      
+    } else {
+      int[] snap = getSnapshot(MJIEnv.NULL);
+      return vm.getHeap().newSystemThrowable(ci, details, snap, causeRef, this, 0).getObjectRef();
+    }
   }
 
   /**
@@ -1851,12 +2012,25 @@ public class ThreadInfo extends InfoObject
         setPC(pc);
       }
 
+      // the listener-free loop doesn't check for probe requests on each insn,
+      // hence we do it here
+      boolean canUseTurbo = !ss.recordSteps && !log.isLoggable(Level.FINER);
+      if (canUseTurbo){
+        vm.getSearch().checkAndResetProbeRequest();
+      }
+
       // this constitutes the main transition loop. It gobbles up
       // insns until someone registered a ChoiceGenerator, there are no insns left,
       // the transition was explicitly marked as ignored, or we have reached a
-      // max insn count and preempt the thread upon the next available backjump
+      // max insn count and preempt the thread upon the next available backjump.
+      // Note that listeners can be added during the transition, which is why
+      // we have to check vm.turbo on each insn
       while (pc != null) {
-        nextPc = executeInstruction();
+        if (canUseTurbo && vm.turbo){
+          nextPc = executeInstructionTurbo(pc, ss);
+        } else {
+          nextPc = executeInstruction();
+        }
 
         if (ss.breakTransition()) {
           if (ss.extendTransition()){
@@ -1913,6 +2087,7 @@ public class ThreadInfo extends InfoObject
 
     // we also count the skipped ones
     executedInstructions++;
+    vm.executedInsns++;
     
     if ((attributes & ATTR_SKIP_INSN_LOG) == 0) {
       ss.recordExecutionStep(pc);
@@ -1944,6 +2119,77 @@ public class ThreadInfo extends InfoObject
     }
   }
 
+  /**
+   * the stripped down version of executeInstruction() that is used if there
+   * are no listeners observing instructions, no step recording and no FINER
+   * logging (see VM.isTurbo()). This has to produce the same state changes,
+   * it only skips notifications and probe checks
+   */
+  protected Instruction executeInstructionTurbo (Instruction pc, SystemState ss) {
+    resetTransientAttributes();
+    nextPc = null;
+
+    if ((pendingSUTExceptionRequest == null) && ((attributes & ATTR_SKIP_INSN_EXEC) == 0)){
+      canFuse = fuseInstructions;
+      try {
+        nextPc = pc.execute(this);
+      } catch (ClassInfoException cie) {
+        nextPc = this.createAndThrowException(cie.getExceptionClass(), cie.getMessage());
+      } finally {
+        canFuse = false;
+      }
+    }
+
+    executedInstructions++;
+    vm.executedInsns++;
+
+    if ((attributes & ATTR_SKIP_INSN_LOG) == 0) {
+      ss.trail.incStepCount();
+    }
+
+    pc.cleanupTransients();
+
+    if (pendingSUTExceptionRequest != null){
+      processPendingSUTExceptionRequest();
+    }
+
+    if (top != null) {
+      setPC(nextPc);
+      return nextPc;
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * can the currently executing instruction also execute its successor
+   * (superinstruction)? This is only the case if we run within the
+   * listener-free loop and the instruction execution was not intercepted
+   */
+  public boolean canFuseInstructions () {
+    return canFuse;
+  }
+
+  /**
+   * execute the instruction that follows the currently executing one from
+   * within Instruction.execute(). This is only allowed if canFuseInstructions()
+   * returned true, and only for instructions that cannot break the transition
+   * before they are completed. We still count the fused instruction as a
+   * separate step, and set the pc before executing it so that exceptions
+   * and re-executions refer to the right instruction (positions stay the same)
+   */
+  public Instruction executeFusedInstruction (Instruction insn) {
+    executedInstructions++;
+    vm.executedInsns++;
+    vm.ss.trail.incStepCount();
+
+    setPC(insn);
+    Instruction next = insn.execute(this);
+    insn.cleanupTransients();
+
+    return next;
+  }
+
   /**
    * enter instruction hidden from any listeners, and do not
    * record it in the path
@@ -2661,6 +2907,54 @@ public class ThreadInfo extends InfoObject
     return top;
   }
   
+  /**
+   * keep a popped frame for reuse by a subsequent call. This is only safe for frames
+   * that were never frozen (i.e. are not referenced from any stored state), and if
+   * the caller knows nobody else is going to use the frame after the current instruction
+   */
+  public void recycleFrame (StackFrame frame){
+    if (nRecycledFrames < maxRecycledFrames && !frame.isFrozen()){
+      int nSlots = frame.getSlots().length;
+      if (nSlots < MAX_RECYCLED_SLOTS){
+        if (recycledFrames == null){
+          recycledFrames = new StackFrame[MAX_RECYCLED_SLOTS][];
+          nRecycled = new int[MAX_RECYCLED_SLOTS];
+        }
+        
+        // we don't touch the frame here since it might still be inspected by listeners
+        StackFrame[] frames = recycledFrames[nSlots];
+        int n = nRecycled[nSlots];
+        if (frames == null){
+          frames = recycledFrames[nSlots] = new StackFrame[4];
+        } else if (n == frames.length){
+          frames = recycledFrames[nSlots] = Arrays.copyOf(frames, n*2);
+        }
+        frames[n] = frame;
+        nRecycled[nSlots] = n+1;
+        nRecycledFrames++;
+      }
+    }
+  }
+  
+  /**
+   * return a previously recycled frame with the specified number of slots, or null if
+   * there is none. Note the frame still has to be re-initialized by the caller
+   */
+  public StackFrame getRecycledFrame (int nSlots){
+    if (nRecycledFrames > 0 && nSlots < MAX_RECYCLED_SLOTS){
+      int n = nRecycled[nSlots];
+      if (n > 0){
+        StackFrame[] frames = recycledFrames[nSlots];
+        StackFrame frame = frames[--n];
+        frames[n] = null;
+        nRecycled[nSlots] = n;
+        nRecycledFrames--;
+        return frame;
+      }
+    }
+    return null;
+  }
+  
   /**
    * removing DirectCallStackFrames is a bit different (only happens from
    * DIRECTCALLRETURN insns)
@@ -36,6 +36,15 @@ public abstract class ThresholdFieldLockInfo extends FieldLockInfo implements Cl
     return (remainingChecks == 0);
   }
 
+  /**
+   * count a check and return the remaining checks for the resulting FieldLockInfo.
+   * This is the search global version that decrements this instance but passes
+   * on its previous value, override for path local FieldLockInfos
+   */
+  protected int countCheck() {
+    return Math.max(0, remainingChecks--);
+  }
+
   protected void checkFailedLockAssumption(ThreadInfo ti, ElementInfo ei, FieldInfo fi) {
     if (remainingChecks == 0) {
       // with no locks remaining this would have been demoted to an
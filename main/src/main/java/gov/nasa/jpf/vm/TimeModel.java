@@ -36,4 +36,39 @@ public interface TimeModel {
   
   public long currentTimeMillis();
   public long nanoTime();
+
+  //--- timeout notifications, which are only required for time models that
+  //    schedule timed waits and sleeps themselves (e.g. VirtualTime)
+
+  /**
+   * thread 'ti' has entered a timed wait or sleep that expires after
+   * 'timeoutNanos' (relative to the current model time)
+   */
+  default void timeoutStarted (ThreadInfo ti, long timeoutNanos){
+    // nothing
+  }
+
+  /**
+   * can the timed wait or sleep of 'ti' expire in the current state?
+   * This is used to decide if a SLEEPING or TIMEOUT_WAITING thread should
+   * be a scheduling choice
+   */
+  default boolean canTimeout (ThreadInfo ti){
+    return true;
+  }
+
+  /**
+   * the timed wait or sleep of 'ti' did expire, i.e. the thread gets scheduled
+   * in the SLEEPING or TIMEOUT_WAITING state
+   */
+  default void timeoutExpired (ThreadInfo ti){
+    // nothing
+  }
+
+  /**
+   * do sleeps always have to be scheduling points, regardless of cg.break_sleep?
+   */
+  default boolean requiresSleepCG (){
+    return false;
+  }
 }
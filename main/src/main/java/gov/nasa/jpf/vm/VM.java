@@ -22,12 +22,15 @@ import gov.nasa.jpf.JPF;
 import gov.nasa.jpf.JPFConfigException;
 import gov.nasa.jpf.JPFException;
 import gov.nasa.jpf.JPFListenerException;
+import gov.nasa.jpf.ListenerAdapter;
+import gov.nasa.jpf.PropertyListenerAdapter;
 import gov.nasa.jpf.jvm.ClassFile;
 import gov.nasa.jpf.vm.FinalizerThreadInfo;
 import gov.nasa.jpf.search.Search;
-import gov.nasa.jpf.util.IntTable;
+import gov.nasa.jpf.util.IntObjectHashMap;
 import gov.nasa.jpf.util.JPFLogger;
 import gov.nasa.jpf.util.Misc;
+import gov.nasa.jpf.util.ObjectIntHashMap;
 import gov.nasa.jpf.util.Predicate;
 
 import java.io.PrintWriter;
@@ -36,7 +39,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 
 /**
@@ -126,6 +128,17 @@ public abstract class VM {
   /** did we get a new transition */
   protected boolean transitionOccurred;
 
+  /** do we allow the listener-free instruction loop in ThreadInfo (vm.turbo) */
+  protected boolean turboEnabled;
+
+  /** can ThreadInfos currently use the listener-free instruction loop, i.e.
+   * is turboEnabled set and there is no listener that observes instructions */
+  protected boolean turbo;
+
+  /** number of (non-hidden) instructions executed so far, including re-executions.
+   * This is reset at the end of initialize(), i.e. does not include the bootstrap */
+  protected long executedInsns;
+
   /** how we model execution time */
   protected TimeModel timeModel;
   
@@ -158,6 +171,9 @@ public abstract class VM {
   // we want a (internal) mechanism that is on-demand only, i.e. processed
   // actions are removed from the list
   protected ArrayList<Runnable> postGcActions = new ArrayList<Runnable>();
+
+  /** non-null if this VM can be reused by subsequent runs (vm.boot_snapshot) */
+  protected BootSnapshot bootSnapshot;
   
   /**
    * be prepared this might throw JPFConfigExceptions
@@ -178,11 +194,15 @@ public abstract class VM {
     indentOutput = config.getBoolean("vm.indent_output",false);
 
     processFinalizers = config.getBoolean("vm.process_finalizers", false);
+
+    turboEnabled = config.getBoolean("vm.turbo", true);
+    turbo = turboEnabled;
     
     isBigEndian = getPlatformEndianness(config);
     initialized = false;
     
     initTimeModel(config);
+    bootSnapshot = BootSnapshot.create(this, config);
 
     initSubsystems(config);
     initFields(config);
@@ -265,7 +285,61 @@ public abstract class VM {
    * called after the JPF run is finished. Shouldn't be public, but is called by JPF
    */
   public void cleanUp(){
-    // nothing yet
+    if (bootSnapshot != null){
+      bootSnapshot.release();
+    }
+  }
+
+  /**
+   * re-target a VM that was initialized by a previous run to a new JPF object
+   * (see BootSnapshot). Everything that depends on the new config or JPF has to
+   * be reset here, the VM state is restored later on by initialize()
+   */
+  protected void reattach (JPF jpf, Config conf, BootSnapshot snapshot){
+    this.jpf = jpf;
+    vm = this;
+    config = conf;
+
+    listeners = new VMListener[0];
+    turbo = turboEnabled;
+    postGcActions.clear();
+
+    initSubsystems(config);
+    snapshot.restoreRegistries();
+
+    path = new Path("fix-this!");
+    out = null;
+    lastTrailInfo = null;
+    isTraceReplay = false;
+    pathOutput = false;
+
+    stateSet = config.getInstance("vm.storage.class", StateSet.class);
+    if (stateSet != null) stateSet.attach(this);
+
+    newStateId = -1;
+    executedInsns = 0;
+  }
+
+  /**
+   * the initialize() part of a reused VM - restore the state we had after
+   * the startup classes were initialized, and let the new JPF know about it
+   */
+  protected boolean restoreBootSnapshot (){
+    restoreState(bootSnapshot.getBootState());
+    ss.resetTransients();
+
+    bootSnapshot.renewNativePeers();
+    bootSnapshot.reloadAnnotationListeners();
+
+    ss.recordSteps(hasToRecordSteps());
+    if (!pathOutput) {
+      pathOutput = hasToRecordPathOutput();
+    }
+    transitionOccurred = true;
+    executedInsns = 0;
+
+    notifyVMInitialized();
+    return true;
   }
   
   protected boolean getPlatformEndianness (Config config){
@@ -661,6 +735,7 @@ public abstract class VM {
   public void addListener (VMListener newListener) {
     log.info("VMListener added: ", newListener);
     listeners = Misc.appendElement(listeners, newListener);
+    updateTurbo();
   }
 
   public boolean hasListenerOfType (Class<?> listenerCls) {
@@ -673,6 +748,52 @@ public abstract class VM {
   
   public void removeListener (VMListener removeListener) {
     listeners = Misc.removeElement(listeners, removeListener);
+    updateTurbo();
+  }
+
+  /**
+   * check if the listener-free instruction loop can be used, which is only the
+   * case if none of our listeners overrides the instruction notifications of
+   * the adapter classes
+   */
+  protected void updateTurbo () {
+    if (turboEnabled) {
+      for (VMListener l : listeners) {
+        if (observesInstructions(l)) {
+          turbo = false;
+          return;
+        }
+      }
+      turbo = true;
+    }
+  }
+
+  static boolean observesInstructions (VMListener l) {
+    Class<?> cls = l.getClass();
+    try {
+      Class<?> c1 = cls.getMethod("executeInstruction", VM.class, ThreadInfo.class, Instruction.class).getDeclaringClass();
+      Class<?> c2 = cls.getMethod("instructionExecuted", VM.class, ThreadInfo.class, Instruction.class, Instruction.class).getDeclaringClass();
+
+      return !(isAdapterClass(c1) && isAdapterClass(c2));
+
+    } catch (NoSuchMethodException nsmx) {
+      return true; // can't happen, but be conservative
+    }
+  }
+
+  static boolean isAdapterClass (Class<?> cls) {
+    return (cls == ListenerAdapter.class) || (cls == PropertyListenerAdapter.class);
+  }
+
+  /**
+   * used by ThreadInfo to decide if it can use the listener-free instruction loop
+   */
+  public boolean isTurbo () {
+    return turbo;
+  }
+
+  public long getExecutedInstructionCount () {
+    return executedInsns;
   }
 
   public void setTraceReplay (boolean isReplay) {
@@ -1528,8 +1649,13 @@ public abstract class VM {
   }
 
   public void storeTrace (String fileName, String comment, boolean verbose) {
-    ChoicePoint.storeTrace(fileName, getSUTName(), comment,
-                           ss.getChoiceGenerators(), verbose);
+    if (config.getBoolean("trace.binary", false)){
+      ChoicePoint.storeBinaryTrace(fileName, getSUTName(), comment,
+                                   ss.getChoiceGenerators(), config.getBoolean("trace.compress", false));
+    } else {
+      ChoicePoint.storeTrace(fileName, getSUTName(), comment,
+                             ss.getChoiceGenerators(), verbose);
+    }
   }
 
   public void storePathOutput () {
@@ -1758,6 +1884,48 @@ public abstract class VM {
     }
   }
 
+  /**
+   * advance the program state without storing backtrack information and
+   * without state matching (i.e. no serialization). This can only be used by
+   * searches that never backtrack or restore states, such as trace replay.
+   * Each transition that occurs is treated as a new state
+   *
+   * @return 'true' if there was an un-executed sequence out of the current state
+   */
+  public boolean forwardWithoutBacktrack () {
+    transitionOccurred = ss.initializeNextTransition(this);
+
+    if (transitionOccurred){
+      lastTrailInfo = path.getLast();
+
+      try {
+        ss.executeNextTransition(vm);
+
+      } catch (UncaughtException e) {
+        // we don't pass this up since it means there were insns executed and we are
+        // in a consistent state
+      }
+
+      updatePath();
+
+      if (!isIgnoredState()) {
+        if (runGc && !hasPendingException()) {
+          if(ss.gcIfNeeded()) {
+            processFinalizers();
+          }
+        }
+
+        // no state matching, but we still number states in case listeners use the id
+        ss.setId(++newStateId);
+      }
+
+      return true;
+
+    } else {
+      return false;
+    }
+  }
+
   /**
    * Prints the current stack trace. Just for debugging purposes
    */
@@ -1969,6 +2137,10 @@ public abstract class VM {
     return ss.ks.getClassLoader(gid);
   }
 
+  public TimeModel getTimeModel () {
+    return timeModel;
+  }
+
   /**
    * <2do> this is where we will hook in a better time model
    */
@@ -2006,7 +2178,7 @@ public abstract class VM {
   
   // this is invoked by the heap (see GenericHeap.newInternString()) upon creating
   // the very first intern string
-  public abstract Map<Integer,IntTable<String>> getInitialInternStringsMap();
+  public abstract IntObjectHashMap<ObjectIntHashMap<String>> getInitialInternStringsMap();
   
   // ---------- Predicates used to query threads from ThreadList ---------- //
   
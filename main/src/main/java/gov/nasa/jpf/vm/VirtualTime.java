@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.vm;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.ListenerAdapter;
+
+/**
+ * a discrete event TimeModel that does not depend on host time at all.
+ * 
+ * Time only advances when a thread is scheduled after its timed wait or sleep
+ * expired, in which case the clock is forwarded to the deadline of this thread.
+ * Timeouts can only expire if there is no other plainly runnable thread and no
+ * pending timeout with an earlier deadline, i.e. timeouts fire in deadline order
+ * and only once all threads are idle. This avoids both waiting for real time
+ * and exploring timeout orders that are impossible in terms of elapsed time.
+ * 
+ * The clock state is immutable and gets attached to each registered
+ * ChoiceGenerator, from where it is restored upon advance. It therefore
+ * backtracks without contributing to state hashing, i.e. states that only differ
+ * in time values are still matched (as with any other TimeModel)
+ */
+public class VirtualTime extends ListenerAdapter implements TimeModel {
+
+  // note - these types are not public since we want to make sure this listener
+  // is the only one using them as CG attributes
+  static class Timeout {
+    final int tid;
+    final long deadline;  // absolute, in nanos
+    final long seq;       // to break deadline ties in order of start
+
+    Timeout (int tid, long deadline, long seq){
+      this.tid = tid;
+      this.deadline = deadline;
+      this.seq = seq;
+    }
+
+    boolean isBefore (Timeout other){
+      return (deadline < other.deadline) || (deadline == other.deadline && seq < other.seq);
+    }
+  }
+
+  static class Clock {
+    final long now;  // in nanos since start
+    final long seq;
+    final Timeout[] timeouts; // ordered by deadline/seq
+
+    Clock (long now, long seq, Timeout[] timeouts){
+      this.now = now;
+      this.seq = seq;
+      this.timeouts = timeouts;
+    }
+
+    int indexOf (int tid){
+      for (int i=0; i<timeouts.length; i++){
+        if (timeouts[i].tid == tid){
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    Timeout[] without (int idx){
+      if (idx < 0){
+        return timeouts;
+      }
+      Timeout[] a = new Timeout[timeouts.length-1];
+      System.arraycopy(timeouts, 0, a, 0, idx);
+      System.arraycopy(timeouts, idx+1, a, idx, a.length-idx);
+      return a;
+    }
+
+    Clock start (int tid, long timeoutNanos){
+      Timeout[] ts = without(indexOf(tid));
+      Timeout t = new Timeout(tid, now + timeoutNanos, seq);
+
+      int i = ts.length;
+      while (i > 0 && t.isBefore(ts[i-1])){
+        i--;
+      }
+      Timeout[] a = new Timeout[ts.length+1];
+      System.arraycopy(ts, 0, a, 0, i);
+      a[i] = t;
+      System.arraycopy(ts, i, a, i+1, ts.length-i);
+
+      return new Clock(now, seq+1, a);
+    }
+
+    Clock expire (int tid){
+      int idx = indexOf(tid);
+      if (idx < 0){
+        return this; // already expired or never started
+      }
+      long t = Math.max(now, timeouts[idx].deadline);
+      return new Clock(t, seq, without(idx));
+    }
+  }
+
+  static final Clock INITIAL_CLOCK = new Clock(0, 0, new Timeout[0]);
+
+  VM vm;
+  long startMillis;
+
+  Clock clock = INITIAL_CLOCK;
+
+  public VirtualTime (VM vm, Config conf){
+    startMillis = conf.getLong("vm.time.start_millis", 0);
+
+    vm.addListener(this);
+    this.vm = vm;
+  }
+
+  public long getElapsedNanos (){
+    return clock.now;
+  }
+
+  /**
+   * is 'ti' plainly runnable, i.e. would it prevent timeouts from expiring
+   */
+  protected boolean isRunning (ThreadInfo ti){
+    return ti.isRunnable() && !ti.isSleeping() && !ti.isTimeoutWaiting();
+  }
+
+  /**
+   * could the timeout of 'ti' expire if it is the next one
+   */
+  protected boolean isExpirable (ThreadInfo ti){
+    if (ti.isSleeping()){
+      return true;
+
+    } else if (ti.isTimeoutWaiting()){
+      ElementInfo ei = ti.getLockObject();
+      return (ei == null) || ei.canLock(ti);
+
+    } else {
+      return false; // stale timeout, thread got notified or interrupted
+    }
+  }
+
+  //--- the listener interface
+  @Override
+  public void choiceGeneratorRegistered (VM vm, ChoiceGenerator<?> nextCG, ThreadInfo ti, Instruction executedInsn){
+    nextCG.addAttr(clock);
+  }
+
+  @Override
+  public void choiceGeneratorAdvanced (VM vm, ChoiceGenerator<?> currentCG){
+    Clock c = currentCG.getAttr(Clock.class);
+    clock = (c != null) ? c : INITIAL_CLOCK;
+  }
+
+  //--- the TimeModel interface
+  @Override
+  public long currentTimeMillis() {
+    return startMillis + clock.now / 1000000;
+  }
+
+  @Override
+  public long nanoTime() {
+    return clock.now;
+  }
+
+  @Override
+  public void timeoutStarted (ThreadInfo ti, long timeoutNanos){
+    clock = clock.start(ti.getId(), Math.max(0, timeoutNanos));
+  }
+
+  @Override
+  public boolean canTimeout (ThreadInfo ti){
+    Timeout[] timeouts = clock.timeouts;
+    int idx = clock.indexOf(ti.getId());
+    if (idx < 0){
+      return true; // not a timeout we know of, keep the default behavior
+    }
+
+    ThreadList tl = vm.getThreadList();
+    for (ThreadInfo t : tl){
+      if (t != ti && isRunning(t)){
+        return false;
+      }
+    }
+
+    for (int i=0; i<idx; i++){
+      ThreadInfo t = tl.getThreadInfoForId(timeouts[i].tid);
+      if (t != null && isExpirable(t)){
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public void timeoutExpired (ThreadInfo ti){
+    clock = clock.expire(ti.getId());
+  }
+
+  @Override
+  public boolean requiresSleepCG (){
+    return true;
+  }
+}
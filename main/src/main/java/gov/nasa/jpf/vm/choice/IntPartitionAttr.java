@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.vm.choice;
+
+/**
+ * operand/field attribute for int values that are derived from the current
+ * choice of an IntPartitionGenerator, as (choice + offset).
+ * 
+ * Instances are immutable since attributes are shared between slots
+ */
+public class IntPartitionAttr {
+
+  protected final IntPartitionGenerator cg;
+  protected final long offset;
+
+  public IntPartitionAttr (IntPartitionGenerator cg, long offset){
+    this.cg = cg;
+    this.offset = offset;
+  }
+
+  public IntPartitionGenerator getChoiceGenerator (){
+    return cg;
+  }
+
+  public long getOffset (){
+    return offset;
+  }
+
+  /**
+   * can we add 'delta' to all values of the current partition without int overflow?
+   */
+  public boolean canAdd (long delta){
+    long o = offset + delta;
+    return (cg.getCurrentLow() + o >= Integer.MIN_VALUE) && (cg.getCurrentHigh() + o <= Integer.MAX_VALUE);
+  }
+
+  public IntPartitionAttr add (long delta){
+    return new IntPartitionAttr(cg, offset + delta);
+  }
+
+  /**
+   * the value was compared against 'c', i.e. the comparison outcome changes at
+   * (value < c) and (value <= c)
+   */
+  public void compare (long c){
+    cg.splitAt(c - offset);
+    cg.splitAt(c - offset + 1);
+  }
+
+  /**
+   * the value was tested for (value < c), i.e. (value >= c)
+   */
+  public void compareLess (long c){
+    cg.splitAt(c - offset);
+  }
+
+  /**
+   * the value was tested for (value <= c), i.e. (value > c)
+   */
+  public void compareLessOrEqual (long c){
+    cg.splitAt(c - offset + 1);
+  }
+
+  public void concretize (){
+    cg.concretize();
+  }
+
+  @Override
+  public String toString(){
+    return "IntPartitionAttr[" + cg.getCurrentLow() + ".." + cg.getCurrentHigh() + (offset >= 0 ? " +" : " ") + offset + ']';
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.vm.choice;
+
+import gov.nasa.jpf.vm.ChoiceGenerator;
+import gov.nasa.jpf.vm.ChoiceGeneratorBase;
+import gov.nasa.jpf.vm.IntChoiceGenerator;
+
+/**
+ * ChoiceGenerator for an int interval that does not enumerate all values, but
+ * starts with a single partition [min,max] that is lazily split at thresholds
+ * which are tested by the program.
+ * 
+ * Each partition is represented by its lower bound. When the current choice
+ * flows into a comparison (as tracked by IntPartitionTracker through
+ * IntPartitionAttr operand attributes), the current partition is split so that
+ * all its values take the same branch, and the remainder is appended as a
+ * new choice that gets explored upon backtracking. Values that flow into
+ * operations we can't track are concretized, i.e. the current partition is
+ * reduced to its representative.
+ * 
+ * Note that this means the number of choices grows while we explore the
+ * subtrees of this CG
+ */
+public class IntPartitionGenerator extends ChoiceGeneratorBase<Integer> implements IntChoiceGenerator {
+
+  protected int min, max;
+
+  // known partitions in order of discovery, choice 'idx' represents [lo[idx],hi[idx]]
+  protected int[] lo;
+  protected int[] hi;
+  protected int nPartitions;
+
+  protected int idx;
+
+  public IntPartitionGenerator (String id, int min, int max){
+    super(id);
+
+    if (min > max){
+      int t = max;
+      max = min;
+      min = t;
+    }
+
+    this.min = min;
+    this.max = max;
+
+    lo = new int[8];
+    hi = new int[8];
+
+    reset();
+  }
+
+  @Override
+  public void reset () {
+    isDone = false;
+
+    lo[0] = min;
+    hi[0] = max;
+    nPartitions = 1;
+    idx = -1;
+  }
+
+  @Override
+  public Integer getChoice (int i){
+    if (i >= 0 && i < nPartitions){
+      return lo[i];
+    } else {
+      throw new IllegalArgumentException("choice index out of range: " + i);
+    }
+  }
+
+  @Override
+  public Integer getNextChoice () {
+    return lo[idx];
+  }
+
+  @Override
+  public boolean hasMoreChoices () {
+    return !isDone && (idx + 1 < nPartitions);
+  }
+
+  @Override
+  public void advance () {
+    if (idx + 1 < nPartitions){
+      idx++;
+    }
+  }
+
+  @Override
+  public int getTotalNumberOfChoices () {
+    return nPartitions;
+  }
+
+  @Override
+  public int getProcessedNumberOfChoices () {
+    return idx + 1;
+  }
+
+  public int getMin (){
+    return min;
+  }
+
+  public int getMax (){
+    return max;
+  }
+
+  /**
+   * lower bound of the current partition, which is also the current choice
+   */
+  public int getCurrentLow (){
+    return lo[idx];
+  }
+
+  public int getCurrentHigh (){
+    return hi[idx];
+  }
+
+  public boolean isSingleValue (){
+    return lo[idx] == hi[idx];
+  }
+
+  /**
+   * split the current partition so that all its values are on the same side
+   * of 'threshold', i.e. either all are < threshold or all are >= threshold.
+   * Since the current choice is the lower bound, the upper part becomes a new
+   * (unprocessed) partition
+   */
+  public void splitAt (long threshold){
+    int l = lo[idx];
+    int h = hi[idx];
+
+    if (threshold > l && threshold <= h){
+      int t = (int)threshold;
+
+      if (nPartitions == lo.length){
+        int n = nPartitions * 2;
+        int[] a = new int[n];
+        System.arraycopy(lo, 0, a, 0, nPartitions);
+        lo = a;
+        a = new int[n];
+        System.arraycopy(hi, 0, a, 0, nPartitions);
+        hi = a;
+      }
+
+      hi[idx] = t-1;
+      lo[nPartitions] = t;
+      hi[nPartitions] = h;
+      nPartitions++;
+    }
+  }
+
+  /**
+   * the current choice value was used in a way we can't track, reduce the
+   * current partition to it
+   */
+  public void concretize (){
+    splitAt( (long)lo[idx] + 1);
+  }
+
+  @Override
+  public String toString () {
+    StringBuilder sb = new StringBuilder(getClass().getName());
+    sb.append("[id=\"");
+    sb.append(id);
+    sb.append('"');
+
+    sb.append(",isCascaded:");
+    sb.append(isCascaded);
+
+    sb.append(",");
+    sb.append(min);
+    sb.append("..");
+    sb.append(max);
+    sb.append(",partitions=");
+    sb.append(nPartitions);
+    if (idx >= 0){
+      sb.append(",cur=");
+      sb.append(lo[idx]);
+      sb.append("..");
+      sb.append(hi[idx]);
+    }
+    sb.append(']');
+    return sb.toString();
+  }
+
+  @Override
+  public Class<Integer> getChoiceType() {
+    return Integer.class;
+  }
+
+  @Override
+  public ChoiceGenerator<Integer> randomize() {
+    return this; // partitions are discovered in order, there is nothing to shuffle up front
+  }
+}
@@ -66,6 +66,27 @@ public class FilteringSerializer extends AbstractSerializer implements Reference
   final HashMap<ClassInfo,FinalBitSet> instanceFilterMasks = new HashMap<ClassInfo,FinalBitSet>();
   final HashMap<ClassInfo,FinalBitSet> staticFilterMasks   = new HashMap<ClassInfo,FinalBitSet>();
 
+  //--- per class serialization plans, which are computed from the masks above.
+  // Indexed by classloader id and ClassInfo id (the components of the ClassInfo
+  // uniqueId), so that we don't need any hashing in the innermost serialization loops
+  final ObjVector<ObjVector<SerializationPlan>> instancePlans = new ObjVector<ObjVector<SerializationPlan>>();
+  final ObjVector<ObjVector<SerializationPlan>> staticPlans = new ObjVector<ObjVector<SerializationPlan>>();
+
+  /**
+   * the non-filtered slots of a class in serialization order. Non-negative
+   * entries are offsets of value slots, negative entries are ~offset of
+   * reference slots
+   */
+  static final class SerializationPlan {
+    final ClassInfo ci;
+    final int[] slots;
+
+    SerializationPlan (ClassInfo ci, int[] slots){
+      this.ci = ci;
+      this.slots = slots;
+    }
+  }
+
   protected FilterConfiguration filter;
 
   protected transient IntVector buf = new IntVector(4096);
@@ -174,6 +195,51 @@ public class FilteringSerializer extends AbstractSerializer implements Reference
     return v;
   }
 
+  protected int[] getInstancePlan (ClassInfo ci) {
+    return getPlan(instancePlans, ci, false);
+  }
+
+  protected int[] getStaticPlan (ClassInfo ci) {
+    return getPlan(staticPlans, ci, true);
+  }
+
+  protected int[] getPlan (ObjVector<ObjVector<SerializationPlan>> plans, ClassInfo ci, boolean isStatic) {
+    int id = ci.getId();
+    if (id < 0) { // not registered (yet), don't cache
+      return computePlan(ci, isStatic);
+    }
+
+    int clId = ci.getClassLoaderInfo().getId();
+    ObjVector<SerializationPlan> clPlans = plans.get(clId);
+    if (clPlans == null) {
+      clPlans = new ObjVector<SerializationPlan>();
+      plans.set(clId, clPlans);
+    }
+
+    SerializationPlan p = clPlans.get(id);
+    if (p == null || p.ci != ci) { // ids can be re-used after class unloading
+      p = new SerializationPlan(ci, computePlan(ci, isStatic));
+      clPlans.set(id, p);
+    }
+
+    return p.slots;
+  }
+
+  protected int[] computePlan (ClassInfo ci, boolean isStatic) {
+    FinalBitSet filtered = isStatic ? getStaticFilterMask(ci) : getInstanceFilterMask(ci);
+    FinalBitSet refs = isStatic ? getStaticRefMask(ci) : getInstanceRefMask(ci);
+    int max = isStatic ? ci.getStaticDataSize() : ci.getInstanceDataSize();
+
+    IntVector v = new IntVector(max);
+    for (int i = 0; i < max; i++) {
+      if (!filtered.get(i)) {
+        v.add( refs.get(i) ? ~i : i);
+      }
+    }
+
+    return v.toArray();
+  }
+
   protected void initReferenceQueue() {
     // note - this assumes all heap objects are in an unmarked state, but this
     // is true if we enter outside the gc
@@ -217,22 +283,15 @@ public class FilteringSerializer extends AbstractSerializer implements Reference
   }
     
   protected void processNamedFields (ClassInfo ci, Fields fields){
-    FinalBitSet filtered = getInstanceFilterMask(ci);
-    FinalBitSet refs = getInstanceRefMask(ci);
-
-    // using a block operation probably doesn't buy us much here since
-    // we would have to blank the filtered slots and then visit the
-    // non-filtered reference slots, i.e. do two iterations over
-    // the mask bit sets
+    int[] plan = getInstancePlan(ci);
     int[] values = fields.asFieldSlots();
-    for (int i = 0; i < values.length; i++) {
-      if (!filtered.get(i)) {
-        int v = values[i];
-        if (refs.get(i)) {
-          processReference(v);
-        } else {
-          buf.add(v);
-        }
+
+    for (int i = 0; i < plan.length; i++) {
+      int idx = plan[i];
+      if (idx >= 0) {
+        buf.add(values[idx]);
+      } else {
+        processReference(values[~idx]);
       }
     }
   }
@@ -417,19 +476,15 @@ public class FilteringSerializer extends AbstractSerializer implements Reference
   protected void serializeClass (StaticElementInfo sei){
     buf.add(sei.getStatus());
 
-    Fields fields = sei.getFields();
-    ClassInfo ci = sei.getClassInfo();
-    FinalBitSet filtered = getStaticFilterMask(ci);
-    FinalBitSet refs = getStaticRefMask(ci);
-    int max = ci.getStaticDataSize();
-    for (int i = 0; i < max; i++) {
-      if (!filtered.get(i)) {
-        int v = fields.getIntValue(i);
-        if (refs.get(i)) {
-          processReference(v);
-        } else {
-          buf.add(v);
-        }
+    int[] plan = getStaticPlan(sei.getClassInfo());
+    int[] values = sei.getFields().asFieldSlots();
+
+    for (int i = 0; i < plan.length; i++) {
+      int idx = plan[i];
+      if (idx >= 0) {
+        buf.add(values[idx]);
+      } else {
+        processReference(values[~idx]);
       }
     }
   }
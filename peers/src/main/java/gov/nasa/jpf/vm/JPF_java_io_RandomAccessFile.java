@@ -19,9 +19,8 @@ package gov.nasa.jpf.vm;
 
 import gov.nasa.jpf.annotation.MJI;
 
-import java.util.HashMap;
-
 import gov.nasa.jpf.Config;
+import gov.nasa.jpf.util.IntIntHashMap;
 
 /**
  * MJI NativePeer class for java.io.RandomAccessFile library abstraction
@@ -34,28 +33,25 @@ public class JPF_java_io_RandomAccessFile extends NativePeer {
 	// if so, then we'll update the file data and length in the original file
 	// we do update the length in the local object, but not the data
 		
-	static HashMap<Integer, Integer> File2DataMap;
+	static IntIntHashMap File2DataMap;
 	
   public static boolean init (Config conf) {
-    File2DataMap = new HashMap<Integer, Integer>();
+    File2DataMap = new IntIntHashMap();
     return (File2DataMap != null);
   } 
 
 	// get the mapped object if one exists
 	private static int getMapping(MJIEnv env, int this_ptr) {
 		int fn_ptr = env.getReferenceField(this_ptr,"filename");
-		Object o = File2DataMap.get(new Integer(fn_ptr));
-		if (o == null)
-			return this_ptr;
-		return ((Integer)o).intValue();
+		return File2DataMap.get(fn_ptr, this_ptr);
 	}
 	
 	// set the mapping during the constructor call
   @MJI
 	public void setDataMap____V (MJIEnv env, int this_ptr) {
 		int fn_ptr = env.getReferenceField(this_ptr,"filename");
-		if (!File2DataMap.containsKey(new Integer(fn_ptr))) 
-			File2DataMap.put(new Integer(fn_ptr),new Integer(this_ptr));
+		if (!File2DataMap.containsKey(fn_ptr)) 
+			File2DataMap.put(fn_ptr, this_ptr);
 	}
 	
   static ClassInfo getDataRepresentationClassInfo (MJIEnv env) {
@@ -300,9 +300,11 @@ public class JPF_java_lang_String extends NativePeer {
 
   @MJI
   public int indexOf__II__I (MJIEnv env, int objref, int c, int fromIndex) {
-    int vref = env.getReferenceField(objref, "value");
-    ElementInfo ei = env.getElementInfo(vref);
-    char[] values = ((CharArrayFields) ei.getFields()).asCharArray();
+    char[] values = getCharValues(env, objref);
+
+    if (c >= Character.MIN_SUPPLEMENTARY_CODE_POINT) { // surrogate pairs, rare enough to delegate
+      return new String(values).indexOf(c, fromIndex);
+    }
 
     int len = values.length;
 
@@ -325,9 +327,11 @@ public class JPF_java_lang_String extends NativePeer {
 
   @MJI
   public int lastIndexOf__II__I (MJIEnv env, int objref, int c, int fromIndex) {
-    int vref = env.getReferenceField(objref, "value");
-    ElementInfo ei = env.getElementInfo(vref);
-    char[] values = ((CharArrayFields) ei.getFields()).asCharArray();
+    char[] values = getCharValues(env, objref);
+
+    if (c >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+      return new String(values).lastIndexOf(c, fromIndex);
+    }
 
     int len = values.length;
 
@@ -336,35 +340,103 @@ public class JPF_java_lang_String extends NativePeer {
       fromIndex = len - 1;
     }
 
-    for (int i = fromIndex; i > 0; i--) {
+    for (int i = fromIndex; i >= 0; i--) {
       if (values[i] == c) { return i; }
     }
 
     return -1;
   }
 
+  // this is the internal char[] of the CharArrayFields, don't modify
+  static char[] getCharValues (MJIEnv env, int strRef) {
+    int vref = env.getReferenceField(strRef, "value");
+    ElementInfo ei = env.getElementInfo(vref);
+    return ((CharArrayFields) ei.getFields()).asCharArray();
+  }
+
+  // same semantics as the (package private) String.indexOf(char[],int,int,char[],int,int,int)
+  static int indexOf (char[] source, char[] target, int fromIndex) {
+    int sourceCount = source.length;
+    int targetCount = target.length;
+
+    if (fromIndex >= sourceCount) {
+      return (targetCount == 0) ? sourceCount : -1;
+    }
+    if (fromIndex < 0) {
+      fromIndex = 0;
+    }
+    if (targetCount == 0) {
+      return fromIndex;
+    }
+
+    char first = target[0];
+    int max = sourceCount - targetCount;
+
+    for (int i = fromIndex; i <= max; i++) {
+      if (source[i] == first) {
+        int j = 1;
+        while (j < targetCount && source[i + j] == target[j]) {
+          j++;
+        }
+        if (j == targetCount) {
+          return i;
+        }
+      }
+    }
+
+    return -1;
+  }
+
+  static int lastIndexOf (char[] source, char[] target, int fromIndex) {
+    int targetCount = target.length;
+    int rightIndex = source.length - targetCount;
+
+    if (fromIndex < 0) {
+      return -1;
+    }
+    if (fromIndex > rightIndex) {
+      fromIndex = rightIndex;
+    }
+    if (targetCount == 0) {
+      return fromIndex;
+    }
+
+    for (int i = fromIndex; i >= 0; i--) {
+      int j = 0;
+      while (j < targetCount && source[i + j] == target[j]) {
+        j++;
+      }
+      if (j == targetCount) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
   @MJI
   public int indexOf__Ljava_lang_String_2__I (MJIEnv env, int objref, int str) {
-    String thisStr = env.getStringObject(objref);
-    String indexStr = env.getStringObject(str);
-
-    return thisStr.indexOf(indexStr);
+    return indexOf__Ljava_lang_String_2I__I(env, objref, str, 0);
   }
 
   @MJI
   public int indexOf__Ljava_lang_String_2I__I (MJIEnv env, int objref, int str, int fromIndex) {
-    String thisStr = env.getStringObject(objref);
-    String indexStr = env.getStringObject(str);
+    if (str == MJIEnv.NULL) {
+      env.throwException("java.lang.NullPointerException");
+      return -1;
+    }
 
-    return thisStr.indexOf(indexStr, fromIndex);
+    return indexOf(getCharValues(env, objref), getCharValues(env, str), fromIndex);
   }
 
   @MJI
   public int lastIndexOf__Ljava_lang_String_2I__I (MJIEnv env, int objref, int str, int fromIndex) {
-    String thisStr = env.getStringObject(objref);
-    String indexStr = env.getStringObject(str);
+    if (str == MJIEnv.NULL) {
+      env.throwException("java.lang.NullPointerException");
+      return -1;
+    }
 
-    return thisStr.lastIndexOf(indexStr, fromIndex);
+    return lastIndexOf(getCharValues(env, objref), getCharValues(env, str), fromIndex);
   }
 
   @MJI
@@ -219,15 +219,23 @@ public class JPF_java_lang_Thread extends NativePeer {
   @MJI
   public void sleep__JI__V (MJIEnv env, int clsObjRef, long millis, int nanos) {
     ThreadInfo ti = env.getThreadInfo();
+    TimeModel timeModel = env.getVM().getTimeModel();
+
+    if (!ti.isFirstStepInsn()){
+      // has to be sleeping before we compute the scheduling choices, so that
+      // the time model can tell if this thread can wake up right away
+      timeModel.timeoutStarted(ti, millis * 1000000 + nanos);
+      ti.setSleeping();
+    }
 
     // check scheduling point
     if (ti.getScheduler().setsSleepCG(ti, millis, nanos)){
-      ti.setSleeping();
       env.repeatInvocation();
       return;
     }
     
     if (ti.isSleeping()){
+      timeModel.timeoutExpired(ti);
       ti.setRunning();
     }
   }
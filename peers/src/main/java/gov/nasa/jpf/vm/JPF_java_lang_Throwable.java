@@ -36,22 +36,29 @@ public class JPF_java_lang_Throwable extends NativePeer {
    */
   @MJI
   public int createStackTrace_____3Ljava_lang_StackTraceElement_2 (MJIEnv env, int objref) {
-    int aref = env.getReferenceField(objref, "snapshot");
-    int[] snap = env.getIntArrayObject(aref);
+    ThreadInfo ti = env.getThreadInfo();
+    int[] snap = ti.getStackSnapshotOf(objref);
     
-    return env.getThreadInfo().createStackTraceElements(snap);
+    return ti.createStackTraceElements(snap);
   }
   
   @MJI
   public int fillInStackTrace____Ljava_lang_Throwable_2 (MJIEnv env, int objref) {
-    ThreadInfo ti = env.getThreadInfo();
-    int[] snap = ti.getSnapshot(objref);
-    
-    int aref = env.newIntArray(snap);
-    env.setReferenceField(objref, "snapshot", aref);
-    
+    env.getThreadInfo().fillInStackSnapshot(objref);
     return objref;
   }
+  
+  @MJI
+  public int getStackTraceDepth____I (MJIEnv env, int objref) {
+    int aref = env.getReferenceField(objref, "snapshot");
+    if (aref != MJIEnv.NULL){
+      return env.getArrayLength(aref) / 2;
+      
+    } else {
+      StackSnapshot snap = env.getObjectAttr(objref, StackSnapshot.class);
+      return (snap != null) ? snap.getDepth() : 0;
+    }
+  }
     
   // native because we don't want to waste states
   @MJI
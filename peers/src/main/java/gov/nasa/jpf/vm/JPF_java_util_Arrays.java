@@ -0,0 +1,630 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.vm;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.annotation.MJI;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * intrinsics for the primitive array routines of java.util.Arrays, which is
+ * not a model class. Executing these as bytecode costs a number of instructions
+ * that is linear (or worse) in the array length, each of them a potential
+ * transition break. The peer methods work directly on the ArrayFields values
+ * and delegate to the host VM Arrays implementation, so that we get the same
+ * results and exceptions.
+ *
+ * Methods that call back into SUT code (Object comparisons, equals() or
+ * hashCode()) are not intercepted. Set vm.intrinsics=false to execute the
+ * library bytecode instead
+ */
+public class JPF_java_util_Arrays extends NativePeer {
+
+  static boolean enabled;
+
+  public static boolean init (Config conf) {
+    enabled = conf.getBoolean("vm.intrinsics", true);
+    return true;
+  }
+
+  @Override
+  protected boolean isEnabled () {
+    return enabled;
+  }
+
+  //--- helpers
+
+  private static Object getValues (MJIEnv env, int aRef, boolean modify) {
+    ElementInfo ei = modify ? env.getModifiableElementInfo(aRef) : env.getElementInfo(aRef);
+    return ((ArrayFields) ei.getFields()).getValues();
+  }
+
+  private static void throwHostException (MJIEnv env, RuntimeException x) {
+    env.throwException(x.getClass().getName(), x.getMessage());
+  }
+
+  private static void sort (MJIEnv env, int aRef, int fromIndex, int toIndex, boolean isRange) {
+    if (aRef == MJIEnv.NULL) {
+      env.throwException("java.lang.NullPointerException");
+      return;
+    }
+
+    ElementInfo ei = env.getModifiableElementInfo(aRef);
+    Object a = ((ArrayFields) ei.getFields()).getValues();
+    if (!isRange) {
+      fromIndex = 0;
+      toIndex = java.lang.reflect.Array.getLength(a);
+    }
+
+    // we need the unsorted values to move the attributes along
+    Object unsorted = ei.hasFieldAttr() ? ((ArrayFields) ei.getFields().clone()).getValues() : null;
+
+    try {
+      if (a instanceof int[]) {
+        Arrays.sort((int[]) a, fromIndex, toIndex);
+      } else if (a instanceof long[]) {
+        Arrays.sort((long[]) a, fromIndex, toIndex);
+      } else if (a instanceof short[]) {
+        Arrays.sort((short[]) a, fromIndex, toIndex);
+      } else if (a instanceof char[]) {
+        Arrays.sort((char[]) a, fromIndex, toIndex);
+      } else if (a instanceof byte[]) {
+        Arrays.sort((byte[]) a, fromIndex, toIndex);
+      } else if (a instanceof float[]) {
+        Arrays.sort((float[]) a, fromIndex, toIndex);
+      } else if (a instanceof double[]) {
+        Arrays.sort((double[]) a, fromIndex, toIndex);
+      }
+    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException x) {
+      throwHostException(env, x);
+      return;
+    }
+
+    if (unsorted != null) {
+      permuteAttrs(ei, unsorted, fromIndex, toIndex);
+    }
+  }
+
+  /**
+   * the host sort doesn't tell us where elements went, so we sort the original
+   * indices with the same total order (which is what Float/Double.compare()
+   * implement) and move the element attributes accordingly. Attributes of
+   * equal values keep their relative order
+   */
+  private static void permuteAttrs (ElementInfo ei, final Object unsorted, int fromIndex, int toIndex) {
+    int n = toIndex - fromIndex;
+    Integer[] idx = new Integer[n];
+    Object[] attrs = new Object[n];
+    for (int i = 0; i < n; i++) {
+      idx[i] = fromIndex + i;
+      attrs[i] = ei.getElementAttr(fromIndex + i);
+    }
+
+    Arrays.sort(idx, new Comparator<Integer>() {
+      @Override
+      public int compare (Integer i, Integer j) {
+        return compareElements(unsorted, i, j);
+      }
+    });
+
+    for (int i = 0; i < n; i++) {
+      ei.setElementAttr(fromIndex + i, attrs[idx[i] - fromIndex]);
+    }
+  }
+
+  private static int compareElements (Object a, int i, int j) {
+    if (a instanceof int[]) {
+      return Integer.compare(((int[]) a)[i], ((int[]) a)[j]);
+    } else if (a instanceof long[]) {
+      return Long.compare(((long[]) a)[i], ((long[]) a)[j]);
+    } else if (a instanceof short[]) {
+      return Short.compare(((short[]) a)[i], ((short[]) a)[j]);
+    } else if (a instanceof char[]) {
+      return Character.compare(((char[]) a)[i], ((char[]) a)[j]);
+    } else if (a instanceof byte[]) {
+      return Byte.compare(((byte[]) a)[i], ((byte[]) a)[j]);
+    } else if (a instanceof float[]) {
+      return Float.compare(((float[]) a)[i], ((float[]) a)[j]);
+    } else {
+      return Double.compare(((double[]) a)[i], ((double[]) a)[j]);
+    }
+  }
+
+  /**
+   * the value is passed in as a boxed host object of the element type. Since
+   * new values don't carry the old element attributes, we reset them
+   */
+  private static void fill (MJIEnv env, int aRef, int fromIndex, int toIndex, boolean isRange, Object v) {
+    if (aRef == MJIEnv.NULL) {
+      env.throwException("java.lang.NullPointerException");
+      return;
+    }
+
+    ElementInfo ei = env.getModifiableElementInfo(aRef);
+    Object a = ((ArrayFields) ei.getFields()).getValues();
+    if (!isRange) {
+      fromIndex = 0;
+      toIndex = java.lang.reflect.Array.getLength(a);
+    }
+
+    try {
+      if (a instanceof int[]) {
+        Arrays.fill((int[]) a, fromIndex, toIndex, (Integer) v);
+      } else if (a instanceof long[]) {
+        Arrays.fill((long[]) a, fromIndex, toIndex, (Long) v);
+      } else if (a instanceof short[]) {
+        Arrays.fill((short[]) a, fromIndex, toIndex, (Short) v);
+      } else if (a instanceof char[]) {
+        Arrays.fill((char[]) a, fromIndex, toIndex, (Character) v);
+      } else if (a instanceof byte[]) {
+        Arrays.fill((byte[]) a, fromIndex, toIndex, (Byte) v);
+      } else if (a instanceof boolean[]) {
+        Arrays.fill((boolean[]) a, fromIndex, toIndex, (Boolean) v);
+      } else if (a instanceof float[]) {
+        Arrays.fill((float[]) a, fromIndex, toIndex, (Float) v);
+      } else if (a instanceof double[]) {
+        Arrays.fill((double[]) a, fromIndex, toIndex, (Double) v);
+      }
+    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException x) {
+      throwHostException(env, x);
+      return;
+    }
+
+    if (ei.hasFieldAttr()) {
+      for (int i = fromIndex; i < toIndex; i++) {
+        ei.setElementAttr(i, null);
+      }
+    }
+  }
+
+  private static boolean equals (MJIEnv env, int aRef, int bRef) {
+    if (aRef == bRef) {
+      return true;
+    }
+    if (aRef == MJIEnv.NULL || bRef == MJIEnv.NULL) {
+      return false;
+    }
+
+    Object a = getValues(env, aRef, false);
+    Object b = getValues(env, bRef, false);
+
+    if (a instanceof int[]) {
+      return Arrays.equals((int[]) a, (int[]) b);
+    } else if (a instanceof long[]) {
+      return Arrays.equals((long[]) a, (long[]) b);
+    } else if (a instanceof short[]) {
+      return Arrays.equals((short[]) a, (short[]) b);
+    } else if (a instanceof char[]) {
+      return Arrays.equals((char[]) a, (char[]) b);
+    } else if (a instanceof byte[]) {
+      return Arrays.equals((byte[]) a, (byte[]) b);
+    } else if (a instanceof boolean[]) {
+      return Arrays.equals((boolean[]) a, (boolean[]) b);
+    } else if (a instanceof float[]) {
+      return Arrays.equals((float[]) a, (float[]) b);
+    } else {
+      return Arrays.equals((double[]) a, (double[]) b);
+    }
+  }
+
+  private static int hashCode (MJIEnv env, int aRef) {
+    if (aRef == MJIEnv.NULL) {
+      return 0;
+    }
+
+    Object a = getValues(env, aRef, false);
+
+    if (a instanceof int[]) {
+      return Arrays.hashCode((int[]) a);
+    } else if (a instanceof long[]) {
+      return Arrays.hashCode((long[]) a);
+    } else if (a instanceof short[]) {
+      return Arrays.hashCode((short[]) a);
+    } else if (a instanceof char[]) {
+      return Arrays.hashCode((char[]) a);
+    } else if (a instanceof byte[]) {
+      return Arrays.hashCode((byte[]) a);
+    } else if (a instanceof boolean[]) {
+      return Arrays.hashCode((boolean[]) a);
+    } else if (a instanceof float[]) {
+      return Arrays.hashCode((float[]) a);
+    } else {
+      return Arrays.hashCode((double[]) a);
+    }
+  }
+
+  /**
+   * copyOf() is just a copyOfRange() that starts at 0 and allows to
+   * extend the array
+   */
+  private static int copyOfRange (MJIEnv env, int aRef, int fromIndex, int toIndex, boolean isCopyOf) {
+    if (aRef == MJIEnv.NULL) {
+      env.throwException("java.lang.NullPointerException");
+      return MJIEnv.NULL;
+    }
+
+    Object a = getValues(env, aRef, false);
+    int newRef;
+
+    try {
+      if (a instanceof int[]) {
+        int[] v = (int[]) a;
+        newRef = env.newIntArray(isCopyOf ? Arrays.copyOf(v, toIndex) : Arrays.copyOfRange(v, fromIndex, toIndex));
+      } else if (a instanceof long[]) {
+        long[] v = (long[]) a;
+        newRef = env.newLongArray(isCopyOf ? Arrays.copyOf(v, toIndex) : Arrays.copyOfRange(v, fromIndex, toIndex));
+      } else if (a instanceof short[]) {
+        short[] v = (short[]) a;
+        newRef = env.newShortArray(isCopyOf ? Arrays.copyOf(v, toIndex) : Arrays.copyOfRange(v, fromIndex, toIndex));
+      } else if (a instanceof char[]) {
+        char[] v = (char[]) a;
+        newRef = env.newCharArray(isCopyOf ? Arrays.copyOf(v, toIndex) : Arrays.copyOfRange(v, fromIndex, toIndex));
+      } else if (a instanceof byte[]) {
+        byte[] v = (byte[]) a;
+        newRef = env.newByteArray(isCopyOf ? Arrays.copyOf(v, toIndex) : Arrays.copyOfRange(v, fromIndex, toIndex));
+      } else if (a instanceof boolean[]) {
+        boolean[] v = isCopyOf ? Arrays.copyOf((boolean[]) a, toIndex) : Arrays.copyOfRange((boolean[]) a, fromIndex, toIndex);
+        newRef = env.newBooleanArray(v.length);
+        System.arraycopy(v, 0, getValues(env, newRef, true), 0, v.length);
+      } else if (a instanceof float[]) {
+        float[] v = (float[]) a;
+        newRef = env.newFloatArray(isCopyOf ? Arrays.copyOf(v, toIndex) : Arrays.copyOfRange(v, fromIndex, toIndex));
+      } else {
+        double[] v = (double[]) a;
+        newRef = env.newDoubleArray(isCopyOf ? Arrays.copyOf(v, toIndex) : Arrays.copyOfRange(v, fromIndex, toIndex));
+      }
+    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | NegativeArraySizeException x) {
+      throwHostException(env, x);
+      return MJIEnv.NULL;
+    }
+
+    // copied values keep their element attributes, same as with System.arraycopy
+    ElementInfo eiSrc = env.getElementInfo(aRef);
+    if (eiSrc.hasFieldAttr()) {
+      ElementInfo eiDst = env.getModifiableElementInfo(newRef);
+      int n = Math.min(eiSrc.arrayLength() - fromIndex, eiDst.arrayLength());
+      for (int i = 0; i < n; i++) {
+        eiDst.setElementAttr(i, eiSrc.getElementAttr(fromIndex + i));
+      }
+    }
+
+    return newRef;
+  }
+
+  //--- sort
+
+  @MJI
+  public void sort___3I__V (MJIEnv env, int clsObjRef, int aRef) {
+    sort(env, aRef, 0, 0, false);
+  }
+
+  @MJI
+  public void sort___3III__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    sort(env, aRef, fromIndex, toIndex, true);
+  }
+
+  @MJI
+  public void sort___3J__V (MJIEnv env, int clsObjRef, int aRef) {
+    sort(env, aRef, 0, 0, false);
+  }
+
+  @MJI
+  public void sort___3JII__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    sort(env, aRef, fromIndex, toIndex, true);
+  }
+
+  @MJI
+  public void sort___3S__V (MJIEnv env, int clsObjRef, int aRef) {
+    sort(env, aRef, 0, 0, false);
+  }
+
+  @MJI
+  public void sort___3SII__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    sort(env, aRef, fromIndex, toIndex, true);
+  }
+
+  @MJI
+  public void sort___3C__V (MJIEnv env, int clsObjRef, int aRef) {
+    sort(env, aRef, 0, 0, false);
+  }
+
+  @MJI
+  public void sort___3CII__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    sort(env, aRef, fromIndex, toIndex, true);
+  }
+
+  @MJI
+  public void sort___3B__V (MJIEnv env, int clsObjRef, int aRef) {
+    sort(env, aRef, 0, 0, false);
+  }
+
+  @MJI
+  public void sort___3BII__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    sort(env, aRef, fromIndex, toIndex, true);
+  }
+
+  @MJI
+  public void sort___3F__V (MJIEnv env, int clsObjRef, int aRef) {
+    sort(env, aRef, 0, 0, false);
+  }
+
+  @MJI
+  public void sort___3FII__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    sort(env, aRef, fromIndex, toIndex, true);
+  }
+
+  @MJI
+  public void sort___3D__V (MJIEnv env, int clsObjRef, int aRef) {
+    sort(env, aRef, 0, 0, false);
+  }
+
+  @MJI
+  public void sort___3DII__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    sort(env, aRef, fromIndex, toIndex, true);
+  }
+
+  //--- fill
+
+  @MJI
+  public void fill___3II__V (MJIEnv env, int clsObjRef, int aRef, int v) {
+    fill(env, aRef, 0, 0, false, v);
+  }
+
+  @MJI
+  public void fill___3IIII__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex, int v) {
+    fill(env, aRef, fromIndex, toIndex, true, v);
+  }
+
+  @MJI
+  public void fill___3JJ__V (MJIEnv env, int clsObjRef, int aRef, long v) {
+    fill(env, aRef, 0, 0, false, v);
+  }
+
+  @MJI
+  public void fill___3JIIJ__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex, long v) {
+    fill(env, aRef, fromIndex, toIndex, true, v);
+  }
+
+  @MJI
+  public void fill___3SS__V (MJIEnv env, int clsObjRef, int aRef, short v) {
+    fill(env, aRef, 0, 0, false, v);
+  }
+
+  @MJI
+  public void fill___3SIIS__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex, short v) {
+    fill(env, aRef, fromIndex, toIndex, true, v);
+  }
+
+  @MJI
+  public void fill___3CC__V (MJIEnv env, int clsObjRef, int aRef, char v) {
+    fill(env, aRef, 0, 0, false, v);
+  }
+
+  @MJI
+  public void fill___3CIIC__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex, char v) {
+    fill(env, aRef, fromIndex, toIndex, true, v);
+  }
+
+  @MJI
+  public void fill___3BB__V (MJIEnv env, int clsObjRef, int aRef, byte v) {
+    fill(env, aRef, 0, 0, false, v);
+  }
+
+  @MJI
+  public void fill___3BIIB__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex, byte v) {
+    fill(env, aRef, fromIndex, toIndex, true, v);
+  }
+
+  @MJI
+  public void fill___3ZZ__V (MJIEnv env, int clsObjRef, int aRef, boolean v) {
+    fill(env, aRef, 0, 0, false, v);
+  }
+
+  @MJI
+  public void fill___3ZIIZ__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex, boolean v) {
+    fill(env, aRef, fromIndex, toIndex, true, v);
+  }
+
+  @MJI
+  public void fill___3FF__V (MJIEnv env, int clsObjRef, int aRef, float v) {
+    fill(env, aRef, 0, 0, false, v);
+  }
+
+  @MJI
+  public void fill___3FIIF__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex, float v) {
+    fill(env, aRef, fromIndex, toIndex, true, v);
+  }
+
+  @MJI
+  public void fill___3DD__V (MJIEnv env, int clsObjRef, int aRef, double v) {
+    fill(env, aRef, 0, 0, false, v);
+  }
+
+  @MJI
+  public void fill___3DIID__V (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex, double v) {
+    fill(env, aRef, fromIndex, toIndex, true, v);
+  }
+
+  //--- equals
+
+  @MJI
+  public boolean equals___3I_3I__Z (MJIEnv env, int clsObjRef, int aRef, int bRef) {
+    return equals(env, aRef, bRef);
+  }
+
+  @MJI
+  public boolean equals___3J_3J__Z (MJIEnv env, int clsObjRef, int aRef, int bRef) {
+    return equals(env, aRef, bRef);
+  }
+
+  @MJI
+  public boolean equals___3S_3S__Z (MJIEnv env, int clsObjRef, int aRef, int bRef) {
+    return equals(env, aRef, bRef);
+  }
+
+  @MJI
+  public boolean equals___3C_3C__Z (MJIEnv env, int clsObjRef, int aRef, int bRef) {
+    return equals(env, aRef, bRef);
+  }
+
+  @MJI
+  public boolean equals___3B_3B__Z (MJIEnv env, int clsObjRef, int aRef, int bRef) {
+    return equals(env, aRef, bRef);
+  }
+
+  @MJI
+  public boolean equals___3Z_3Z__Z (MJIEnv env, int clsObjRef, int aRef, int bRef) {
+    return equals(env, aRef, bRef);
+  }
+
+  @MJI
+  public boolean equals___3F_3F__Z (MJIEnv env, int clsObjRef, int aRef, int bRef) {
+    return equals(env, aRef, bRef);
+  }
+
+  @MJI
+  public boolean equals___3D_3D__Z (MJIEnv env, int clsObjRef, int aRef, int bRef) {
+    return equals(env, aRef, bRef);
+  }
+
+  //--- hashCode
+
+  @MJI
+  public int hashCode___3I__I (MJIEnv env, int clsObjRef, int aRef) {
+    return hashCode(env, aRef);
+  }
+
+  @MJI
+  public int hashCode___3J__I (MJIEnv env, int clsObjRef, int aRef) {
+    return hashCode(env, aRef);
+  }
+
+  @MJI
+  public int hashCode___3S__I (MJIEnv env, int clsObjRef, int aRef) {
+    return hashCode(env, aRef);
+  }
+
+  @MJI
+  public int hashCode___3C__I (MJIEnv env, int clsObjRef, int aRef) {
+    return hashCode(env, aRef);
+  }
+
+  @MJI
+  public int hashCode___3B__I (MJIEnv env, int clsObjRef, int aRef) {
+    return hashCode(env, aRef);
+  }
+
+  @MJI
+  public int hashCode___3Z__I (MJIEnv env, int clsObjRef, int aRef) {
+    return hashCode(env, aRef);
+  }
+
+  @MJI
+  public int hashCode___3F__I (MJIEnv env, int clsObjRef, int aRef) {
+    return hashCode(env, aRef);
+  }
+
+  @MJI
+  public int hashCode___3D__I (MJIEnv env, int clsObjRef, int aRef) {
+    return hashCode(env, aRef);
+  }
+
+  //--- copyOf, copyOfRange
+
+  @MJI
+  public int copyOf___3II___3I (MJIEnv env, int clsObjRef, int aRef, int newLength) {
+    return copyOfRange(env, aRef, 0, newLength, true);
+  }
+
+  @MJI
+  public int copyOfRange___3III___3I (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    return copyOfRange(env, aRef, fromIndex, toIndex, false);
+  }
+
+  @MJI
+  public int copyOf___3JI___3J (MJIEnv env, int clsObjRef, int aRef, int newLength) {
+    return copyOfRange(env, aRef, 0, newLength, true);
+  }
+
+  @MJI
+  public int copyOfRange___3JII___3J (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    return copyOfRange(env, aRef, fromIndex, toIndex, false);
+  }
+
+  @MJI
+  public int copyOf___3SI___3S (MJIEnv env, int clsObjRef, int aRef, int newLength) {
+    return copyOfRange(env, aRef, 0, newLength, true);
+  }
+
+  @MJI
+  public int copyOfRange___3SII___3S (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    return copyOfRange(env, aRef, fromIndex, toIndex, false);
+  }
+
+  @MJI
+  public int copyOf___3CI___3C (MJIEnv env, int clsObjRef, int aRef, int newLength) {
+    return copyOfRange(env, aRef, 0, newLength, true);
+  }
+
+  @MJI
+  public int copyOfRange___3CII___3C (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    return copyOfRange(env, aRef, fromIndex, toIndex, false);
+  }
+
+  @MJI
+  public int copyOf___3BI___3B (MJIEnv env, int clsObjRef, int aRef, int newLength) {
+    return copyOfRange(env, aRef, 0, newLength, true);
+  }
+
+  @MJI
+  public int copyOfRange___3BII___3B (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    return copyOfRange(env, aRef, fromIndex, toIndex, false);
+  }
+
+  @MJI
+  public int copyOf___3ZI___3Z (MJIEnv env, int clsObjRef, int aRef, int newLength) {
+    return copyOfRange(env, aRef, 0, newLength, true);
+  }
+
+  @MJI
+  public int copyOfRange___3ZII___3Z (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    return copyOfRange(env, aRef, fromIndex, toIndex, false);
+  }
+
+  @MJI
+  public int copyOf___3FI___3F (MJIEnv env, int clsObjRef, int aRef, int newLength) {
+    return copyOfRange(env, aRef, 0, newLength, true);
+  }
+
+  @MJI
+  public int copyOfRange___3FII___3F (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    return copyOfRange(env, aRef, fromIndex, toIndex, false);
+  }
+
+  @MJI
+  public int copyOf___3DI___3D (MJIEnv env, int clsObjRef, int aRef, int newLength) {
+    return copyOfRange(env, aRef, 0, newLength, true);
+  }
+
+  @MJI
+  public int copyOfRange___3DII___3D (MJIEnv env, int clsObjRef, int aRef, int fromIndex, int toIndex) {
+    return copyOfRange(env, aRef, fromIndex, toIndex, false);
+  }
+}
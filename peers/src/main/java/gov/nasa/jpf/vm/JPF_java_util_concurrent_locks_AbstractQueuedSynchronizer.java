@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.vm;
+
+import gov.nasa.jpf.JPFException;
+import gov.nasa.jpf.annotation.MJI;
+
+/**
+ * peer class for our java.util.concurrent.locks.AbstractQueuedSynchronizer model
+ *
+ * All blocking is done with lockfree waits: queued threads wait on the
+ * synchronizer object, condition waiters on their own wait node. This way
+ * acquisition and release are single native steps with SyncPolicy scheduling
+ * points, instead of CAS loops over volatile queue links
+ */
+public class JPF_java_util_concurrent_locks_AbstractQueuedSynchronizer extends NativePeer {
+
+  // keep in sync with the model class
+  static final int PARK_RELEASED = 0;
+  static final int PARK_TIMEDOUT = 1;
+  static final int PARK_INTERRUPTED = 2;
+
+  static final int NODE_WAITING = 0;
+  static final int NODE_SIGNALLED = 1;
+  static final int NODE_CANCELLED = 2;
+
+  //--- state access, all atomic since we are native
+
+  @MJI
+  public int getState____I (MJIEnv env, int objRef) {
+    return env.getIntField(objRef, "state");
+  }
+
+  @MJI
+  public void setState__I__V (MJIEnv env, int objRef, int newState) {
+    env.setIntField(objRef, "state", newState);
+  }
+
+  @MJI
+  public boolean compareAndSetState__II__Z (MJIEnv env, int objRef, int expect, int update) {
+    ElementInfo ei = env.getElementInfo(objRef);
+    if (ei.getIntField("state") == expect) {
+      ei = ei.getModifiableInstance();
+      ei.setIntField("state", update);
+      return true;
+    }
+    return false;
+  }
+
+  @MJI
+  public int getReleases____I (MJIEnv env, int objRef) {
+    return env.getIntField(objRef, "releases");
+  }
+
+  @MJI
+  public boolean isContended____Z (MJIEnv env, int objRef) {
+    return env.getBooleanField(objRef, "contended");
+  }
+
+  //--- acquisition and release
+
+  @MJI
+  public int enterAcquire____I (MJIEnv env, int objRef) {
+    ThreadInfo ti = env.getThreadInfo();
+    ElementInfo ei = env.getElementInfo(objRef);
+
+    if (ti.getScheduler().setsLockAcquisitionCG(ti, ei)) {
+      env.repeatInvocation();
+      return 0;
+    }
+
+    return ei.getIntField("releases");
+  }
+
+  /**
+   * the common bottom half of synchronizer and node parks. The thread is
+   * still registered in the monitor of eiWait, so we have to remove it
+   * unless it got resumed by the unparking thread
+   */
+  private int resumeParked (ThreadInfo ti, ElementInfo eiWait) {
+    switch (ti.getState()) {
+      case WAITING:
+      case TIMEOUT_WAITING:
+        throw new JPFException("blocking park without transition break");
+
+      case TIMEDOUT:
+        eiWait.resumeNonlockedWaiter(ti);
+        return PARK_TIMEDOUT;
+
+      case INTERRUPTED:
+      case UNBLOCKED:
+        eiWait.resumeNonlockedWaiter(ti);
+        return ti.isInterrupted(false) ? PARK_INTERRUPTED : PARK_RELEASED;
+
+      default:
+        return PARK_RELEASED;
+    }
+  }
+
+  @MJI
+  public int park__IJZ__I (MJIEnv env, int objRef, int seenReleases, long timeoutMillis, boolean interruptible) {
+    ThreadInfo ti = env.getThreadInfo();
+    ElementInfo ei = env.getModifiableElementInfo(objRef);
+
+    if (!ti.isFirstStepInsn()) {
+      if (interruptible && ti.isInterrupted(false)) {
+        return PARK_INTERRUPTED;
+      }
+      if (ei.getIntField("releases") != seenReleases) {
+        return PARK_RELEASED; // missed a release, re-try right away
+      }
+
+      ei.setBooleanField("contended", true);
+      ei.wait(ti, timeoutMillis, false);
+    }
+
+    if (ti.getScheduler().setsParkCG(ti, false, timeoutMillis)) {
+      env.repeatInvocation();
+      return PARK_RELEASED;
+    }
+
+    return resumeParked(ti, ei);
+  }
+
+  @MJI
+  public void unparkQueued____V (MJIEnv env, int objRef) {
+    ThreadInfo ti = env.getThreadInfo();
+
+    if (!ti.isFirstStepInsn()) {
+      ElementInfo ei = env.getModifiableElementInfo(objRef);
+      ei.setIntField("releases", ei.getIntField("releases") + 1);
+
+      ThreadInfo[] waiters = ei.getWaitingThreads();
+      for (int i = 0; i < waiters.length; i++) {
+        ei.resumeNonlockedWaiter(waiters[i]);
+      }
+
+      if (ti.getScheduler().setsLockReleaseCG(ti, ei, waiters.length > 0)) {
+        env.repeatInvocation();
+      }
+    }
+  }
+
+  @MJI
+  public boolean hasQueuedThreads0____Z (MJIEnv env, int objRef) {
+    return env.getElementInfo(objRef).hasWaitingThreads();
+  }
+
+  @MJI
+  public int getQueuedThreads0_____3Ljava_lang_Thread_2 (MJIEnv env, int objRef) {
+    ThreadInfo[] waiters = env.getElementInfo(objRef).getWaitingThreads();
+    int aRef = env.newObjectArray("java.lang.Thread", waiters.length);
+
+    ElementInfo eiArray = env.getModifiableElementInfo(aRef);
+    for (int i = 0; i < waiters.length; i++) {
+      eiArray.setReferenceElement(i, waiters[i].getThreadObjectRef());
+    }
+
+    return aRef;
+  }
+
+  //--- condition wait nodes
+
+  @MJI
+  public int parkNode__Ljava_util_concurrent_locks_AbstractQueuedSynchronizer$Node_2JZ__I (MJIEnv env, int clsObjRef,
+                                                                  int nodeRef, long timeoutMillis, boolean interruptible) {
+    ThreadInfo ti = env.getThreadInfo();
+    ElementInfo ei = env.getModifiableElementInfo(nodeRef);
+
+    if (!ti.isFirstStepInsn()) {
+      if (ei.getIntField("status") == NODE_SIGNALLED) {
+        return PARK_RELEASED;
+      }
+      if (interruptible && ti.isInterrupted(false)) {
+        ei.setIntField("status", NODE_CANCELLED);
+        return PARK_INTERRUPTED;
+      }
+
+      ei.wait(ti, timeoutMillis, false);
+    }
+
+    if (ti.getScheduler().setsWaitCG(ti, timeoutMillis)) {
+      env.repeatInvocation();
+      return PARK_RELEASED;
+    }
+
+    int res = resumeParked(ti, ei);
+    if (res != PARK_RELEASED) {
+      if (ei.getIntField("status") == NODE_SIGNALLED) {
+        // signal and timeout/interrupt in the same step - the signal wins so that it isn't lost
+        // (uninterruptible waiters still have to keep the interrupt status)
+        return (res == PARK_INTERRUPTED && !interruptible) ? PARK_INTERRUPTED : PARK_RELEASED;
+      }
+      if (interruptible || res == PARK_TIMEDOUT) {
+        ei.setIntField("status", NODE_CANCELLED);
+      }
+    }
+
+    return res;
+  }
+
+  @MJI
+  public boolean unparkNode__Ljava_util_concurrent_locks_AbstractQueuedSynchronizer$Node_2__Z (MJIEnv env, int clsObjRef,
+                                                                      int nodeRef) {
+    ThreadInfo ti = env.getThreadInfo();
+
+    if (!ti.isFirstStepInsn()) {
+      ElementInfo ei = env.getModifiableElementInfo(nodeRef);
+      if (ei.getIntField("status") != NODE_WAITING) {
+        return false;
+      }
+
+      ei.setIntField("status", NODE_SIGNALLED);
+
+      // there is at most one waiter per node, hence no notification choice
+      boolean didNotify = ei.notifies(env.getSystemState(), ti, false);
+      if (ti.getScheduler().setsNotifyCG(ti, didNotify)) {
+        env.repeatInvocation();
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
@@ -20,10 +20,10 @@ package gov.nasa.jpf.vm;
 
 import gov.nasa.jpf.Config;
 import gov.nasa.jpf.annotation.MJI;
+import gov.nasa.jpf.util.IntObjectHashMap;
 import gov.nasa.jpf.vm.MJIEnv;
 import gov.nasa.jpf.vm.NativePeer;
 
-import java.util.HashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,10 +33,10 @@ import java.util.regex.Pattern;
  */
 public class JPF_java_util_regex_Matcher extends NativePeer {
 
-  HashMap<Integer, Matcher> matchers;
+  IntObjectHashMap<Matcher> matchers;
  
   public JPF_java_util_regex_Matcher (Config conf) {
-    matchers = new HashMap<Integer,Matcher>();
+    matchers = new IntObjectHashMap<Matcher>();
   }
 
   void putInstance (MJIEnv env, int objref, Matcher matcher) {
@@ -99,6 +99,20 @@ public class JPF_sun_misc_Unsafe extends NativePeer {
   }
 
 
+  /**
+   * park timeouts are either relative nanos or absolute millis, whereas
+   * ElementInfo.wait() takes relative millis (0 meaning no timeout)
+   */
+  protected long getTimeoutMillis (MJIEnv env, boolean isAbsoluteTime, long timeout){
+    if (isAbsoluteTime){
+      return Math.max(1, timeout - env.getVM().currentTimeMillis());
+    } else if (timeout > 0){
+      return (timeout + 999999) / 1000000; // round up so that we don't turn this into an untimed park
+    } else {
+      return 0;
+    }
+  }
+
   // this is a specialized, native wait() for the current thread that does not require a lock, and that can
   // be turned off by a preceding unpark() call (which is not accumulative)
   // park can be interrupted, but it doesn't throw an InterruptedException, and it doesn't clear the status
@@ -122,7 +136,7 @@ public class JPF_sun_misc_Unsafe extends NativePeer {
     if (!ti.isFirstStepInsn()){
       if (ei.getBooleanField("blockPark")) { // we have to wait, but don't need a lock
         // running -> waiting | timeout_waiting
-        ei.wait(ti, timeout, false);
+        ei.wait(ti, getTimeoutMillis(env, isAbsoluteTime, timeout), false);
         
       } else {
         ei.setBooleanField("blockPark", true); // re-arm for next park
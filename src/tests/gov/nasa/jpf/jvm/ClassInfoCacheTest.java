@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.jvm;
+
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.ClassInfo;
+import gov.nasa.jpf.vm.ClassInfoCache;
+import gov.nasa.jpf.vm.ClassParseException;
+import gov.nasa.jpf.vm.ExceptionHandler;
+import gov.nasa.jpf.vm.FieldInfo;
+import gov.nasa.jpf.vm.Instruction;
+import gov.nasa.jpf.vm.MethodInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+/**
+ * unit test for the cross-run ClassInfoCache
+ */
+public class ClassInfoCacheTest extends TestJPF {
+
+  static final String CLS = "gov.nasa.jpf.jvm.ClassInfoCacheTest$Cached";
+
+  static class Cached {
+    int a;
+    String s = "blah";
+    static long l = 42;
+
+    int foo (int x){
+      if (x > a){
+        return x;
+      }
+      return a;
+    }
+
+    int bar (String s){
+      try {
+        return Integer.parseInt(s);
+      } catch (NumberFormatException x){
+        return -1;
+      }
+    }
+  }
+
+  @Test
+  public void testTemplateInstantiation() throws ClassParseException, IOException {
+    File file = new File("build/tests/gov/nasa/jpf/jvm/ClassInfoCacheTest$Cached.class");
+    byte[] data = Files.readAllBytes(file.toPath());
+    ClassInfoCache.Key key = new ClassInfoCache.Key(file.getAbsolutePath(), "test", data);
+
+    ClassInfoCache.clear();
+    assertTrue(ClassInfoCache.get(key) == null);
+
+    ClassInfo ci = new NonResolvedClassInfo(CLS, file);
+    ClassInfoCache.put(key, ci, new String[0]);
+
+    ClassInfoCache.Entry e = ClassInfoCache.get(key);
+    assertTrue(e != null);
+    assertTrue(ClassInfoCache.getNumberOfHits() == 1);
+
+    ClassInfo ciCopy = e.createClassInfo(null);
+    assertTrue(ciCopy != ci);
+    assertTrue(ciCopy.getName().equals(CLS));
+    assertTrue(ciCopy.getNumberOfDeclaredInstanceFields() == ci.getNumberOfDeclaredInstanceFields());
+    assertTrue(ciCopy.getNumberOfStaticFields() == ci.getNumberOfStaticFields());
+
+    for (FieldInfo fi : ciCopy.getDeclaredInstanceFields()){
+      assertTrue(fi.getClassInfo() == ciCopy);
+      assertTrue(fi != ci.getDeclaredInstanceField(fi.getName()));
+    }
+
+    for (MethodInfo mi : ci){
+      MethodInfo miCopy = ciCopy.getMethod(mi.getUniqueName(), false);
+      assertTrue(miCopy != null && miCopy != mi);
+      assertTrue(miCopy.getClassInfo() == ciCopy);
+      assertTrue(MethodInfo.getMethodInfo(miCopy.getGlobalId()) == miCopy);
+
+      Instruction[] code = mi.getInstructions();
+      Instruction[] codeCopy = miCopy.getInstructions();
+      if (code != null){
+        assertTrue(codeCopy.length == code.length);
+        for (int i=0; i<code.length; i++){
+          assertTrue(codeCopy[i] != code[i]);
+          assertTrue(codeCopy[i].getMethodInfo() == miCopy);
+          assertTrue(codeCopy[i].getByteCode() == code[i].getByteCode());
+        }
+      }
+
+      // handlers cache resolved catch types, which are run specific
+      ExceptionHandler[] handlers = mi.getExceptions();
+      ExceptionHandler[] handlersCopy = miCopy.getExceptions();
+      if (handlers != null){
+        assertTrue(handlersCopy != handlers && handlersCopy.length == handlers.length);
+        for (int i=0; i<handlers.length; i++){
+          assertTrue(handlersCopy[i] != handlers[i]);
+          assertTrue(handlersCopy[i].getName().equals(handlers[i].getName()));
+          assertTrue(handlersCopy[i].getHandler() == handlers[i].getHandler());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testChangedClassfile() throws ClassParseException, IOException {
+    File file = new File("build/tests/gov/nasa/jpf/jvm/ClassInfoCacheTest$Cached.class");
+    byte[] data = Files.readAllBytes(file.toPath());
+    ClassInfoCache.Key key = new ClassInfoCache.Key(file.getAbsolutePath(), "test", data);
+
+    ClassInfoCache.clear();
+    ClassInfoCache.put(key, new NonResolvedClassInfo(CLS, file), new String[0]);
+
+    byte[] modified = data.clone();
+    modified[modified.length-1]++;
+    ClassInfoCache.Key modifiedKey = new ClassInfoCache.Key(file.getAbsolutePath(), "test", modified);
+
+    assertTrue(ClassInfoCache.get(modifiedKey) == null);
+    assertTrue(ClassInfoCache.size() == 0);
+  }
+}
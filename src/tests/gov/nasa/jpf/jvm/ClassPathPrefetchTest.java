@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.jvm;
+
+import gov.nasa.jpf.jvm.JVMClassFileContainer.JVMClassFileMatch;
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.ClassFileMatch;
+import gov.nasa.jpf.vm.ClassParseException;
+import gov.nasa.jpf.vm.ClassPath;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * unit test for class file prefetching
+ */
+public class ClassPathPrefetchTest extends TestJPF {
+
+  static final String CLS = "gov.nasa.jpf.jvm.ClassPathPrefetchTest$Referencing";
+
+  static class Referencing implements Runnable {
+    Object list = new ArrayList<Object>();
+    Object[] strings = new String[1];
+
+    @Override
+    public void run(){
+      // nothing
+    }
+  }
+
+  @Test
+  public void testPrefetchedMatch() throws ClassParseException {
+    ClassPath cp = new ClassPath();
+    cp.addClassFileContainer( new DirClassFileContainer( new File("build/tests")));
+    ClassFileMatch expected = cp.findMatch(CLS);
+
+    cp.enablePrefetch(1, 16);
+    cp.prefetch(CLS);
+    cp.prefetch("gov.nasa.jpf.jvm.NoSuchClass");
+
+    ClassFileMatch match = cp.findMatch(CLS);
+    assertTrue(match != null);
+    assertEquals(expected.getClassURL(), match.getClassURL());
+    assertTrue(Arrays.equals(((JVMClassFileMatch)expected).getData(), ((JVMClassFileMatch)match).getData()));
+
+    assertNull(cp.findMatch("gov.nasa.jpf.jvm.NoSuchClass"));
+  }
+
+  @Test
+  public void testPendingLimit() throws ClassParseException {
+    ClassPath cp = new ClassPath();
+    cp.addClassFileContainer( new DirClassFileContainer( new File("build/tests")));
+    ClassFileMatch expected = cp.findMatch(CLS);
+
+    cp.enablePrefetch(1, 2);
+    cp.prefetch(CLS);
+    cp.prefetch("gov.nasa.jpf.jvm.NoSuchClass1");
+    cp.prefetch("gov.nasa.jpf.jvm.NoSuchClass2");
+    assertEquals(2, cp.getNumberOfPendingPrefetches());
+
+    // the dropped one is looked up again
+    ClassFileMatch match = cp.findMatch(CLS);
+    assertTrue(match != null);
+    assertEquals(expected.getClassURL(), match.getClassURL());
+
+    assertNull(cp.findMatch("gov.nasa.jpf.jvm.NoSuchClass2"));
+    assertEquals(1, cp.getNumberOfPendingPrefetches());
+  }
+
+  @Test
+  public void testReferencedClassNames() throws ClassParseException {
+    ClassFile cf = new ClassFile( new File("build/tests/gov/nasa/jpf/jvm/ClassPathPrefetchTest$Referencing.class"));
+    cf.parseConstPool();
+
+    List<String> names = Arrays.asList(cf.getReferencedClassNames());
+
+    assertTrue(names.contains("java.lang.Object"));
+    assertTrue(names.contains("java.lang.Runnable"));
+    assertTrue(names.contains("java.util.ArrayList"));
+    assertTrue(names.contains("java.lang.String"));
+    assertFalse(names.contains(CLS));
+  }
+}
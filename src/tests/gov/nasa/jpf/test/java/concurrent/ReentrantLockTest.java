@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.java.concurrent;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.junit.Test;
+
+/**
+ * regression test for the java.util.concurrent.locks model classes
+ */
+public class ReentrantLockTest extends TestJPF {
+
+  static class Counter {
+    final ReentrantLock lock = new ReentrantLock();
+    int n;
+
+    void inc() {
+      lock.lock();
+      try {
+        int t = n;
+        n = t + 1;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  @Test
+  public void testMutualExclusion() throws InterruptedException {
+    if (verifyNoPropertyViolation()) {
+      final Counter c = new Counter();
+
+      Thread t = new Thread() {
+        @Override
+        public void run() {
+          c.inc();
+        }
+      };
+      t.start();
+      c.inc();
+      t.join();
+
+      assertTrue("lost update: " + c.n, c.n == 2);
+      assertFalse(c.lock.isLocked());
+    }
+  }
+
+  @Test
+  public void testReentrancy() {
+    if (verifyNoPropertyViolation()) {
+      ReentrantLock lock = new ReentrantLock();
+
+      lock.lock();
+      lock.lock();
+      assertTrue(lock.getHoldCount() == 2);
+      assertTrue(lock.isHeldByCurrentThread());
+
+      lock.unlock();
+      lock.unlock();
+      assertFalse(lock.isLocked());
+
+      try {
+        lock.unlock();
+        fail("unlock of non-owned lock succeeded");
+      } catch (IllegalMonitorStateException x) {
+        // expected
+      }
+    }
+  }
+
+  static class Mailbox {
+    final ReentrantLock lock = new ReentrantLock();
+    final Condition full = lock.newCondition();
+    String msg;
+
+    void put(String s) {
+      lock.lock();
+      try {
+        msg = s;
+        full.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    String take() throws InterruptedException {
+      lock.lock();
+      try {
+        while (msg == null) {
+          full.await();
+        }
+        return msg;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  @Test
+  public void testConditionSignal() throws InterruptedException {
+    if (verifyNoPropertyViolation()) {
+      final Mailbox mb = new Mailbox();
+
+      Thread t = new Thread() {
+        @Override
+        public void run() {
+          mb.put("hi");
+        }
+      };
+      t.start();
+
+      assertEquals("hi", mb.take());
+      assertFalse(mb.lock.isHeldByCurrentThread());
+    }
+  }
+
+  @Test
+  public void testLockOrderDeadlock() throws InterruptedException {
+    if (verifyDeadlock()) {
+      final ReentrantLock a = new ReentrantLock();
+      final ReentrantLock b = new ReentrantLock();
+
+      Thread t = new Thread() {
+        @Override
+        public void run() {
+          b.lock();
+          a.lock();
+          a.unlock();
+          b.unlock();
+        }
+      };
+      t.start();
+
+      a.lock();
+      b.lock();
+      b.unlock();
+      a.unlock();
+    }
+  }
+
+  @Test
+  public void testReadWriteExclusion() throws InterruptedException {
+    if (verifyNoPropertyViolation()) {
+      final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
+      final int[] data = new int[2];
+
+      Thread writer = new Thread() {
+        @Override
+        public void run() {
+          rwl.writeLock().lock();
+          try {
+            data[0]++;
+            data[1]++;
+          } finally {
+            rwl.writeLock().unlock();
+          }
+        }
+      };
+      writer.start();
+
+      rwl.readLock().lock();
+      try {
+        assertTrue(rwl.getReadHoldCount() == 1);
+        assertTrue("inconsistent read", data[0] == data[1]);
+      } finally {
+        rwl.readLock().unlock();
+      }
+
+      writer.join();
+      assertTrue(data[0] == 1);
+      assertTrue(rwl.getReadLockCount() == 0);
+    }
+  }
+}
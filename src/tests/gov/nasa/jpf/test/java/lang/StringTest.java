@@ -271,6 +271,7 @@ public class StringTest extends TestJPF {
       assertTrue("ababa->3", "ababa".indexOf('b', 2) == 3);
       assertTrue("ababa(z)->-1", "ababa".lastIndexOf('z') == -1);
       assertTrue("aacdabcd(a,3)", "aacdabcd".lastIndexOf('a', 3) == 1);
+      assertTrue("abc(a)->0", "abc".lastIndexOf('a') == 0);
       assertTrue("abcabca->bca so 1", "abcabca".indexOf("bca") == 1);
       assertTrue("abcabca->bca 2, so 4", "abcabca".indexOf("bca", 2) == 4);
       assertTrue("lovelovelove->8", "lovelovelove".lastIndexOf("love") == 8);
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.java.util;
+
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.Verify;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * regression test for the java.util.Arrays intrinsics
+ */
+public class ArraysTest extends TestJPF {
+
+  static void checkSort() {
+    int[] a = { 5, -1, 3, 3, 0 };
+    Arrays.sort(a);
+    assertTrue(Arrays.equals(a, new int[] { -1, 0, 3, 3, 5 }));
+
+    double[] d = { 0.0, Double.NaN, -0.0, -1.5 };
+    Arrays.sort(d);
+    assertTrue(Arrays.equals(d, new double[] { -1.5, -0.0, 0.0, Double.NaN }));
+
+    char[] c = "dcba".toCharArray();
+    Arrays.sort(c, 1, 3);
+    assertEquals("dbca", new String(c));
+
+    try {
+      Arrays.sort(a, 3, 1);
+      fail("no IllegalArgumentException for inverted range");
+    } catch (IllegalArgumentException x) {
+      // expected
+    }
+  }
+
+  // element attributes have to move with their values
+  static void checkSortAttributes() {
+    int[] a = { 30, 10, 20, 0 };
+    for (int i = 0; i < 3; i++) {
+      Verify.setElementAttribute(a, i, a[i] / 10);
+    }
+
+    Arrays.sort(a, 0, 3);
+    assertTrue(Arrays.equals(a, new int[] { 10, 20, 30, 0 }));
+    for (int i = 0; i < 3; i++) {
+      assertEquals(a[i] / 10, Verify.getElementAttribute(a, i));
+    }
+    assertEquals(0, Verify.getElementAttribute(a, 3));
+  }
+
+  static void checkFillAndCopy() {
+    long[] l = new long[4];
+    Arrays.fill(l, 1, 3, 42L);
+    assertTrue(Arrays.equals(l, new long[] { 0, 42, 42, 0 }));
+    assertTrue(Arrays.hashCode(l) == Arrays.hashCode(new long[] { 0, 42, 42, 0 }));
+
+    boolean[] b = Arrays.copyOf(new boolean[] { true }, 3);
+    assertTrue(b.length == 3 && b[0] && !b[2]);
+
+    byte[] r = Arrays.copyOfRange(new byte[] { 1, 2, 3 }, 1, 5);
+    assertTrue(Arrays.equals(r, new byte[] { 2, 3, 0, 0 }));
+
+    try {
+      Arrays.copyOf(new int[1], -1);
+      fail("no NegativeArraySizeException");
+    } catch (NegativeArraySizeException x) {
+      // expected
+    }
+
+    try {
+      Arrays.fill(new short[2], 0, 3, (short) 1);
+      fail("no ArrayIndexOutOfBoundsException");
+    } catch (ArrayIndexOutOfBoundsException x) {
+      // expected
+    }
+
+    assertTrue(Arrays.hashCode((int[]) null) == 0);
+    assertTrue(Arrays.equals((float[]) null, null));
+  }
+
+  @Test
+  public void testIntrinsics() {
+    if (verifyNoPropertyViolation("+vm.intrinsics=true")) {
+      checkSort();
+      checkSortAttributes();
+      checkFillAndCopy();
+    }
+  }
+
+  @Test
+  public void testBytecode() {
+    if (verifyNoPropertyViolation("+vm.intrinsics=false")) {
+      checkSort();
+      checkSortAttributes();
+      checkFillAndCopy();
+    }
+  }
+}
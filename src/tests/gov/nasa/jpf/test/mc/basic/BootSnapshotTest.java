@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.mc.basic;
+
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.Verify;
+
+import org.junit.Test;
+
+/**
+ * regression test for reusing initialized VMs across JPF runs
+ */
+public class BootSnapshotTest extends TestJPF {
+
+  static final String TEST_CLASS = BootSnapshotTest.class.getName();
+
+  static int nRuns;
+
+  // the method run by JPF
+  public void foo () {
+    assertTrue("static state not restored", nRuns == 0);
+    nRuns++;
+
+    int c = Verify.getInt(0, 2);
+    Verify.incrementCounter(0);
+    System.out.println("choice: " + c);
+  }
+
+  // the method that runs JPF
+  @Test
+  public void testReuse () {
+    for (int i=0; i<3; i++) {
+      Verify.resetCounter(0);
+
+      noPropertyViolation(setTestMethod(TEST_CLASS, "foo"), "+vm.boot_snapshot=true");
+
+      if (Verify.getCounter(0) != 3) {
+        fail("wrong number of paths in run " + i + ": " + Verify.getCounter(0));
+      }
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.mc.basic;
+
+import gov.nasa.jpf.report.AsyncReportWriter;
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.Verify;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * regression test for the JSON lines output of the JSONLinesPublisher and
+ * the AsyncReportWriter it uses
+ */
+public class JSONLinesPublisherTest extends TestJPF {
+
+  static final String TEST_CLASS = JSONLinesPublisherTest.class.getName();
+  static final String REPORT = "report-test.jsonl";
+
+  // the subset of JSON we produce - flat objects with string, number or null values
+  static final String VALUE = "(\"(?:[^\"\\\\]|\\\\.)*\"|-?[0-9]+|null)";
+  static final Pattern LINE = Pattern.compile("\\{\"event\":" + VALUE + "(,\"[a-zA-Z]+\":" + VALUE + ")*\\}");
+  static final Pattern FIELD = Pattern.compile("\"([a-zA-Z]+)\":" + VALUE);
+
+  static HashMap<String,String> parseLine (String line){
+    assertTrue("not a JSON object: " + line, LINE.matcher(line).matches());
+
+    HashMap<String,String> fields = new HashMap<String,String>();
+    Matcher m = FIELD.matcher(line);
+    while (m.find()){
+      assertTrue("duplicate field: " + line, fields.put(m.group(1), m.group(2)) == null);
+    }
+    return fields;
+  }
+
+  // the method run by JPF
+  public void branch (){
+    int n = 0;
+    if (Verify.getBoolean()){
+      n++;
+    }
+    if (Verify.getBoolean()){
+      n++;
+    }
+    System.out.println(n);
+  }
+
+  @Test
+  public void testReportLines () throws IOException {
+    File rf = new File(REPORT);
+
+    try {
+      if (rf.exists()) {
+        rf.delete();
+      }
+
+      noPropertyViolation(setTestMethod(TEST_CLASS, "branch"), "+report.publisher=jsonl",
+              "+report.jsonl.file=" + REPORT, "+report.jsonl.transition=statistics");
+
+      // the writer has to be drained and flushed when the search is finished
+      assertTrue("no report written", rf.isFile());
+
+      List<HashMap<String,String>> events = new ArrayList<HashMap<String,String>>();
+      BufferedReader r = new BufferedReader( new FileReader(rf));
+      try {
+        for (String line = r.readLine(); line != null; line = r.readLine()) {
+          events.add( parseLine(line));
+        }
+      } finally {
+        r.close();
+      }
+
+      assertTrue("too few events: " + events.size(), events.size() >= 6);
+
+      long lastElapsed = 0;
+      for (HashMap<String,String> e : events){
+        long elapsed = Long.parseLong(e.get("elapsed"));
+        assertTrue("elapsed time not monotonic", elapsed >= lastElapsed);
+        lastElapsed = elapsed;
+      }
+
+      int n = events.size();
+      assertEquals("\"start\"", events.get(0).get("event"));
+      assertTrue(events.get(0).containsKey("jpf"));
+      assertEquals("\"start\"", events.get(1).get("event"));
+      assertTrue(events.get(1).containsKey("sut"));
+
+      for (int i=2; i<n-3; i++){
+        assertEquals("\"progress\"", events.get(i).get("event"));
+      }
+
+      assertEquals("\"result\"", events.get(n-3).get("event"));
+      assertEquals("0", events.get(n-3).get("errors"));
+
+      HashMap<String,String> stat = events.get(n-2);
+      assertEquals("\"statistics\"", stat.get("event"));
+      assertTrue(Long.parseLong(stat.get("endStates")) > 0);
+      assertTrue(Long.parseLong(stat.get("newStates")) > 0);
+      assertTrue(Long.parseLong(stat.get("insns")) > 0);
+
+      assertEquals("\"finished\"", events.get(n-1).get("event"));
+      assertEquals("\"done\"", events.get(n-1).get("status"));
+
+    } finally {
+      rf.delete();
+    }
+  }
+
+  static class SeqEvent implements AsyncReportWriter.Event {
+    final int seq;
+
+    SeqEvent (int seq){
+      this.seq = seq;
+    }
+
+    @Override
+    public void writeTo (PrintWriter pw){
+      pw.println("{\"event\":\"seq\",\"elapsed\":" + seq + '}');
+    }
+  }
+
+  @Test
+  public void testAsyncWriterOrder () throws IOException {
+    if (!isJPFRun()){
+      StringWriter sw = new StringWriter();
+      AsyncReportWriter writer = new AsyncReportWriter( new PrintWriter(sw), "test-writer");
+
+      int nEvents = 10000;
+      for (int i=0; i<nEvents; i++){
+        writer.post( new SeqEvent(i));
+        if (i % 1000 == 0){
+          Thread.yield(); // let the writer go idle in between
+        }
+      }
+      writer.close();
+
+      BufferedReader r = new BufferedReader( new StringReader(sw.toString()));
+      int i = 0;
+      for (String line = r.readLine(); line != null; line = r.readLine()) {
+        assertEquals(Integer.toString(i), parseLine(line).get("elapsed"));
+        i++;
+      }
+      assertEquals("events lost", nEvents, i);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.mc.basic;
+
+import gov.nasa.jpf.util.TypeRef;
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.Verify;
+
+import org.junit.Test;
+
+/**
+ * regression test for liveness checking with the NestedDFSearch
+ */
+public class LivenessTest extends TestJPF {
+
+  static final String[] LIVENESS_ARGS = {
+    "+search.class=gov.nasa.jpf.search.liveness.NestedDFSearch",
+    "+search.liveness.proposition.progress.field=gov.nasa.jpf.test.mc.basic.LivenessTest.progress"
+  };
+
+  static boolean progress;
+
+  @Test
+  public void testStarvation (){
+    if (verifyPropertyViolation(new TypeRef("gov.nasa.jpf.search.liveness.NestedDFSearch$AcceptingCycle"), LIVENESS_ARGS)){
+      // we can choose to never make progress again
+      while (true){
+        progress = Verify.getBoolean();
+      }
+    }
+  }
+
+  @Test
+  public void testProgress (){
+    if (verifyNoPropertyViolation(LIVENESS_ARGS)){
+      // infinite, but we always make progress on every cycle
+      while (true){
+        progress = !progress;
+        Verify.breakTransition("toggle");
+      }
+    }
+  }
+}
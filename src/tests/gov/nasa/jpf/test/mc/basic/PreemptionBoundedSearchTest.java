@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.mc.basic;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import org.junit.Test;
+
+/**
+ * regression test for the PreemptionBoundedSearch
+ */
+public class PreemptionBoundedSearchTest extends TestJPF {
+
+  static final String SEARCH = "+search.class=gov.nasa.jpf.search.PreemptionBoundedSearch";
+
+  static class Account {
+    int balance = 1;
+  }
+
+  // check-then-act atomicity violation. The lock acquisitions are scheduling points
+  // regardless of field sharedness, but the bug only shows up if we switch from main
+  // to t in between the two synchronized blocks, while main is still runnable
+  void race (){
+    final Account a = new Account();
+    Thread t = new Thread( new Runnable(){
+      @Override
+      public void run(){
+        synchronized (a){
+          a.balance = 0;
+        }
+      }
+    });
+    t.start();
+
+    int b;
+    synchronized (a){
+      b = a.balance;
+    }
+
+    synchronized (a){
+      assertTrue("balance changed", a.balance == b);
+    }
+  }
+
+  @Test
+  public void testNoPreemption (){
+    if (verifyNoPropertyViolation(SEARCH, "+search.preemption_bound.max=0")){
+      race();
+    }
+  }
+
+  @Test
+  public void testOnePreemption (){
+    if (verifyAssertionError(SEARCH, "+search.preemption_bound.max=1")){
+      race();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.mc.basic;
+
+import gov.nasa.jpf.listener.SamplingProfiler;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+/**
+ * regression test for the collapsed stack output of the SamplingProfiler
+ */
+public class SamplingProfilerTest extends TestJPF {
+
+  static final String TEST_CLASS = SamplingProfilerTest.class.getName();
+  static final String PROFILE = "profile.collapsed";
+
+  static final HashSet<String> PHASES = new HashSet<String>( Arrays.asList(
+    "[serialize]", "[match]", "[backtrack]", "[gc]", "[heap]", "[native]", "[cg]",
+    "[report]", "[search]", "[classload]", "[execute]", "[jpf]"
+  ));
+
+  static int work (int i){
+    return (i * 31) ^ (i >> 3);
+  }
+
+  // the method run by JPF
+  public void spin (){
+    int s = 0;
+    for (int i=0; i<200000; i++){
+      s += work(i);
+    }
+    System.out.println(s);
+  }
+
+  // host stack, top first
+  static StackTraceElement[] hostStack (String... frames){
+    StackTraceElement[] stack = new StackTraceElement[frames.length];
+    for (int i=0; i<frames.length; i++){
+      int j = frames[i].lastIndexOf('.');
+      stack[i] = new StackTraceElement(frames[i].substring(0, j), frames[i].substring(j+1), null, -1);
+    }
+    return stack;
+  }
+
+  @Test
+  public void testGcPhase () {
+    assertEquals("gc", SamplingProfiler.getPhase( hostStack(
+            "gov.nasa.jpf.vm.ElementInfo.setUnmarked",
+            "gov.nasa.jpf.vm.GenericHeap.sweep",
+            "gov.nasa.jpf.vm.GenericHeap.gc",
+            "gov.nasa.jpf.vm.SystemState.gc")));
+
+    assertEquals("gc", SamplingProfiler.getPhase( hostStack(
+            "gov.nasa.jpf.vm.StackFrame.markThreadRoots",
+            "gov.nasa.jpf.vm.ThreadInfo.markRoots",
+            "gov.nasa.jpf.vm.ThreadList.markRoots",
+            "gov.nasa.jpf.vm.GenericHeap.mark",
+            "gov.nasa.jpf.vm.GenericHeap.gc")));
+
+    assertEquals("gc", SamplingProfiler.getPhase( hostStack(
+            "gov.nasa.jpf.vm.GenericHeap.markYoung",
+            "gov.nasa.jpf.vm.GenericHeap.collectGenerations",
+            "gov.nasa.jpf.vm.GenericHeap.gc")));
+
+    assertEquals("heap", SamplingProfiler.getPhase( hostStack(
+            "gov.nasa.jpf.vm.GenericHeap.markChanged",
+            "gov.nasa.jpf.vm.ElementInfo.setIntField",
+            "gov.nasa.jpf.vm.ThreadInfo.executeInstruction")));
+
+    assertEquals("heap", SamplingProfiler.getPhase( hostStack(
+            "gov.nasa.jpf.vm.GenericHeap.newObject",
+            "gov.nasa.jpf.vm.ThreadInfo.executeInstruction")));
+  }
+
+  @Test
+  public void testCollapsedStacks () throws IOException {
+    File pf = new File(PROFILE);
+
+    try {
+      if (pf.exists()) {
+        pf.delete();
+      }
+
+      noPropertyViolation(setTestMethod(TEST_CLASS, "spin"), "+listener=.listener.SamplingProfiler",
+              "+profiler.file=" + PROFILE, "+profiler.interval=100");
+
+      assertTrue("no profile written", pf.isFile());
+
+      int nLines = 0;
+      boolean sawSpin = false;
+      BufferedReader r = new BufferedReader( new FileReader(pf));
+      try {
+        for (String line = r.readLine(); line != null; line = r.readLine()) {
+          nLines++;
+
+          // "frame;frame;..;frame count"
+          int i = line.lastIndexOf(' ');
+          assertTrue("no count: " + line, i > 0);
+          assertTrue("non-positive count: " + line, Long.parseLong(line.substring(i+1)) > 0);
+
+          String[] frames = line.substring(0, i).split(";");
+          assertTrue("no frames: " + line, frames.length >= 2);
+          assertTrue("unknown phase: " + line, PHASES.contains(frames[frames.length-1]));
+
+          for (int j=0; j<frames.length; j++) {
+            String f = frames[j];
+            assertTrue("empty frame: " + line, f.length() > 0);
+            assertTrue("space in frame: " + line, f.indexOf(' ') < 0);
+            assertTrue("signature in frame: " + line, f.indexOf('(') < 0);
+          }
+
+          // thread;method..;insn@pos;[phase]
+          if (frames.length > 3 && Arrays.asList(frames).contains(TEST_CLASS + ".spin")) {
+            assertTrue("no bytecode: " + line, frames[frames.length-2].indexOf('@') > 0);
+            sawSpin = true;
+          }
+        }
+      } finally {
+        r.close();
+      }
+
+      assertTrue("no samples", nLines > 0);
+      assertTrue("no samples within SUT method", sawSpin);
+
+    } finally {
+      pf.delete();
+    }
+  }
+}
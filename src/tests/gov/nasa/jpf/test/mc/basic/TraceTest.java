@@ -113,6 +113,31 @@ public class TraceTest extends TestJPF {
     }
   }
 
+  @Test public void testBinaryTraceReplaySearch () {
+    File tf = new File(TRACE);
+
+    try {
+      if (tf.exists()) {
+        tf.delete();
+      }
+
+      // first JPF run
+      System.out.println("--- creating compressed binary trace");
+      assertionError(setTestMethod("bar"), "+listener=.listener.TraceStorer", "+trace.file=" + TRACE,
+              "+trace.binary=true", "+trace.compress=true");
+
+      // second JPF run, w/o state storage
+      System.out.println("--- replaying binary trace");
+      assertionError(setTestMethod("bar"), "+search.class=.search.ReplaySearch", "+search.replay.trace=" + TRACE);
+
+      // the ChoiceSelector has to be able to read binary traces, too
+      System.out.println("--- replaying binary trace with ChoiceSelector");
+      assertionError(setTestMethod("bar"), "+listener=.listener.ChoiceSelector","+choice.use_trace=" + TRACE);
+    } finally {
+      tf.delete();
+    }
+  }
+
   public void baz() {
     // note there always is an automatic thread-CG after static initialization
     boolean a = Verify.getBoolean();  // depth 2
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.mc.data;
+
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.Verify;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * regression test for lazily partitioned Verify.getInt(min,max) choices
+ */
+public class IntPartitionTest extends TestJPF {
+
+  static final String PARTITION = "+vm.verify.int_partition";
+
+  @Test
+  public void testThresholdPartitions() {
+    if (!isJPFRun()){
+      Verify.resetCounter(0);
+    }
+
+    if (verifyNoPropertyViolation(PARTITION)){
+      int x = Verify.getInt(0, 10000);
+      if (x < 100){
+        x = 0;
+      } else if (x == 5000){
+        x = 1;
+      }
+      Verify.incrementCounter(0);
+    }
+
+    if (!isJPFRun()){
+      assertEquals(4, Verify.getCounter(0)); // [0,99], [100,4999], [5000], [5001,10000]
+    }
+  }
+
+  @Test
+  public void testOffsetPartitions() {
+    if (!isJPFRun()){
+      Verify.resetCounter(0);
+    }
+
+    if (verifyNoPropertyViolation(PARTITION)){
+      int x = Verify.getInt(0, 100);
+      int y = x + 10;
+      if (y > 60){
+        assertTrue(x > 50);
+      } else {
+        assertTrue(x <= 50);
+      }
+      Verify.incrementCounter(0);
+    }
+
+    if (!isJPFRun()){
+      assertEquals(2, Verify.getCounter(0));
+    }
+  }
+
+  @Test
+  public void testUntrackedUse() {
+    if (!isJPFRun()){
+      Verify.resetCounter(0);
+    }
+
+    if (verifyNoPropertyViolation(PARTITION)){
+      int x = Verify.getInt(0, 10);
+      int y = x * 3; // we don't track this, so we have to enumerate
+      if (y == 27){
+        assertEquals(9, x);
+      }
+      Verify.incrementCounter(0);
+    }
+
+    if (!isJPFRun()){
+      assertEquals(11, Verify.getCounter(0));
+    }
+  }
+
+  @Test
+  public void testFindError() {
+    if (verifyAssertionError(PARTITION)){
+      int x = Verify.getInt(0, 100000);
+      if (x > 500 && x < 600){
+        assert x != 550 : "found it";
+      }
+    }
+  }
+
+  // heuristic searches don't backtrack to split CGs, so we have to enumerate
+  @Test
+  public void testHeuristicSearch() {
+    if (verifyAssertionError(PARTITION, "+search.class=.search.heuristic.BFSHeuristic")){
+      int x = Verify.getInt(0, 100);
+      int y = Verify.getInt(0, 100);
+      if (50 < x && x < 60 && y == 7){
+        assert x != 55 : "found it";
+      }
+    }
+  }
+
+  @Test
+  public void testUnsafeFieldAccess() {
+    if (verifyAssertionError(PARTITION)){
+      int v = Verify.getInt(0, 10);
+      AtomicInteger a = new AtomicInteger(v); // the value is only read by Unsafe
+      assert a.incrementAndGet() <= 5;
+    }
+  }
+
+  static int sfield;
+
+  @Test
+  public void testReflectiveFieldAccess() throws Exception {
+    if (verifyAssertionError(PARTITION)){
+      sfield = Verify.getInt(0, 10);
+      Field f = IntPartitionTest.class.getDeclaredField("sfield");
+      assert f.getInt(null) <= 5;
+    }
+  }
+}
@@ -63,8 +63,76 @@ public class RandomTest extends TestJPF {
     }
   }
 
+  @Test public void testRandomCoverageHeuristic () {
+    if (!isJPFRun()){
+      Verify.resetCounter(0);
+    }
+    if (verifyNoPropertyViolation("+search.class=gov.nasa.jpf.search.heuristic.CoverageHeuristic")){
+      run(3);
+    }
+    if (!isJPFRun()){
+      if (Verify.getCounter(0) != 4){
+        fail("wrong number of paths");
+      }
+    }
+  }
+
+  // the last choice value is the only one that takes the (i == 4) branch, and we
+  // record how many paths were already completed when we first get there (+1)
+  private void runBranches (){
+    int i = Verify.getInt(0,4);
+    boolean b;
+
+    if (i == 4){
+      b = Verify.getBoolean();
+      if (Verify.getCounter(1) == 0){
+        Verify.setCounter(1, Verify.getCounter(0) + 1);
+      }
+    } else {
+      b = Verify.getBoolean();
+    }
+
+    Verify.incrementCounter(0);
+    System.out.println(b);
+  }
+
+  // number of paths that were completed before we got into the (i == 4) branch
+  private int getPathsBeforeNewBranch (){
+    assertEquals("wrong number of paths", 10, Verify.getCounter(0));
+    assertTrue("branch not reached", Verify.getCounter(1) > 0);
+    return Verify.getCounter(1) - 1;
+  }
+
+  @Test public void testBranchesBFS () {
+    if (!isJPFRun()){
+      Verify.resetCounter(0);
+      Verify.resetCounter(1);
+    }
+    if (verifyNoPropertyViolation("+search.class=gov.nasa.jpf.search.heuristic.BFSHeuristic")){
+      runBranches();
+    }
+    if (!isJPFRun()){
+      // BFS only gets to the i==4 state after expanding all i=0..3 states (2 paths each)
+      assertEquals("paths before new branch", 8, getPathsBeforeNewBranch());
+    }
+  }
+
+  @Test public void testBranchesCoverageHeuristic () {
+    if (!isJPFRun()){
+      Verify.resetCounter(0);
+      Verify.resetCounter(1);
+    }
+    if (verifyNoPropertyViolation("+search.class=gov.nasa.jpf.search.heuristic.CoverageHeuristic")){
+      runBranches();
+    }
+    if (!isJPFRun()){
+      // the i==4 state added new branch coverage and therefore has to be expanded before
+      // the i=1..3 states that didn't, i.e. at most after the i=0 state
+      int n = getPathsBeforeNewBranch();
+      assertTrue("new branch was not preferred, paths before: " + n, n <= 2);
+    }
+  }
 
-  
   @Test public void testJavaUtilRandom () {
 
     if (verifyUnhandledException("java.lang.ArithmeticException", "+cg.enumerate_random=true")) {
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.mc.threads;
+
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.Verify;
+
+import org.junit.Test;
+
+/**
+ * regression test for the 'vm.shared.lockthreshold' field lock assumption,
+ * which has to be path local for PathSharednessPolicy
+ */
+public class LockThresholdTest extends TestJPF {
+
+  static int count;
+
+  // executed by JPF - both threads access 'count' under the same lock
+  public void syncLoop () throws InterruptedException {
+    count = 0;
+
+    Runnable r = new Runnable() {
+      @Override
+      public void run() {
+        for (int i=0; i<2; i++){
+          synchronized (LockThresholdTest.class){
+            count++;
+          }
+        }
+      }
+    };
+
+    Thread t = new Thread(r);
+    t.start();
+    r.run();
+    t.join();
+
+    Verify.incrementCounter(0);
+  }
+
+  // we don't match states, so that we get the same number of end states for each path order
+  int countEndStates (String... args){
+    String[] a = new String[args.length + 1];
+    a[0] = "+vm.storage.class=nil";
+    System.arraycopy(args, 0, a, 1, args.length);
+
+    Verify.resetCounter(0);
+    noPropertyViolation(setTestMethod("syncLoop"), a);
+    return Verify.getCounter(0);
+  }
+
+  @Test
+  public void testPathLocalThreshold () {
+    if (!isJPFRun()){
+      int unprotected = countEndStates("+vm.shared.lockthreshold=100");
+      int protectedAfter2 = countEndStates("+vm.shared.lockthreshold=2");
+
+      // fields become lock protected along a path, which saves field access CGs
+      assertTrue("lockthreshold has no effect", protectedAfter2 < unprotected);
+
+      // but this must not depend on previously explored paths
+      int protectedRandomized = countEndStates("+vm.shared.lockthreshold=2", "+cg.randomize_choices=FIXED_SEED");
+      assertEquals("end states", protectedAfter2, protectedRandomized);
+    }
+  }
+}
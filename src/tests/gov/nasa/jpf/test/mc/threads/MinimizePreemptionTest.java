@@ -19,6 +19,8 @@ package gov.nasa.jpf.test.mc.threads;
 
 import gov.nasa.jpf.ListenerAdapter;
 import gov.nasa.jpf.search.Search;
+import gov.nasa.jpf.search.heuristic.HeuristicSearch;
+import gov.nasa.jpf.search.heuristic.PathFeatures;
 import gov.nasa.jpf.util.test.TestJPF;
 import gov.nasa.jpf.vm.VM;
 import gov.nasa.jpf.vm.ThreadChoiceGenerator;
@@ -154,4 +156,55 @@ public class MinimizePreemptionTest extends TestJPF {
       System.out.printf("completions = %d\n", nRunCompletions);
     }    
   }
+  
+  //----------------------------------------------------------------------------
+  
+  // the incrementally computed PathFeatures have to match the ones computed from scratch
+  public static class FeaturesListener extends Listener {
+    
+    void checkFeatures (Search search){
+      PathFeatures features = ((HeuristicSearch)search).getPathFeatures();
+      PathFeatures expected = PathFeatures.create(search.getVM());
+      
+      assertEquals("preemptions", getPreemptions(search), features.getPreemptions());
+      assertEquals("preemptions", expected.getPreemptions(), features.getPreemptions());
+      assertEquals("depth", expected.getDepth(), features.getDepth());
+      assertEquals("context switches", expected.getContextSwitches(), features.getContextSwitches());
+      assertEquals("last thread", expected.getLastThread(), features.getLastThread());
+      assertEquals("blocked threads", expected.getBlockedThreads(), features.getBlockedThreads());
+      
+      for (int tid=0; tid<3; tid++){
+        assertEquals("run count", expected.getRunCount(tid), features.getRunCount(tid));
+        assertEquals("run distance", expected.getRunDistanceSum(tid), features.getRunDistanceSum(tid));
+      }
+    }
+    
+    @Override
+    public void stateAdvanced(Search search){
+      checkFeatures(search);
+    }
+    
+    @Override
+    public void stateRestored(Search search){
+      checkFeatures(search);
+    }
+  }
+  
+  @Test
+  public void testIncrementalPathFeatures(){
+    String listener = null;
+    if (!isJPFRun()){
+      listener = "+listener=" + FeaturesListener.class.getName();
+    }
+    
+    if (verifyNoPropertyViolation( SEARCH_OPT, listener)){
+      A a = new A(-1); // never trips
+      Thread t = new Thread(a);
+      t.start();
+
+      for (int i=1; i<3; i++){
+        A.d = i;
+      }
+    }
+  }
 }
@@ -72,6 +72,21 @@ public class CastTest extends TestJPF {
     }
   }
   
+  static I castToI (K k){
+    return (I) k;
+  }
+
+  @Test public void testRepeatedCastFail () {
+    if (verifyUnhandledException("java.lang.ClassCastException")){
+      // the same CHECKCAST first succeeds several times, then has to fail
+      for (int n=0; n<3; n++){
+        castToI(new B());
+        castToI(new C());
+      }
+      castToI(new A());
+    }
+  }
+
   //--- helper types and methods
   
   static interface I {
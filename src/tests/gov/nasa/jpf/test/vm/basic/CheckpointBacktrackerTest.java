@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.vm.basic;
+
+import gov.nasa.jpf.JPF;
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.Verify;
+
+import org.junit.Test;
+
+/**
+ * regression test for CheckpointBacktracker, which has to re-execute
+ * transitions to get back to levels that are not checkpoints
+ */
+public class CheckpointBacktrackerTest extends TestJPF {
+
+  static final String[] CONFIG = {
+    "+vm.backtracker.class=.vm.CheckpointBacktracker",
+    "+vm.backtracker.checkpoint_interval=3",
+    "+vm.storage.class=nil"
+  };
+
+  static class Counter {
+    int sum;
+  }
+
+  @Test
+  public void testDeepDataChoices (){
+    if (!isJPFRun()){
+      Verify.resetCounter(0);
+    }
+
+    if (verifyNoPropertyViolation(CONFIG)){
+      Counter c = new Counter();
+      int[] trace = new int[6];
+
+      for (int i=0; i<trace.length; i++){
+        int v = Verify.getInt(0, 1);
+        trace[i] = v;
+        c.sum += v;
+      }
+
+      int sum = 0;
+      for (int i=0; i<trace.length; i++){
+        sum += trace[i];
+      }
+      assertEquals(sum, c.sum);
+
+      Verify.incrementCounter(0);
+    }
+
+    if (!isJPFRun()){
+      assertEquals(64, Verify.getCounter(0));
+    }
+  }
+
+  static int shared;
+
+  // executed by JPF from testThreads() - a data race between t2 and the main thread
+  public void syncIncrements () throws InterruptedException {
+    shared = 0;
+
+    Runnable r = new Runnable() {
+      @Override
+      public void run() {
+        synchronized (CheckpointBacktrackerTest.class){
+          shared++;
+        }
+      }
+    };
+
+    Thread t1 = new Thread(r);
+    Thread t2 = new Thread(r);
+    t1.start();
+    t2.start();
+    t1.join();
+
+    int v;
+    synchronized (CheckpointBacktrackerTest.class){
+      v = shared;
+    }
+    t2.join();
+
+    Verify.incrementCounter(0);
+    assertTrue("t2 did not increment yet", v == 2);
+  }
+
+  // returns {end states, errors}
+  int[] runSyncIncrements (String... args){
+    Verify.resetCounter(0);
+    JPF jpf = assertionError(setTestMethod("syncIncrements"), args);
+
+    return new int[] { Verify.getCounter(0), jpf.getSearchErrors().size() };
+  }
+
+  @Test
+  public void testThreads () {
+    if (!isJPFRun()){
+      int[] expected = runSyncIncrements("+vm.storage.class=nil", "+search.multiple_errors=true");
+      int[] result = runSyncIncrements("+vm.backtracker.class=.vm.CheckpointBacktracker",
+                                       "+vm.backtracker.checkpoint_interval=3",
+                                       "+vm.storage.class=nil",
+                                       "+search.multiple_errors=true");
+
+      assertTrue("no errors found", expected[1] > 0);
+      assertEquals("end states", expected[0], result[0]);
+      assertEquals("errors", expected[1], result[1]);
+
+      // same without caching re-executed levels
+      result = runSyncIncrements("+vm.backtracker.class=.vm.CheckpointBacktracker",
+                                 "+vm.backtracker.checkpoint_interval=3",
+                                 "+vm.backtracker.cached_levels=0",
+                                 "+vm.storage.class=nil",
+                                 "+search.multiple_errors=true");
+
+      assertEquals("end states", expected[0], result[0]);
+      assertEquals("errors", expected[1], result[1]);
+    }
+  }
+}
@@ -155,5 +155,39 @@ public class ExceptionHandlingTest extends TestJPF {
       assert st[2].getMethodName().equals("runTestMethod");
     }
   }  
-}
 
+  static void throwNested (int n){
+    if (n == 0){
+      throw new IllegalStateException("nested");
+    }
+    throwNested(n-1);
+  }
+
+  @Test
+  public void testLazyStackSnapshot () {
+    if (verifyNoPropertyViolation("+vm.lazy_stack_snapshots=true")){
+      for (int i=0; i<2; i++){
+        try {
+          throwNested(2);
+          fail("no exception");
+        } catch (IllegalStateException x){
+          StackTraceElement[] st = x.getStackTrace();
+
+          assert st.length == 6 : "wrong stack trace depth: " + st.length;
+          for (int j=0; j<3; j++){
+            assert st[j].getMethodName().equals("throwNested");
+          }
+          assert st[3].getMethodName().equals("testLazyStackSnapshot");
+        }
+
+        try {
+          int[] a = new int[1];
+          a[i+1] = 0;
+        } catch (ArrayIndexOutOfBoundsException x){ // created by the VM
+          StackTraceElement[] st = x.getStackTrace();
+          assert st[0].getMethodName().equals("testLazyStackSnapshot");
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.vm.basic;
+
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.Verify;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+
+/**
+ * regression test for nursery collection (vm.gc.generational). Minor gcs have
+ * to collect exactly the same objects as full ones, i.e. old-to-young references
+ * have to keep young objects alive, and old objects that become unreachable still
+ * have to go away
+ */
+public class GenerationalGCTest extends TestJPF {
+
+  static final String[] GEN_ARGS = { "+vm.gc.generational=true", "+vm.gc.max_minor=1000" };
+
+  static class Holder {
+    Object ref;
+  }
+
+  static Holder root;
+
+  static void forceGC (){
+    System.gc();
+    Verify.breakTransition("forceGC");
+  }
+
+  @Test
+  public void testYoungReferencedFromOld (){
+    if (verifyNoPropertyViolation(GEN_ARGS)){
+      root = new Holder();
+      forceGC(); // promote holder
+
+      Object young = new Object();
+      WeakReference<Object> ref = new WeakReference<Object>(young);
+      root.ref = young; // old-to-young reference
+      young = null;
+
+      forceGC();
+      assertNotNull(ref.get());
+      assertSame(root.ref, ref.get());
+    }
+  }
+
+  @Test
+  public void testYoungInOldArray (){
+    if (verifyNoPropertyViolation(GEN_ARGS)){
+      Object[] old = new Object[2];
+      Object[] tmp = new Object[2];
+      forceGC();
+
+      tmp[1] = new Object();
+      WeakReference<Object> ref = new WeakReference<Object>(tmp[1]);
+      System.arraycopy(tmp, 0, old, 0, 2);
+      tmp = null;
+
+      forceGC();
+      assertNotNull(ref.get());
+      assertSame(old[1], ref.get());
+    }
+  }
+
+  @Test
+  public void testOldFieldOverwritten (){
+    if (verifyNoPropertyViolation(GEN_ARGS)){
+      root = new Holder();
+      root.ref = new Object();
+      WeakReference<Object> ref = new WeakReference<Object>(root.ref);
+      forceGC();
+      assertNotNull(ref.get());
+
+      root.ref = null; // old object becomes garbage
+      new Object();    // make sure we have a nursery
+
+      forceGC();
+      assertNull(ref.get());
+    }
+  }
+
+  @Test
+  public void testOldRootDropped (){
+    if (verifyNoPropertyViolation(GEN_ARGS)){
+      Object old = new Object();
+      WeakReference<Object> ref = new WeakReference<Object>(old);
+      forceGC();
+      assertNotNull(ref.get());
+
+      old = null; // only a root changed, no heap store
+      new Object();
+
+      forceGC();
+      assertNull(ref.get());
+    }
+  }
+
+  @Test
+  public void testBacktrackedNursery (){
+    if (verifyNoPropertyViolation(GEN_ARGS)){
+      root = new Holder();
+      forceGC();
+
+      Object young = new Object();
+      WeakReference<Object> ref = new WeakReference<Object>(young);
+
+      if (Verify.getBoolean()){
+        root.ref = young;
+      }
+      young = null;
+
+      forceGC();
+      if (root.ref != null){
+        assertSame(root.ref, ref.get());
+      } else {
+        assertNull(ref.get());
+      }
+    }
+  }
+}
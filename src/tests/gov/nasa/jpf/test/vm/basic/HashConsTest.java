@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.test.vm.basic;
+
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.Verify;
+
+import org.junit.Test;
+
+/**
+ * regression test for sharing of Fields and StackFrames between stored
+ * states (vm.hashcons). Backtracking has to restore the right values even
+ * if frames and objects of different states are the same instances
+ */
+public class HashConsTest extends TestJPF {
+
+  static class Cell {
+    int value;
+    Cell next;
+
+    Cell (int value, Cell next){
+      this.value = value;
+      this.next = next;
+    }
+  }
+
+  static int sum (Cell c, int depth){
+    if (c == null){
+      return 0;
+    }
+
+    int v = c.value;
+    if (depth == 1){
+      // break the transition so that the stack gets stored with frames above
+      v += Verify.getInt(0, 1);
+    }
+
+    return v + sum(c.next, depth+1);
+  }
+
+  @Test
+  public void testSharedFrames (){
+    if (verifyNoPropertyViolation("+vm.hashcons=true")){
+      Cell list = new Cell(1, new Cell(2, new Cell(3, null)));
+
+      int s = sum(list, 0);
+      assertTrue("wrong sum: " + s, s == 6 || s == 7);
+    }
+  }
+
+  @Test
+  public void testSharedFields (){
+    if (verifyNoPropertyViolation("+vm.hashcons=true")){
+      Cell a = new Cell(0, null);
+      Cell b = new Cell(0, null);
+
+      int i = Verify.getInt(0, 2);
+      a.value = i;     // a and b might have identical Fields in some states
+      b.value = 2 - i;
+
+      int j = Verify.getInt(0, 1);
+      b.value += j;
+
+      assertTrue("wrong a: " + a.value, a.value == i);
+      assertTrue("wrong b: " + b.value, b.value == 2 - i + j);
+    }
+  }
+}
@@ -18,6 +18,7 @@
 package gov.nasa.jpf.test.vm.basic;
 
 import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.Verify;
 
 import org.junit.Test;
 
@@ -255,4 +256,34 @@ public class MethodTest extends TestMethodBase {
       assert a.foo() == 1 : "wrong A.foo() called for A1";
     }
   }
+
+  static int fib (int n){
+    return (n < 2) ? n : fib(n-1) + fib(n-2);
+  }
+
+  static Object pick (Object a, Object b, boolean first){
+    Object r = first ? a : b;
+    return r;
+  }
+
+  /**
+   * frames of returned calls are reused by subsequent calls of the same size, which
+   * has to be transparent - also across backtracking
+   */
+  @Test public void testRecycledFrames () {
+    if (verifyNoPropertyViolation("+vm.max_recycled_frames=16")){
+      assert fib(10) == 55;
+
+      Object a = new Object();
+      Object b = new Object();
+      for (int i=0; i<10; i++){
+        assert pick(a, b, (i % 2) == 0) == (((i % 2) == 0) ? a : b);
+      }
+
+      int n = Verify.getInt(5, 7); // backtrack with recycled frames
+      int f = fib(n);
+      assert (n == 5 && f == 5) || (n == 6 && f == 8) || (n == 7 && f == 13) : "wrong fib(" + n + ") = " + f;
+      assert pick(a, b, false) == b;
+    }
+  }
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.test.vm.threads;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Test;
+
+/**
+ * regression test for the discrete event VirtualTime model
+ */
+public class VirtualTimeTest extends TestJPF {
+
+  static final String[] JPF_ARGS = { "+vm.time.class=gov.nasa.jpf.vm.VirtualTime",
+                                     "+vm.time.start_millis=1000" };
+
+  static class Sleeper extends Thread {
+    final long millis;
+    final StringBuilder log;
+    long wakeup;
+
+    Sleeper (String name, long millis, StringBuilder log){
+      super(name);
+      this.millis = millis;
+      this.log = log;
+    }
+
+    @Override
+    public void run(){
+      try {
+        Thread.sleep(millis);
+        wakeup = System.currentTimeMillis();
+        synchronized (log){
+          log.append(getName());
+        }
+      } catch (InterruptedException x){
+        fail("unexpected InterruptedException");
+      }
+    }
+  }
+
+  @Test
+  public void testSleepOrder() throws InterruptedException {
+    if (verifyNoPropertyViolation(JPF_ARGS)) {
+      StringBuilder log = new StringBuilder();
+      Sleeper late = new Sleeper("B", 200, log);
+      Sleeper early = new Sleeper("A", 100, log);
+
+      late.start();
+      early.start();
+      late.join();
+      early.join();
+
+      assertEquals("AB", log.toString());
+      assertEquals(1100, early.wakeup);
+      assertEquals(1200, late.wakeup);
+      assertEquals(1200, System.currentTimeMillis());
+    }
+  }
+
+  @Test
+  public void testTimedWait() throws InterruptedException {
+    if (verifyNoPropertyViolation(JPF_ARGS)) {
+      Object lock = new Object();
+      long t0 = System.nanoTime();
+
+      synchronized (lock){
+        lock.wait(5000); // nobody notifies, so this has to time out without waiting
+      }
+
+      assertEquals(5000000000L, System.nanoTime() - t0);
+    }
+  }
+
+  @Test
+  public void testNoTimeoutWhileRunnable() throws InterruptedException {
+    if (verifyNoPropertyViolation(JPF_ARGS)) {
+      final Object lock = new Object();
+      final boolean[] done = new boolean[1];
+
+      Thread t = new Thread(){
+        @Override
+        public void run(){
+          synchronized (lock){
+            done[0] = true;
+            lock.notifyAll();
+          }
+        }
+      };
+
+      synchronized (lock){
+        t.start();
+        while (!done[0]){
+          lock.wait(1000);
+          // we can only time out once the notifier is done
+          assertTrue(done[0] || System.currentTimeMillis() == 1000);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAwaitNanosRemaining() throws InterruptedException {
+    if (verifyNoPropertyViolation(JPF_ARGS)) {
+      final ReentrantLock lock = new ReentrantLock();
+      final Condition cond = lock.newCondition();
+      final boolean[] signalled = new boolean[1];
+
+      Thread t = new Thread(){
+        @Override
+        public void run(){
+          try {
+            Thread.sleep(100);
+          } catch (InterruptedException x){
+            fail("unexpected InterruptedException");
+          }
+          lock.lock();
+          try {
+            signalled[0] = true;
+            cond.signal();
+          } finally {
+            lock.unlock();
+          }
+        }
+      };
+
+      lock.lock();
+      try {
+        t.start();
+        long remaining = 1000000000L;
+        while (!signalled[0] && remaining > 0){
+          remaining = cond.awaitNanos(remaining);
+        }
+
+        // the sleeper has the earlier deadline, so we can't time out
+        assertTrue(signalled[0]);
+        assertEquals(900000000L, remaining);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
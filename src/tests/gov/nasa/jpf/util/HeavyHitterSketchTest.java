@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * unit test for gov.nasa.jpf.util.HeavyHitterSketch
+ */
+public class HeavyHitterSketchTest extends TestJPF {
+
+  @Test
+  public void testExactBelowCapacity() {
+    HeavyHitterSketch<String> sketch = new HeavyHitterSketch<String>(10, 1024, 4);
+
+    for (int i=0; i<5; i++) {
+      for (int j=0; j<=i; j++) {
+        sketch.add("k" + i);
+      }
+    }
+
+    List<HeavyHitterSketch.Entry<String>> top = sketch.getTopEntries();
+    assertEquals(5, top.size());
+    assertEquals("k4", top.get(0).getKey());
+    assertEquals(5L, top.get(0).getCount());
+    assertEquals(15L, sketch.getTotal());
+  }
+
+  @Test
+  public void testHeavyHitters() {
+    HeavyHitterSketch<Integer> sketch = new HeavyHitterSketch<Integer>(5, 256, 4);
+
+    // three heavy keys in a stream of 2000 light ones
+    for (int i=0; i<2000; i++) {
+      sketch.add(1000 + i);
+      if (i % 4 == 0) {
+        sketch.add(1, 3);
+        sketch.add(2, 2);
+        sketch.add(3);
+      }
+    }
+
+    List<HeavyHitterSketch.Entry<Integer>> top = sketch.getTopEntries();
+    assertTrue( top.size() == 5);
+
+    long[] expected = { 1500, 1000, 500 };
+    for (int i=0; i<3; i++) {
+      HeavyHitterSketch.Entry<Integer> e = top.get(i);
+      System.out.println(e);
+
+      assertEquals(Integer.valueOf(i+1), e.getKey());
+      // true count has to be within [count-error, count]
+      assertTrue( e.getCount() >= expected[i]);
+      assertTrue( e.getCount() - e.getError() <= expected[i]);
+    }
+
+    assertTrue( sketch.estimate(1) >= 1500);
+  }
+}
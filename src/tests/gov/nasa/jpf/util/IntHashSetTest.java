@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * unit test for IntHashSet
+ */
+public class IntHashSetTest extends TestJPF {
+
+  @Test
+  public void testCollisions(){
+    IntHashSet set = new IntHashSet(); // 16 slots
+    int[] elements = IntObjectHashMapTest.getCollidingKeys(6, 16, 15); // this wraps around
+
+    for (int e : elements){
+      assertTrue(set.add(e));
+    }
+    for (int e : elements){
+      assertFalse(set.add(e));
+      assertTrue(set.contains(e));
+    }
+    assertEquals(elements.length, set.size());
+    assertFalse(set.contains(elements[elements.length-1] + 1));
+  }
+
+  @Test
+  public void testRemove(){
+    IntHashSet set = new IntHashSet();
+    int[] elements = IntObjectHashMapTest.getCollidingKeys(6, 16, 15);
+
+    for (int e : elements){
+      set.add(e);
+    }
+
+    // remove from the head of the collision chain, the others have to be shifted back
+    assertTrue(set.remove(elements[0]));
+    assertFalse(set.remove(elements[0]));
+    assertEquals(elements.length-1, set.size());
+    for (int i=1; i<elements.length; i++){
+      assertTrue(set.contains(elements[i]));
+    }
+
+    assertTrue(set.remove(elements[3]));
+    assertFalse(set.contains(elements[3]));
+    for (int i=1; i<elements.length; i++){
+      assertEquals(i != 3, set.contains(elements[i]));
+    }
+  }
+
+  @Test
+  public void testZero(){
+    IntHashSet set = new IntHashSet();
+
+    assertFalse(set.contains(0));
+    assertTrue(set.add(0));
+    assertFalse(set.add(0));
+    set.add(1);
+    assertEquals(2, set.size());
+
+    assertTrue(set.remove(0));
+    assertFalse(set.remove(0));
+    assertFalse(set.contains(0));
+    assertEquals(1, set.size());
+  }
+
+  @Test
+  public void testRehash(){
+    IntHashSet set = new IntHashSet(2); // 4 slots
+    final int N = 1000;
+
+    for (int i=-N; i<N; i++){
+      set.add(i);
+    }
+    assertEquals(2*N, set.size());
+
+    for (int i=-N; i<N; i++){
+      assertTrue(set.contains(i));
+    }
+
+    IntHashSet clone = set.clone();
+    set.clear();
+    assertTrue(set.isEmpty());
+    assertEquals(2*N, clone.size());
+  }
+
+  @Test
+  public void testIterator(){
+    IntHashSet set = new IntHashSet();
+    set.add(0);
+    set.add(42);
+    set.add(-1);
+
+    int n = 0;
+    boolean seenZero = false;
+    IntIterator it = set.intIterator();
+    while (it.hasNext()){
+      int e = it.next();
+      assertTrue(set.contains(e));
+      seenZero |= (e == 0);
+      n++;
+    }
+    assertEquals(3, n);
+    assertTrue(seenZero);
+
+    try {
+      it.next();
+      fail("no NoSuchElementException past the last element");
+    } catch (NoSuchElementException x){
+      // expected
+    }
+
+    try {
+      set.intIterator().remove();
+      fail("iterator should be read-only");
+    } catch (UnsupportedOperationException x){
+      // expected
+    }
+  }
+}
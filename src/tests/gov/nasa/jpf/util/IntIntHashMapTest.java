@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * unit test for IntIntHashMap and IntHashSet
+ */
+public class IntIntHashMapTest extends TestJPF {
+
+  @Test
+  public void testPutGet(){
+    IntIntHashMap map = new IntIntHashMap();
+    final int N = 5000;
+
+    for (int i=0; i<N; i++){
+      map.put(i, i*2);
+    }
+    assertEquals(N, map.size());
+
+    for (int i=0; i<N; i++){
+      assertEquals(i*2, map.get(i, -1));
+    }
+    assertEquals(-1, map.get(N, -1));
+    assertTrue(map.containsKey(0));
+  }
+
+  @Test
+  public void testRandomOps(){
+    IntIntHashMap map = new IntIntHashMap();
+    HashMap<Integer,Integer> ref = new HashMap<Integer,Integer>();
+    Random r = new Random(42);
+
+    for (int i=0; i<20000; i++){
+      int k = r.nextInt(500) - 50;
+      switch (r.nextInt(3)){
+      case 0:
+        map.put(k, i);
+        ref.put(k, i);
+        break;
+      case 1:
+        assertEquals(ref.remove(k) != null, map.remove(k));
+        break;
+      default:
+        assertEquals(ref.containsKey(k), map.containsKey(k));
+      }
+      assertEquals(ref.size(), map.size());
+    }
+
+    for (int k=-50; k<450; k++){
+      Integer v = ref.get(k);
+      assertEquals( (v != null) ? v.intValue() : -1, map.get(k, -1));
+    }
+  }
+
+  @Test
+  public void testCopyOnWriteClone(){
+    IntIntHashMap map = new IntIntHashMap();
+    map.put(1, 1);
+    map.put(2, 2);
+
+    IntIntHashMap clone = map.clone();
+    clone.put(1, 42);
+    clone.remove(2);
+    map.increment(3);
+
+    assertEquals(1, map.get(1, -1));
+    assertEquals(2, map.get(2, -1));
+    assertEquals(1, map.get(3, -1));
+    assertEquals(42, clone.get(1, -1));
+    assertFalse(clone.containsKey(2));
+    assertFalse(clone.containsKey(3));
+  }
+
+  @Test
+  public void testIntHashSet(){
+    IntHashSet set = new IntHashSet();
+    Random r = new Random(42);
+    java.util.HashSet<Integer> ref = new java.util.HashSet<Integer>();
+
+    for (int i=0; i<20000; i++){
+      int e = r.nextInt(300) - 20;
+      if (r.nextBoolean()){
+        assertEquals(ref.add(e), set.add(e));
+      } else {
+        assertEquals(ref.remove(e), set.remove(e));
+      }
+      assertEquals(ref.size(), set.size());
+    }
+
+    int n = 0;
+    for (IntIterator it = set.intIterator(); it.hasNext(); n++){
+      assertTrue(ref.contains(it.next()));
+    }
+    assertEquals(ref.size(), n);
+  }
+}
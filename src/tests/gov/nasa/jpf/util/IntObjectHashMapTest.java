@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import org.junit.Test;
+
+/**
+ * unit test for IntObjectHashMap
+ */
+public class IntObjectHashMapTest extends TestJPF {
+
+  // keys that all hash to 'slot' in a table of length 'len'
+  static int[] getCollidingKeys (int n, int len, int slot){
+    int[] keys = new int[n];
+    for (int k=1, i=0; i<n; k++){
+      if ((IntIntHashMap.hash(k) & (len-1)) == slot){
+        keys[i++] = k;
+      }
+    }
+    return keys;
+  }
+
+  @Test
+  public void testCollisions(){
+    IntObjectHashMap<String> map = new IntObjectHashMap<String>(); // 16 slots
+    int[] keys = getCollidingKeys(6, 16, 15); // this wraps around
+
+    for (int k : keys){
+      map.put(k, "v" + k);
+    }
+    assertEquals(keys.length, map.size());
+
+    for (int k : keys){
+      assertEquals("v" + k, map.get(k));
+    }
+    assertNull(map.get(keys[keys.length-1] + 1));
+  }
+
+  @Test
+  public void testRemove(){
+    IntObjectHashMap<String> map = new IntObjectHashMap<String>();
+    int[] keys = getCollidingKeys(6, 16, 15);
+
+    for (int k : keys){
+      map.put(k, "v" + k);
+    }
+
+    // remove from the head of the collision chain, the others have to be shifted back
+    assertEquals("v" + keys[0], map.remove(keys[0]));
+    assertNull(map.remove(keys[0]));
+    assertEquals(keys.length-1, map.size());
+    for (int i=1; i<keys.length; i++){
+      assertEquals("v" + keys[i], map.get(keys[i]));
+    }
+
+    // remove from the middle
+    assertEquals("v" + keys[3], map.remove(keys[3]));
+    assertFalse(map.containsKey(keys[3]));
+    for (int i=1; i<keys.length; i++){
+      if (i != 3){
+        assertEquals("v" + keys[i], map.get(keys[i]));
+      }
+    }
+
+    // put(k,null) is a remove
+    map.put(keys[1], null);
+    assertFalse(map.containsKey(keys[1]));
+    assertEquals(keys.length-3, map.size());
+  }
+
+  @Test
+  public void testZeroKey(){
+    IntObjectHashMap<String> map = new IntObjectHashMap<String>();
+
+    assertNull(map.get(0));
+    map.put(0, "zero");
+    map.put(1, "one");
+    assertEquals(2, map.size());
+    assertEquals("zero", map.get(0));
+
+    assertEquals("zero", map.remove(0));
+    assertFalse(map.containsKey(0));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void testRehash(){
+    IntObjectHashMap<Integer> map = new IntObjectHashMap<Integer>(2); // 4 slots
+    final int N = 1000;
+
+    for (int i=-N; i<N; i++){
+      map.put(i, i);
+    }
+    assertEquals(2*N, map.size());
+
+    for (int i=-N; i<N; i++){
+      assertEquals(Integer.valueOf(i), map.get(i));
+    }
+
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(42));
+  }
+
+  @Test
+  public void testCopyOnWriteClone(){
+    IntObjectHashMap<String> map = new IntObjectHashMap<String>();
+    map.put(1, "a");
+    map.put(2, "b");
+
+    IntObjectHashMap<String> clone = map.clone();
+    clone.put(1, "x");
+    clone.remove(2);
+    map.put(3, "c");
+
+    assertEquals("a", map.get(1));
+    assertEquals("b", map.get(2));
+    assertEquals("c", map.get(3));
+    assertEquals("x", clone.get(1));
+    assertFalse(clone.containsKey(2));
+    assertFalse(clone.containsKey(3));
+
+    // rehashing a shared table must not affect the clone either
+    for (int i=10; i<100; i++){
+      map.put(i, "n");
+    }
+    assertEquals(1, clone.size());
+    assertEquals("x", clone.get(1));
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * The Java Pathfinder core (jpf-core) platform is licensed under the
+ * Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ *        http://www.apache.org/licenses/LICENSE-2.0. 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.
+ */
+package gov.nasa.jpf.util;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * unit test for ObjectIntHashMap and IntObjectHashMap
+ */
+public class ObjectIntHashMapTest extends TestJPF {
+
+  @Test
+  public void testStringKeys(){
+    ObjectIntHashMap<String> map = new ObjectIntHashMap<String>();
+    final int N = 5000;
+
+    for (int i=0; i<N; i++){
+      map.put("averylongmapkey-" + i, i);
+    }
+    assertEquals(N, map.size());
+
+    for (int i=0; i<N; i++){
+      assertEquals(i, map.get("averylongmapkey-" + i, -1));
+    }
+    assertEquals(-1, map.get("nope", -1));
+  }
+
+  @Test
+  public void testPoolIndex(){
+    ObjectIntHashMap<String> map = new ObjectIntHashMap<String>();
+
+    assertEquals(0, map.poolIndex("a"));
+    assertEquals(1, map.poolIndex("b"));
+    assertEquals(0, map.poolIndex("a"));
+    assertEquals(2, map.poolIndex("c"));
+    assertEquals(3, map.size());
+  }
+
+  @Test
+  public void testRandomOps(){
+    ObjectIntHashMap<Integer> map = new ObjectIntHashMap<Integer>();
+    HashMap<Integer,Integer> ref = new HashMap<Integer,Integer>();
+    Random r = new Random(42);
+
+    for (int i=0; i<20000; i++){
+      Integer k = r.nextInt(500);
+      switch (r.nextInt(3)){
+      case 0:
+        map.put(k, i);
+        ref.put(k, i);
+        break;
+      case 1:
+        assertEquals(ref.remove(k) != null, map.remove(k));
+        break;
+      default:
+        Integer v = ref.get(k);
+        assertEquals( (v != null) ? v.intValue() : -1, map.get(k, -1));
+      }
+      assertEquals(ref.size(), map.size());
+    }
+  }
+
+  @Test
+  public void testCopyOnWriteClone(){
+    ObjectIntHashMap<String> map = new ObjectIntHashMap<String>();
+    map.put("a", 1);
+
+    ObjectIntHashMap<String> snapshot = map.clone();
+    map.increment("a");
+    map.put("b", 2);
+
+    assertEquals(2, map.get("a", -1));
+    assertEquals(1, snapshot.get("a", -1));
+    assertFalse(snapshot.containsKey("b"));
+
+    // restore
+    map = snapshot.clone();
+    map.increment("a");
+    assertEquals(2, map.get("a", -1));
+    assertEquals(1, snapshot.get("a", -1));
+  }
+
+  @Test
+  public void testIntObjectMap(){
+    IntObjectHashMap<String> map = new IntObjectHashMap<String>();
+    HashMap<Integer,String> ref = new HashMap<Integer,String>();
+    Random r = new Random(42);
+
+    for (int i=0; i<20000; i++){
+      int k = r.nextInt(500) - 50;
+      if (r.nextBoolean()){
+        String v = Integer.toString(i);
+        map.put(k, v);
+        ref.put(k, v);
+      } else {
+        assertEquals(ref.remove(k), map.remove(k));
+      }
+      assertEquals(ref.size(), map.size());
+    }
+
+    IntObjectHashMap<String> clone = map.clone();
+    clone.put(0, "zero");
+    clone.put(1000, "x");
+    assertEquals(ref.get(0), map.get(0));
+    assertNull(map.get(1000));
+  }
+}